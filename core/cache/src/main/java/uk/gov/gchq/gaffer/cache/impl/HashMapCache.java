@@ -16,43 +16,100 @@
 
 package uk.gov.gchq.gaffer.cache.impl;
 
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
 import com.google.common.collect.Lists;
 
 import uk.gov.gchq.gaffer.cache.ICache;
+import uk.gov.gchq.gaffer.commonutil.exception.OverwritingException;
 import uk.gov.gchq.gaffer.exception.SerialisationException;
 import uk.gov.gchq.gaffer.serialisation.implementation.JavaSerialiser;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Simple implementation of the {@link ICache} interface, using a {@link HashMap}
- * as the cache data store.
+ * Simple implementation of the {@link ICache} interface, using a concurrent
+ * in-memory map as the cache data store.
+ * <p>
+ * By default the cache is unbounded and entries never expire. The cache can
+ * optionally be bounded by a maximum number of entries, or by a maximum number
+ * of bytes if the entries are stored using Java serialisation, in which case the
+ * least recently used entries are evicted first. Entries can also be expired
+ * after a time to live. Hit, miss and eviction counts are recorded and are
+ * available from {@link #getStats()}.
  *
- * @param <K> The object type that acts as the key for the HashMap
- * @param <V> The value that is stored in the HashMap
+ * @param <K> The object type that acts as the key for the cache
+ * @param <V> The value that is stored in the cache
  */
 public class HashMapCache<K, V> implements ICache<K, V> {
     private static final JavaSerialiser JAVA_SERIALISER = new JavaSerialiser();
     private boolean useJavaSerialisation;
-    private HashMap<K, Object> cache = new HashMap<>();
+    private Cache<K, Object> cache;
 
     public HashMapCache(final boolean useJavaSerialisation) {
-        this.useJavaSerialisation = useJavaSerialisation;
+        this(useJavaSerialisation, null, null, null);
     }
 
     public HashMapCache() {
         this(false);
     }
 
+    /**
+     * Creates a bounded cache.
+     *
+     * @param useJavaSerialisation true if the values should be stored using Java serialisation
+     * @param maxEntries           the maximum number of entries to hold, or null if the number of entries is unbounded
+     * @param maxBytes             the maximum number of bytes of serialised values to hold, or null if unbounded.
+     *                             This can only be used with Java serialisation and cannot be combined with maxEntries.
+     * @param timeToLive           the number of milliseconds after an entry is added before it expires,
+     *                             or null if entries should not expire
+     */
+    public HashMapCache(final boolean useJavaSerialisation, final Long maxEntries, final Long maxBytes, final Long timeToLive) {
+        this(useJavaSerialisation, maxEntries, maxBytes, timeToLive, Ticker.systemTicker());
+    }
+
+    HashMapCache(final boolean useJavaSerialisation, final Long maxEntries, final Long maxBytes, final Long timeToLive, final Ticker ticker) {
+        this.useJavaSerialisation = useJavaSerialisation;
+
+        final CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder()
+                .recordStats()
+                .ticker(ticker);
+        if (null != maxEntries && null != maxBytes) {
+            throw new IllegalArgumentException("A cache can be bounded by either maxEntries or maxBytes, not both");
+        }
+        if (null != maxEntries) {
+            builder.maximumSize(maxEntries);
+        }
+        if (null != maxBytes) {
+            if (!useJavaSerialisation) {
+                throw new IllegalArgumentException("maxBytes can only be used when the cache uses Java serialisation");
+            }
+            builder.maximumWeight(maxBytes)
+                    .weigher((Weigher<Object, Object>) (key, value) -> ((byte[]) value).length);
+        }
+        if (null != timeToLive) {
+            builder.expireAfterWrite(timeToLive, TimeUnit.MILLISECONDS);
+        }
+        this.cache = builder.build();
+    }
+
     @Override
     public V get(final K key) {
+        if (null == key) {
+            return null;
+        }
+
+        final Object value = cache.getIfPresent(key);
         try {
-            return (V) (useJavaSerialisation
-                    ? JAVA_SERIALISER.deserialise((byte[]) cache.get(key))
-                    : cache.get(key));
+            return (V) (useJavaSerialisation && null != value
+                    ? JAVA_SERIALISER.deserialise((byte[]) value)
+                    : value);
         } catch (final SerialisationException e) {
             throw new RuntimeException(e);
         }
@@ -60,27 +117,36 @@ public class HashMapCache<K, V> implements ICache<K, V> {
 
     @Override
     public void put(final K key, final V value) {
-        if (useJavaSerialisation) {
-            try {
-                cache.put(key, JAVA_SERIALISER.serialise(value));
-            } catch (final SerialisationException e) {
-                throw new RuntimeException(e);
-            }
+        if (null == value) {
+            cache.invalidate(key);
         } else {
-            cache.<K, V>put(key, value);
+            cache.put(key, toCacheValue(value));
+        }
+    }
+
+    @Override
+    public void putSafe(final K key, final V value) throws OverwritingException {
+        if (null == value) {
+            if (null != cache.getIfPresent(key)) {
+                throw new OverwritingException("Cache entry already exists for key: " + key);
+            }
+        } else if (null != cache.asMap().putIfAbsent(key, toCacheValue(value))) {
+            throw new OverwritingException("Cache entry already exists for key: " + key);
         }
     }
 
     @Override
     public void remove(final K key) {
-        cache.remove(key);
+        if (null != key) {
+            cache.invalidate(key);
+        }
     }
 
     @Override
     public Collection<V> getAllValues() {
         ArrayList<V> rtn = Lists.newArrayList();
         if (useJavaSerialisation) {
-            cache.values()
+            cache.asMap().values()
                     .forEach((Object o) -> {
                         try {
                             rtn.add((V) JAVA_SERIALISER.deserialise((byte[]) o));
@@ -89,23 +155,45 @@ public class HashMapCache<K, V> implements ICache<K, V> {
                         }
                     });
         } else {
-            rtn.addAll((Collection<V>) cache.values());
+            rtn.addAll((Collection<V>) cache.asMap().values());
         }
         return rtn;
     }
 
     @Override
     public Set<K> getAllKeys() {
-        return cache.keySet();
+        return cache.asMap().keySet();
     }
 
     @Override
     public int size() {
-        return cache.size();
+        // Remove any expired entries so they are not counted
+        cache.cleanUp();
+        return (int) cache.size();
     }
 
     @Override
     public void clear() {
-        cache.clear();
+        cache.invalidateAll();
+    }
+
+    /**
+     * Gets the hit, miss and eviction statistics for this cache.
+     *
+     * @return the cache statistics
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    private Object toCacheValue(final V value) {
+        if (useJavaSerialisation) {
+            try {
+                return JAVA_SERIALISER.serialise(value);
+            } catch (final SerialisationException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return value;
     }
 }
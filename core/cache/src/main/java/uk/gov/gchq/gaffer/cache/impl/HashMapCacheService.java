@@ -16,27 +16,45 @@
 
 package uk.gov.gchq.gaffer.cache.impl;
 
+import com.google.common.cache.CacheStats;
+
 import uk.gov.gchq.gaffer.cache.ICache;
 import uk.gov.gchq.gaffer.cache.ICacheService;
 
-import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Simple implementation of the {@link ICacheService} interface which uses a
  * {@link HashMapCache} as the cache implementation.
+ * <p>
+ * The caches can be bounded and given a time to live using the properties below.
+ * Each property applies to all caches, but can be overridden for a single cache by
+ * appending "." and the cache name to the property key, e.g.
+ * "gaffer.cache.hashmap.timeToLive.JobTracker".
+ * <ul>
+ * <li>{@value #MAX_ENTRIES} - the maximum number of entries in a cache</li>
+ * <li>{@value #MAX_BYTES} - the maximum number of bytes in a cache, only used with Java serialisation</li>
+ * <li>{@value #TIME_TO_LIVE} - the number of milliseconds before an entry expires</li>
+ * </ul>
  */
 public class HashMapCacheService implements ICacheService {
     public static final String STATIC_CACHE = "gaffer.cache.hashmap.static";
     public static final String JAVA_SERIALISATION_CACHE = "gaffer.cache.hashmap.useJavaSerialisation";
-    private static final HashMap<String, HashMapCache> STATIC_CACHES = new HashMap<>();
-    private final HashMap<String, HashMapCache> nonStaticCaches = new HashMap<>();
+    public static final String MAX_ENTRIES = "gaffer.cache.hashmap.maxEntries";
+    public static final String MAX_BYTES = "gaffer.cache.hashmap.maxBytes";
+    public static final String TIME_TO_LIVE = "gaffer.cache.hashmap.timeToLive";
+    private static final Map<String, HashMapCache> STATIC_CACHES = new ConcurrentHashMap<>();
+    private final Map<String, HashMapCache> nonStaticCaches = new ConcurrentHashMap<>();
     private boolean useJavaSerialisation = false;
+    private Properties properties;
 
-    private HashMap<String, HashMapCache> caches = nonStaticCaches;
+    private Map<String, HashMapCache> caches = nonStaticCaches;
 
     @Override
     public void initialise(final Properties properties) {
+        this.properties = properties;
         if (properties != null) {
             useJavaSerialisation = Boolean.parseBoolean(properties.getProperty(JAVA_SERIALISATION_CACHE));
         }
@@ -55,8 +73,30 @@ public class HashMapCacheService implements ICacheService {
 
     @Override
     public <K, V> ICache<K, V> getCache(final String cacheName) {
-        HashMapCache<K, V> cache = caches.computeIfAbsent(cacheName, k -> new HashMapCache<>(useJavaSerialisation));
+        HashMapCache<K, V> cache = caches.computeIfAbsent(cacheName, k -> new HashMapCache<>(useJavaSerialisation,
+                getLongProperty(MAX_ENTRIES, cacheName),
+                getLongProperty(MAX_BYTES, cacheName),
+                getLongProperty(TIME_TO_LIVE, cacheName)));
 
         return cache;
     }
+
+    /**
+     * Gets the hit, miss and eviction statistics for the named cache.
+     *
+     * @param cacheName the name of the cache
+     * @return the cache statistics
+     */
+    public CacheStats getCacheStats(final String cacheName) {
+        return ((HashMapCache) getCache(cacheName)).getStats();
+    }
+
+    private Long getLongProperty(final String key, final String cacheName) {
+        if (null == properties) {
+            return null;
+        }
+
+        final String value = properties.getProperty(key + "." + cacheName, properties.getProperty(key));
+        return null != value ? Long.valueOf(value.trim()) : null;
+    }
 }
@@ -24,6 +24,8 @@ import uk.gov.gchq.gaffer.cache.ICache;
 import uk.gov.gchq.gaffer.cache.exception.CacheOperationException;
 import uk.gov.gchq.gaffer.commonutil.exception.OverwritingException;
 
+import java.util.Properties;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.IsCollectionContaining.hasItems;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -133,4 +135,38 @@ public class HashMapCacheServiceTest {
         service.putInCache(CACHE_NAME, "test2", 2);
         service.putInCache(CACHE_NAME, "test3", 3);
     }
+
+    @Test
+    public void shouldApplyCacheSpecificMaxEntries() throws CacheOperationException {
+        // Given
+        final Properties properties = new Properties();
+        properties.setProperty(HashMapCacheService.MAX_ENTRIES, "10");
+        properties.setProperty(HashMapCacheService.MAX_ENTRIES + "." + CACHE_NAME, "2");
+        service.initialise(properties);
+
+        // When
+        populateCache();
+        service.putInCache("otherCache", "test1", 1);
+        service.putInCache("otherCache", "test2", 2);
+        service.putInCache("otherCache", "test3", 3);
+
+        // Then
+        assertEquals(2, service.sizeOfCache(CACHE_NAME));
+        assertEquals(3, service.sizeOfCache("otherCache"));
+        assertEquals(1, service.getCacheStats(CACHE_NAME).evictionCount());
+    }
+
+    @Test
+    public void shouldExposeCacheStats() throws CacheOperationException {
+        // Given
+        populateCache();
+
+        // When
+        service.getFromCache(CACHE_NAME, "test1");
+        service.getFromCache(CACHE_NAME, "unknown");
+
+        // Then
+        assertEquals(1, service.getCacheStats(CACHE_NAME).hitCount());
+        assertEquals(1, service.getCacheStats(CACHE_NAME).missCount());
+    }
 }
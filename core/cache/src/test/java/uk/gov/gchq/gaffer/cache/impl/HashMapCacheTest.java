@@ -16,15 +16,22 @@
 
 package uk.gov.gchq.gaffer.cache.impl;
 
+import com.google.common.base.Ticker;
+import com.google.common.cache.CacheStats;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import uk.gov.gchq.gaffer.commonutil.exception.OverwritingException;
 import uk.gov.gchq.gaffer.exception.SerialisationException;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.IsCollectionContaining.hasItems;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -132,4 +139,112 @@ public class HashMapCacheTest {
         final TempClass tempClass = new TempClass();
         map.put("test1", tempClass);
     }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedEntryWhenMaxEntriesIsReached() {
+        // Given
+        final HashMapCache<String, Integer> boundedCache = new HashMapCache<>(false, 2L, null, null);
+        boundedCache.put("key1", 1);
+        boundedCache.put("key2", 2);
+        boundedCache.get("key1");
+
+        // When
+        boundedCache.put("key3", 3);
+
+        // Then
+        assertEquals(2, boundedCache.size());
+        assertEquals(new Integer(1), boundedCache.get("key1"));
+        assertNull(boundedCache.get("key2"));
+        assertEquals(new Integer(3), boundedCache.get("key3"));
+        assertEquals(1, boundedCache.getStats().evictionCount());
+    }
+
+    @Test
+    public void shouldEvictEntriesWhenMaxBytesIsReached() {
+        // Given
+        final HashMapCache<String, String> boundedCache = new HashMapCache<>(true, null, 200L, null);
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            boundedCache.put("key" + i, "value" + i);
+        }
+
+        // Then
+        assertTrue(boundedCache.size() < 20);
+        assertEquals("value19", boundedCache.get("key19"));
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenMaxBytesIsUsedWithoutJavaSerialisation() {
+        assertThrows(IllegalArgumentException.class, () -> new HashMapCache<>(false, null, 100L, null));
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenMaxEntriesAndMaxBytesAreBothSet() {
+        assertThrows(IllegalArgumentException.class, () -> new HashMapCache<>(true, 10L, 100L, null));
+    }
+
+    @Test
+    public void shouldExpireEntriesAfterTimeToLive() {
+        // Given
+        final AtomicLong time = new AtomicLong();
+        final Ticker ticker = new Ticker() {
+            @Override
+            public long read() {
+                return time.get();
+            }
+        };
+        final HashMapCache<String, Integer> expiringCache = new HashMapCache<>(false, null, null, 1000L, ticker);
+        expiringCache.put("key1", 1);
+        time.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        expiringCache.put("key2", 2);
+
+        // When
+        time.addAndGet(TimeUnit.MILLISECONDS.toNanos(600));
+
+        // Then
+        assertNull(expiringCache.get("key1"));
+        assertEquals(new Integer(2), expiringCache.get("key2"));
+        assertEquals(1, expiringCache.size());
+        assertThat(expiringCache.getAllKeys(), hasItems("key2"));
+    }
+
+    @Test
+    public void shouldRecordHitsAndMisses() {
+        // Given
+        cache.put("key", 1);
+
+        // When
+        cache.get("key");
+        cache.get("key");
+        cache.get("unknown");
+
+        // Then
+        final CacheStats stats = cache.getStats();
+        assertEquals(2, stats.hitCount());
+        assertEquals(1, stats.missCount());
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenPuttingSafeWithExistingKey() {
+        // Given
+        cache.put("key", 1);
+
+        // When / Then
+        assertThrows(OverwritingException.class, () -> cache.putSafe("key", 2));
+        assertEquals(new Integer(1), cache.get("key"));
+    }
+
+    @Test
+    public void shouldReturnNullWhenGettingNullKey() {
+        // Given
+        cache.put("key", 1);
+
+        // When
+        cache.remove(null);
+
+        // Then
+        assertNull(cache.get(null));
+        assertEquals(1, cache.size());
+    }
 }
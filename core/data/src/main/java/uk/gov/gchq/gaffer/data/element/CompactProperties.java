@@ -0,0 +1,544 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.data.element;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * {@code CompactProperties} are {@link Properties} that hold the values of the properties
+ * in a {@link PropertiesLayout} in an array, rather than in a hash map. Any properties that
+ * are not in the layout are held in the underlying hash map as normal.
+ * <p>
+ * The hash code is cached until the properties are changed, so the properties are cheap to
+ * use as part of the key of a map. They are equal to any other {@link Properties} with the
+ * same property names and values, and have the same hash code.
+ */
+public class CompactProperties extends Properties {
+    private static final long serialVersionUID = -2372185940373473016L;
+    private final PropertiesLayout layout;
+    private final Object[] values;
+    private int slotCount;
+    // 0 until the hash code is calculated. A single field is used so that threads sharing
+    // the properties never see a partially cached hash code.
+    private transient int hash;
+
+    public CompactProperties(final PropertiesLayout layout) {
+        if (null == layout) {
+            throw new IllegalArgumentException("A properties layout is required");
+        }
+        this.layout = layout;
+        this.values = new Object[layout.size()];
+    }
+
+    public CompactProperties(final PropertiesLayout layout, final Map<String, Object> properties) {
+        this(layout);
+        putAll(properties);
+    }
+
+    public PropertiesLayout getLayout() {
+        return layout;
+    }
+
+    @Override
+    public Object get(final Object name) {
+        final int slot = layout.getSlot(name);
+        return slot > -1 ? values[slot] : super.get(name);
+    }
+
+    @Override
+    public Object getOrDefault(final Object name, final Object defaultValue) {
+        final Object value = get(name);
+        return null != value ? value : defaultValue;
+    }
+
+    @Override
+    public boolean containsKey(final Object name) {
+        final int slot = layout.getSlot(name);
+        return slot > -1 ? null != values[slot] : super.containsKey(name);
+    }
+
+    @Override
+    public boolean containsValue(final Object value) {
+        if (null != value) {
+            for (final Object slotValue : values) {
+                if (value.equals(slotValue)) {
+                    return true;
+                }
+            }
+        }
+        return super.containsValue(value);
+    }
+
+    @Override
+    public Object put(final String name, final Object value) {
+        if (null == name) {
+            return null;
+        }
+
+        hash = 0;
+        final int slot = layout.getSlot(name);
+        if (slot < 0) {
+            return super.put(name, value);
+        }
+
+        final Object oldValue = values[slot];
+        values[slot] = value;
+        if (null == oldValue && null != value) {
+            slotCount++;
+        } else if (null != oldValue && null == value) {
+            slotCount--;
+        }
+        return oldValue;
+    }
+
+    @Override
+    public void putAll(final Map<? extends String, ?> properties) {
+        for (final Map.Entry<? extends String, ?> entry : properties.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public Object putIfAbsent(final String name, final Object value) {
+        final Object oldValue = get(name);
+        if (null == oldValue) {
+            put(name, value);
+        }
+        return oldValue;
+    }
+
+    @Override
+    public Object remove(final Object name) {
+        final int slot = layout.getSlot(name);
+        if (slot < 0) {
+            hash = 0;
+            return super.remove(name);
+        }
+        return put(layout.getName(slot), null);
+    }
+
+    @Override
+    public boolean remove(final Object name, final Object value) {
+        final Object oldValue = get(name);
+        if (null != oldValue && oldValue.equals(value)) {
+            remove(name);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean replace(final String name, final Object oldValue, final Object newValue) {
+        final Object value = get(name);
+        if (null != value && value.equals(oldValue)) {
+            put(name, newValue);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public Object replace(final String name, final Object value) {
+        return containsKey(name) ? put(name, value) : null;
+    }
+
+    @Override
+    public void replaceAll(final BiFunction<? super String, ? super Object, ?> function) {
+        for (final String name : new ArrayList<>(keySet())) {
+            put(name, function.apply(name, get(name)));
+        }
+    }
+
+    @Override
+    public Object computeIfAbsent(final String name, final Function<? super String, ?> mappingFunction) {
+        Object value = get(name);
+        if (null == value) {
+            value = mappingFunction.apply(name);
+            put(name, value);
+        }
+        return value;
+    }
+
+    @Override
+    public Object computeIfPresent(final String name, final BiFunction<? super String, ? super Object, ?> remappingFunction) {
+        final Object oldValue = get(name);
+        if (null == oldValue) {
+            return null;
+        }
+        final Object value = remappingFunction.apply(name, oldValue);
+        put(name, value);
+        return value;
+    }
+
+    @Override
+    public Object compute(final String name, final BiFunction<? super String, ? super Object, ?> remappingFunction) {
+        final Object value = remappingFunction.apply(name, get(name));
+        put(name, value);
+        return value;
+    }
+
+    @Override
+    public Object merge(final String name, final Object value, final BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+        final Object oldValue = get(name);
+        final Object newValue = null == oldValue ? value : remappingFunction.apply(oldValue, value);
+        put(name, newValue);
+        return newValue;
+    }
+
+    @Override
+    public void forEach(final BiConsumer<? super String, ? super Object> action) {
+        for (int slot = 0; slot < values.length; slot++) {
+            if (null != values[slot]) {
+                action.accept(layout.getName(slot), values[slot]);
+            }
+        }
+        super.forEach(action);
+    }
+
+    @Override
+    public int size() {
+        return slotCount + super.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return 0 == size();
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, null);
+        slotCount = 0;
+        hash = 0;
+        super.clear();
+    }
+
+    @Override
+    public void keepOnly(final Collection<String> propertiesToKeep) {
+        for (int slot = 0; slot < values.length; slot++) {
+            if (null != values[slot] && !propertiesToKeep.contains(layout.getName(slot))) {
+                put(layout.getName(slot), null);
+            }
+        }
+        hash = 0;
+        super.entrySet().removeIf(entry -> !propertiesToKeep.contains(entry.getKey()));
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return new AbstractSet<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                final Iterator<Map.Entry<String, Object>> entries = new EntryIterator();
+                return new Iterator<String>() {
+                    @Override
+                    public boolean hasNext() {
+                        return entries.hasNext();
+                    }
+
+                    @Override
+                    public String next() {
+                        return entries.next().getKey();
+                    }
+
+                    @Override
+                    public void remove() {
+                        entries.remove();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return CompactProperties.this.size();
+            }
+
+            @Override
+            public boolean contains(final Object name) {
+                return containsKey(name);
+            }
+
+            @Override
+            public boolean remove(final Object name) {
+                return null != CompactProperties.this.remove(name);
+            }
+
+            @Override
+            public void clear() {
+                CompactProperties.this.clear();
+            }
+        };
+    }
+
+    @Override
+    public Collection<Object> values() {
+        return new AbstractCollection<Object>() {
+            @Override
+            public Iterator<Object> iterator() {
+                final Iterator<Map.Entry<String, Object>> entries = new EntryIterator();
+                return new Iterator<Object>() {
+                    @Override
+                    public boolean hasNext() {
+                        return entries.hasNext();
+                    }
+
+                    @Override
+                    public Object next() {
+                        return entries.next().getValue();
+                    }
+
+                    @Override
+                    public void remove() {
+                        entries.remove();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return CompactProperties.this.size();
+            }
+
+            @Override
+            public boolean contains(final Object value) {
+                return containsValue(value);
+            }
+
+            @Override
+            public void clear() {
+                CompactProperties.this.clear();
+            }
+        };
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return new AbstractSet<Map.Entry<String, Object>>() {
+            @Override
+            public Iterator<Map.Entry<String, Object>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return CompactProperties.this.size();
+            }
+
+            @Override
+            public void clear() {
+                CompactProperties.this.clear();
+            }
+        };
+    }
+
+    @SuppressWarnings("CloneDoesntCallSuperClone")
+    @SuppressFBWarnings(value = "CN_IDIOM_NO_SUPER_CALL", justification = "The values are copied into a new instance")
+    @Override
+    public CompactProperties clone() {
+        final CompactProperties clone = new CompactProperties(layout);
+        System.arraycopy(values, 0, clone.values, 0, values.length);
+        clone.slotCount = slotCount;
+        clone.hash = hash;
+        for (final Map.Entry<String, Object> entry : super.entrySet()) {
+            clone.putOverflow(entry.getKey(), entry.getValue());
+        }
+        return clone;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (!(obj instanceof Map)) {
+            return false;
+        }
+
+        if (obj instanceof CompactProperties && layout.equals(((CompactProperties) obj).layout)) {
+            final CompactProperties properties = (CompactProperties) obj;
+            if (0 != hash && 0 != properties.hash && hash != properties.hash) {
+                return false;
+            }
+            return Arrays.equals(values, properties.values)
+                    && super.size() == properties.overflowSize()
+                    && overflowEquals(properties);
+        }
+
+        final Map<?, ?> properties = (Map<?, ?>) obj;
+        if (size() != properties.size()) {
+            return false;
+        }
+        for (int slot = 0; slot < values.length; slot++) {
+            if (null != values[slot] && !values[slot].equals(properties.get(layout.getName(slot)))) {
+                return false;
+            }
+        }
+        return overflowEquals(properties);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = hash;
+        if (0 == result) {
+            for (int slot = 0; slot < values.length; slot++) {
+                if (null != values[slot]) {
+                    result += layout.getName(slot).hashCode() ^ values[slot].hashCode();
+                }
+            }
+            for (final Map.Entry<String, Object> entry : super.entrySet()) {
+                result += entry.hashCode();
+            }
+            hash = result;
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        final ToStringBuilder sb = new ToStringBuilder(this);
+        forEach((key, value) -> sb.append(key, String.format("<%s>%s", value.getClass().getCanonicalName(), value)));
+        return sb.build();
+    }
+
+    private int overflowSize() {
+        return super.size();
+    }
+
+    private void putOverflow(final String name, final Object value) {
+        super.put(name, value);
+    }
+
+    private boolean overflowEquals(final Map<?, ?> properties) {
+        for (final Map.Entry<String, Object> entry : super.entrySet()) {
+            if (!entry.getValue().equals(properties.get(entry.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+        private final Iterator<Map.Entry<String, Object>> overflow = CompactProperties.super.entrySet().iterator();
+        private int nextSlot;
+        private int currentSlot = -1;
+        private boolean inOverflow;
+
+        @Override
+        public boolean hasNext() {
+            while (nextSlot < values.length && null == values[nextSlot]) {
+                nextSlot++;
+            }
+            return nextSlot < values.length || overflow.hasNext();
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            final Map.Entry<String, Object> entry;
+            if (nextSlot < values.length) {
+                currentSlot = nextSlot++;
+                entry = new PropertyEntry(layout.getName(currentSlot), values[currentSlot]);
+            } else {
+                currentSlot = -1;
+                inOverflow = true;
+                final Map.Entry<String, Object> overflowEntry = overflow.next();
+                entry = new PropertyEntry(overflowEntry.getKey(), overflowEntry.getValue());
+            }
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            if (inOverflow) {
+                hash = 0;
+                overflow.remove();
+            } else if (currentSlot > -1) {
+                put(layout.getName(currentSlot), null);
+                currentSlot = -1;
+            } else {
+                throw new IllegalStateException();
+            }
+        }
+    }
+
+    private final class PropertyEntry implements Map.Entry<String, Object> {
+        private final String name;
+        private Object value;
+
+        private PropertyEntry(final String name, final Object value) {
+            this.name = name;
+            this.value = value;
+        }
+
+        @Override
+        public String getKey() {
+            return name;
+        }
+
+        @Override
+        public Object getValue() {
+            return value;
+        }
+
+        @Override
+        public Object setValue(final Object value) {
+            final Object oldValue = this.value;
+            this.value = value;
+            put(name, value);
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+            return Objects.equals(name, entry.getKey()) && Objects.equals(value, entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(name) ^ Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return name + "=" + value;
+        }
+    }
+}
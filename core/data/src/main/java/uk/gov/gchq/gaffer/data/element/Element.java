@@ -143,6 +143,20 @@ public abstract class Element implements ElementId {
     @JsonIgnore
     public abstract Element emptyClone();
 
+    /**
+     * Creates a clone of this element without any properties, which then uses the
+     * provided properties. This can be used to give the clone a different implementation
+     * of {@link Properties}, such as {@link CompactProperties}.
+     *
+     * @param properties the properties for the clone to use
+     * @return the clone of this element
+     */
+    public Element emptyClone(final Properties properties) {
+        final Element element = emptyClone();
+        element.setProperties(null != properties ? properties : new Properties());
+        return element;
+    }
+
     public Element shallowClone() {
         final Element element = emptyClone();
         element.setProperties(getProperties().clone());
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.data.element;
+
+import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
+
+/**
+ * An {@code ElementAccessor} gets and puts the value of a reference on an {@link Element}.
+ * The reference is resolved once when the accessor is created, rather than for each element
+ * as it is by {@link ElementTuple}. The values are the same as those of an {@link ElementTuple}.
+ */
+public final class ElementAccessor {
+    private enum Type {
+        ELEMENT, PROPERTIES, IDENTIFIER, PROPERTY
+    }
+
+    private final String reference;
+    private final Type type;
+    private final IdentifierType idType;
+
+    private ElementAccessor(final String reference, final Type type, final IdentifierType idType) {
+        this.reference = reference;
+        this.type = type;
+        this.idType = idType;
+    }
+
+    public static ElementAccessor of(final String reference) {
+        if (ElementTuple.ELEMENT.equals(reference)) {
+            return new ElementAccessor(reference, Type.ELEMENT, null);
+        }
+        if (ElementTuple.PROPERTIES.equals(reference)) {
+            return new ElementAccessor(reference, Type.PROPERTIES, null);
+        }
+        final IdentifierType idType = IdentifierType.fromName(reference);
+        if (null == idType) {
+            return new ElementAccessor(reference, Type.PROPERTY, null);
+        }
+        return new ElementAccessor(reference, Type.IDENTIFIER, idType);
+    }
+
+    public static ElementAccessor[] of(final String[] references) {
+        final ElementAccessor[] accessors = new ElementAccessor[references.length];
+        for (int i = 0; i < references.length; i++) {
+            accessors[i] = of(references[i]);
+        }
+        return accessors;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public Object get(final Element element) {
+        switch (type) {
+            case PROPERTY:
+                return element.getProperty(reference);
+            case IDENTIFIER:
+                return element.getIdentifier(idType);
+            case PROPERTIES:
+                return element.getProperties();
+            default:
+                return element;
+        }
+    }
+
+    public void put(final Element element, final Object value) {
+        switch (type) {
+            case PROPERTY:
+                element.putProperty(reference, value);
+                break;
+            case IDENTIFIER:
+                element.putIdentifier(idType, value);
+                break;
+            case PROPERTIES:
+                new ElementTuple(element).put(reference, value);
+                break;
+            default:
+                throw new IllegalArgumentException("You are not allowed to set an entire Element on this ElementTuple");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("reference", reference)
+                .append("type", type)
+                .toString();
+    }
+}
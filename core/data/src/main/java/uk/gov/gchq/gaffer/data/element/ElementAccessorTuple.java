@@ -0,0 +1,104 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.data.element;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+
+import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
+import uk.gov.gchq.koryphe.tuple.ArrayTuple;
+import uk.gov.gchq.koryphe.tuple.n.Tuple5;
+
+import java.util.Iterator;
+
+/**
+ * An {@code ElementAccessorTuple} is the input to functions and predicates that select
+ * more than one value from an {@link Element}. It is equivalent to the
+ * {@link uk.gov.gchq.koryphe.tuple.ReferenceArrayTuple} that Koryphe creates from an
+ * {@link ElementTuple}, but reads the values using {@link ElementAccessor}s.
+ */
+public final class ElementAccessorTuple extends Tuple5 {
+    private final ElementAccessor[] accessors;
+    private final Element element;
+
+    public ElementAccessorTuple(final ElementAccessor[] accessors, final Element element) {
+        this.accessors = accessors;
+        this.element = element;
+    }
+
+    @Override
+    public Object get(final Integer index) {
+        if (null != element && index < accessors.length) {
+            return accessors[index].get(element);
+        }
+        return null;
+    }
+
+    @Override
+    public void put(final Integer index, final Object value) {
+        if (null != element && index < accessors.length) {
+            accessors[index].put(element, value);
+        }
+    }
+
+    @Override
+    public Iterable<Object> values() {
+        final ArrayTuple values = new ArrayTuple(accessors.length);
+        for (int i = 0; i < accessors.length; i++) {
+            values.put(i, get(i));
+        }
+        return values;
+    }
+
+    @Override
+    public Iterator<Object> iterator() {
+        return values().iterator();
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (null == obj || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        final ElementAccessorTuple that = (ElementAccessorTuple) obj;
+        return new EqualsBuilder()
+                .append(accessors, that.accessors)
+                .append(element, that.element)
+                .isEquals();
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder(79, 13)
+                .append(accessors)
+                .append(element)
+                .toHashCode();
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("accessors", accessors)
+                .append("element", element)
+                .toString();
+    }
+}
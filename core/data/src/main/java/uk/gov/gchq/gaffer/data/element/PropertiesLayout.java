@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.data.element;
+
+import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * A {@code PropertiesLayout} assigns each of a fixed set of property names to a slot,
+ * so that the property values can be held in an array by {@link CompactProperties}.
+ * A layout is normally created once for each group, from the properties in the schema,
+ * and shared by all the {@link CompactProperties} of that group.
+ */
+public final class PropertiesLayout implements Serializable {
+    private static final long serialVersionUID = 4633893216263516436L;
+    private final String[] names;
+    private final Map<String, Integer> slots;
+
+    public PropertiesLayout(final Collection<String> propertyNames) {
+        if (null == propertyNames) {
+            throw new IllegalArgumentException("Property names are required");
+        }
+
+        this.names = new LinkedHashSet<>(propertyNames).toArray(new String[0]);
+        this.slots = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            slots.put(names[i], i);
+        }
+    }
+
+    /**
+     * @param name the property name
+     * @return the slot of the property, or -1 if the property is not in this layout.
+     */
+    public int getSlot(final Object name) {
+        final Integer slot = slots.get(name);
+        return null != slot ? slot : -1;
+    }
+
+    public String getName(final int slot) {
+        return names[slot];
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (null == obj || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        return Arrays.equals(names, ((PropertiesLayout) obj).names);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(names);
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("names", names)
+                .toString();
+    }
+}
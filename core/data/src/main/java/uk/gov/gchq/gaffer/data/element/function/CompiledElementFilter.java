@@ -0,0 +1,237 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.data.element.function;
+
+import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.ElementAccessor;
+import uk.gov.gchq.gaffer.data.element.ElementAccessorTuple;
+import uk.gov.gchq.gaffer.data.element.ElementTuple;
+import uk.gov.gchq.koryphe.tuple.predicate.TupleAdaptedPredicate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A {@code CompiledElementFilter} is an {@link ElementFilter} that has been compiled so
+ * that it can be applied to {@link Element}s without creating an {@link ElementTuple} for
+ * each element.
+ * <p>
+ * The selections of the predicates are resolved to {@link ElementAccessor}s when the filter is
+ * compiled. Adjacent predicates that select the same single value are fused, so the value is
+ * only read from the element once and is then tested by each of the predicates in turn.
+ * <p>
+ * The filter is a snapshot of the components of the {@link ElementFilter} when it was compiled.
+ * It returns the same results as the {@link ElementFilter} and can be shared between threads.
+ */
+public final class CompiledElementFilter implements Predicate<Element> {
+    private static final int PARTS_PER_COMPONENT = 3;
+
+    private final List<TupleAdaptedPredicate<String, ?>> source;
+    private final Object[] sourceParts;
+    private final Step[] steps;
+
+    CompiledElementFilter(final List<TupleAdaptedPredicate<String, ?>> components) {
+        this.source = components;
+        this.sourceParts = getParts(components);
+        this.steps = compile(components);
+    }
+
+    @Override
+    public boolean test(final Element element) {
+        for (final Step step : steps) {
+            if (!step.test(element)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of steps the filter was compiled to, after fusing adjacent predicates.
+     */
+    public int getNumSteps() {
+        return steps.length;
+    }
+
+    /**
+     * Checks whether the components are the ones this was compiled from. Each component,
+     * its predicate and its selection are compared by identity, so replacing a component or
+     * changing one in place is detected without copying the selection for each element.
+     */
+    boolean isCompiledFrom(final List<TupleAdaptedPredicate<String, ?>> components) {
+        if (source != components) {
+            return false;
+        }
+        final int size = null != components ? components.size() : 0;
+        if (PARTS_PER_COMPONENT * size != sourceParts.length) {
+            return false;
+        }
+        int i = 0;
+        for (int index = 0; index < size; index++) {
+            final TupleAdaptedPredicate<String, ?> component = components.get(index);
+            if (sourceParts[i++] != component
+                    || sourceParts[i++] != component.getPredicate()
+                    || !TupleAdapterUtil.isSelection(sourceParts[i++], component.getInputAdapter())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // For each component: the component, its predicate and its selection
+    private static Object[] getParts(final List<TupleAdaptedPredicate<String, ?>> components) {
+        if (null == components) {
+            return new Object[0];
+        }
+        final Object[] parts = new Object[PARTS_PER_COMPONENT * components.size()];
+        int i = 0;
+        for (final TupleAdaptedPredicate<String, ?> component : components) {
+            parts[i++] = component;
+            parts[i++] = component.getPredicate();
+            parts[i++] = TupleAdapterUtil.getSelection(component.getInputAdapter());
+        }
+        return parts;
+    }
+
+    private static Step[] compile(final List<TupleAdaptedPredicate<String, ?>> components) {
+        final List<Step> steps = new ArrayList<>();
+        if (null == components) {
+            return new Step[0];
+        }
+
+        FusedStep current = null;
+        for (final TupleAdaptedPredicate<String, ?> component : components) {
+            if (TupleAdaptedPredicate.class != component.getClass()) {
+                // The component may override how the tuple is adapted, so it is applied to an ElementTuple
+                current = null;
+                steps.add(new TupleStep(component));
+                continue;
+            }
+
+            final Predicate predicate = component.getPredicate();
+            if (null == predicate) {
+                // A component without a predicate always passes
+                continue;
+            }
+
+            final String[] selection = component.getSelection();
+            if (1 == selection.length) {
+                if (null != current && current.accessor.getReference().equals(selection[0])) {
+                    current.add(predicate);
+                } else {
+                    current = new FusedStep(ElementAccessor.of(selection[0]), predicate);
+                    steps.add(current);
+                }
+            } else {
+                current = null;
+                steps.add(new MultiSelectionStep(ElementAccessor.of(selection), predicate));
+            }
+        }
+        return steps.toArray(new Step[steps.size()]);
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("steps", steps)
+                .toString();
+    }
+
+    private interface Step {
+        boolean test(final Element element);
+    }
+
+    private static final class FusedStep implements Step {
+        private final ElementAccessor accessor;
+        private Predicate[] predicates;
+
+        private FusedStep(final ElementAccessor accessor, final Predicate predicate) {
+            this.accessor = accessor;
+            this.predicates = new Predicate[]{predicate};
+        }
+
+        private void add(final Predicate predicate) {
+            predicates = Arrays.copyOf(predicates, predicates.length + 1);
+            predicates[predicates.length - 1] = predicate;
+        }
+
+        @Override
+        public boolean test(final Element element) {
+            final Object value = accessor.get(element);
+            for (final Predicate predicate : predicates) {
+                if (!predicate.test(value)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this)
+                    .append("accessor", accessor)
+                    .append("predicates", predicates)
+                    .toString();
+        }
+    }
+
+    private static final class MultiSelectionStep implements Step {
+        private final ElementAccessor[] accessors;
+        private final Predicate predicate;
+
+        private MultiSelectionStep(final ElementAccessor[] accessors, final Predicate predicate) {
+            this.accessors = accessors;
+            this.predicate = predicate;
+        }
+
+        @Override
+        public boolean test(final Element element) {
+            return predicate.test(new ElementAccessorTuple(accessors, element));
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this)
+                    .append("accessors", accessors)
+                    .append("predicate", predicate)
+                    .toString();
+        }
+    }
+
+    private static final class TupleStep implements Step {
+        private final TupleAdaptedPredicate component;
+
+        private TupleStep(final TupleAdaptedPredicate component) {
+            this.component = component;
+        }
+
+        @Override
+        public boolean test(final Element element) {
+            return component.test(new ElementTuple(element));
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this)
+                    .append("component", component)
+                    .toString();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.data.element.function;
+
+import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.ElementAccessor;
+import uk.gov.gchq.gaffer.data.element.ElementAccessorTuple;
+import uk.gov.gchq.gaffer.data.element.ElementTuple;
+import uk.gov.gchq.koryphe.tuple.function.TupleAdaptedFunction;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A {@code CompiledElementTransformer} is an {@link ElementTransformer} that has been compiled
+ * so that it can be applied to {@link Element}s without creating an {@link ElementTuple} for
+ * each element.
+ * <p>
+ * The selections and projections of the functions are resolved to {@link ElementAccessor}s
+ * when the transformer is compiled.
+ * <p>
+ * The transformer is a snapshot of the components of the {@link ElementTransformer} when it was
+ * compiled. It gives the same results as the {@link ElementTransformer} and can be shared between
+ * threads.
+ */
+public final class CompiledElementTransformer implements Function<Element, Element> {
+    private static final int PARTS_PER_COMPONENT = 4;
+
+    private final List<TupleAdaptedFunction<String, ?, ?>> source;
+    private final Object[] sourceParts;
+    private final Step[] steps;
+
+    CompiledElementTransformer(final List<TupleAdaptedFunction<String, ?, ?>> components) {
+        this.source = components;
+        this.sourceParts = getParts(components);
+        this.steps = compile(components);
+    }
+
+    @Override
+    public Element apply(final Element element) {
+        for (final Step step : steps) {
+            step.apply(element);
+        }
+        return element;
+    }
+
+    /**
+     * Checks whether the components are the ones this was compiled from. Each component,
+     * its function, its selection and its projection are compared by identity, so replacing
+     * a component or changing one in place is detected without copying the selection and
+     * projection for each element.
+     */
+    boolean isCompiledFrom(final List<TupleAdaptedFunction<String, ?, ?>> components) {
+        if (source != components) {
+            return false;
+        }
+        final int size = null != components ? components.size() : 0;
+        if (PARTS_PER_COMPONENT * size != sourceParts.length) {
+            return false;
+        }
+        int i = 0;
+        for (int index = 0; index < size; index++) {
+            final TupleAdaptedFunction<String, ?, ?> component = components.get(index);
+            if (sourceParts[i++] != component
+                    || sourceParts[i++] != component.getFunction()
+                    || !TupleAdapterUtil.isSelection(sourceParts[i++], component.getInputAdapter())
+                    || !TupleAdapterUtil.isProjection(sourceParts[i++], component.getOutputAdapter())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // For each component: the component, its function, its selection and its projection
+    private static Object[] getParts(final List<TupleAdaptedFunction<String, ?, ?>> components) {
+        if (null == components) {
+            return new Object[0];
+        }
+        final Object[] parts = new Object[PARTS_PER_COMPONENT * components.size()];
+        int i = 0;
+        for (final TupleAdaptedFunction<String, ?, ?> component : components) {
+            parts[i++] = component;
+            parts[i++] = component.getFunction();
+            parts[i++] = TupleAdapterUtil.getSelection(component.getInputAdapter());
+            parts[i++] = TupleAdapterUtil.getProjection(component.getOutputAdapter());
+        }
+        return parts;
+    }
+
+    private static Step[] compile(final List<TupleAdaptedFunction<String, ?, ?>> components) {
+        if (null == components) {
+            return new Step[0];
+        }
+
+        final Step[] steps = new Step[components.size()];
+        for (int i = 0; i < steps.length; i++) {
+            final TupleAdaptedFunction<String, ?, ?> component = components.get(i);
+            if (TupleAdaptedFunction.class == component.getClass()) {
+                steps[i] = new AccessorStep(ElementAccessor.of(component.getSelection()),
+                        component.getFunction(), ElementAccessor.of(component.getProjection()));
+            } else {
+                // The component may override how the tuple is adapted, so it is applied to an ElementTuple
+                steps[i] = new TupleStep(component);
+            }
+        }
+        return steps;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("steps", steps)
+                .toString();
+    }
+
+    private interface Step {
+        void apply(final Element element);
+    }
+
+    private static final class AccessorStep implements Step {
+        private final ElementAccessor[] selection;
+        private final Function function;
+        private final ElementAccessor[] projection;
+
+        private AccessorStep(final ElementAccessor[] selection, final Function function, final ElementAccessor[] projection) {
+            this.selection = selection;
+            this.function = function;
+            this.projection = projection;
+        }
+
+        @Override
+        public void apply(final Element element) {
+            final Object input = 1 == selection.length
+                    ? selection[0].get(element)
+                    : new ElementAccessorTuple(selection, element);
+            final Object output = function.apply(input);
+            if (1 == projection.length) {
+                projection[0].put(element, output);
+            } else {
+                int i = 0;
+                for (final Object value : (Iterable) output) {
+                    projection[i++].put(element, value);
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this)
+                    .append("selection", selection)
+                    .append("function", function)
+                    .append("projection", projection)
+                    .toString();
+        }
+    }
+
+    private static final class TupleStep implements Step {
+        private final TupleAdaptedFunction component;
+
+        private TupleStep(final TupleAdaptedFunction component) {
+            this.component = component;
+        }
+
+        @Override
+        public void apply(final Element element) {
+            component.apply(new ElementTuple(element));
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this)
+                    .append("component", component)
+                    .toString();
+        }
+    }
+}
@@ -34,27 +34,44 @@ import java.util.function.Predicate;
 /**
  * An {@code ElementFilter} is a {@link Predicate} which evaluates a condition against
  * a provided {@link Element} object.
+ * <p>
+ * Elements are tested using a {@link CompiledElementFilter}, which is created the first
+ * time an element is tested and again if the components are changed.
  */
 @JsonPropertyOrder(alphabetic = true)
 public class ElementFilter extends TupleAdaptedPredicateComposite<String> {
-    private final ElementTuple elementTuple = new ElementTuple();
     private boolean readOnly;
+    private transient volatile CompiledElementFilter compiled;
 
     public boolean test(final Element element) {
-        elementTuple.setElement(element);
-        return test(elementTuple);
+        return compile().test(element);
+    }
+
+    /**
+     * Compiles the filter so that it can be applied to elements without an {@link ElementTuple}.
+     * The compiled filter is cached until the components are changed.
+     *
+     * @return the compiled filter
+     */
+    public CompiledElementFilter compile() {
+        CompiledElementFilter result = compiled;
+        if (null == result || !result.isCompiledFrom(components)) {
+            result = new CompiledElementFilter(components);
+            compiled = result;
+        }
+        return result;
     }
 
     public ValidationResult testWithValidationResult(final Element element) {
         final ValidationResult result = new ValidationResult();
-        elementTuple.setElement(element);
+        final ElementTuple elementTuple = new ElementTuple(element);
         components.stream()
                 .filter(predicate -> !predicate.test(elementTuple))
-                .forEach(predicate -> result.addError(getErrorMsg(predicate)));
+                .forEach(predicate -> result.addError(getErrorMsg(predicate, elementTuple)));
         return result;
     }
 
-    private String getErrorMsg(final TupleAdaptedPredicate<String, ?> predicate) {
+    private String getErrorMsg(final TupleAdaptedPredicate<String, ?> predicate, final ElementTuple elementTuple) {
         final StringBuilder builder = new StringBuilder();
         builder.append("Filter: ")
                 .append(predicate.getPredicate())
@@ -84,9 +101,16 @@ public class ElementFilter extends TupleAdaptedPredicateComposite<String> {
             return Collections.unmodifiableList(super.getComponents());
         }
 
+        // Changes to the components are detected when the filter is next compiled
         return super.getComponents();
     }
 
+    @Override
+    public void setComponents(final List<TupleAdaptedPredicate<String, ?>> components) {
+        compiled = null;
+        super.setComponents(components);
+    }
+
     public void lock() {
         readOnly = true;
     }
@@ -101,11 +125,8 @@ public class ElementFilter extends TupleAdaptedPredicateComposite<String> {
             return false;
         }
 
-        final ElementFilter that = (ElementFilter) obj;
-
         return new EqualsBuilder()
                 .appendSuper(super.equals(obj))
-                .append(elementTuple, that.elementTuple)
                 .isEquals();
     }
 
@@ -113,14 +134,13 @@ public class ElementFilter extends TupleAdaptedPredicateComposite<String> {
     public int hashCode() {
         return new HashCodeBuilder(19, 53)
                 .appendSuper(super.hashCode())
-                .append(elementTuple)
                 .toHashCode();
     }
 
     @Override
     public String toString() {
         return new ToStringBuilder(this)
-                .append("elementTuple", elementTuple)
+                .appendSuper(super.toString())
                 .toString();
     }
 
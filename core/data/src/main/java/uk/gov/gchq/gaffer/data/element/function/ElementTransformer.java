@@ -21,23 +21,45 @@ import org.apache.commons.lang3.builder.HashCodeBuilder;
 
 import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
 import uk.gov.gchq.gaffer.data.element.Element;
-import uk.gov.gchq.gaffer.data.element.ElementTuple;
 import uk.gov.gchq.koryphe.tuple.function.TupleAdaptedFunction;
 import uk.gov.gchq.koryphe.tuple.function.TupleAdaptedFunctionComposite;
 
+import java.util.List;
 import java.util.function.Function;
 
 /**
  * An {@code ElementTransformer} is a {@link Function} which applies a series of
  * transformations to an {@link Element}.
+ * <p>
+ * Elements are transformed using a {@link CompiledElementTransformer}, which is created
+ * the first time an element is transformed and again if the components are changed.
  */
 public class ElementTransformer extends TupleAdaptedFunctionComposite<String> {
-    private final ElementTuple elementTuple = new ElementTuple();
+    private transient volatile CompiledElementTransformer compiled;
 
     public Element apply(final Element element) {
-        elementTuple.setElement(element);
-        apply(elementTuple);
-        return element;
+        return compile().apply(element);
+    }
+
+    /**
+     * Compiles the transformer so that it can be applied to elements without an {@link uk.gov.gchq.gaffer.data.element.ElementTuple}.
+     * The compiled transformer is cached until the components are changed.
+     *
+     * @return the compiled transformer
+     */
+    public CompiledElementTransformer compile() {
+        CompiledElementTransformer result = compiled;
+        if (null == result || !result.isCompiledFrom(components)) {
+            result = new CompiledElementTransformer(components);
+            compiled = result;
+        }
+        return result;
+    }
+
+    @Override
+    public void setComponents(final List<TupleAdaptedFunction<String, ?, ?>> components) {
+        compiled = null;
+        super.setComponents(components);
     }
 
     @Override
@@ -50,11 +72,8 @@ public class ElementTransformer extends TupleAdaptedFunctionComposite<String> {
             return false;
         }
 
-        final ElementTransformer that = (ElementTransformer) obj;
-
         return new EqualsBuilder()
                 .appendSuper(super.equals(obj))
-                .append(elementTuple, that.elementTuple)
                 .isEquals();
     }
 
@@ -62,14 +81,13 @@ public class ElementTransformer extends TupleAdaptedFunctionComposite<String> {
     public int hashCode() {
         return new HashCodeBuilder(47, 17)
                 .appendSuper(super.hashCode())
-                .append(elementTuple)
                 .toHashCode();
     }
 
     @Override
     public String toString() {
         return new ToStringBuilder(this)
-                .append("elementTuple", elementTuple)
+                .appendSuper(super.toString())
                 .toString();
     }
 
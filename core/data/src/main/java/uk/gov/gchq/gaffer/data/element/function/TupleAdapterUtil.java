@@ -0,0 +1,101 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.data.element.function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.gchq.koryphe.tuple.TupleInputAdapter;
+import uk.gov.gchq.koryphe.tuple.TupleOutputAdapter;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+
+/**
+ * Utility methods for checking whether the selections and projections of tuple adapters
+ * have changed, without copying them.
+ * <p>
+ * The getters of the adapters return copies, so the arrays held by the adapters are read
+ * directly and compared by reference. Setting a selection or projection replaces the array,
+ * so a change is detected without allocating for each element. If the arrays cannot be read
+ * the copies are compared by value instead.
+ */
+final class TupleAdapterUtil {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TupleAdapterUtil.class);
+    private static final Field SELECTION_FIELD = getField(TupleInputAdapter.class, "selection");
+    private static final Field PROJECTION_FIELD = getField(TupleOutputAdapter.class, "projection");
+
+    private TupleAdapterUtil() {
+        // Private constructor to prevent instantiation.
+    }
+
+    /**
+     * @param adapter the input adapter
+     * @return the selection held by the adapter, or a copy if it cannot be read directly
+     */
+    static Object getSelection(final TupleInputAdapter<String, ?> adapter) {
+        if (null == adapter) {
+            return null;
+        }
+        return null != SELECTION_FIELD ? read(SELECTION_FIELD, adapter) : adapter.getSelection();
+    }
+
+    /**
+     * @param adapter the output adapter
+     * @return the projection held by the adapter, or a copy if it cannot be read directly
+     */
+    static Object getProjection(final TupleOutputAdapter<String, ?> adapter) {
+        if (null == adapter) {
+            return null;
+        }
+        return null != PROJECTION_FIELD ? read(PROJECTION_FIELD, adapter) : adapter.getProjection();
+    }
+
+    static boolean isSelection(final Object selection, final TupleInputAdapter<String, ?> adapter) {
+        if (null == SELECTION_FIELD && null != adapter) {
+            return Arrays.equals((Object[]) selection, adapter.getSelection());
+        }
+        return selection == getSelection(adapter);
+    }
+
+    static boolean isProjection(final Object projection, final TupleOutputAdapter<String, ?> adapter) {
+        if (null == PROJECTION_FIELD && null != adapter) {
+            return Arrays.equals((Object[]) projection, adapter.getProjection());
+        }
+        return projection == getProjection(adapter);
+    }
+
+    private static Object read(final Field field, final Object adapter) {
+        try {
+            return field.get(adapter);
+        } catch (final IllegalAccessException e) {
+            // The field was made accessible when it was looked up
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Field getField(final Class<?> clazz, final String name) {
+        try {
+            final Field field = clazz.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        } catch (final NoSuchFieldException | RuntimeException e) {
+            LOGGER.debug("Unable to read {}.{}, changes will be detected by comparing copies", clazz.getSimpleName(), name, e);
+            return null;
+        }
+    }
+}
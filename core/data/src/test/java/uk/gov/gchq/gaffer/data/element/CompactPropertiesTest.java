@@ -0,0 +1,201 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.data.element;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompactPropertiesTest {
+    private static final PropertiesLayout LAYOUT = new PropertiesLayout(Arrays.asList("property 1", "property 2", "property 3"));
+
+    @Test
+    public void shouldRequireALayout() {
+        assertThrows(IllegalArgumentException.class, () -> new CompactProperties(null));
+    }
+
+    @Test
+    public void shouldPutAndGetPropertiesInAndOutOfTheLayout() {
+        // Given
+        final CompactProperties properties = new CompactProperties(LAYOUT);
+
+        // When
+        properties.put("property 1", "value 1");
+        properties.put("property 3", 3);
+        properties.put("other property", "other value");
+        properties.put(null, "value");
+
+        // Then
+        assertEquals(3, properties.size());
+        assertEquals("value 1", properties.get("property 1"));
+        assertNull(properties.get("property 2"));
+        assertEquals(3, properties.get("property 3"));
+        assertEquals("other value", properties.get("other property"));
+        assertTrue(properties.containsKey("property 3"));
+        assertFalse(properties.containsKey("property 2"));
+        assertTrue(properties.containsValue("other value"));
+        assertEquals(new HashSet<>(Arrays.asList("property 1", "property 3", "other property")), properties.keySet());
+    }
+
+    @Test
+    public void shouldRemovePropertyIfAddedWithNullValue() {
+        // Given
+        final CompactProperties properties = new CompactProperties(LAYOUT);
+        properties.put("property 1", "value 1");
+        properties.put("other property", "other value");
+
+        // When
+        properties.put("property 1", null);
+        properties.put("other property", null);
+
+        // Then
+        assertTrue(properties.isEmpty());
+    }
+
+    @Test
+    public void shouldBeEqualToPropertiesWithTheSameValues() {
+        // Given
+        final CompactProperties properties = new CompactProperties(LAYOUT, getValues());
+        final Properties otherProperties = new Properties(getValues());
+
+        // Then
+        assertEquals(otherProperties, properties);
+        assertEquals(properties, otherProperties);
+        assertEquals(otherProperties.hashCode(), properties.hashCode());
+        assertEquals(new CompactProperties(LAYOUT, getValues()), properties);
+        assertEquals(new CompactProperties(new PropertiesLayout(Arrays.asList("property 2", "other property")), getValues()), properties);
+    }
+
+    @Test
+    public void shouldCalculateTheHashCodeAgainWhenChanged() {
+        // Given
+        final CompactProperties properties = new CompactProperties(LAYOUT, getValues());
+        final int hashCode = properties.hashCode();
+        final CompactProperties otherProperties = new CompactProperties(LAYOUT, getValues());
+        otherProperties.hashCode();
+
+        // When
+        properties.put("property 2", "changed value");
+
+        // Then
+        assertNotEquals(hashCode, properties.hashCode());
+        assertEquals(new Properties(properties).hashCode(), properties.hashCode());
+        assertNotEquals(otherProperties, properties);
+    }
+
+    @Test
+    public void shouldKeepOnlyGivenPropertiesAndRemoveWithIterator() {
+        // Given
+        final CompactProperties properties = new CompactProperties(LAYOUT, getValues());
+
+        // When
+        properties.keepOnly(Arrays.asList("property 1", "property 2", "other property"));
+        final Iterator<Map.Entry<String, Object>> iterator = properties.entrySet().iterator();
+        iterator.next();
+        iterator.remove();
+
+        // Then
+        assertEquals(2, properties.size());
+        assertFalse(properties.containsKey("property 1"));
+        assertFalse(properties.containsKey("property 3"));
+        assertEquals("value 2", properties.get("property 2"));
+        assertEquals("other value", properties.get("other property"));
+    }
+
+    @Test
+    public void shouldCloneProperties() {
+        // Given
+        final CompactProperties properties = new CompactProperties(LAYOUT, getValues());
+
+        // When
+        final CompactProperties clone = properties.clone();
+        clone.put("property 1", "changed value");
+        clone.put("other property", "changed value");
+
+        // Then
+        assertNotSame(properties, clone);
+        assertEquals(new Properties(getValues()), properties);
+        assertEquals("changed value", clone.get("property 1"));
+        assertEquals("changed value", clone.get("other property"));
+    }
+
+    @Test
+    public void shouldSerialiseAndDeserialise() throws IOException, ClassNotFoundException {
+        // Given
+        final CompactProperties properties = new CompactProperties(LAYOUT, getValues());
+
+        // When
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(properties);
+        }
+        final Object result;
+        try (final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            result = in.readObject();
+        }
+
+        // Then
+        assertEquals(properties, result);
+        assertEquals(properties.hashCode(), result.hashCode());
+    }
+
+    @Test
+    public void shouldBeEqualToAnElementWithTheSameProperties() {
+        // Given
+        final Entity entity = new Entity.Builder()
+                .group("group")
+                .vertex("vertex")
+                .property("property 1", "value 1")
+                .property("property 2", "value 2")
+                .build();
+
+        // When
+        final Element compactEntity = entity.emptyClone(new CompactProperties(LAYOUT));
+        compactEntity.copyProperties(entity.getProperties());
+
+        // Then
+        assertTrue(compactEntity.getProperties() instanceof CompactProperties);
+        assertEquals(entity, compactEntity);
+        assertEquals(entity.hashCode(), compactEntity.hashCode());
+    }
+
+    private static Map<String, Object> getValues() {
+        final Map<String, Object> values = new HashMap<>();
+        values.put("property 1", "value 1");
+        values.put("property 2", "value 2");
+        values.put("property 3", 3);
+        values.put("other property", "other value");
+        return values;
+    }
+}
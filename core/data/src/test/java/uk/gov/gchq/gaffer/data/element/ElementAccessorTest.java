@@ -0,0 +1,104 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.data.element;
+
+import org.junit.jupiter.api.Test;
+
+import uk.gov.gchq.gaffer.commonutil.TestPropertyNames;
+import uk.gov.gchq.gaffer.data.element.id.EdgeId;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ElementAccessorTest {
+
+    @Test
+    public void shouldGetTheSameValuesAsElementTuple() {
+        // Given
+        final Edge edge = new Edge.Builder()
+                .group("group")
+                .source("source vertex")
+                .dest("destination vertex")
+                .directed(true)
+                .matchedVertex(EdgeId.MatchedVertex.SOURCE)
+                .property(TestPropertyNames.COUNT, 1)
+                .build();
+        final ElementTuple tuple = new ElementTuple(edge);
+
+        // When / Then
+        for (final String reference : new String[]{IdentifierType.SOURCE.name(), IdentifierType.DESTINATION.name(),
+                IdentifierType.DIRECTED.name(), IdentifierType.MATCHED_VERTEX.name(),
+                IdentifierType.ADJACENT_MATCHED_VERTEX.name(), IdentifierType.GROUP.name(),
+                TestPropertyNames.COUNT, TestPropertyNames.PROP_1, ElementTuple.PROPERTIES}) {
+            assertEquals(tuple.get(reference), ElementAccessor.of(reference).get(edge), reference);
+        }
+        assertSame(edge, ElementAccessor.of(ElementTuple.ELEMENT).get(edge));
+    }
+
+    @Test
+    public void shouldPutValues() {
+        // Given
+        final Edge edge = new Edge.Builder()
+                .group("group")
+                .build();
+
+        // When
+        ElementAccessor.of(IdentifierType.SOURCE.name()).put(edge, "source vertex");
+        ElementAccessor.of(IdentifierType.DESTINATION.name()).put(edge, "destination vertex");
+        ElementAccessor.of(IdentifierType.DIRECTED.name()).put(edge, true);
+        ElementAccessor.of(TestPropertyNames.COUNT).put(edge, 1);
+
+        // Then
+        assertEquals("source vertex", edge.getSource());
+        assertEquals("destination vertex", edge.getDestination());
+        assertEquals(true, edge.isDirected());
+        assertEquals(1, edge.getProperty(TestPropertyNames.COUNT));
+    }
+
+    @Test
+    public void shouldNotPutAnEntireElement() {
+        // Given
+        final Entity entity = new Entity("group", "vertex");
+        final ElementAccessor accessor = ElementAccessor.of(ElementTuple.ELEMENT);
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> accessor.put(entity, new Entity("group", "vertex2")));
+    }
+
+    @Test
+    public void shouldGetValuesOfAnElementAccessorTuple() {
+        // Given
+        final Entity entity = new Entity.Builder()
+                .group("group")
+                .vertex("vertex")
+                .property(TestPropertyNames.PROP_1, "value1")
+                .build();
+        final ElementAccessorTuple tuple = new ElementAccessorTuple(
+                ElementAccessor.of(new String[]{IdentifierType.VERTEX.name(), TestPropertyNames.PROP_1}), entity);
+
+        // When
+        tuple.put(1, "value2");
+
+        // Then
+        assertEquals("vertex", tuple.get(0));
+        assertEquals("value2", tuple.get(1));
+        assertEquals("value2", entity.getProperty(TestPropertyNames.PROP_1));
+        assertNull(tuple.get(2));
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.data.element.function;
+
+import org.junit.jupiter.api.Test;
+
+import uk.gov.gchq.gaffer.commonutil.TestPropertyNames;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.ElementTuple;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.IdentifierType;
+import uk.gov.gchq.koryphe.impl.predicate.Exists;
+import uk.gov.gchq.koryphe.impl.predicate.IsEqual;
+import uk.gov.gchq.koryphe.impl.predicate.IsLessThan;
+import uk.gov.gchq.koryphe.impl.predicate.IsMoreThan;
+import uk.gov.gchq.koryphe.impl.predicate.IsXMoreThanY;
+import uk.gov.gchq.koryphe.tuple.predicate.TupleAdaptedPredicate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompiledElementFilterTest {
+
+    @Test
+    public void shouldFuseAdjacentPredicatesWithTheSameSelection() {
+        // Given
+        final ElementFilter filter = new ElementFilter.Builder()
+                .select(TestPropertyNames.PROP_1)
+                .execute(new IsMoreThan(1))
+                .select(TestPropertyNames.PROP_1)
+                .execute(new IsLessThan(10))
+                .select(TestPropertyNames.PROP_2)
+                .execute(new Exists())
+                .select(TestPropertyNames.PROP_1)
+                .execute(new IsEqual(5))
+                .build();
+
+        // When
+        final CompiledElementFilter compiled = filter.compile();
+
+        // Then
+        assertEquals(3, compiled.getNumSteps());
+        assertTrue(compiled.test(makeEntity(5, "value")));
+        assertFalse(compiled.test(makeEntity(5, null)));
+        assertFalse(compiled.test(makeEntity(1, "value")));
+        assertFalse(compiled.test(makeEntity(6, "value")));
+        assertFalse(compiled.test(makeEntity(10, "value")));
+    }
+
+    @Test
+    public void shouldTestMultipleSelectionsAndIdentifiers() {
+        // Given
+        final ElementFilter filter = new ElementFilter.Builder()
+                .select(TestPropertyNames.PROP_1, TestPropertyNames.PROP_2)
+                .execute(new IsXMoreThanY())
+                .select(IdentifierType.SOURCE.name())
+                .execute(new IsEqual("source"))
+                .build();
+
+        final Edge edge1 = new Edge.Builder()
+                .source("source")
+                .property(TestPropertyNames.PROP_1, 2)
+                .property(TestPropertyNames.PROP_2, 1)
+                .build();
+        final Edge edge2 = new Edge.Builder()
+                .source("source")
+                .property(TestPropertyNames.PROP_1, 1)
+                .property(TestPropertyNames.PROP_2, 2)
+                .build();
+        final Edge edge3 = new Edge.Builder()
+                .source("other")
+                .property(TestPropertyNames.PROP_1, 2)
+                .property(TestPropertyNames.PROP_2, 1)
+                .build();
+
+        // When / Then
+        assertEquals(2, filter.compile().getNumSteps());
+        assertTrue(filter.test(edge1));
+        assertFalse(filter.test(edge2));
+        assertFalse(filter.test(edge3));
+    }
+
+    @Test
+    public void shouldGiveTheSameResultsAsAnElementTuple() {
+        // Given
+        final ElementFilter filter = new ElementFilter.Builder()
+                .select(TestPropertyNames.PROP_1)
+                .execute(new IsMoreThan(1))
+                .select(TestPropertyNames.PROP_1)
+                .execute(new IsLessThan(10))
+                .select(TestPropertyNames.PROP_1, TestPropertyNames.PROP_2)
+                .execute(new IsXMoreThanY())
+                .build();
+        final List<Element> elements = Arrays.asList(makeEntity(5, 2), makeEntity(5, 6),
+                makeEntity(0, -1), makeEntity(11, 2), makeEntity(null, 2));
+
+        // When / Then
+        for (final Element element : elements) {
+            assertEquals(filter.test(new ElementTuple(element)), filter.test(element), element.toString());
+        }
+    }
+
+    @Test
+    public void shouldCompileAgainWhenTheComponentsAreChanged() {
+        // Given
+        final ElementFilter filter = new ElementFilter.Builder()
+                .select(TestPropertyNames.PROP_1)
+                .execute(new IsMoreThan(1))
+                .build();
+        final CompiledElementFilter compiled = filter.compile();
+        assertSame(compiled, filter.compile());
+        assertTrue(filter.test(makeEntity(5, null)));
+
+        // When
+        filter.getComponents().add(new TupleAdaptedPredicate<>(new IsLessThan(5), new String[]{TestPropertyNames.PROP_1}));
+
+        // Then
+        assertNotSame(compiled, filter.compile());
+        assertEquals(1, filter.compile().getNumSteps());
+        assertFalse(filter.test(makeEntity(5, null)));
+        assertTrue(filter.test(makeEntity(3, null)));
+    }
+
+    @Test
+    public void shouldCompileAgainWhenAComponentIsChangedInPlace() {
+        // Given
+        final ElementFilter filter = new ElementFilter.Builder()
+                .select(TestPropertyNames.PROP_1)
+                .execute(new IsMoreThan(1))
+                .build();
+        final TupleAdaptedPredicate<String, ?> component = filter.getComponents().get(0);
+        assertTrue(filter.test(makeEntity(5, 0)));
+
+        // When
+        ((TupleAdaptedPredicate) component).setPredicate(new IsLessThan(5));
+
+        // Then
+        assertFalse(filter.test(makeEntity(5, 0)));
+
+        // When
+        component.setSelection(new String[]{TestPropertyNames.PROP_2});
+
+        // Then
+        assertTrue(filter.test(makeEntity(5, 0)));
+    }
+
+    @Test
+    public void shouldCompileAgainWhenAComponentIsReplaced() {
+        // Given
+        final ElementFilter filter = new ElementFilter.Builder()
+                .select(TestPropertyNames.PROP_1)
+                .execute(new IsMoreThan(1))
+                .build();
+        final List<TupleAdaptedPredicate<String, ?>> components = filter.getComponents();
+        assertTrue(filter.test(makeEntity(5, null)));
+
+        // When
+        components.set(0, new TupleAdaptedPredicate<>(new IsLessThan(5), new String[]{TestPropertyNames.PROP_1}));
+
+        // Then
+        assertFalse(filter.test(makeEntity(5, null)));
+    }
+
+    @Test
+    public void shouldNotCompileAgainWhenTheComponentsAreNotChanged() {
+        // Given
+        final ElementFilter filter = new ElementFilter.Builder()
+                .select(TestPropertyNames.PROP_1)
+                .execute(new IsMoreThan(1))
+                .build();
+        final CompiledElementFilter compiled = filter.compile();
+
+        // When
+        filter.getComponents();
+
+        // Then
+        assertSame(compiled, filter.compile());
+    }
+
+    @Test
+    public void shouldReuseTheCompiledFilterWithoutCopyingTheSelectionForEachElement() {
+        // Given
+        final CountingTupleAdaptedPredicate component = new CountingTupleAdaptedPredicate(new IsMoreThan(1), TestPropertyNames.PROP_1);
+        final ElementFilter filter = new ElementFilter();
+        filter.getComponents().add(component);
+        final CompiledElementFilter compiled = filter.compile();
+        final int selectionCopies = component.selectionCopies;
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            assertTrue(filter.test(makeEntity(5, null)));
+        }
+
+        // Then
+        assertSame(compiled, filter.compile());
+        assertEquals(selectionCopies, component.selectionCopies);
+    }
+
+    private Entity makeEntity(final Object property1, final Object property2) {
+        return new Entity.Builder()
+                .property(TestPropertyNames.PROP_1, property1)
+                .property(TestPropertyNames.PROP_2, property2)
+                .build();
+    }
+
+    private static final class CountingTupleAdaptedPredicate extends TupleAdaptedPredicate<String, Object> {
+        private int selectionCopies;
+
+        private CountingTupleAdaptedPredicate(final Predicate predicate, final String... selection) {
+            super(predicate, selection);
+        }
+
+        @Override
+        public String[] getSelection() {
+            selectionCopies++;
+            return super.getSelection();
+        }
+    }
+}
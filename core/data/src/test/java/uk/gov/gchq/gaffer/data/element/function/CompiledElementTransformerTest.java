@@ -0,0 +1,211 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.data.element.function;
+
+import org.junit.jupiter.api.Test;
+
+import uk.gov.gchq.gaffer.commonutil.TestPropertyNames;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.ElementTuple;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.IdentifierType;
+import uk.gov.gchq.koryphe.impl.function.Concat;
+import uk.gov.gchq.koryphe.impl.function.Divide;
+import uk.gov.gchq.koryphe.impl.function.Identity;
+import uk.gov.gchq.koryphe.tuple.function.TupleAdaptedFunction;
+
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class CompiledElementTransformerTest {
+
+    @Test
+    public void shouldProjectToMultipleReferences() {
+        // Given
+        final ElementTransformer transformer = new ElementTransformer.Builder()
+                .select(TestPropertyNames.PROP_1, TestPropertyNames.PROP_2)
+                .execute(new Divide())
+                .project(TestPropertyNames.PROP_3, TestPropertyNames.PROP_4)
+                .build();
+        final Entity entity = makeEntity(7, 2);
+
+        // When
+        transformer.apply(entity);
+
+        // Then
+        assertEquals(3, entity.getProperty(TestPropertyNames.PROP_3));
+        assertEquals(1, entity.getProperty(TestPropertyNames.PROP_4));
+    }
+
+    @Test
+    public void shouldTransformIdentifiersAndApplyFunctionsInOrder() {
+        // Given
+        final ElementTransformer transformer = new ElementTransformer.Builder()
+                .select(IdentifierType.SOURCE.name(), IdentifierType.DESTINATION.name())
+                .execute(new Concat())
+                .project(TestPropertyNames.PROP_1)
+                .select(TestPropertyNames.PROP_1)
+                .execute(new Identity())
+                .project(IdentifierType.DESTINATION.name())
+                .build();
+        final Edge edge = new Edge.Builder()
+                .source("a")
+                .dest("b")
+                .build();
+
+        // When
+        transformer.apply(edge);
+
+        // Then
+        assertEquals("a,b", edge.getProperty(TestPropertyNames.PROP_1));
+        assertEquals("a,b", edge.getDestination());
+    }
+
+    @Test
+    public void shouldGiveTheSameResultsAsAnElementTuple() {
+        // Given
+        final ElementTransformer transformer = new ElementTransformer.Builder()
+                .select(TestPropertyNames.PROP_1, TestPropertyNames.PROP_2)
+                .execute(new Divide())
+                .project(TestPropertyNames.PROP_3, TestPropertyNames.PROP_4)
+                .select(TestPropertyNames.PROP_3)
+                .execute((Function<Integer, Integer>) i -> i * 10)
+                .project(TestPropertyNames.PROP_1)
+                .build();
+        final Entity expected = makeEntity(11, 3);
+        final Entity actual = makeEntity(11, 3);
+
+        // When
+        transformer.apply(new ElementTuple(expected));
+        transformer.apply(actual);
+
+        // Then
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void shouldCompileAgainWhenTheComponentsAreChanged() {
+        // Given
+        final ElementTransformer transformer = new ElementTransformer.Builder()
+                .select(TestPropertyNames.PROP_1)
+                .execute(new Identity())
+                .project(TestPropertyNames.PROP_3)
+                .build();
+        final CompiledElementTransformer compiled = transformer.compile();
+        assertSame(compiled, transformer.compile());
+
+        // When
+        transformer.getComponents().add(new TupleAdaptedFunction<>(new String[]{TestPropertyNames.PROP_2},
+                new Identity(), new String[]{TestPropertyNames.PROP_4}));
+        final Element entity = transformer.apply(makeEntity(1, 2));
+
+        // Then
+        assertNotSame(compiled, transformer.compile());
+        assertEquals(1, entity.getProperty(TestPropertyNames.PROP_3));
+        assertEquals(2, entity.getProperty(TestPropertyNames.PROP_4));
+    }
+
+    @Test
+    public void shouldCompileAgainWhenAComponentIsChangedInPlace() {
+        // Given
+        final ElementTransformer transformer = new ElementTransformer.Builder()
+                .select(TestPropertyNames.PROP_1)
+                .execute(new Identity())
+                .project(TestPropertyNames.PROP_3)
+                .build();
+        final TupleAdaptedFunction<String, ?, ?> component = transformer.getComponents().get(0);
+        assertEquals(1, transformer.apply(makeEntity(1, 2)).getProperty(TestPropertyNames.PROP_3));
+
+        // When
+        component.setSelection(new String[]{TestPropertyNames.PROP_2});
+        component.setProjection(new String[]{TestPropertyNames.PROP_4});
+        final Element entity = transformer.apply(makeEntity(1, 2));
+
+        // Then
+        assertNull(entity.getProperty(TestPropertyNames.PROP_3));
+        assertEquals(2, entity.getProperty(TestPropertyNames.PROP_4));
+    }
+
+    @Test
+    public void shouldNotCompileAgainWhenTheComponentsAreNotChanged() {
+        // Given
+        final ElementTransformer transformer = new ElementTransformer.Builder()
+                .select(TestPropertyNames.PROP_1)
+                .execute(new Identity())
+                .project(TestPropertyNames.PROP_3)
+                .build();
+        final CompiledElementTransformer compiled = transformer.compile();
+
+        // When
+        transformer.getComponents();
+
+        // Then
+        assertSame(compiled, transformer.compile());
+    }
+
+    @Test
+    public void shouldReuseTheCompiledTransformerWithoutCopyingTheSelectionOrProjectionForEachElement() {
+        // Given
+        final CountingTupleAdaptedFunction component = new CountingTupleAdaptedFunction(
+                new String[]{TestPropertyNames.PROP_1}, new Identity(), new String[]{TestPropertyNames.PROP_3});
+        final ElementTransformer transformer = new ElementTransformer();
+        transformer.getComponents().add(component);
+        final CompiledElementTransformer compiled = transformer.compile();
+        final int copies = component.copies;
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            assertEquals(1, transformer.apply(makeEntity(1, 2)).getProperty(TestPropertyNames.PROP_3));
+        }
+
+        // Then
+        assertSame(compiled, transformer.compile());
+        assertEquals(copies, component.copies);
+    }
+
+    private Entity makeEntity(final Object property1, final Object property2) {
+        return new Entity.Builder()
+                .property(TestPropertyNames.PROP_1, property1)
+                .property(TestPropertyNames.PROP_2, property2)
+                .build();
+    }
+
+    private static final class CountingTupleAdaptedFunction extends TupleAdaptedFunction<String, Object, Object> {
+        private int copies;
+
+        private CountingTupleAdaptedFunction(final String[] selection, final Function function, final String[] projection) {
+            super(selection, function, projection);
+        }
+
+        @Override
+        public String[] getSelection() {
+            copies++;
+            return super.getSelection();
+        }
+
+        @Override
+        public String[] getProjection() {
+            copies++;
+            return super.getProjection();
+        }
+    }
+}
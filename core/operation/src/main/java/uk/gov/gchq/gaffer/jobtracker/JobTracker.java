@@ -85,7 +85,7 @@ public class JobTracker {
 
     private CloseableIterable<JobDetail> getAllJobsMatching(final User user, final Predicate<JobDetail> jobDetailPredicate) {
 
-        final Set<String> jobIds = CacheServiceLoader.getService().getAllKeysFromCache(CACHE_NAME);
+        final Set<String> jobIds = getAllJobIds();
         final List<JobDetail> jobs = jobIds.stream()
                 .filter(Objects::nonNull)
                 .map(jobId -> getJob(jobId, user))
@@ -107,7 +107,25 @@ public class JobTracker {
         }
     }
 
-    private void validateJobDetail(final JobDetail jobDetail) {
+    /**
+     * Get the IDs of all the jobs in the job tracker cache.
+     *
+     * @return the job IDs
+     */
+    protected Set<String> getAllJobIds() {
+        return CacheServiceLoader.getService().getAllKeysFromCache(CACHE_NAME);
+    }
+
+    /**
+     * Remove the details of a specific job from the job tracker cache.
+     *
+     * @param jobId the ID of the job to remove
+     */
+    protected void removeFromCache(final String jobId) {
+        CacheServiceLoader.getService().removeFromCache(CACHE_NAME, jobId);
+    }
+
+    protected void validateJobDetail(final JobDetail jobDetail) {
         if (null == jobDetail) {
             throw new IllegalArgumentException("JobDetail is required");
         }
@@ -0,0 +1,446 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.jobtracker;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.WrappedCloseableIterable;
+import uk.gov.gchq.gaffer.user.User;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * A {@link JobTracker} that holds job detail updates in memory and writes them
+ * to the cache asynchronously.
+ * <p>
+ * Multiple updates to the same job between flushes are coalesced so only the
+ * latest {@link JobDetail} is written to the cache. Updates that have not yet
+ * been written are returned by {@link #getJob(String, User)}, so callers always
+ * see their own updates.
+ * <p>
+ * The tracker also maintains in memory indexes of the job ids for each user and
+ * each {@link JobStatus}, so the jobs it has tracked can be looked up without
+ * loading every job in the cache. The indexes are built from the cache the first
+ * time they are needed. Only the most recent {@code maxJobsPerUser} jobs are kept
+ * for each user; older jobs that are no longer running or scheduled are removed
+ * from the cache when the updates are next written.
+ * <p>
+ * The cache is shared by all the job trackers in the JVM, e.g. those of different
+ * graphs. When a {@code WriteBehindJobTracker} writes a job to the cache, or removes
+ * one from it, the indexes of the other {@code WriteBehindJobTracker}s in the JVM are
+ * updated, so they also return the job.
+ * <p>
+ * If the cache is shared with the job trackers of other nodes, or is written to by
+ * other types of {@link JobTracker}, then {@code sharedCache} should be set. The jobs
+ * in the cache that were not added or updated by this tracker are then found and read
+ * from the cache each time jobs are looked up. Otherwise only the indexed jobs are read.
+ * <p>
+ * Pending updates are written when the JVM shuts down, or when {@link #close()}
+ * is called.
+ */
+public class WriteBehindJobTracker extends JobTracker {
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000L;
+    public static final int DEFAULT_MAX_JOBS_PER_USER = 1000;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WriteBehindJobTracker.class);
+    private static final Set<WriteBehindJobTracker> TRACKERS = Collections.newSetFromMap(new WeakHashMap<>());
+    private static ScheduledExecutorService flushService;
+    private static boolean shutdownHookAdded;
+
+    private final long flushIntervalMillis;
+    private final int maxJobsPerUser;
+    private final boolean sharedCache;
+    private final Map<String, JobDetail> pendingJobs = new ConcurrentHashMap<>();
+    private final Set<String> pendingRemovals = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Object indexLock = new Object();
+    private final Object writeLock = new Object();
+    private final Set<String> trackedJobIds = new HashSet<>();
+    private Map<String, Set<String>> userIndex;
+    private Map<JobStatus, Set<String>> statusIndex;
+    private Map<String, JobStatus> jobStatuses;
+
+    public WriteBehindJobTracker() {
+        this(DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_MAX_JOBS_PER_USER);
+    }
+
+    public WriteBehindJobTracker(final long flushIntervalMillis, final int maxJobsPerUser) {
+        this(flushIntervalMillis, maxJobsPerUser, false);
+    }
+
+    public WriteBehindJobTracker(final long flushIntervalMillis, final int maxJobsPerUser, final boolean sharedCache) {
+        if (flushIntervalMillis < 0) {
+            throw new IllegalArgumentException("flushIntervalMillis must not be negative");
+        }
+        if (maxJobsPerUser < 1) {
+            throw new IllegalArgumentException("maxJobsPerUser must be at least 1");
+        }
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.maxJobsPerUser = maxJobsPerUser;
+        this.sharedCache = sharedCache;
+        synchronized (TRACKERS) {
+            TRACKERS.add(this);
+        }
+    }
+
+    @Override
+    public void addOrUpdateJob(final JobDetail jobDetail, final User user) {
+        validateJobDetail(jobDetail);
+        pendingRemovals.remove(jobDetail.getJobId());
+        pendingJobs.put(jobDetail.getJobId(), jobDetail);
+        index(jobDetail);
+        scheduleFlush();
+    }
+
+    @Override
+    public JobDetail getJob(final String jobId, final User user) {
+        final JobDetail pendingJob = pendingJobs.get(jobId);
+        if (null != pendingJob) {
+            return pendingJob;
+        }
+        if (pendingRemovals.contains(jobId)) {
+            return null;
+        }
+        return super.getJob(jobId, user);
+    }
+
+    @Override
+    public CloseableIterable<JobDetail> getAllJobs(final User user) {
+        final Set<String> jobIds;
+        synchronized (indexLock) {
+            initialiseIndexes();
+            jobIds = new LinkedHashSet<>(jobStatuses.keySet());
+        }
+        return getJobs(jobIds, user, jobDetail -> true);
+    }
+
+    @Override
+    public CloseableIterable<JobDetail> getAllScheduledJobs() {
+        return getJobsWithStatus(JobStatus.SCHEDULED_PARENT, new User());
+    }
+
+    /**
+     * Get all jobs with the given status.
+     *
+     * @param status the status of the jobs to get
+     * @param user   the user making the request to the job tracker
+     * @return a {@link CloseableIterable} containing the job details
+     */
+    public CloseableIterable<JobDetail> getJobsWithStatus(final JobStatus status, final User user) {
+        final Set<String> jobIds;
+        synchronized (indexLock) {
+            initialiseIndexes();
+            jobIds = copy(statusIndex.get(status));
+        }
+        return getJobs(jobIds, user, jobDetail -> Objects.equals(status, jobDetail.getStatus()));
+    }
+
+    /**
+     * Write all pending job details to the cache and remove the evicted jobs from it.
+     * If a job detail cannot be written it is kept and retried on the next flush.
+     */
+    public void flush() {
+        for (final String jobId : pendingRemovals) {
+            // The write lock stops a job that has been added again from being removed
+            synchronized (writeLock) {
+                if (!pendingRemovals.remove(jobId)) {
+                    continue;
+                }
+                try {
+                    removeFromCache(jobId);
+                } catch (final RuntimeException e) {
+                    LOGGER.warn("Failed to remove job detail {} from the cache, it will be retried", jobId, e);
+                    pendingRemovals.add(jobId);
+                    continue;
+                }
+            }
+            for (final WriteBehindJobTracker tracker : getOtherTrackers()) {
+                tracker.removedByOtherTracker(jobId);
+            }
+        }
+
+        final Iterator<Map.Entry<String, JobDetail>> itr = pendingJobs.entrySet().iterator();
+        while (itr.hasNext()) {
+            final Map.Entry<String, JobDetail> entry = itr.next();
+            // The write lock stops a job that has been evicted from being written back to the cache
+            synchronized (writeLock) {
+                if (entry.getValue() != pendingJobs.get(entry.getKey())) {
+                    continue;
+                }
+                try {
+                    super.addOrUpdateJob(entry.getValue(), null);
+                } catch (final RuntimeException e) {
+                    LOGGER.warn("Failed to write job detail {} to the cache, it will be retried", entry.getKey(), e);
+                    continue;
+                }
+                // Only remove the job if it has not been updated whilst it was being written
+                pendingJobs.remove(entry.getKey(), entry.getValue());
+            }
+            for (final WriteBehindJobTracker tracker : getOtherTrackers()) {
+                tracker.writtenByOtherTracker(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Write all pending updates to the cache and stop tracking this job tracker
+     * for the flush on shutdown.
+     */
+    public void close() {
+        synchronized (TRACKERS) {
+            TRACKERS.remove(this);
+        }
+        flush();
+    }
+
+    /**
+     * Stops the thread that writes the job details in the background, then
+     * writes the pending updates of all the open job trackers to the cache.
+     * This is called when the JVM shuts down.
+     */
+    public static void shutdown() {
+        synchronized (WriteBehindJobTracker.class) {
+            if (null != flushService) {
+                flushService.shutdown();
+                try {
+                    if (!flushService.awaitTermination(10, TimeUnit.SECONDS)) {
+                        LOGGER.warn("Timed out waiting for the job tracker flush to complete");
+                    }
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                flushService = null;
+            }
+        }
+
+        final List<WriteBehindJobTracker> trackers;
+        synchronized (TRACKERS) {
+            trackers = new ArrayList<>(TRACKERS);
+        }
+        for (final WriteBehindJobTracker tracker : trackers) {
+            tracker.flushScheduled.set(false);
+            tracker.flush();
+        }
+    }
+
+    @Override
+    public void clear() {
+        pendingJobs.clear();
+        pendingRemovals.clear();
+        synchronized (indexLock) {
+            userIndex = null;
+            statusIndex = null;
+            jobStatuses = null;
+            trackedJobIds.clear();
+        }
+        super.clear();
+    }
+
+    public long getFlushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    public int getMaxJobsPerUser() {
+        return maxJobsPerUser;
+    }
+
+    public boolean isSharedCache() {
+        return sharedCache;
+    }
+
+    private CloseableIterable<JobDetail> getJobs(final Collection<String> indexedJobIds, final User user, final Predicate<JobDetail> filter) {
+        final Set<String> jobIds = new LinkedHashSet<>(indexedJobIds);
+        if (sharedCache) {
+            final Set<String> localJobIds;
+            synchronized (indexLock) {
+                localJobIds = new HashSet<>(trackedJobIds);
+            }
+            // Jobs added or updated by other job trackers are not in the indexes
+            for (final String jobId : getAllJobIds()) {
+                if (null != jobId && !localJobIds.contains(jobId) && !pendingRemovals.contains(jobId)) {
+                    jobIds.add(jobId);
+                }
+            }
+        }
+
+        final List<JobDetail> jobs = new ArrayList<>(jobIds.size());
+        for (final String jobId : jobIds) {
+            final JobDetail jobDetail = getJob(jobId, user);
+            // The job is checked again as a job detail may have been modified without being updated
+            if (null != jobDetail && filter.test(jobDetail)) {
+                jobs.add(jobDetail);
+            }
+        }
+        return new WrappedCloseableIterable<>(jobs);
+    }
+
+    private void index(final JobDetail jobDetail) {
+        final List<String> evictedJobIds = new ArrayList<>();
+        synchronized (indexLock) {
+            initialiseIndexes();
+            addToIndexes(jobDetail.getJobId(), getUserId(jobDetail), jobDetail.getStatus());
+            trackedJobIds.add(jobDetail.getJobId());
+            final Set<String> userJobIds = userIndex.get(getUserId(jobDetail));
+            final Iterator<String> itr = userJobIds.iterator();
+            while (userJobIds.size() > maxJobsPerUser && itr.hasNext()) {
+                final String jobId = itr.next();
+                if (isComplete(jobStatuses.get(jobId))) {
+                    itr.remove();
+                    removeFromStatusIndex(jobId);
+                    trackedJobIds.remove(jobId);
+                    evictedJobIds.add(jobId);
+                }
+            }
+        }
+
+        // The evicted jobs are removed from the cache on the next flush
+        for (final String jobId : evictedJobIds) {
+            synchronized (writeLock) {
+                pendingRemovals.add(jobId);
+                pendingJobs.remove(jobId);
+            }
+        }
+    }
+
+    private List<WriteBehindJobTracker> getOtherTrackers() {
+        final List<WriteBehindJobTracker> trackers;
+        synchronized (TRACKERS) {
+            trackers = new ArrayList<>(TRACKERS);
+        }
+        trackers.remove(this);
+        return trackers;
+    }
+
+    private void writtenByOtherTracker(final JobDetail jobDetail) {
+        synchronized (indexLock) {
+            // The job is read from the cache each time if the cache is shared, or when the indexes are built
+            if (!sharedCache && null != jobStatuses && !pendingJobs.containsKey(jobDetail.getJobId())) {
+                addToIndexes(jobDetail.getJobId(), getUserId(jobDetail), jobDetail.getStatus());
+                trackedJobIds.add(jobDetail.getJobId());
+            }
+        }
+    }
+
+    private void removedByOtherTracker(final String jobId) {
+        synchronized (indexLock) {
+            if (!sharedCache && null != jobStatuses && !pendingJobs.containsKey(jobId)) {
+                removeFromStatusIndex(jobId);
+                for (final Set<String> userJobIds : userIndex.values()) {
+                    userJobIds.remove(jobId);
+                }
+                trackedJobIds.remove(jobId);
+            }
+        }
+    }
+
+    private void initialiseIndexes() {
+        if (null != jobStatuses) {
+            return;
+        }
+        userIndex = new HashMap<>();
+        statusIndex = new EnumMap<>(JobStatus.class);
+        jobStatuses = new LinkedHashMap<>();
+        for (final JobDetail jobDetail : super.getAllJobs(new User())) {
+            addToIndexes(jobDetail.getJobId(), getUserId(jobDetail), jobDetail.getStatus());
+            // If the cache is shared the job may be updated by another node, so it is read each time it is looked up
+            if (!sharedCache) {
+                trackedJobIds.add(jobDetail.getJobId());
+            }
+        }
+    }
+
+    private void addToIndexes(final String jobId, final String userId, final JobStatus status) {
+        final JobStatus previousStatus = jobStatuses.put(jobId, status);
+        if (null != previousStatus) {
+            statusIndex.get(previousStatus).remove(jobId);
+        }
+        userIndex.computeIfAbsent(userId, k -> new LinkedHashSet<>()).add(jobId);
+        if (null != status) {
+            statusIndex.computeIfAbsent(status, k -> new LinkedHashSet<>()).add(jobId);
+        }
+    }
+
+    private void removeFromStatusIndex(final String jobId) {
+        final JobStatus status = jobStatuses.remove(jobId);
+        if (null != status) {
+            final Set<String> jobIds = statusIndex.get(status);
+            if (null != jobIds) {
+                jobIds.remove(jobId);
+            }
+        }
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            getFlushService().schedule(() -> {
+                flushScheduled.set(false);
+                flush();
+            }, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static boolean isComplete(final JobStatus status) {
+        return JobStatus.RUNNING != status && JobStatus.SCHEDULED_PARENT != status;
+    }
+
+    private static String getUserId(final JobDetail jobDetail) {
+        return null != jobDetail.getUser() ? jobDetail.getUser().getUserId() : null;
+    }
+
+    private static Set<String> copy(final Set<String> jobIds) {
+        return null != jobIds ? new LinkedHashSet<>(jobIds) : new LinkedHashSet<>();
+    }
+
+    private static synchronized ScheduledExecutorService getFlushService() {
+        if (null == flushService) {
+            final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+                final Thread thread = new Thread(runnable, "job-tracker-flush");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // The pending updates are written by shutdown() rather than waiting for the scheduled flushes
+            executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+            flushService = executor;
+            if (!shutdownHookAdded) {
+                Runtime.getRuntime().addShutdownHook(new Thread(WriteBehindJobTracker::shutdown));
+                shutdownHookAdded = true;
+            }
+        }
+        return flushService;
+    }
+}
@@ -28,15 +28,12 @@ import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
 import uk.gov.gchq.gaffer.exception.SerialisationException;
 import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser;
 import uk.gov.gchq.gaffer.operation.OperationChain;
-import uk.gov.gchq.gaffer.operation.OperationChainDAO;
 import uk.gov.gchq.gaffer.user.User;
 
 import java.io.Serializable;
-import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * Simple POJO containing the details associated with a {@link NamedOperation}.
@@ -56,6 +53,7 @@ public class NamedOperationDetail implements Serializable {
     private List<String> writeAccessRoles;
     private Map<String, ParameterDetail> parameters = Maps.newHashMap();
     private Integer score;
+    private transient NamedOperationTemplate template;
 
     public NamedOperationDetail() {
     }
@@ -143,8 +141,36 @@ public class NamedOperationDetail implements Serializable {
         return score;
     }
 
-    private String buildParamNameString(final String paramKey) {
-        return "\"${" + paramKey + "}\"";
+    /**
+     * Gets the compiled {@link NamedOperationTemplate} for this named operation,
+     * compiling it if this has not already been done.
+     *
+     * @return the compiled template
+     * @throws IllegalArgumentException if the operation chain json cannot be parsed
+     */
+    @JsonIgnore
+    public NamedOperationTemplate getTemplate() {
+        NamedOperationTemplate compiledTemplate = template;
+        if (null == compiledTemplate || !compiledTemplate.isTemplateFor(this)) {
+            compiledTemplate = new NamedOperationTemplate(this);
+            template = compiledTemplate;
+        }
+        return compiledTemplate;
+    }
+
+    /**
+     * Sets a previously compiled {@link NamedOperationTemplate} for this named operation,
+     * so the operation chain json does not need to be parsed again.
+     *
+     * @param template the compiled template
+     * @throws IllegalArgumentException if the template was not compiled from an equivalent named operation
+     */
+    @JsonIgnore
+    public void setTemplate(final NamedOperationTemplate template) {
+        if (null != template && !template.isTemplateFor(this)) {
+            throw new IllegalArgumentException("NamedOperationTemplate was not compiled for NamedOperation " + operationName);
+        }
+        this.template = template;
     }
 
     /**
@@ -156,29 +182,7 @@ public class NamedOperationDetail implements Serializable {
      */
     @JsonIgnore
     public OperationChain getOperationChainWithDefaultParams() {
-        String opStringWithDefaults = operations;
-
-        if (null != parameters) {
-            for (final Map.Entry<String, ParameterDetail> parameterDetailPair : parameters.entrySet()) {
-                String paramKey = parameterDetailPair.getKey();
-
-                try {
-                    opStringWithDefaults = opStringWithDefaults.replace(buildParamNameString(paramKey),
-                            new String(JSONSerialiser.serialise(parameterDetailPair.getValue().getDefaultValue(), CHARSET_NAME), CHARSET_NAME));
-                } catch (final SerialisationException | UnsupportedEncodingException e) {
-                    throw new IllegalArgumentException(e.getMessage());
-                }
-            }
-        }
-
-        OperationChain opChain;
-        try {
-            opChain = JSONSerialiser.deserialise(opStringWithDefaults.getBytes(CHARSET_NAME), OperationChainDAO.class);
-        } catch (final Exception e) {
-            throw new IllegalArgumentException(e.getMessage());
-        }
-
-        return opChain;
+        return getTemplate().getOperationChainWithDefaultParams();
     }
 
     /**
@@ -189,48 +193,7 @@ public class NamedOperationDetail implements Serializable {
      * @throws IllegalArgumentException if substituting the parameters fails
      */
     public OperationChain getOperationChain(final Map<String, Object> executionParams) {
-        String opStringWithParams = operations;
-
-        // First check all the parameters supplied are expected parameter names
-        if (null != parameters) {
-            if (null != executionParams) {
-                Set<String> paramDetailKeys = parameters.keySet();
-                Set<String> paramKeys = executionParams.keySet();
-
-                if (!paramDetailKeys.containsAll(paramKeys)) {
-                    throw new IllegalArgumentException("Unexpected parameter name in NamedOperation");
-                }
-            }
-
-            for (final Map.Entry<String, ParameterDetail> parameterDetailPair : parameters.entrySet()) {
-                String paramKey = parameterDetailPair.getKey();
-                try {
-                    if (null != executionParams && executionParams.containsKey(paramKey)) {
-                        Object paramObj = JSONSerialiser.deserialise(JSONSerialiser.serialise(executionParams.get(paramKey)), parameterDetailPair.getValue().getValueClass());
-
-                        opStringWithParams = opStringWithParams.replace(buildParamNameString(paramKey),
-                                new String(JSONSerialiser.serialise(paramObj, CHARSET_NAME), CHARSET_NAME));
-                    } else if (!parameterDetailPair.getValue().isRequired()) {
-                        opStringWithParams = opStringWithParams.replace(buildParamNameString(paramKey),
-                                new String(JSONSerialiser.serialise(parameterDetailPair.getValue().getDefaultValue(), CHARSET_NAME), CHARSET_NAME));
-                    } else {
-                        throw new IllegalArgumentException("Missing parameter " + paramKey + " with no default");
-                    }
-                } catch (final SerialisationException | UnsupportedEncodingException e) {
-                    throw new IllegalArgumentException(e.getMessage());
-                }
-            }
-        }
-
-        OperationChain opChain;
-
-        try {
-            opChain = JSONSerialiser.deserialise(opStringWithParams.getBytes(CHARSET_NAME), OperationChainDAO.class);
-        } catch (final Exception e) {
-            throw new IllegalArgumentException(e.getMessage());
-        }
-
-        return opChain;
+        return getTemplate().getOperationChain(executionParams);
     }
 
     @Override
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.named.operation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser;
+import uk.gov.gchq.gaffer.operation.OperationChain;
+import uk.gov.gchq.gaffer.operation.OperationChainDAO;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A {@code NamedOperationTemplate} is a compiled form of a {@link NamedOperationDetail}.
+ * <p>
+ * The operation chain json is parsed once into a tree and the location of each
+ * parameter placeholder (a json string of the form "${paramName}") is recorded.
+ * Creating an {@link OperationChain} then only requires a copy of the tree with the
+ * parameter values injected, rather than substituting strings into the json and
+ * parsing the whole json again.
+ * <p>
+ * A template is immutable so can be shared between threads.
+ */
+public class NamedOperationTemplate {
+    private final String operations;
+    private final Map<String, ParameterDetail> parameters;
+    private final JsonNode operationChainTree;
+    private final List<ParameterSlot> slots;
+
+    public NamedOperationTemplate(final NamedOperationDetail namedOperationDetail) {
+        this.operations = namedOperationDetail.getOperations();
+        this.parameters = null != namedOperationDetail.getParameters()
+                ? new HashMap<>(namedOperationDetail.getParameters())
+                : null;
+        try {
+            this.operationChainTree = JSONSerialiser.getJsonNodeFromString(operations);
+        } catch (final Exception e) {
+            throw new IllegalArgumentException(e.getMessage());
+        }
+
+        final List<ParameterSlot> parameterSlots = new ArrayList<>();
+        if (null != parameters && !parameters.isEmpty()) {
+            final Map<String, String> placeholders = new HashMap<>(parameters.size());
+            for (final String paramKey : parameters.keySet()) {
+                placeholders.put("${" + paramKey + "}", paramKey);
+            }
+            findSlots(operationChainTree, new ArrayList<>(), placeholders, parameterSlots);
+        }
+        this.slots = Collections.unmodifiableList(parameterSlots);
+    }
+
+    /**
+     * Checks whether this template was compiled from the same operation chain
+     * and parameters as the provided {@link NamedOperationDetail}.
+     *
+     * @param namedOperationDetail the named operation detail to check
+     * @return true if this template can be used for the named operation detail
+     */
+    public boolean isTemplateFor(final NamedOperationDetail namedOperationDetail) {
+        return null != namedOperationDetail
+                && Objects.equals(operations, namedOperationDetail.getOperations())
+                && Objects.equals(parameters, namedOperationDetail.getParameters());
+    }
+
+    /**
+     * Gets the OperationChain after adding in default values for any parameters. If a parameter
+     * does not have a default, null is inserted.
+     *
+     * @return The {@link OperationChain}
+     * @throws IllegalArgumentException if substituting the parameters fails
+     */
+    public OperationChain getOperationChainWithDefaultParams() {
+        final Map<String, JsonNode> paramValues = new HashMap<>();
+        if (null != parameters) {
+            for (final Map.Entry<String, ParameterDetail> parameterDetailPair : parameters.entrySet()) {
+                paramValues.put(parameterDetailPair.getKey(), toJsonNode(parameterDetailPair.getValue().getDefaultValue()));
+            }
+        }
+        return createOperationChain(paramValues);
+    }
+
+    /**
+     * Gets the OperationChain after adding in any provided parameters.
+     *
+     * @param executionParams the parameters for the {@link uk.gov.gchq.gaffer.operation.Operation} to be executed
+     * @return The {@link OperationChain}
+     * @throws IllegalArgumentException if substituting the parameters fails
+     */
+    public OperationChain getOperationChain(final Map<String, Object> executionParams) {
+        final Map<String, JsonNode> paramValues = new HashMap<>();
+
+        // First check all the parameters supplied are expected parameter names
+        if (null != parameters) {
+            if (null != executionParams) {
+                final Set<String> paramDetailKeys = parameters.keySet();
+                final Set<String> paramKeys = executionParams.keySet();
+
+                if (!paramDetailKeys.containsAll(paramKeys)) {
+                    throw new IllegalArgumentException("Unexpected parameter name in NamedOperation");
+                }
+            }
+
+            for (final Map.Entry<String, ParameterDetail> parameterDetailPair : parameters.entrySet()) {
+                final String paramKey = parameterDetailPair.getKey();
+                final ParameterDetail parameterDetail = parameterDetailPair.getValue();
+                if (null != executionParams && executionParams.containsKey(paramKey)) {
+                    paramValues.put(paramKey, toTypedJsonNode(executionParams.get(paramKey), parameterDetail.getValueClass()));
+                } else if (!parameterDetail.isRequired()) {
+                    paramValues.put(paramKey, toJsonNode(parameterDetail.getDefaultValue()));
+                } else {
+                    throw new IllegalArgumentException("Missing parameter " + paramKey + " with no default");
+                }
+            }
+        }
+
+        return createOperationChain(paramValues);
+    }
+
+    private OperationChain createOperationChain(final Map<String, JsonNode> paramValues) {
+        final JsonNode tree = slots.isEmpty() ? operationChainTree : operationChainTree.deepCopy();
+        for (final ParameterSlot slot : slots) {
+            slot.inject(tree, paramValues.get(slot.paramKey));
+        }
+
+        try {
+            return JSONSerialiser.getMapper().treeToValue(tree, OperationChainDAO.class);
+        } catch (final Exception e) {
+            throw new IllegalArgumentException(e.getMessage());
+        }
+    }
+
+    // The value is converted via the parameter's value class so it has the expected type
+    private static JsonNode toTypedJsonNode(final Object value, final Class valueClass) {
+        if (null == value || null == valueClass || valueClass.isInstance(value)) {
+            return toJsonNode(value);
+        }
+
+        try {
+            return toJsonNode(JSONSerialiser.getMapper().treeToValue(toJsonNode(value), valueClass));
+        } catch (final IOException e) {
+            throw new IllegalArgumentException(e.getMessage());
+        }
+    }
+
+    // The value is serialised and parsed, rather than converted directly to a tree, so
+    // numbers have the same types as when the parameter is substituted into the json
+    private static JsonNode toJsonNode(final Object value) {
+        if (null == value) {
+            return NullNode.getInstance();
+        }
+
+        try {
+            return JSONSerialiser.getMapper().readTree(JSONSerialiser.serialise(value));
+        } catch (final IOException e) {
+            throw new IllegalArgumentException(e.getMessage());
+        }
+    }
+
+    private static void findSlots(final JsonNode node, final List<Object> path, final Map<String, String> placeholders, final List<ParameterSlot> slots) {
+        if (node.isObject()) {
+            final Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                final Map.Entry<String, JsonNode> field = fields.next();
+                findSlots(field.getValue(), path, field.getKey(), placeholders, slots);
+            }
+        } else if (node.isArray()) {
+            for (int i = 0; i < node.size(); i++) {
+                findSlots(node.get(i), path, i, placeholders, slots);
+            }
+        }
+    }
+
+    private static void findSlots(final JsonNode child, final List<Object> parentPath, final Object childKey, final Map<String, String> placeholders, final List<ParameterSlot> slots) {
+        if (child.isTextual() && placeholders.containsKey(child.textValue())) {
+            slots.add(new ParameterSlot(new ArrayList<>(parentPath), childKey, placeholders.get(child.textValue())));
+        } else if (child.isContainerNode()) {
+            parentPath.add(childKey);
+            findSlots(child, parentPath, placeholders, slots);
+            parentPath.remove(parentPath.size() - 1);
+        }
+    }
+
+    // The location of a parameter placeholder, as the field names and array indexes
+    // from the root of the operation chain tree to the node containing the placeholder.
+    private static final class ParameterSlot {
+        private final List<Object> parentPath;
+        private final Object childKey;
+        private final String paramKey;
+
+        private ParameterSlot(final List<Object> parentPath, final Object childKey, final String paramKey) {
+            this.parentPath = parentPath;
+            this.childKey = childKey;
+            this.paramKey = paramKey;
+        }
+
+        private void inject(final JsonNode root, final JsonNode value) {
+            JsonNode parent = root;
+            for (final Object key : parentPath) {
+                parent = key instanceof Integer ? parent.get((Integer) key) : parent.get((String) key);
+            }
+            if (childKey instanceof Integer) {
+                ((ArrayNode) parent).set((Integer) childKey, value);
+            } else {
+                ((ObjectNode) parent).set((String) childKey, value);
+            }
+        }
+    }
+}
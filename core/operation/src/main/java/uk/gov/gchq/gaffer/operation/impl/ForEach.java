@@ -37,7 +37,8 @@ import java.util.Map;
 /**
  * A {@code ForEach} operation runs the supplied operation on an Iterable of inputs.
  * <p>
- * For the given iterable of inputs, it will run the supplied operation for each input one at a time.
+ * For the given iterable of inputs, it will run the supplied operation for each input one at a time,
+ * unless the store's ForEach handler has been configured to run the operations concurrently.
  * <p>
  * For example, a ForEach operation with:
  * <p>
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.operation.impl;
+
+import com.fasterxml.jackson.annotation.JsonGetter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
+import uk.gov.gchq.gaffer.commonutil.Required;
+import uk.gov.gchq.gaffer.data.element.id.DirectedType;
+import uk.gov.gchq.gaffer.data.element.id.EntityId;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.data.graph.Walk;
+import uk.gov.gchq.gaffer.operation.Operation;
+import uk.gov.gchq.gaffer.operation.graph.GraphFilters;
+import uk.gov.gchq.gaffer.operation.io.InputOutput;
+import uk.gov.gchq.gaffer.operation.io.MultiEntityIdInput;
+import uk.gov.gchq.gaffer.operation.serialisation.TypeReferenceImpl;
+import uk.gov.gchq.gaffer.operation.util.OperationUtil;
+import uk.gov.gchq.koryphe.Since;
+import uk.gov.gchq.koryphe.Summary;
+import uk.gov.gchq.koryphe.ValidationResult;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * A {@code GetPaths} operation is used to retrieve all of the {@link Walk}s
+ * between a set of source {@link EntityId}s (the input) and a set of target
+ * {@link EntityId}s, with at most {@code maxHops} edges.
+ * <p>
+ * Unlike {@link GetWalks}, the graph is explored from both the sources and the
+ * targets, so only around half of the hops need to be expanded from each end.
+ * Each hop uses the provided {@link View} and {@link DirectedType}; hops from
+ * the sources follow outgoing edges and hops from the targets follow incoming
+ * edges.
+ */
+@JsonPropertyOrder(value = {"class", "input", "targets", "maxHops", "view"}, alphabetic = true)
+@Since("1.12.1")
+@Summary("Gets the walks between the sources and the targets, exploring from both ends")
+public class GetPaths implements
+        InputOutput<Iterable<? extends EntityId>, Iterable<Walk>>,
+        MultiEntityIdInput,
+        GraphFilters {
+
+    public static final int DEFAULT_RESULTS_LIMIT = GetWalks.DEFAULT_RESULTS_LIMIT;
+
+    private Iterable<? extends EntityId> input;
+    @Required
+    private Iterable<? extends EntityId> targets;
+    @Required
+    private Integer maxHops;
+    private View view;
+    private DirectedType directedType;
+    private Integer resultsLimit = DEFAULT_RESULTS_LIMIT;
+    private Map<String, String> options;
+
+    @Override
+    public Iterable<? extends EntityId> getInput() {
+        return input;
+    }
+
+    @Override
+    public void setInput(final Iterable<? extends EntityId> input) {
+        this.input = input;
+    }
+
+    @JsonIgnore
+    public Iterable<? extends EntityId> getTargets() {
+        return targets;
+    }
+
+    @JsonIgnore
+    public void setTargets(final Iterable<? extends EntityId> targets) {
+        this.targets = targets;
+    }
+
+    @SuppressFBWarnings(value = "PZLA_PREFER_ZERO_LENGTH_ARRAYS", justification = "If targets is null then null should be returned")
+    @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS, include = JsonTypeInfo.As.EXISTING_PROPERTY, property = "class")
+    @JsonGetter("targets")
+    public Object[] createTargetsArray() {
+        return null != targets ? Iterables.toArray(targets, Object.class) : null;
+    }
+
+    @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS, include = JsonTypeInfo.As.EXISTING_PROPERTY, property = "class")
+    @JsonSetter("targets")
+    public void setTargetsFromVerticesAndIds(final Object[] targets) {
+        setTargets(OperationUtil.toEntityIds(targets));
+    }
+
+    public Integer getMaxHops() {
+        return maxHops;
+    }
+
+    public void setMaxHops(final Integer maxHops) {
+        this.maxHops = maxHops;
+    }
+
+    @Override
+    public View getView() {
+        return view;
+    }
+
+    @Override
+    public void setView(final View view) {
+        this.view = view;
+    }
+
+    @Override
+    public DirectedType getDirectedType() {
+        return directedType;
+    }
+
+    @Override
+    public void setDirectedType(final DirectedType directedType) {
+        this.directedType = directedType;
+    }
+
+    public Integer getResultsLimit() {
+        return resultsLimit;
+    }
+
+    public void setResultsLimit(final Integer resultsLimit) {
+        this.resultsLimit = resultsLimit;
+    }
+
+    @Override
+    public Map<String, String> getOptions() {
+        return options;
+    }
+
+    @Override
+    public void setOptions(final Map<String, String> options) {
+        this.options = options;
+    }
+
+    @Override
+    public ValidationResult validate() {
+        final ValidationResult result = InputOutput.super.validate();
+        if (null != maxHops && maxHops < 1) {
+            result.addError("maxHops must be at least 1.");
+        }
+        if (null != view && !view.hasEdges()) {
+            result.addError("The view must contain at least 1 edge group.");
+        }
+        return result;
+    }
+
+    @Override
+    public TypeReference<Iterable<Walk>> getOutputTypeReference() {
+        return new TypeReferenceImpl.IterableWalk();
+    }
+
+    @Override
+    public void close() throws IOException {
+        MultiEntityIdInput.super.close();
+        CloseableUtil.close(targets);
+    }
+
+    @Override
+    public GetPaths shallowClone() {
+        return new GetPaths.Builder()
+                .input(input)
+                .targetIds(targets)
+                .maxHops(maxHops)
+                .view(view)
+                .directedType(directedType)
+                .resultsLimit(resultsLimit)
+                .options(options)
+                .build();
+    }
+
+    public static final class Builder
+            extends Operation.BaseBuilder<GetPaths, Builder>
+            implements InputOutput.Builder<GetPaths, Iterable<? extends EntityId>, Iterable<Walk>, Builder>,
+            MultiEntityIdInput.Builder<GetPaths, Builder>,
+            GraphFilters.Builder<GetPaths, Builder> {
+
+        public Builder() {
+            super(new GetPaths());
+        }
+
+        public Builder targets(final Object... targets) {
+            return targets(Lists.newArrayList(targets));
+        }
+
+        public Builder targets(final Iterable targets) {
+            if (null != _getOp().getTargets()) {
+                throw new IllegalStateException("Targets have already been set");
+            }
+            _getOp().setTargets(OperationUtil.toEntityIds(targets));
+            return _self();
+        }
+
+        public Builder targetIds(final Iterable<? extends EntityId> targets) {
+            if (null != _getOp().getTargets()) {
+                throw new IllegalStateException("Targets have already been set");
+            }
+            _getOp().setTargets(targets);
+            return _self();
+        }
+
+        public Builder maxHops(final Integer maxHops) {
+            _getOp().setMaxHops(maxHops);
+            return _self();
+        }
+
+        public Builder resultsLimit(final Integer resultsLimit) {
+            _getOp().setResultsLimit(resultsLimit);
+            return _self();
+        }
+    }
+}
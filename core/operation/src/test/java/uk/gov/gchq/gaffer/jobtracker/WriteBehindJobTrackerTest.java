@@ -0,0 +1,278 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.jobtracker;
+
+import com.google.common.collect.Lists;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.cache.CacheServiceLoader;
+import uk.gov.gchq.gaffer.cache.impl.HashMapCacheService;
+import uk.gov.gchq.gaffer.cache.util.CacheProperties;
+import uk.gov.gchq.gaffer.user.User;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class WriteBehindJobTrackerTest {
+    private static final long NEVER_FLUSH = Long.MAX_VALUE;
+
+    private final User user = new User("user01");
+
+    @Before
+    public void before() {
+        final Properties properties = new Properties();
+        properties.setProperty(CacheProperties.CACHE_SERVICE_CLASS, HashMapCacheService.class.getName());
+        CacheServiceLoader.initialise(properties);
+    }
+
+    @After
+    public void after() {
+        CacheServiceLoader.shutdown();
+    }
+
+    @Test
+    public void shouldCoalesceUpdatesUntilFlushed() {
+        // Given
+        final WriteBehindJobTracker jobTracker = new WriteBehindJobTracker(NEVER_FLUSH, 10);
+        final JobTracker cacheJobTracker = new JobTracker();
+        final JobDetail running = createJobDetail("job1", user, JobStatus.RUNNING);
+        final JobDetail finished = createJobDetail("job1", user, JobStatus.FINISHED);
+
+        // When
+        jobTracker.addOrUpdateJob(running, user);
+        jobTracker.addOrUpdateJob(finished, user);
+
+        // Then
+        assertSame(finished, jobTracker.getJob("job1", user));
+        assertNull(cacheJobTracker.getJob("job1", user));
+
+        // When
+        jobTracker.flush();
+
+        // Then
+        assertEquals(finished, cacheJobTracker.getJob("job1", user));
+    }
+
+    @Test
+    public void shouldFlushUpdatesAsynchronously() throws InterruptedException {
+        // Given
+        final WriteBehindJobTracker jobTracker = new WriteBehindJobTracker(0, 10);
+        final JobTracker cacheJobTracker = new JobTracker();
+        final JobDetail jobDetail = createJobDetail("job1", user, JobStatus.RUNNING);
+
+        // When
+        jobTracker.addOrUpdateJob(jobDetail, user);
+
+        // Then
+        for (int i = 0; i < 100 && null == cacheJobTracker.getJob("job1", user); i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(jobDetail, cacheJobTracker.getJob("job1", user));
+    }
+
+    @Test
+    public void shouldGetJobsUsingStatusIndex() {
+        // Given
+        final User otherUser = new User("user02");
+        final JobDetail job1 = createJobDetail("job1", user, JobStatus.RUNNING);
+        final JobDetail job2 = createJobDetail("job2", otherUser, JobStatus.SCHEDULED_PARENT);
+        final JobDetail job3 = createJobDetail("job3", user, JobStatus.SCHEDULED_PARENT);
+        final JobDetail job1Finished = createJobDetail("job1", user, JobStatus.FINISHED);
+        final WriteBehindJobTracker jobTracker = new WriteBehindJobTracker(NEVER_FLUSH, 10);
+
+        // When
+        jobTracker.addOrUpdateJob(job1, user);
+        jobTracker.addOrUpdateJob(job2, otherUser);
+        jobTracker.addOrUpdateJob(job3, user);
+        jobTracker.addOrUpdateJob(job1Finished, user);
+
+        // Then
+        assertEquals(Arrays.asList(job2, job3), Lists.newArrayList(jobTracker.getAllScheduledJobs()));
+        assertEquals(Collections.singletonList(job1Finished), Lists.newArrayList(jobTracker.getJobsWithStatus(JobStatus.FINISHED, user)));
+        assertEquals(Collections.emptyList(), Lists.newArrayList(jobTracker.getJobsWithStatus(JobStatus.RUNNING, user)));
+        assertEquals(Arrays.asList(job1Finished, job2, job3), Lists.newArrayList(jobTracker.getAllJobs(user)));
+    }
+
+    @Test
+    public void shouldBuildIndexesFromJobsAlreadyInTheCache() {
+        // Given
+        final JobDetail job1 = createJobDetail("job1", user, JobStatus.SCHEDULED_PARENT);
+        new JobTracker().addOrUpdateJob(job1, user);
+        final WriteBehindJobTracker jobTracker = new WriteBehindJobTracker(NEVER_FLUSH, 10);
+
+        // When / Then
+        assertEquals(Collections.singletonList(job1), Lists.newArrayList(jobTracker.getAllScheduledJobs()));
+        assertEquals(Collections.singletonList(job1), Lists.newArrayList(jobTracker.getAllJobs(user)));
+    }
+
+    @Test
+    public void shouldNotReadJobsLoadedFromTheCacheAgainWhenTheCacheIsNotShared() {
+        // Given
+        final JobDetail job1 = createJobDetail("job1", user, JobStatus.SCHEDULED_PARENT);
+        new JobTracker().addOrUpdateJob(job1, user);
+        final CountingJobTracker jobTracker = new CountingJobTracker(false);
+        jobTracker.getAllJobs(user);
+        jobTracker.reads = 0;
+        jobTracker.keyScans = 0;
+
+        // When
+        final List<JobDetail> runningJobs = Lists.newArrayList(jobTracker.getJobsWithStatus(JobStatus.RUNNING, user));
+
+        // Then
+        assertEquals(Collections.emptyList(), runningJobs);
+        assertEquals(0, jobTracker.reads);
+        assertEquals(0, jobTracker.keyScans);
+    }
+
+    @Test
+    public void shouldGetJobsAddedToTheCacheByOtherJobTrackersWhenTheCacheIsShared() {
+        // Given
+        final WriteBehindJobTracker jobTracker = new WriteBehindJobTracker(NEVER_FLUSH, 10, true);
+        final WriteBehindJobTracker otherJobTracker = new WriteBehindJobTracker(NEVER_FLUSH, 10);
+        final JobDetail job1 = createJobDetail("job1", user, JobStatus.SCHEDULED_PARENT);
+        final JobDetail job2 = createJobDetail("job2", user, JobStatus.RUNNING);
+        final JobDetail job2Scheduled = createJobDetail("job2", user, JobStatus.SCHEDULED_PARENT);
+        jobTracker.addOrUpdateJob(job1, user);
+        otherJobTracker.addOrUpdateJob(job2, user);
+        otherJobTracker.flush();
+
+        // When
+        final List<JobDetail> allJobs = Lists.newArrayList(jobTracker.getAllJobs(user));
+        otherJobTracker.addOrUpdateJob(job2Scheduled, user);
+        otherJobTracker.flush();
+
+        // Then
+        assertEquals(Arrays.asList(job1, job2), allJobs);
+        assertEquals(Arrays.asList(job1, job2Scheduled), Lists.newArrayList(jobTracker.getAllScheduledJobs()));
+    }
+
+    @Test
+    public void shouldGetJobsAddedToTheCacheByOtherJobTrackersWhenTheCacheIsNotShared() {
+        // Given
+        final WriteBehindJobTracker jobTracker = new WriteBehindJobTracker(NEVER_FLUSH, 10);
+        final WriteBehindJobTracker otherJobTracker = new WriteBehindJobTracker(NEVER_FLUSH, 10);
+        final JobDetail job1 = createJobDetail("job1", user, JobStatus.SCHEDULED_PARENT);
+        final JobDetail job2 = createJobDetail("job2", user, JobStatus.RUNNING);
+        final JobDetail job2Scheduled = createJobDetail("job2", user, JobStatus.SCHEDULED_PARENT);
+        jobTracker.addOrUpdateJob(job1, user);
+        jobTracker.getAllJobs(user);
+        otherJobTracker.addOrUpdateJob(job2, user);
+        otherJobTracker.flush();
+
+        // When
+        final List<JobDetail> allJobs = Lists.newArrayList(jobTracker.getAllJobs(user));
+        otherJobTracker.addOrUpdateJob(job2Scheduled, user);
+        otherJobTracker.flush();
+
+        // Then
+        assertEquals(Arrays.asList(job1, job2), allJobs);
+        assertEquals(Arrays.asList(job1, job2Scheduled), Lists.newArrayList(jobTracker.getAllScheduledJobs()));
+    }
+
+    @Test
+    public void shouldOnlyKeepTheMostRecentCompletedJobsForEachUser() {
+        // Given
+        final WriteBehindJobTracker jobTracker = new WriteBehindJobTracker(NEVER_FLUSH, 2);
+        final JobDetail job1 = createJobDetail("job1", user, JobStatus.FINISHED);
+        final JobDetail job2 = createJobDetail("job2", user, JobStatus.RUNNING);
+        final JobDetail job3 = createJobDetail("job3", user, JobStatus.FAILED);
+        final JobDetail job4 = createJobDetail("job4", user, JobStatus.FINISHED);
+        jobTracker.addOrUpdateJob(job1, user);
+        jobTracker.flush();
+
+        // When
+        jobTracker.addOrUpdateJob(job2, user);
+        jobTracker.addOrUpdateJob(job3, user);
+        jobTracker.addOrUpdateJob(job4, user);
+
+        // Then - the running job is kept
+        assertNull(jobTracker.getJob("job1", user));
+        assertNull(jobTracker.getJob("job3", user));
+        assertEquals(Arrays.asList(job2, job4), Lists.newArrayList(jobTracker.getAllJobs(user)));
+
+        // Then - the evicted job is only removed from the cache when the updates are written
+        assertEquals(job1, new JobTracker().getJob("job1", user));
+        jobTracker.flush();
+        assertNull(new JobTracker().getJob("job1", user));
+    }
+
+    @Test
+    public void shouldWritePendingUpdatesWhenClosed() {
+        // Given
+        final WriteBehindJobTracker jobTracker = new WriteBehindJobTracker(NEVER_FLUSH, 10);
+        final JobDetail jobDetail = createJobDetail("job1", user, JobStatus.RUNNING);
+        jobTracker.addOrUpdateJob(jobDetail, user);
+
+        // When
+        jobTracker.close();
+
+        // Then
+        assertEquals(jobDetail, new JobTracker().getJob("job1", user));
+    }
+
+    @Test
+    public void shouldWritePendingUpdatesOnShutdown() {
+        // Given
+        final WriteBehindJobTracker jobTracker = new WriteBehindJobTracker(NEVER_FLUSH, 10);
+        final JobDetail jobDetail = createJobDetail("shutdownJob", user, JobStatus.RUNNING);
+        jobTracker.addOrUpdateJob(jobDetail, user);
+
+        // When
+        WriteBehindJobTracker.shutdown();
+
+        // Then
+        assertEquals(jobDetail, new JobTracker().getJob("shutdownJob", user));
+    }
+
+    private static final class CountingJobTracker extends WriteBehindJobTracker {
+        private int reads;
+        private int keyScans;
+
+        private CountingJobTracker(final boolean sharedCache) {
+            super(NEVER_FLUSH, 10, sharedCache);
+        }
+
+        @Override
+        public JobDetail getJob(final String jobId, final User user) {
+            reads++;
+            return super.getJob(jobId, user);
+        }
+
+        @Override
+        protected Set<String> getAllJobIds() {
+            keyScans++;
+            return super.getAllJobIds();
+        }
+    }
+
+    private JobDetail createJobDetail(final String jobId, final User user, final JobStatus status) {
+        return new JobDetail.Builder()
+                .jobId(jobId)
+                .user(user)
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.named.operation;
+
+import com.google.common.collect.Maps;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.operation.OperationChain;
+import uk.gov.gchq.gaffer.operation.impl.Limit;
+import uk.gov.gchq.gaffer.operation.impl.SetVariable;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class NamedOperationTemplateTest {
+    private static final String OPERATIONS = "{\"operations\":[" +
+            "{\"class\":\"uk.gov.gchq.gaffer.operation.impl.get.GetAllElements\"}," +
+            "{\"class\":\"uk.gov.gchq.gaffer.operation.impl.Limit\",\"resultLimit\":\"${limit}\"}]}";
+
+    @Test
+    public void shouldSubstituteProvidedParameterValue() {
+        // Given
+        final NamedOperationTemplate template = new NamedOperationTemplate(createDetail(false));
+
+        // When
+        final OperationChain<?> opChain = template.getOperationChain(Collections.singletonMap("limit", 5L));
+
+        // Then
+        assertEquals(2, opChain.getOperations().size());
+        assertEquals(GetAllElements.class, opChain.getOperations().get(0).getClass());
+        assertEquals(5, (int) ((Limit) opChain.getOperations().get(1)).getResultLimit());
+    }
+
+    @Test
+    public void shouldSubstituteDefaultValueWhenParameterIsNotProvided() {
+        // Given
+        final NamedOperationTemplate template = new NamedOperationTemplate(createDetail(false));
+
+        // When
+        final OperationChain<?> opChain = template.getOperationChain(null);
+        final OperationChain<?> opChainWithDefaults = template.getOperationChainWithDefaultParams();
+
+        // Then
+        assertEquals(10, (int) ((Limit) opChain.getOperations().get(1)).getResultLimit());
+        assertEquals(10, (int) ((Limit) opChainWithDefaults.getOperations().get(1)).getResultLimit());
+    }
+
+    @Test
+    public void shouldConvertParameterValueToValueClass() {
+        // Given
+        final NamedOperationTemplate template = new NamedOperationTemplate(createDetail(false));
+
+        // When
+        final OperationChain<?> opChain = template.getOperationChain(Collections.singletonMap("limit", 3));
+
+        // Then
+        assertEquals(3, (int) ((Limit) opChain.getOperations().get(1)).getResultLimit());
+    }
+
+    @Test
+    public void shouldGiveParameterValuesTheSameTypesAsParsingTheJson() {
+        // Given - the input is untyped, so a number parsed from json is an Integer if it fits
+        final NamedOperationDetail detail = new NamedOperationDetail.Builder()
+                .operationName("test")
+                .operationChain("{\"operations\":[{\"class\":\"uk.gov.gchq.gaffer.operation.impl.SetVariable\"," +
+                        "\"variableName\":\"var\",\"input\":\"${value}\"}]}")
+                .parameters(Collections.singletonMap("value", new ParameterDetail.Builder()
+                        .description("the value")
+                        .defaultValue(10L)
+                        .valueClass(Long.class)
+                        .required(false)
+                        .build()))
+                .build();
+        final NamedOperationTemplate template = new NamedOperationTemplate(detail);
+
+        // When
+        final OperationChain<?> opChain = template.getOperationChain(Collections.singletonMap("value", 5L));
+        final OperationChain<?> opChainWithDefaults = template.getOperationChainWithDefaultParams();
+
+        // Then
+        assertEquals(Integer.valueOf(5), ((SetVariable) opChain.getOperations().get(0)).getInput());
+        assertEquals(Integer.valueOf(10), ((SetVariable) opChainWithDefaults.getOperations().get(0)).getInput());
+    }
+
+    @Test
+    public void shouldNotShareOperationsBetweenOperationChains() {
+        // Given
+        final NamedOperationTemplate template = new NamedOperationTemplate(createDetail(false));
+
+        // When
+        final OperationChain<?> opChain1 = template.getOperationChain(Collections.singletonMap("limit", 1L));
+        final OperationChain<?> opChain2 = template.getOperationChain(Collections.singletonMap("limit", 2L));
+
+        // Then
+        assertNotSame(opChain1.getOperations().get(1), opChain2.getOperations().get(1));
+        assertEquals(1, (int) ((Limit) opChain1.getOperations().get(1)).getResultLimit());
+        assertEquals(2, (int) ((Limit) opChain2.getOperations().get(1)).getResultLimit());
+    }
+
+    @Test
+    public void shouldThrowExceptionForUnexpectedParameter() {
+        // Given
+        final NamedOperationTemplate template = new NamedOperationTemplate(createDetail(false));
+
+        // When / Then
+        try {
+            template.getOperationChain(Collections.singletonMap("unknown", 1L));
+            fail("Exception expected");
+        } catch (final IllegalArgumentException e) {
+            assertEquals("Unexpected parameter name in NamedOperation", e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldThrowExceptionForMissingRequiredParameter() {
+        // Given
+        final NamedOperationTemplate template = new NamedOperationTemplate(createDetail(true));
+
+        // When / Then
+        try {
+            template.getOperationChain(Collections.emptyMap());
+            fail("Exception expected");
+        } catch (final IllegalArgumentException e) {
+            assertEquals("Missing parameter limit with no default", e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldOnlyBeTemplateForEquivalentNamedOperations() {
+        // Given
+        final NamedOperationTemplate template = new NamedOperationTemplate(createDetail(false));
+        final NamedOperationDetail changedOperations = new NamedOperationDetail.Builder()
+                .operationName("test")
+                .operationChain("{\"operations\":[{\"class\":\"uk.gov.gchq.gaffer.operation.impl.get.GetAllElements\"}]}")
+                .parameters(createDetail(false).getParameters())
+                .build();
+
+        // When / Then
+        assertTrue(template.isTemplateFor(createDetail(false)));
+        assertFalse(template.isTemplateFor(createDetail(true)));
+        assertFalse(template.isTemplateFor(changedOperations));
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenSettingTemplateForDifferentNamedOperation() {
+        // Given
+        final NamedOperationTemplate template = new NamedOperationTemplate(createDetail(false));
+        final NamedOperationDetail detail = createDetail(true);
+
+        // When / Then
+        try {
+            detail.setTemplate(template);
+            fail("Exception expected");
+        } catch (final IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("test"));
+        }
+    }
+
+    private NamedOperationDetail createDetail(final boolean required) {
+        final Map<String, ParameterDetail> params = Maps.newHashMap();
+        params.put("limit", new ParameterDetail.Builder()
+                .description("the result limit")
+                .defaultValue(required ? null : 10L)
+                .valueClass(Long.class)
+                .required(required)
+                .build());
+
+        return new NamedOperationDetail.Builder()
+                .operationName("test")
+                .operationChain(OPERATIONS)
+                .parameters(params)
+                .build();
+    }
+}
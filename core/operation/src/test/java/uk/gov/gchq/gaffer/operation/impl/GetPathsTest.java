@@ -0,0 +1,165 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.operation.impl;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.data.element.id.DirectedType;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser;
+import uk.gov.gchq.gaffer.operation.OperationTest;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
+import uk.gov.gchq.koryphe.ValidationResult;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class GetPathsTest extends OperationTest<GetPaths> {
+
+    @Test
+    @Override
+    public void builderShouldCreatePopulatedOperation() {
+        // Given
+        final View view = new View.Builder()
+                .edge(TestGroups.EDGE)
+                .build();
+
+        // When
+        final GetPaths getPaths = new GetPaths.Builder()
+                .input(new EntitySeed("1"), new EntitySeed("2"))
+                .targets("3", new EntitySeed("4"))
+                .maxHops(3)
+                .view(view)
+                .directedType(DirectedType.DIRECTED)
+                .resultsLimit(100)
+                .build();
+
+        // Then
+        assertEquals(Lists.newArrayList(new EntitySeed("1"), new EntitySeed("2")), Lists.newArrayList(getPaths.getInput()));
+        assertEquals(Lists.newArrayList(new EntitySeed("3"), new EntitySeed("4")), Lists.newArrayList(getPaths.getTargets()));
+        assertEquals(3, (int) getPaths.getMaxHops());
+        assertSame(view, getPaths.getView());
+        assertEquals(DirectedType.DIRECTED, getPaths.getDirectedType());
+        assertEquals(100, (int) getPaths.getResultsLimit());
+    }
+
+    @Test
+    @Override
+    public void shouldShallowCloneOperation() {
+        // Given
+        final List<EntitySeed> input = Lists.newArrayList(new EntitySeed("1"));
+        final List<EntitySeed> targets = Lists.newArrayList(new EntitySeed("2"));
+        final View view = new View.Builder()
+                .edge(TestGroups.EDGE)
+                .build();
+        final GetPaths getPaths = new GetPaths.Builder()
+                .input(input)
+                .targetIds(targets)
+                .maxHops(2)
+                .view(view)
+                .directedType(DirectedType.UNDIRECTED)
+                .resultsLimit(10)
+                .option("key", "value")
+                .build();
+
+        // When
+        final GetPaths clone = getPaths.shallowClone();
+
+        // Then
+        assertNotSame(getPaths, clone);
+        assertEquals(input, Lists.newArrayList(clone.getInput()));
+        assertEquals(targets, Lists.newArrayList(clone.getTargets()));
+        assertEquals(2, (int) clone.getMaxHops());
+        assertSame(view, clone.getView());
+        assertEquals(DirectedType.UNDIRECTED, clone.getDirectedType());
+        assertEquals(10, (int) clone.getResultsLimit());
+        assertEquals("value", clone.getOption("key"));
+    }
+
+    @Test
+    public void shouldJsonSerialiseAndDeserialiseTargets() throws Exception {
+        // Given
+        final GetPaths getPaths = new GetPaths.Builder()
+                .input(new EntitySeed("1"))
+                .targets("2", "3")
+                .maxHops(2)
+                .build();
+
+        // When
+        final byte[] json = JSONSerialiser.serialise(getPaths, true);
+        final GetPaths deserialisedOp = JSONSerialiser.deserialise(json, GetPaths.class);
+
+        // Then
+        assertEquals(Lists.newArrayList(new EntitySeed("2"), new EntitySeed("3")), Lists.newArrayList(deserialisedOp.getTargets()));
+        assertEquals(2, (int) deserialisedOp.getMaxHops());
+    }
+
+    @Test
+    public void shouldFailValidationWhenMaxHopsIsLessThan1() {
+        // Given
+        final GetPaths getPaths = new GetPaths.Builder()
+                .input(new EntitySeed("1"))
+                .targets("2")
+                .maxHops(0)
+                .build();
+
+        // When
+        final ValidationResult result = getPaths.validate();
+
+        // Then
+        assertFalse(result.isValid());
+        assertTrue(result.getErrorString(), result.getErrorString().contains("maxHops must be at least 1"));
+    }
+
+    @Test
+    public void shouldFailValidationWhenViewHasNoEdges() {
+        // Given
+        final GetPaths getPaths = new GetPaths.Builder()
+                .input(new EntitySeed("1"))
+                .targets("2")
+                .maxHops(2)
+                .view(new View.Builder()
+                        .entity(TestGroups.ENTITY)
+                        .build())
+                .build();
+
+        // When
+        final ValidationResult result = getPaths.validate();
+
+        // Then
+        assertFalse(result.isValid());
+    }
+
+    @Override
+    protected GetPaths getTestObject() {
+        return new GetPaths();
+    }
+
+    @Override
+    protected Set<String> getRequiredFields() {
+        return Sets.newHashSet("targets", "maxHops");
+    }
+}
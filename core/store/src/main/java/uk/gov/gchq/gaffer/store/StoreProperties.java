@@ -30,6 +30,7 @@ import uk.gov.gchq.gaffer.commonutil.DebugUtil;
 import uk.gov.gchq.gaffer.commonutil.StreamUtil;
 import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
 import uk.gov.gchq.gaffer.data.elementdefinition.exception.SchemaException;
+import uk.gov.gchq.gaffer.jobtracker.WriteBehindJobTracker;
 import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser;
 import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiserModules;
 import uk.gov.gchq.gaffer.store.operation.declaration.OperationDeclarations;
@@ -67,6 +68,12 @@ public class StoreProperties implements Cloneable {
     public static final String OPERATION_DECLARATIONS = "gaffer.store.operation.declarations";
 
     public static final String JOB_TRACKER_ENABLED = "gaffer.store.job.tracker.enabled";
+    public static final String JOB_TRACKER_WRITE_BEHIND = "gaffer.store.job.tracker.writeBehind";
+    public static final String JOB_TRACKER_FLUSH_INTERVAL_MILLIS = "gaffer.store.job.tracker.flushIntervalMillis";
+    public static final String JOB_TRACKER_FLUSH_INTERVAL_MILLIS_DEFAULT = String.valueOf(WriteBehindJobTracker.DEFAULT_FLUSH_INTERVAL_MILLIS);
+    public static final String JOB_TRACKER_MAX_JOBS_PER_USER = "gaffer.store.job.tracker.maxJobsPerUser";
+    public static final String JOB_TRACKER_MAX_JOBS_PER_USER_DEFAULT = String.valueOf(WriteBehindJobTracker.DEFAULT_MAX_JOBS_PER_USER);
+    public static final String JOB_TRACKER_SHARED_CACHE = "gaffer.store.job.tracker.sharedCache";
 
     public static final String EXECUTOR_SERVICE_THREAD_COUNT = "gaffer.store.job.executor.threads";
     public static final String EXECUTOR_SERVICE_THREAD_COUNT_DEFAULT = "50";
@@ -340,6 +347,51 @@ public class StoreProperties implements Cloneable {
         set(JOB_TRACKER_ENABLED, jobTrackerEnabled.toString());
     }
 
+    /**
+     * Whether the job tracker should hold job updates in memory and write them
+     * to the cache asynchronously, using a {@link WriteBehindJobTracker}.
+     *
+     * @return true if the write behind job tracker should be used
+     */
+    public Boolean getJobTrackerWriteBehind() {
+        return Boolean.valueOf(get(JOB_TRACKER_WRITE_BEHIND, "false"));
+    }
+
+    public void setJobTrackerWriteBehind(final Boolean jobTrackerWriteBehind) {
+        set(JOB_TRACKER_WRITE_BEHIND, jobTrackerWriteBehind.toString());
+    }
+
+    public long getJobTrackerFlushIntervalMillis() {
+        return Long.parseLong(get(JOB_TRACKER_FLUSH_INTERVAL_MILLIS, JOB_TRACKER_FLUSH_INTERVAL_MILLIS_DEFAULT));
+    }
+
+    public void setJobTrackerFlushIntervalMillis(final String flushIntervalMillis) {
+        set(JOB_TRACKER_FLUSH_INTERVAL_MILLIS, flushIntervalMillis);
+    }
+
+    public int getJobTrackerMaxJobsPerUser() {
+        return Integer.parseInt(get(JOB_TRACKER_MAX_JOBS_PER_USER, JOB_TRACKER_MAX_JOBS_PER_USER_DEFAULT));
+    }
+
+    public void setJobTrackerMaxJobsPerUser(final String maxJobsPerUser) {
+        set(JOB_TRACKER_MAX_JOBS_PER_USER, maxJobsPerUser);
+    }
+
+    /**
+     * Whether the job tracker cache is shared with the job trackers of other
+     * nodes, so the {@link WriteBehindJobTracker} should read the jobs that the
+     * other nodes have added to it.
+     *
+     * @return true if the job tracker cache is shared
+     */
+    public Boolean getJobTrackerSharedCache() {
+        return Boolean.valueOf(get(JOB_TRACKER_SHARED_CACHE, "false"));
+    }
+
+    public void setJobTrackerSharedCache(final Boolean jobTrackerSharedCache) {
+        set(JOB_TRACKER_SHARED_CACHE, jobTrackerSharedCache.toString());
+    }
+
     public String getSchemaClassName() {
         return get(SCHEMA_CLASS, Schema.class.getName());
     }
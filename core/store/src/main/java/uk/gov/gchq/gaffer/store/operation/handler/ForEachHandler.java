@@ -16,6 +16,9 @@
 
 package uk.gov.gchq.gaffer.store.operation.handler;
 
+import com.google.common.collect.Lists;
+
+import uk.gov.gchq.gaffer.core.exception.GafferRuntimeException;
 import uk.gov.gchq.gaffer.operation.Operation;
 import uk.gov.gchq.gaffer.operation.OperationException;
 import uk.gov.gchq.gaffer.operation.impl.ForEach;
@@ -23,17 +26,53 @@ import uk.gov.gchq.gaffer.operation.io.Output;
 import uk.gov.gchq.gaffer.store.Context;
 import uk.gov.gchq.gaffer.store.Store;
 import uk.gov.gchq.gaffer.store.operation.handler.util.OperationHandlerUtil;
+import uk.gov.gchq.gaffer.store.operation.handler.util.ParallelForEachIterable;
+import uk.gov.gchq.gaffer.store.operation.handler.util.PrefetchedIterable;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * An {@code OperationHandler} for the {@link ForEach} Operation.
+ * <p>
+ * By default the operation is executed for each input in turn and all the results
+ * are returned in a list. The handler has settings which can be overridden by system
+ * administrators to execute the operations concurrently: <ul>
+ * <li>parallelism - the maximum number of operations to execute at the same time. The
+ * operations are executed on a thread pool of this size, which is shared by all the
+ * ForEach operations executed by this handler. If this is not set, or is 1, the
+ * operations are executed in turn.</li>
+ * <li>ordered - if true (the default) the results are returned in the same order as the
+ * inputs, otherwise they are returned as soon as each operation completes.</li>
+ * <li>failFast - if true (the default) the first failure stops the remaining operations,
+ * otherwise the failures are thrown once all the other results have been returned.</li>
+ * <li>prefetchLimit - the maximum number of items of each lazy {@link Iterable} result to
+ * read on the thread that executed the operation (default 1000). Results with no more
+ * items than this are read in full and closed there, so that store retrievers are read
+ * concurrently rather than as the results are consumed.</li>
+ * </ul>
+ * When executing concurrently the first operations are started straight away and the
+ * rest of the results are returned lazily, so the remaining operations are executed as the
+ * results are consumed. Operations that do not have an output are all executed before the
+ * handler returns. Each operation is executed with its own copy of the {@link Context}.
+ * A ForEach executed within a concurrent ForEach executes its operations in turn, so that it
+ * does not wait for threads from the same thread pool.
  *
  * @param <I> input type
  * @param <O> output type
  */
 public class ForEachHandler<I, O> implements OutputOperationHandler<ForEach<I, O>, Iterable<? extends O>> {
+    private static final int DEFAULT_PREFETCH_LIMIT = 1000;
+    private static final ThreadLocal<Boolean> IS_FOR_EACH_THREAD = ThreadLocal.withInitial(() -> false);
+
+    private Integer parallelism = null;
+    private boolean ordered = true;
+    private boolean failFast = true;
+    private int prefetchLimit = DEFAULT_PREFETCH_LIMIT;
+    private ExecutorService executorService;
 
     @Override
     public Iterable<? extends O> doOperation(final ForEach<I, O> forEach, final Context context, final Store store) throws OperationException {
@@ -44,15 +83,99 @@ public class ForEachHandler<I, O> implements OutputOperationHandler<ForEach<I, O
             throw new OperationException("Inputs cannot be null");
         }
 
+        if (null != parallelism && parallelism > 1 && !IS_FOR_EACH_THREAD.get()) {
+            // The operations execute on different threads, so they each need their own context
+            final ParallelForEachIterable<I, O> results = new ParallelForEachIterable<I, O>(
+                    forEach.getInput(),
+                    input -> {
+                        final Context taskContext = new Context(context);
+                        return () -> prefetch(executeOperation(createOperation(forEach, input), taskContext, store));
+                    },
+                    getOrCreateExecutorService(),
+                    parallelism,
+                    ordered,
+                    failFast);
+            if (!(forEach.getOperation() instanceof Output)) {
+                // There are no results to consume, so execute all the operations now
+                try {
+                    return Lists.newArrayList(results);
+                } catch (final GafferRuntimeException e) {
+                    throw new OperationException(e.getMessage(), e);
+                }
+            }
+            return results.start();
+        }
+
         final List<O> results = new ArrayList<>();
         for (final I input : forEach.getInput()) {
-            final Operation clonedOperation = forEach.getOperation().shallowClone();
-            OperationHandlerUtil.updateOperationInput(clonedOperation, input);
-            results.add(executeOperation(clonedOperation, context, store));
+            results.add(executeOperation(createOperation(forEach, input), context, store));
         }
         return results;
     }
 
+    public Integer getParallelism() {
+        return parallelism;
+    }
+
+    public synchronized void setParallelism(final Integer parallelism) {
+        this.parallelism = parallelism;
+        if (null != executorService) {
+            executorService.shutdown();
+            executorService = null;
+        }
+    }
+
+    public Boolean getOrdered() {
+        return ordered;
+    }
+
+    public void setOrdered(final Boolean ordered) {
+        this.ordered = ordered;
+    }
+
+    public Boolean getFailFast() {
+        return failFast;
+    }
+
+    public void setFailFast(final Boolean failFast) {
+        this.failFast = failFast;
+    }
+
+    public Integer getPrefetchLimit() {
+        return prefetchLimit;
+    }
+
+    public void setPrefetchLimit(final Integer prefetchLimit) {
+        this.prefetchLimit = null != prefetchLimit ? prefetchLimit : DEFAULT_PREFETCH_LIMIT;
+    }
+
+    private synchronized ExecutorService getOrCreateExecutorService() {
+        if (null == executorService) {
+            executorService = Executors.newFixedThreadPool(parallelism, runnable -> {
+                final Thread thread = new Thread(() -> {
+                    IS_FOR_EACH_THREAD.set(true);
+                    runnable.run();
+                }, "forEach-executor");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executorService;
+    }
+
+    private Operation createOperation(final ForEach<I, O> forEach, final I input) {
+        final Operation clonedOperation = forEach.getOperation().shallowClone();
+        OperationHandlerUtil.updateOperationInput(clonedOperation, input);
+        return clonedOperation;
+    }
+
+    private O prefetch(final O result) {
+        if (result instanceof Iterable && !(result instanceof Collection)) {
+            return (O) PrefetchedIterable.prefetch((Iterable<?>) result, prefetchLimit);
+        }
+        return result;
+    }
+
     private O executeOperation(final Operation operation, final Context context, final Store store) throws OperationException {
         final O result;
         if (operation instanceof Output) {
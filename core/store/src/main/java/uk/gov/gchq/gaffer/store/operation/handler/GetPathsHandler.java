@@ -0,0 +1,213 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.store.operation.handler;
+
+import com.google.common.collect.Iterables;
+
+import uk.gov.gchq.gaffer.commonutil.iterable.EmptyClosableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.LimitedCloseableIterable;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.id.EdgeId.MatchedVertex;
+import uk.gov.gchq.gaffer.data.element.id.EntityId;
+import uk.gov.gchq.gaffer.data.graph.GraphWindow;
+import uk.gov.gchq.gaffer.data.graph.Walk;
+import uk.gov.gchq.gaffer.data.graph.adjacency.AdjacencyMap;
+import uk.gov.gchq.gaffer.data.graph.adjacency.SimpleAdjacencyMaps;
+import uk.gov.gchq.gaffer.data.graph.entity.EntityMap;
+import uk.gov.gchq.gaffer.data.graph.entity.SimpleEntityMaps;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
+import uk.gov.gchq.gaffer.operation.graph.SeededGraphFilters.IncludeIncomingOutgoingType;
+import uk.gov.gchq.gaffer.operation.impl.GetPaths;
+import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
+import uk.gov.gchq.gaffer.store.Context;
+import uk.gov.gchq.gaffer.store.Store;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An operation handler for {@link GetPaths} operations.
+ * <p>
+ * The handler alternately expands a frontier from the sources, following
+ * outgoing edges, and a frontier from the targets, following incoming edges.
+ * The smaller of the two frontiers is expanded each time, using a single
+ * {@link GetElements} operation, until the total number of hops reaches
+ * maxHops or one of the frontiers is empty. Each vertex is only used once as a
+ * seed in each hop.
+ * <p>
+ * The edges found from the targets are stored in the direction of the walk,
+ * so the forward and backward hops can be joined into a single in-memory graph
+ * for each walk length. The {@link Walk}s are then constructed lazily using a
+ * depth-first search, in the same way as the {@link GetWalksHandler}.
+ * <p>
+ * As with the {@link GetWalksHandler}, system administrators can limit the
+ * maximum number of hops a user can request by setting maxHops in an
+ * operationDeclarations.json file.
+ */
+public class GetPathsHandler implements OutputOperationHandler<GetPaths, Iterable<Walk>> {
+    private Integer maxHops = null;
+
+    @Override
+    public Iterable<Walk> doOperation(final GetPaths getPaths, final Context context, final Store store) throws OperationException {
+        // Check input
+        if (null == getPaths.getInput()) {
+            return null;
+        }
+
+        if (null == getPaths.getTargets() || null == getPaths.getMaxHops() || getPaths.getMaxHops() < 1) {
+            return new EmptyClosableIterable<>();
+        }
+
+        final int hops = getPaths.getMaxHops();
+        if (null != maxHops && hops > maxHops) {
+            throw new OperationException("GetPaths operation contains " + hops + " hops. The maximum number of hops is: " + maxHops);
+        }
+
+        final Integer resultLimit = getPaths.getResultsLimit();
+        final List<EntityId> sources = new ArrayList<>();
+        Set<Object> forwardFrontier = new LinkedHashSet<>();
+        for (final EntityId source : new LimitedCloseableIterable<>(getPaths.getInput(), 0, resultLimit, false)) {
+            sources.add(source);
+            forwardFrontier.add(source.getVertex());
+        }
+        final Set<Object> targets = new HashSet<>();
+        for (final EntityId target : new LimitedCloseableIterable<>(getPaths.getTargets(), 0, resultLimit, false)) {
+            targets.add(target.getVertex());
+        }
+
+        // Expand the smallest frontier each time
+        final List<AdjacencyMap> forwardMaps = new ArrayList<>();
+        final List<AdjacencyMap> backwardMaps = new ArrayList<>();
+        Set<Object> backwardFrontier = new LinkedHashSet<>(targets);
+        while (forwardMaps.size() + backwardMaps.size() < hops
+                && !forwardFrontier.isEmpty() && !backwardFrontier.isEmpty()) {
+            if (forwardFrontier.size() <= backwardFrontier.size()) {
+                forwardFrontier = expand(getPaths, forwardFrontier, false, forwardMaps, resultLimit, context, store);
+            } else {
+                backwardFrontier = expand(getPaths, backwardFrontier, true, backwardMaps, resultLimit, context, store);
+            }
+        }
+
+        // Join the forward and backward hops for each walk length, the shortest walks are returned first
+        final List<Iterable<Walk>> walksByLength = new ArrayList<>();
+        for (int length = 1; length <= forwardMaps.size() + backwardMaps.size(); length++) {
+            final GraphWindow graphWindow = createGraphWindow(forwardMaps, backwardMaps, targets, length);
+            final int walkLength = length;
+            walksByLength.add(() -> new GetWalksHandler.WalkIterator(sources.iterator(), graphWindow, walkLength, false));
+        }
+        return new LimitedCloseableIterable<>(Iterables.concat(walksByLength), 0, resultLimit, false);
+    }
+
+    public Integer getMaxHops() {
+        return maxHops;
+    }
+
+    public void setMaxHops(final Integer maxHops) {
+        this.maxHops = maxHops;
+    }
+
+    private Set<Object> expand(final GetPaths getPaths,
+                               final Set<Object> frontier,
+                               final boolean backward,
+                               final List<AdjacencyMap> adjacencyMaps,
+                               final Integer resultLimit,
+                               final Context context,
+                               final Store store) throws OperationException {
+        final List<EntitySeed> seeds = new ArrayList<>(frontier.size());
+        for (final Object vertex : frontier) {
+            seeds.add(new EntitySeed(vertex));
+        }
+
+        final GetElements getElements = new GetElements.Builder()
+                .input(seeds)
+                .view(getPaths.getView())
+                .directedType(getPaths.getDirectedType())
+                .inOutType(backward ? IncludeIncomingOutgoingType.INCOMING : IncludeIncomingOutgoingType.OUTGOING)
+                .options(getPaths.getOptions())
+                .build();
+
+        final AdjacencyMap adjacencyMap = new AdjacencyMap();
+        final Set<Object> nextFrontier = new LinkedHashSet<>();
+        for (final Element element : new LimitedCloseableIterable<>(store.execute(getElements, context), 0, resultLimit, false)) {
+            if (element instanceof Edge) {
+                final Edge edge = (Edge) element;
+                final Object matchedVertex = edge.getMatchedVertexValue();
+                final Object adjacentVertex = edge.getAdjacentMatchedVertexValue();
+                nextFrontier.add(adjacentVertex);
+                if (backward) {
+                    adjacencyMap.putEdge(adjacentVertex, matchedVertex, flip(edge));
+                } else {
+                    adjacencyMap.putEdge(matchedVertex, adjacentVertex, edge);
+                }
+            }
+        }
+        adjacencyMaps.add(adjacencyMap);
+        return nextFrontier;
+    }
+
+    private static GraphWindow createGraphWindow(final List<AdjacencyMap> forwardMaps,
+                                                 final List<AdjacencyMap> backwardMaps,
+                                                 final Set<Object> targets,
+                                                 final int length) {
+        final int forwardHops = Math.min(forwardMaps.size(), length);
+        final int backwardHops = length - forwardHops;
+
+        final SimpleAdjacencyMaps adjacencyMaps = new SimpleAdjacencyMaps();
+        for (int i = 0; i < forwardHops; i++) {
+            adjacencyMaps.add(forwardMaps.get(i));
+        }
+        if (0 == backwardHops) {
+            // Without any backward hops the walks must end at one of the targets
+            adjacencyMaps.asList().set(length - 1, filterDestinations(forwardMaps.get(length - 1), targets));
+        }
+        for (int i = backwardHops - 1; i >= 0; i--) {
+            adjacencyMaps.add(backwardMaps.get(i));
+        }
+
+        final SimpleEntityMaps entityMaps = new SimpleEntityMaps();
+        for (int i = 0; i <= length; i++) {
+            entityMaps.add(new EntityMap());
+        }
+        return new GraphWindow(adjacencyMaps, entityMaps);
+    }
+
+    private static AdjacencyMap filterDestinations(final AdjacencyMap adjacencyMap, final Set<Object> destinations) {
+        final AdjacencyMap filteredMap = new AdjacencyMap();
+        for (final Object source : adjacencyMap.getAllSources()) {
+            for (final Object destination : adjacencyMap.getDestinations(source)) {
+                if (destinations.contains(destination)) {
+                    for (final Edge edge : adjacencyMap.getEdges(source, destination)) {
+                        filteredMap.putEdge(source, destination, edge);
+                    }
+                }
+            }
+        }
+        return filteredMap;
+    }
+
+    // Reverses the matched vertex so the edge is traversed from the adjacent vertex
+    private static Edge flip(final Edge edge) {
+        final MatchedVertex matchedVertex = MatchedVertex.DESTINATION == edge.getMatchedVertex()
+                ? MatchedVertex.SOURCE : MatchedVertex.DESTINATION;
+        return new Edge(edge.getGroup(), edge.getSource(), edge.getDestination(), edge.isDirected(), matchedVertex, edge.getProperties());
+    }
+}
@@ -20,7 +20,7 @@ import com.google.common.collect.Lists;
 
 import uk.gov.gchq.gaffer.commonutil.iterable.EmptyClosableIterable;
 import uk.gov.gchq.gaffer.commonutil.iterable.LimitedCloseableIterable;
-import uk.gov.gchq.gaffer.commonutil.stream.Streams;
+import uk.gov.gchq.gaffer.commonutil.pair.Pair;
 import uk.gov.gchq.gaffer.data.element.Edge;
 import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.data.element.Entity;
@@ -46,12 +46,15 @@ import uk.gov.gchq.gaffer.store.Context;
 import uk.gov.gchq.gaffer.store.Store;
 import uk.gov.gchq.koryphe.impl.function.IterableFunction;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * An operation handler for {@link GetWalks} operations.
@@ -59,9 +62,10 @@ import java.util.stream.Collectors;
  * The handler executes each {@link uk.gov.gchq.gaffer.operation.impl.get.GetElements}
  * operation in the parent GetWalks operation in turn and incrementally creates
  * an in-memory representation of the resulting graph. Once all GetElements
- * operations have been executed, a recursive depth-first search algorithm is
- * used to construct all of the {@link Walk}s that exist in the temporary
- * graph.
+ * operations have been executed, a depth-first search algorithm is used to
+ * lazily construct all of the {@link Walk}s that exist in the temporary graph.
+ * Each vertex is only used once as a seed for the next GetElements operation,
+ * however many edges lead to it.
  * <p>
  * The default handler has two settings which can be overridden by system
  * administrators: <ul> <li>maxHops - prevent users from executing GetWalks
@@ -143,10 +147,13 @@ public class GetWalksHandler implements OutputOperationHandler<GetWalks, Iterabl
 
         final GraphWindow graphWindow = new GraphWindow(adjacencyMaps, entityMaps);
 
-        // Track/recombine the edge objects and convert to return type
-        return Streams.toStream(originalInput)
-                .flatMap(seed -> walk(seed.getVertex(), null, graphWindow, new LinkedList<>(), new LinkedList<>(), hops, getWalks.isIncludePartial()).stream())
-                .collect(Collectors.toList());
+        // Track/recombine the edge objects and convert to return type.
+        // The walks are generated lazily so they can be streamed and the
+        // enumeration stops once the results limit is reached. The limit is
+        // applied to each hop, so the walks are truncated rather than failing
+        // part way through being returned.
+        final Iterable<Walk> walks = () -> new WalkIterator(originalInput.iterator(), graphWindow, hops, getWalks.isIncludePartial());
+        return new LimitedCloseableIterable<>(walks, 0, resultLimit, true);
     }
 
     public Integer getMaxHops() {
@@ -233,7 +240,8 @@ public class GetWalksHandler implements OutputOperationHandler<GetWalks, Iterabl
         final AdjacencyMap adjacencyMap = new AdjacencyMap();
         final EntityMap entityMap = new EntityMap();
 
-        final List<Object> nextSeeds = new ArrayList<>();
+        // The adjacency map holds every edge but each vertex is only used once as a seed for the next hop
+        final Set<Object> nextSeeds = new LinkedHashSet<>();
         for (final Element e : results) {
             if (e instanceof Edge) {
                 final Edge edge = (Edge) e;
@@ -251,7 +259,7 @@ public class GetWalksHandler implements OutputOperationHandler<GetWalks, Iterabl
         }
         entityMaps.add(entityMap);
 
-        return nextSeeds;
+        return new ArrayList<>(nextSeeds);
     }
 
     private Iterable<Element> executeOperation(final Output<Iterable<Element>> operation,
@@ -272,44 +280,7 @@ public class GetWalksHandler implements OutputOperationHandler<GetWalks, Iterabl
         return new LimitedCloseableIterable<>(store.execute(convertedOp, context), 0, resultLimit, false);
     }
 
-    private List<Walk> walk(final Object curr, final Object prev, final GraphWindow graphWindow, final LinkedList<Set<Edge>> edgeQueue, final LinkedList<Set<Entity>> entityQueue, final int hops, final boolean includePartial) {
-        final List<Walk> walks = new ArrayList<>();
-
-        if (null != prev && hops != edgeQueue.size()) {
-            edgeQueue.offer(graphWindow.getAdjacencyMaps().get(edgeQueue.size()).getEdges(prev, curr));
-        }
-
-        entityQueue.offer(graphWindow.getEntityMaps().get(entityQueue.size()).get(curr));
-
-        if (hops == edgeQueue.size()) {
-            final Walk walk = buildWalk(edgeQueue, entityQueue);
-            walks.add(walk);
-        } else {
-            final Set<Object> dests = graphWindow.getAdjacencyMaps().get(edgeQueue.size()).getDestinations(curr);
-            if (dests.isEmpty()) {
-                if (includePartial) {
-                    final Walk walk = buildWalk(edgeQueue, entityQueue);
-                    walks.add(walk);
-                }
-            } else {
-                for (final Object obj : dests) {
-                    walks.addAll(walk(obj, curr, graphWindow, edgeQueue, entityQueue, hops, includePartial));
-                }
-            }
-        }
-
-        if (!edgeQueue.isEmpty()) {
-            edgeQueue.pollLast();
-        }
-
-        if (!entityQueue.isEmpty()) {
-            entityQueue.pollLast();
-        }
-
-        return walks;
-    }
-
-    private Walk buildWalk(final LinkedList<Set<Edge>> edgeQueue, final LinkedList<Set<Entity>> entityQueue) {
+    private static Walk buildWalk(final LinkedList<Set<Edge>> edgeQueue, final LinkedList<Set<Entity>> entityQueue) {
         final Walk.Builder builder = new Walk.Builder();
 
         final Iterator<Set<Edge>> edgeIterator = edgeQueue.iterator();
@@ -336,4 +307,88 @@ public class GetWalksHandler implements OutputOperationHandler<GetWalks, Iterabl
             );
         }
     }
+
+    /**
+     * Generates the {@link Walk}s from each of the seeds one at a time, using a
+     * depth-first search with an explicit stack rather than recursion.
+     */
+    static final class WalkIterator implements Iterator<Walk> {
+        private final Iterator<? extends EntityId> seeds;
+        private final GraphWindow graphWindow;
+        private final int hops;
+        private final boolean includePartial;
+        private final LinkedList<Set<Edge>> edgeQueue = new LinkedList<>();
+        private final LinkedList<Set<Entity>> entityQueue = new LinkedList<>();
+        private final Deque<Pair<Object, Iterator<Object>>> stack = new ArrayDeque<>();
+        private Walk nextWalk;
+
+        WalkIterator(final Iterator<? extends EntityId> seeds, final GraphWindow graphWindow, final int hops, final boolean includePartial) {
+            this.seeds = seeds;
+            this.graphWindow = graphWindow;
+            this.hops = hops;
+            this.includePartial = includePartial;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (null == nextWalk) {
+                if (stack.isEmpty()) {
+                    if (!seeds.hasNext()) {
+                        return false;
+                    }
+                    visit(seeds.next().getVertex(), null);
+                } else {
+                    final Pair<Object, Iterator<Object>> current = stack.peek();
+                    if (current.getSecond().hasNext()) {
+                        visit(current.getSecond().next(), current.getFirst());
+                    } else {
+                        stack.pop();
+                        leave();
+                    }
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Walk next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Walk walk = nextWalk;
+            nextWalk = null;
+            return walk;
+        }
+
+        private void visit(final Object curr, final Object prev) {
+            if (null != prev) {
+                edgeQueue.offer(graphWindow.getAdjacencyMaps().get(edgeQueue.size()).getEdges(prev, curr));
+            }
+            entityQueue.offer(graphWindow.getEntityMaps().get(entityQueue.size()).get(curr));
+
+            if (hops == edgeQueue.size()) {
+                nextWalk = buildWalk(edgeQueue, entityQueue);
+                leave();
+            } else {
+                final Set<Object> dests = graphWindow.getAdjacencyMaps().get(edgeQueue.size()).getDestinations(curr);
+                if (dests.isEmpty()) {
+                    if (includePartial) {
+                        nextWalk = buildWalk(edgeQueue, entityQueue);
+                    }
+                    leave();
+                } else {
+                    stack.push(new Pair<>(curr, dests.iterator()));
+                }
+            }
+        }
+
+        private void leave() {
+            if (!edgeQueue.isEmpty()) {
+                edgeQueue.pollLast();
+            }
+            if (!entityQueue.isEmpty()) {
+                entityQueue.pollLast();
+            }
+        }
+    }
 }
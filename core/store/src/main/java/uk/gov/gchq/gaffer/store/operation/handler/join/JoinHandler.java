@@ -27,14 +27,28 @@ import uk.gov.gchq.gaffer.operation.impl.join.methods.JoinType;
 import uk.gov.gchq.gaffer.store.Context;
 import uk.gov.gchq.gaffer.store.Store;
 import uk.gov.gchq.gaffer.store.operation.handler.OutputOperationHandler;
+import uk.gov.gchq.gaffer.store.operation.handler.join.match.PartitionableMatch;
 import uk.gov.gchq.koryphe.tuple.MapTuple;
 
+import java.io.File;
 import java.util.ArrayList;
 
 import static uk.gov.gchq.gaffer.store.operation.handler.util.OperationHandlerUtil.getResultsOrNull;
 import static uk.gov.gchq.gaffer.store.operation.handler.util.OperationHandlerUtil.updateOperationInput;
 
+/**
+ * Handles {@link Join} operations.
+ * <p>
+ * By default both inputs to the join are limited to the collectionLimit, as they are
+ * held in memory. If spillToDisk is enabled and the match method is a {@link PartitionableMatch}
+ * then the inputs are not limited. Instead, if there are more match candidates than the
+ * collectionLimit, the inputs are partitioned to temporary files in the tempDirectory
+ * (or the default temporary directory) and the results are streamed using a {@link SpillingJoinIterable}.
+ */
 public class JoinHandler<I> implements OutputOperationHandler<Join<I>, Iterable<? extends MapTuple>> {
+    private boolean spillToDisk = false;
+    private String tempDirectory;
+
     @Override
     public Iterable<? extends MapTuple> doOperation(final Join<I> operation, final Context context, final Store store) throws OperationException {
         final int limit = operation.getCollectionLimit() != null ? operation.getCollectionLimit() : 100000;
@@ -70,6 +84,12 @@ public class JoinHandler<I> implements OutputOperationHandler<Join<I>, Iterable<
                         context,
                         store);
 
+        if (spillToDisk && operation.getMatchMethod() instanceof PartitionableMatch) {
+            return new SpillingJoinIterable(operation.getInput(), rightIterable,
+                    (PartitionableMatch) operation.getMatchMethod(), joinFunction, matchKey, operation.isFlatten(),
+                    limit, store.getSchema(), null != tempDirectory ? new File(tempDirectory) : null);
+        }
+
         final Iterable limitedLeftIterable;
         final Iterable limitedRightIterable;
 
@@ -82,4 +102,20 @@ public class JoinHandler<I> implements OutputOperationHandler<Join<I>, Iterable<
         }
 
     }
+
+    public boolean isSpillToDisk() {
+        return spillToDisk;
+    }
+
+    public void setSpillToDisk(final boolean spillToDisk) {
+        this.spillToDisk = spillToDisk;
+    }
+
+    public String getTempDirectory() {
+        return tempDirectory;
+    }
+
+    public void setTempDirectory(final String tempDirectory) {
+        this.tempDirectory = tempDirectory;
+    }
 }
@@ -0,0 +1,544 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.store.operation.handler.join;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
+import uk.gov.gchq.gaffer.commonutil.exception.LimitExceededException;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.id.EdgeId.MatchedVertex;
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.operation.impl.join.match.MatchKey;
+import uk.gov.gchq.gaffer.operation.impl.join.methods.JoinFunction;
+import uk.gov.gchq.gaffer.serialisation.ToBytesSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.JavaSerialiser;
+import uk.gov.gchq.gaffer.store.operation.handler.join.match.PartitionableMatch;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.schema.SchemaElementDefinition;
+import uk.gov.gchq.gaffer.store.schema.SchemaEntityDefinition;
+import uk.gov.gchq.gaffer.store.serialiser.ElementSerialiser;
+import uk.gov.gchq.koryphe.tuple.MapTuple;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@code SpillingJoinIterable} joins two iterables using a grace hash join, so the
+ * inputs do not need to fit in memory.
+ * <p>
+ * The match candidates are read into memory until there are more than the memory limit.
+ * If the limit is not exceeded then the keys are streamed through the {@link PartitionableMatch}.
+ * Otherwise both inputs are partitioned into local temporary files using the key
+ * provided by the match and each pair of partitions is joined in turn. Any partition
+ * that still has too many match candidates is partitioned again. Objects are written to
+ * the files using the {@link ElementSerialiser} for the Schema where possible, otherwise
+ * they are Java serialised. The {@link ElementSerialiser} does not write the matched
+ * vertex of an {@link Edge}, so it is written separately.
+ * <p>
+ * The results are generated lazily. When the inputs are partitioned the results are
+ * grouped by partition, so they will not be in the same order as the keys.
+ * <p>
+ * The files for each partition are deleted once the partition has been joined, and the
+ * temporary directory is deleted once all the results have been returned or the iterator
+ * is closed. Any temporary directories that remain, e.g. from iterators that were not
+ * fully consumed or closed, are deleted when the JVM shuts down.
+ */
+public class SpillingJoinIterable implements CloseableIterable<MapTuple> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpillingJoinIterable.class);
+
+    public static final int DEFAULT_NUM_PARTITIONS = 16;
+    public static final int MAX_PARTITION_DEPTH = 4;
+
+    private static final byte NULL_TAG = 0;
+    private static final byte ELEMENT_TAG = 1;
+    private static final byte JAVA_TAG = 2;
+    private static final byte MATCHED_EDGE_TAG = 3;
+
+    private static final Set<File> SPILL_DIRECTORIES = ConcurrentHashMap.newKeySet();
+    private static boolean shutdownHookAdded = false;
+
+    private final Iterable left;
+    private final Iterable right;
+    private final PartitionableMatch match;
+    private final JoinFunction joinFunction;
+    private final MatchKey matchKey;
+    private final boolean flatten;
+    private final int memoryLimit;
+    private final int numPartitions;
+    private final Schema schema;
+    private final File tempDirectory;
+
+    public SpillingJoinIterable(final Iterable left, final Iterable right, final PartitionableMatch match,
+                                final JoinFunction joinFunction, final MatchKey matchKey, final boolean flatten,
+                                final int memoryLimit, final Schema schema, final File tempDirectory) {
+        this(left, right, match, joinFunction, matchKey, flatten, memoryLimit, DEFAULT_NUM_PARTITIONS, schema, tempDirectory);
+    }
+
+    public SpillingJoinIterable(final Iterable left, final Iterable right, final PartitionableMatch match,
+                                final JoinFunction joinFunction, final MatchKey matchKey, final boolean flatten,
+                                final int memoryLimit, final int numPartitions, final Schema schema, final File tempDirectory) {
+        if (memoryLimit < 1) {
+            throw new IllegalArgumentException("The memory limit must be at least 1");
+        }
+        if (numPartitions < 2) {
+            throw new IllegalArgumentException("The number of partitions must be at least 2");
+        }
+        this.left = null != left ? left : Collections.emptyList();
+        this.right = null != right ? right : Collections.emptyList();
+        this.match = match;
+        this.joinFunction = joinFunction;
+        this.matchKey = matchKey;
+        this.flatten = flatten;
+        this.memoryLimit = memoryLimit;
+        this.numPartitions = numPartitions;
+        this.schema = schema;
+        this.tempDirectory = tempDirectory;
+    }
+
+    @Override
+    public void close() {
+        CloseableUtil.close(left);
+        CloseableUtil.close(right);
+    }
+
+    @Override
+    public CloseableIterator<MapTuple> iterator() {
+        return new SpillingJoinIterator();
+    }
+
+    private static File createSpillDirectory(final File tempDirectory) throws IOException {
+        final File spillDirectory = null != tempDirectory
+                ? Files.createTempDirectory(tempDirectory.toPath(), "gaffer-join").toFile()
+                : Files.createTempDirectory("gaffer-join").toFile();
+        SPILL_DIRECTORIES.add(spillDirectory);
+        addShutdownHook();
+        return spillDirectory;
+    }
+
+    private static void deleteSpillDirectory(final File spillDirectory) {
+        FileUtils.deleteQuietly(spillDirectory);
+        SPILL_DIRECTORIES.remove(spillDirectory);
+    }
+
+    private static synchronized void addShutdownHook() {
+        if (!shutdownHookAdded) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                for (final File spillDirectory : SPILL_DIRECTORIES) {
+                    FileUtils.deleteQuietly(spillDirectory);
+                }
+                SPILL_DIRECTORIES.clear();
+            }));
+            shutdownHookAdded = true;
+        }
+    }
+
+    private final class SpillingJoinIterator implements CloseableIterator<MapTuple> {
+        private final String keyName;
+        private final String matchingValuesName;
+        private final Iterable keys;
+        private final Iterable matchCandidates;
+        private final ToBytesSerialiser<Element> elementSerialiser;
+        private final ToBytesSerialiser<Object> javaSerialiser = new JavaSerialiser();
+        private final LinkedList<Partition> partitions = new LinkedList<>();
+
+        private File spillDirectory;
+        private Partition currentPartition;
+        private Iterator currentKeys;
+        private Iterator<MapTuple> currentResults = Collections.emptyIterator();
+        private boolean initialised;
+        private boolean closed;
+
+        private SpillingJoinIterator() {
+            keyName = matchKey.name();
+            if (MatchKey.LEFT.equals(matchKey)) {
+                matchingValuesName = MatchKey.RIGHT.name();
+                keys = left;
+                matchCandidates = right;
+            } else {
+                matchingValuesName = MatchKey.LEFT.name();
+                keys = right;
+                matchCandidates = left;
+            }
+            elementSerialiser = null != schema ? new ElementSerialiser(schema) : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (closed) {
+                return false;
+            }
+            try {
+                if (!initialised) {
+                    initialise();
+                }
+                while (!currentResults.hasNext()) {
+                    if (null != currentKeys && currentKeys.hasNext()) {
+                        final Object key = currentKeys.next();
+                        currentResults = joinFunction.join(key, match.matching(key), keyName, matchingValuesName, flatten).iterator();
+                    } else {
+                        CloseableUtil.close(currentKeys);
+                        currentKeys = null;
+                        if (null != currentPartition) {
+                            currentPartition.delete();
+                            currentPartition = null;
+                        }
+                        if (partitions.isEmpty()) {
+                            close();
+                            return false;
+                        }
+                        joinPartition(partitions.removeFirst());
+                    }
+                }
+            } catch (final IOException e) {
+                close();
+                throw new RuntimeException("Unable to spill Join inputs to disk", e);
+            } catch (final RuntimeException e) {
+                close();
+                throw e;
+            }
+            return true;
+        }
+
+        @Override
+        public MapTuple next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return currentResults.next();
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                CloseableUtil.close(currentKeys);
+                currentKeys = null;
+                currentResults = Collections.emptyIterator();
+                currentPartition = null;
+                partitions.clear();
+                if (null != spillDirectory) {
+                    deleteSpillDirectory(spillDirectory);
+                    spillDirectory = null;
+                }
+            }
+        }
+
+        private void initialise() throws IOException {
+            initialised = true;
+            final List<Object> candidates = new ArrayList<>();
+            final Iterator candidatesItr = matchCandidates.iterator();
+            try {
+                while (candidatesItr.hasNext() && candidates.size() < memoryLimit) {
+                    candidates.add(candidatesItr.next());
+                }
+                if (!candidatesItr.hasNext()) {
+                    // All the match candidates fit in memory so the keys can just be streamed
+                    match.init(candidates);
+                    currentKeys = keys.iterator();
+                    return;
+                }
+
+                LOGGER.info("Join match candidates exceed the memory limit of {}, spilling inputs to disk", memoryLimit);
+                spillDirectory = createSpillDirectory(tempDirectory);
+                final PartitionWriter writer = new PartitionWriter(0);
+                try {
+                    for (final Object candidate : candidates) {
+                        writer.writeCandidate(candidate);
+                    }
+                    candidates.clear();
+                    while (candidatesItr.hasNext()) {
+                        writer.writeCandidate(candidatesItr.next());
+                    }
+                    final Iterator keysItr = keys.iterator();
+                    try {
+                        while (keysItr.hasNext()) {
+                            writer.writeKey(keysItr.next());
+                        }
+                    } finally {
+                        CloseableUtil.close(keysItr);
+                    }
+                } finally {
+                    writer.close();
+                }
+                partitions.addAll(writer.getPartitions());
+            } finally {
+                CloseableUtil.close(candidatesItr);
+            }
+        }
+
+        private void joinPartition(final Partition partition) throws IOException {
+            if (partition.candidateCount > memoryLimit) {
+                if (partition.depth >= MAX_PARTITION_DEPTH) {
+                    throw new LimitExceededException("Join exceeded the collectionLimit, more than " + memoryLimit
+                            + " match candidates have the same partition key.");
+                }
+                LOGGER.debug("Partition of {} match candidates exceeds the memory limit, repartitioning", partition.candidateCount);
+                final PartitionWriter writer = new PartitionWriter(partition.depth + 1);
+                try (final PartitionReader candidatesReader = new PartitionReader(partition.candidates, partition.candidateCount);
+                     final PartitionReader keysReader = new PartitionReader(partition.keys, partition.keyCount)) {
+                    while (candidatesReader.hasNext()) {
+                        writer.writeCandidate(candidatesReader.next());
+                    }
+                    while (keysReader.hasNext()) {
+                        writer.writeKey(keysReader.next());
+                    }
+                } finally {
+                    writer.close();
+                }
+                partition.delete();
+                // Join the new partitions before any remaining partitions
+                final List<Partition> newPartitions = writer.getPartitions();
+                Collections.reverse(newPartitions);
+                for (final Partition newPartition : newPartitions) {
+                    partitions.addFirst(newPartition);
+                }
+                return;
+            }
+
+            final List<Object> candidates = new ArrayList<>();
+            try (final PartitionReader candidatesReader = new PartitionReader(partition.candidates, partition.candidateCount)) {
+                while (candidatesReader.hasNext()) {
+                    candidates.add(candidatesReader.next());
+                }
+            }
+            FileUtils.deleteQuietly(partition.candidates);
+            match.init(candidates);
+            currentPartition = partition;
+            currentKeys = new PartitionReader(partition.keys, partition.keyCount);
+        }
+
+        private int getPartition(final Object key, final int depth) {
+            // Mix the hash with the depth so that repartitioning splits up a partition
+            int hash = Objects.hashCode(key) ^ (depth * 0x9E3779B9);
+            hash ^= hash >>> 16;
+            hash *= 0x85EBCA6B;
+            hash ^= hash >>> 13;
+            hash *= 0xC2B2AE35;
+            hash ^= hash >>> 16;
+            return Math.floorMod(hash, numPartitions);
+        }
+
+        private void write(final DataOutputStream out, final Object obj) throws IOException {
+            if (null == obj) {
+                out.writeByte(NULL_TAG);
+                return;
+            }
+
+            final byte tag;
+            final byte[] bytes;
+            MatchedVertex matchedVertex = null;
+            if (canSerialiseElement(obj)) {
+                if (obj instanceof Edge) {
+                    matchedVertex = ((Edge) obj).getMatchedVertex();
+                }
+                tag = null != matchedVertex ? MATCHED_EDGE_TAG : ELEMENT_TAG;
+                bytes = elementSerialiser.serialise((Element) obj);
+            } else {
+                tag = JAVA_TAG;
+                bytes = javaSerialiser.serialise(obj);
+            }
+            out.writeByte(tag);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            if (null != matchedVertex) {
+                out.writeByte(matchedVertex.ordinal());
+            }
+        }
+
+        private Object read(final DataInputStream in) throws IOException {
+            final byte tag = in.readByte();
+            if (NULL_TAG == tag) {
+                return null;
+            }
+
+            final byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            if (ELEMENT_TAG == tag) {
+                return elementSerialiser.deserialise(bytes);
+            }
+            if (MATCHED_EDGE_TAG == tag) {
+                final Edge edge = (Edge) elementSerialiser.deserialise(bytes);
+                edge.setIdentifiers(edge.getSource(), edge.getDestination(), edge.isDirected(),
+                        MatchedVertex.values()[in.readByte()]);
+                return edge;
+            }
+            return javaSerialiser.deserialise(bytes);
+        }
+
+        private boolean canSerialiseElement(final Object obj) {
+            if (null == elementSerialiser || !(obj instanceof Element)) {
+                return false;
+            }
+            // The element serialiser only writes the properties defined in the schema
+            final Element element = (Element) obj;
+            final SchemaElementDefinition elementDef = schema.getElement(element.getGroup());
+            return null != elementDef
+                    && (elementDef instanceof SchemaEntityDefinition) == (element instanceof Entity)
+                    && elementDef.getProperties().containsAll(element.getProperties().keySet());
+        }
+
+        private final class PartitionWriter {
+            private final int depth;
+            private final Partition[] newPartitions;
+            private final DataOutputStream[] candidateOutputs;
+            private final DataOutputStream[] keyOutputs;
+
+            private PartitionWriter(final int depth) throws IOException {
+                this.depth = depth;
+                newPartitions = new Partition[numPartitions];
+                candidateOutputs = new DataOutputStream[numPartitions];
+                keyOutputs = new DataOutputStream[numPartitions];
+                for (int i = 0; i < numPartitions; i++) {
+                    newPartitions[i] = new Partition(
+                            File.createTempFile("candidates-" + depth + "-", ".bin", spillDirectory),
+                            File.createTempFile("keys-" + depth + "-", ".bin", spillDirectory),
+                            depth);
+                    candidateOutputs[i] = openOutput(newPartitions[i].candidates);
+                    keyOutputs[i] = openOutput(newPartitions[i].keys);
+                }
+            }
+
+            private DataOutputStream openOutput(final File file) throws IOException {
+                return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+            }
+
+            private void writeCandidate(final Object candidate) throws IOException {
+                final int partition = getPartition(match.getMatchCandidateKey(candidate), depth);
+                write(candidateOutputs[partition], candidate);
+                newPartitions[partition].candidateCount++;
+            }
+
+            private void writeKey(final Object key) throws IOException {
+                final int partition = getPartition(match.getTestObjectKey(key), depth);
+                write(keyOutputs[partition], key);
+                newPartitions[partition].keyCount++;
+            }
+
+            private List<Partition> getPartitions() {
+                final List<Partition> result = new ArrayList<>(numPartitions);
+                for (final Partition partition : newPartitions) {
+                    if (partition.keyCount > 0) {
+                        result.add(partition);
+                    } else {
+                        // Partitions without any keys have no results
+                        partition.delete();
+                    }
+                }
+                return result;
+            }
+
+            private void close() throws IOException {
+                IOException exception = null;
+                for (int i = 0; i < numPartitions; i++) {
+                    for (final DataOutputStream out : new DataOutputStream[]{candidateOutputs[i], keyOutputs[i]}) {
+                        if (null != out) {
+                            try {
+                                out.close();
+                            } catch (final IOException e) {
+                                exception = e;
+                            }
+                        }
+                    }
+                }
+                if (null != exception) {
+                    throw exception;
+                }
+            }
+        }
+
+        private final class PartitionReader implements CloseableIterator<Object> {
+            private final DataInputStream in;
+            private long remaining;
+
+            private PartitionReader(final File file, final long count) throws IOException {
+                this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+                this.remaining = count;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public Object next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                remaining--;
+                try {
+                    return read(in);
+                } catch (final SerialisationException e) {
+                    throw new RuntimeException("Unable to deserialise spilled Join input", e);
+                } catch (final IOException e) {
+                    throw new RuntimeException("Unable to read spilled Join input", e);
+                }
+            }
+
+            @Override
+            public void close() {
+                try {
+                    in.close();
+                } catch (final IOException e) {
+                    LOGGER.warn("Unable to close spilled Join input", e);
+                }
+            }
+        }
+    }
+
+    private static final class Partition {
+        private final File candidates;
+        private final File keys;
+        private final int depth;
+        private long candidateCount;
+        private long keyCount;
+
+        private Partition(final File candidates, final File keys, final int depth) {
+            this.candidates = candidates;
+            this.keys = keys;
+            this.depth = depth;
+        }
+
+        private void delete() {
+            FileUtils.deleteQuietly(candidates);
+            FileUtils.deleteQuietly(keys);
+        }
+    }
+}
@@ -18,7 +18,6 @@ package uk.gov.gchq.gaffer.store.operation.handler.join.match;
 
 import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.data.element.comparison.ElementJoinComparator;
-import uk.gov.gchq.gaffer.operation.impl.join.match.Match;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -27,7 +26,7 @@ import java.util.Set;
 /**
  * Tests for matches for Elements within a Join Operation, groupBy properties can be optionally specified.
  */
-public class ElementMatch implements Match {
+public class ElementMatch implements PartitionableMatch {
     private ElementJoinComparator elementJoinComparator;
     private Iterable matchCandidates;
 
@@ -57,6 +56,16 @@ public class ElementMatch implements Match {
         this.matchCandidates = matchCandidates;
     }
 
+    @Override
+    public Object getTestObjectKey(final Object testObject) {
+        return null != testObject ? IndexedElementMatch.createKey((Element) testObject, elementJoinComparator.getGroupByProperties()) : null;
+    }
+
+    @Override
+    public Object getMatchCandidateKey(final Object matchCandidate) {
+        return null != matchCandidate ? IndexedElementMatch.createKey((Element) matchCandidate, elementJoinComparator.getGroupByProperties()) : null;
+    }
+
     @Override
     public List matching(final Object testObject) {
         if (matchCandidates == null) {
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.store.operation.handler.join.match;
+
+import com.google.common.collect.Sets;
+
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tests for matches for Elements within a Join Operation, groupBy properties can be optionally specified.
+ * <p>
+ * This gives the same results as {@link ElementMatch}, but on initialisation the match candidates are
+ * indexed by their group, identifiers and groupBy property values, so finding the matches for an
+ * Element is a single lookup rather than a scan of every match candidate.
+ */
+public class IndexedElementMatch implements PartitionableMatch {
+    private static final String NULL_MATCH_CANDIDATES_ERROR_MESSAGE = "IndexedElementMatch must be initialised with non-null match candidates";
+
+    private Set<String> groupByProperties = new LinkedHashSet<>();
+    private Iterable matchCandidates;
+    private Map<List<Object>, List<Element>> index;
+
+    public IndexedElementMatch() {
+    }
+
+    public IndexedElementMatch(final String... groupByProperties) {
+        this(Sets.newLinkedHashSet(Arrays.asList(groupByProperties)));
+    }
+
+    public IndexedElementMatch(final Set<String> groupByProperties) {
+        setElementGroupByProperties(groupByProperties);
+    }
+
+    public void setElementGroupByProperties(final Set<String> groupByProperties) {
+        this.groupByProperties = null != groupByProperties ? new LinkedHashSet<>(groupByProperties) : new LinkedHashSet<>();
+        // The index keys depend on the groupBy properties so the index must be rebuilt
+        index = null;
+    }
+
+    @Override
+    public void init(final Iterable matchCandidates) {
+        if (matchCandidates == null) {
+            throw new IllegalArgumentException(NULL_MATCH_CANDIDATES_ERROR_MESSAGE);
+        }
+        this.matchCandidates = matchCandidates;
+        buildIndex();
+    }
+
+    @Override
+    public List matching(final Object testObject) {
+        if (matchCandidates == null) {
+            throw new IllegalArgumentException(NULL_MATCH_CANDIDATES_ERROR_MESSAGE);
+        }
+        if (null == index) {
+            buildIndex();
+        }
+
+        if (null == testObject) {
+            return new ArrayList<>();
+        }
+
+        final List<Element> candidates = index.getOrDefault(createKey((Element) testObject, groupByProperties), Collections.emptyList());
+        final List<Element> matches = new ArrayList<>(candidates.size());
+        for (final Element candidate : candidates) {
+            matches.add(candidate.shallowClone());
+        }
+        return matches;
+    }
+
+    @Override
+    public Object getTestObjectKey(final Object testObject) {
+        return null != testObject ? createKey((Element) testObject, groupByProperties) : null;
+    }
+
+    @Override
+    public Object getMatchCandidateKey(final Object matchCandidate) {
+        return null != matchCandidate ? createKey((Element) matchCandidate, groupByProperties) : null;
+    }
+
+    private void buildIndex() {
+        index = new HashMap<>();
+        for (final Object matchCandidate : matchCandidates) {
+            if (null != matchCandidate) {
+                final Element element = (Element) matchCandidate;
+                index.computeIfAbsent(createKey(element, groupByProperties), k -> new ArrayList<>()).add(element);
+            }
+        }
+    }
+
+    /**
+     * Creates a key that is equal for two Elements if and only if they would be matched by an
+     * {@link uk.gov.gchq.gaffer.data.element.comparison.ElementJoinComparator} using the same groupBy properties.
+     *
+     * @param element           the element to create the key for
+     * @param groupByProperties the groupBy properties to include in the key
+     * @return the key
+     */
+    static List<Object> createKey(final Element element, final Set<String> groupByProperties) {
+        final List<Object> key = new ArrayList<>();
+        key.add(element.getClass());
+        key.add(element.getGroup());
+        if (element instanceof Entity) {
+            key.add(((Entity) element).getVertex());
+        } else {
+            key.add(((Edge) element).getSource());
+            key.add(((Edge) element).getDestination());
+            key.add(((Edge) element).getDirectedType());
+        }
+        if (null != groupByProperties) {
+            for (final String property : groupByProperties) {
+                key.add(element.getProperty(property));
+            }
+        }
+        return key;
+    }
+}
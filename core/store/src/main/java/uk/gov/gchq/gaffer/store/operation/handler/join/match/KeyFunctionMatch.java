@@ -21,7 +21,6 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import org.apache.commons.lang.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 
-import uk.gov.gchq.gaffer.operation.impl.join.match.Match;
 import uk.gov.gchq.koryphe.impl.function.Identity;
 
 import java.util.ArrayList;
@@ -31,13 +30,13 @@ import java.util.function.Function;
 
 
 /**
- * A {@code KeyFunctionMatch} is a {@link Match} which takes two key functions which are used to extract keys from
+ * A {@code KeyFunctionMatch} is a {@link uk.gov.gchq.gaffer.operation.impl.join.match.Match} which takes two key functions which are used to extract keys from
  * two inputs. A match occurs when the keys are equal. The first key function is applied to the Left input
  * in a Left sided join and vice versa.
  */
 
 @JsonPropertyOrder(value = {"class", "firstKeyFunction", "secondKeyFunction"}, alphabetic = true)
-public class KeyFunctionMatch implements Match {
+public class KeyFunctionMatch implements PartitionableMatch {
 
     private static final String NULL_FUNCTION_ERROR_MESSAGE = "Key functions for left and right input cannot be null";
     private static final String NULL_MATCH_CANDIDATES_ERROR_MESSAGE = "Iterable of match candidates cannot be null";
@@ -63,6 +62,7 @@ public class KeyFunctionMatch implements Match {
             throw new IllegalArgumentException(NULL_MATCH_CANDIDATES_ERROR_MESSAGE);
         }
         // Iterates over match candidates, creates an index using second key function.
+        keyedMatchCandidates = new HashMap<>();
         for (final Object matchCandidate : matchCandidates) {
             Object key = secondKeyFunction.apply(matchCandidate);
             List list = keyedMatchCandidates.get(key);
@@ -93,6 +93,22 @@ public class KeyFunctionMatch implements Match {
         this.secondKeyFunction = secondKeyFunction;
     }
 
+    @Override
+    public Object getTestObjectKey(final Object testObject) {
+        if (this.firstKeyFunction == null) {
+            throw new IllegalArgumentException(NULL_FUNCTION_ERROR_MESSAGE);
+        }
+        return firstKeyFunction.apply(testObject);
+    }
+
+    @Override
+    public Object getMatchCandidateKey(final Object matchCandidate) {
+        if (this.secondKeyFunction == null) {
+            throw new IllegalArgumentException(NULL_FUNCTION_ERROR_MESSAGE);
+        }
+        return secondKeyFunction.apply(matchCandidate);
+    }
+
     @Override
     public List matching(final Object testObject) {
 
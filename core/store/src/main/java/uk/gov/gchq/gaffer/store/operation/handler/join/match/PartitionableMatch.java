@@ -0,0 +1,44 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.store.operation.handler.join.match;
+
+import uk.gov.gchq.gaffer.operation.impl.join.match.Match;
+
+/**
+ * A {@link Match} that can provide the key an object is matched on. This allows the
+ * inputs to a Join to be split into partitions, where an object and all of its
+ * matches are always in the same partition, so each partition can be joined separately.
+ */
+public interface PartitionableMatch extends Match {
+
+    /**
+     * Gets the key of an object that will be passed to {@link #matching(Object)}.
+     *
+     * @param testObject the object to be tested
+     * @return the key of the test object
+     */
+    Object getTestObjectKey(final Object testObject);
+
+    /**
+     * Gets the key of a match candidate. A test object can only match a candidate
+     * if their keys are equal.
+     *
+     * @param matchCandidate the match candidate
+     * @return the key of the match candidate
+     */
+    Object getMatchCandidateKey(final Object matchCandidate);
+}
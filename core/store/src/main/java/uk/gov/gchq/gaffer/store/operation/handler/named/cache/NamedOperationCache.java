@@ -24,20 +24,29 @@ import uk.gov.gchq.gaffer.cache.exception.CacheOperationException;
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
 import uk.gov.gchq.gaffer.commonutil.iterable.WrappedCloseableIterable;
 import uk.gov.gchq.gaffer.named.operation.NamedOperationDetail;
+import uk.gov.gchq.gaffer.named.operation.NamedOperationTemplate;
 import uk.gov.gchq.gaffer.named.operation.cache.exception.CacheOperationFailedException;
 import uk.gov.gchq.gaffer.user.User;
 
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Wrapper around the {@link CacheServiceLoader} to provide an interface for handling
  * the {@link uk.gov.gchq.gaffer.named.operation.NamedOperation}s for a Gaffer graph.
+ * <p>
+ * The compiled {@link NamedOperationTemplate} for each named operation is also held
+ * locally, so the operation chain json is only parsed once rather than every time
+ * the named operation is resolved. The compiled templates are discarded when the
+ * named operation is updated or removed.
  */
 public class NamedOperationCache {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(NamedOperationCache.class);
     private static final String CACHE_NAME = "NamedOperation";
+    private static final Map<String, NamedOperationTemplate> TEMPLATES = new ConcurrentHashMap<>();
 
     /**
      * If the user is just adding to the cache, ie the overwrite flag is set to false, then no security is added.
@@ -160,6 +169,7 @@ public class NamedOperationCache {
     public void clear() throws CacheOperationFailedException {
         try {
             CacheServiceLoader.getService().clearCache(CACHE_NAME);
+            TEMPLATES.clear();
         } catch (final CacheOperationException e) {
             throw new CacheOperationFailedException("Failed to clear cache", e);
         }
@@ -175,6 +185,7 @@ public class NamedOperationCache {
      */
     public void deleteFromCache(final String name) throws CacheOperationFailedException {
         CacheServiceLoader.getService().removeFromCache(CACHE_NAME, name);
+        TEMPLATES.remove(name);
 
         if (null != CacheServiceLoader.getService().getFromCache(CACHE_NAME, name)) {
             throw new CacheOperationFailedException("Failed to remove " + name + " from cache");
@@ -198,6 +209,7 @@ public class NamedOperationCache {
             } else {
                 CacheServiceLoader.getService().putSafeInCache(CACHE_NAME, name, operation);
             }
+            TEMPLATES.remove(name);
         } catch (final CacheOperationException e) {
             throw new CacheOperationFailedException(e);
         }
@@ -218,11 +230,27 @@ public class NamedOperationCache {
         final NamedOperationDetail op = CacheServiceLoader.getService().getFromCache(CACHE_NAME, name);
 
         if (null != op) {
+            attachTemplate(name, op);
             return op;
         }
         throw new CacheOperationFailedException("No named operation with the name " + name + " exists in the cache");
     }
 
+    private void attachTemplate(final String name, final NamedOperationDetail op) {
+        final NamedOperationTemplate template = TEMPLATES.get(name);
+        if (null != template && template.isTemplateFor(op)) {
+            op.setTemplate(template);
+        } else {
+            try {
+                TEMPLATES.put(name, op.getTemplate());
+            } catch (final IllegalArgumentException e) {
+                // The error will be reported if the named operation is executed
+                LOGGER.debug("Unable to compile NamedOperation {}: {}", name, e.getMessage());
+                TEMPLATES.remove(name);
+            }
+        }
+    }
+
     private void add(final NamedOperationDetail namedOperation, final boolean overwrite, final User user, final String adminAuth) throws CacheOperationFailedException {
         String name;
         try {
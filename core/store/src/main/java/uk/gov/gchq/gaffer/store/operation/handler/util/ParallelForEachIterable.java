@@ -0,0 +1,235 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.store.operation.handler.util;
+
+import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+import uk.gov.gchq.gaffer.core.exception.GafferRuntimeException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * A {@code ParallelForEachIterable} lazily executes a task for each of its inputs
+ * using an {@link ExecutorService} and returns the results of the tasks.
+ * <p>
+ * The tasks are executed as the results are consumed, with at most {@code parallelism}
+ * tasks executing or waiting to be consumed at any time. The results are either returned
+ * in the same order as the inputs, or in the order the tasks complete.
+ * <p>
+ * If failFast is true then the first task that fails stops the iteration and the failure is
+ * thrown. Otherwise the failures are collected and thrown once the results of all the other
+ * tasks have been returned.
+ * <p>
+ * The tasks are executed again each time the iterable is iterated over. The iterators should
+ * be closed if they are not fully consumed, so that the remaining tasks are cancelled.
+ * {@link #start()} can be used to start the first tasks before the results are consumed;
+ * the first iterator then returns the results of those tasks.
+ *
+ * @param <I> the type of the inputs
+ * @param <O> the type of the results
+ */
+public class ParallelForEachIterable<I, O> implements CloseableIterable<O> {
+    private static final Object NO_ITEM = new Object();
+
+    private final Iterable<? extends I> inputs;
+    private final Function<I, Callable<O>> taskFactory;
+    private final ExecutorService executorService;
+    private final int parallelism;
+    private final boolean ordered;
+    private final boolean failFast;
+    private ParallelForEachIterator startedIterator;
+
+    public ParallelForEachIterable(final Iterable<? extends I> inputs,
+                                   final Function<I, Callable<O>> taskFactory,
+                                   final ExecutorService executorService,
+                                   final int parallelism,
+                                   final boolean ordered,
+                                   final boolean failFast) {
+        if (null == inputs) {
+            throw new IllegalArgumentException("Inputs are required.");
+        }
+        if (null == executorService) {
+            throw new IllegalArgumentException("An executor service is required.");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
+        }
+        this.inputs = inputs;
+        this.taskFactory = taskFactory;
+        this.executorService = executorService;
+        this.parallelism = parallelism;
+        this.ordered = ordered;
+        this.failFast = failFast;
+    }
+
+    /**
+     * Starts executing the first tasks, without waiting for the results to be consumed.
+     *
+     * @return this iterable
+     */
+    public synchronized ParallelForEachIterable<I, O> start() {
+        if (null == startedIterator) {
+            startedIterator = new ParallelForEachIterator();
+            startedIterator.submitTasks();
+        }
+        return this;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (null != startedIterator) {
+            startedIterator.close();
+            startedIterator = null;
+        }
+        CloseableUtil.close(inputs);
+    }
+
+    @Override
+    public synchronized CloseableIterator<O> iterator() {
+        if (null != startedIterator) {
+            final ParallelForEachIterator iterator = startedIterator;
+            startedIterator = null;
+            return iterator;
+        }
+        return new ParallelForEachIterator();
+    }
+
+    private class ParallelForEachIterator implements CloseableIterator<O> {
+        private final Iterator<? extends I> inputIterator = inputs.iterator();
+        private final CompletionService<O> completionService = new ExecutorCompletionService<>(executorService);
+        private final Deque<Future<O>> futures = new ArrayDeque<>(parallelism);
+        private final List<Throwable> failures = new ArrayList<>();
+        private Object next = NO_ITEM;
+        private boolean closed;
+
+        @Override
+        public boolean hasNext() {
+            while (NO_ITEM == next && !closed) {
+                submitTasks();
+                if (futures.isEmpty()) {
+                    close();
+                    throwFailures();
+                    break;
+                }
+
+                try {
+                    final Future<O> future = nextFuture();
+                    if (!ordered) {
+                        // The future has completed, so its slot can be reused straight away.
+                        // In ordered mode the slot is only reused once the result has been
+                        // returned, to keep at most parallelism tasks in flight.
+                        submitTasks();
+                    }
+                    next = future.get();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    close();
+                    return false;
+                } catch (final ExecutionException e) {
+                    handleFailure(null != e.getCause() ? e.getCause() : e);
+                }
+            }
+            return NO_ITEM != next;
+        }
+
+        @Override
+        public O next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Object item = next;
+            next = NO_ITEM;
+            return (O) item;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                for (final Future<O> future : futures) {
+                    if (!future.cancel(true)) {
+                        closeResult(future);
+                    }
+                }
+                futures.clear();
+                CloseableUtil.close(inputIterator);
+            }
+        }
+
+        private void submitTasks() {
+            while (futures.size() < parallelism && inputIterator.hasNext()) {
+                final I input = inputIterator.next();
+                final Callable<O> task = taskFactory.apply(input);
+                futures.add(ordered ? executorService.submit(task) : completionService.submit(task));
+            }
+        }
+
+        private Future<O> nextFuture() throws InterruptedException {
+            if (ordered) {
+                return futures.removeFirst();
+            }
+            final Future<O> future = completionService.take();
+            futures.remove(future);
+            return future;
+        }
+
+        private void closeResult(final Future<O> future) {
+            // The task completed but its result will never be returned, so release it
+            try {
+                CloseableUtil.close(future.get());
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (final ExecutionException e) {
+                // The failure is not reported as the results are no longer required
+            }
+        }
+
+        private void handleFailure(final Throwable failure) {
+            if (failFast) {
+                close();
+                throw new GafferRuntimeException("Failed to execute operation: " + failure.getMessage(), failure);
+            }
+            failures.add(failure);
+        }
+
+        private void throwFailures() {
+            if (!failures.isEmpty()) {
+                final Throwable first = failures.get(0);
+                final GafferRuntimeException exception = new GafferRuntimeException(failures.size()
+                        + " operations failed to execute, the first failure was: " + first.getMessage(), first);
+                for (int i = 1; i < failures.size(); i++) {
+                    exception.addSuppressed(failures.get(i));
+                }
+                failures.clear();
+                throw exception;
+            }
+        }
+    }
+}
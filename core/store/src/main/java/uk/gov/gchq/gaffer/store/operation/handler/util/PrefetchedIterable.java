@@ -0,0 +1,139 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.store.operation.handler.util;
+
+import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+import uk.gov.gchq.gaffer.commonutil.iterable.WrappedCloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.WrappedCloseableIterator;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A {@code PrefetchedIterable} holds the first items read from another
+ * {@link Iterable}, so that a lazy result, such as the results of a store
+ * retriever, can be read on the thread that produced it.
+ * <p>
+ * Use {@link #prefetch(Iterable, int)} to read up to a limit of items from an
+ * iterable. If the iterable has no more items than the limit then it is closed and
+ * the items are returned in memory. Otherwise the first iterator returns the
+ * prefetched items followed by the rest of the original iterator, and any further
+ * iterators iterate over the original iterable again.
+ *
+ * @param <T> the type of items in the iterable.
+ */
+public final class PrefetchedIterable<T> implements CloseableIterable<T> {
+    private final Iterable<T> source;
+    private final List<T> prefetched;
+    private Iterator<T> remainder;
+
+    private PrefetchedIterable(final Iterable<T> source, final List<T> prefetched, final Iterator<T> remainder) {
+        this.source = source;
+        this.prefetched = prefetched;
+        this.remainder = remainder;
+    }
+
+    /**
+     * Reads up to {@code limit} items from the iterable.
+     *
+     * @param source the iterable to read
+     * @param limit  the maximum number of items to hold in memory
+     * @param <T>    the type of items in the iterable
+     * @return an iterable containing all the items of the source iterable
+     */
+    public static <T> CloseableIterable<T> prefetch(final Iterable<T> source, final int limit) {
+        final List<T> prefetched = new ArrayList<>();
+        Iterator<T> iterator = null;
+        boolean hasMore = false;
+        try {
+            iterator = source.iterator();
+            while (prefetched.size() < limit && iterator.hasNext()) {
+                prefetched.add(iterator.next());
+            }
+            hasMore = iterator.hasNext();
+        } finally {
+            if (!hasMore) {
+                CloseableUtil.close(iterator);
+                CloseableUtil.close(source);
+            }
+        }
+
+        if (!hasMore) {
+            return new WrappedCloseableIterable<>(prefetched);
+        }
+        return new PrefetchedIterable<>(source, prefetched, iterator);
+    }
+
+    @Override
+    public void close() {
+        final Iterator<T> unused;
+        synchronized (this) {
+            unused = remainder;
+            remainder = null;
+        }
+        CloseableUtil.close(unused);
+        CloseableUtil.close(source);
+    }
+
+    @Override
+    public CloseableIterator<T> iterator() {
+        final Iterator<T> rest;
+        synchronized (this) {
+            rest = remainder;
+            remainder = null;
+        }
+        if (null == rest) {
+            return new WrappedCloseableIterator<>(source.iterator());
+        }
+        return new PrefetchedIterator<>(prefetched.iterator(), rest);
+    }
+
+    private static final class PrefetchedIterator<T> implements CloseableIterator<T> {
+        private final Iterator<T> prefetched;
+        private final Iterator<T> remainder;
+
+        private PrefetchedIterator(final Iterator<T> prefetched, final Iterator<T> remainder) {
+            this.prefetched = prefetched;
+            this.remainder = remainder;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return prefetched.hasNext() || remainder.hasNext();
+        }
+
+        @Override
+        public T next() {
+            if (prefetched.hasNext()) {
+                return prefetched.next();
+            }
+            if (!remainder.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return remainder.next();
+        }
+
+        @Override
+        public void close() {
+            CloseableUtil.close(remainder);
+        }
+    }
+}
@@ -93,7 +93,7 @@ public abstract class SchemaElementDefinition implements ElementDefinition {
 
     protected ElementAggregator ingestAggregatorCache;
 
-    protected final Map<Set<String>, ElementAggregator> queryAggregatorCacheMap = new HashMap<>();
+    protected final Map<Set<String>, ElementAggregator> queryAggregatorCacheMap = Collections.synchronizedMap(new HashMap<>());
 
     protected Schema schemaReference;
 
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.store.serialiser;
+
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+
+/**
+ * A {@code RawAggregator} aggregates two property values whilst they are still
+ * serialised, avoiding the cost of deserialising the values, applying the
+ * aggregate function and serialising the result.
+ * <p>
+ * A raw aggregator is only valid for the serialiser and aggregate function it was
+ * created for, see {@link RawAggregators}. Empty bytes represent null values and
+ * are skipped by the caller, as null values are by
+ * {@link uk.gov.gchq.koryphe.binaryoperator.KorypheBinaryOperator}s, so a raw
+ * aggregator is only given non-empty bytes.
+ */
+@FunctionalInterface
+public interface RawAggregator {
+    /**
+     * Aggregates the serialised state with the serialised value.
+     *
+     * @param state  the serialised state
+     * @param bytes  the array containing the serialised value
+     * @param offset the offset of the serialised value in the array
+     * @param length the length of the serialised value
+     * @return the serialised result of the aggregation
+     * @throws SerialisationException if the bytes cannot be aggregated
+     */
+    byte[] apply(final byte[] state, final byte[] bytes, final int offset, final int length) throws SerialisationException;
+}
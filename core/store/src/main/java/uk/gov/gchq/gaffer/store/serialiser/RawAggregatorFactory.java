@@ -0,0 +1,42 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.store.serialiser;
+
+import uk.gov.gchq.gaffer.serialisation.ToBytesSerialiser;
+
+import java.util.function.BinaryOperator;
+
+/**
+ * A {@code RawAggregatorFactory} creates {@link RawAggregator}s for pairs of
+ * {@link ToBytesSerialiser} and aggregate function.
+ * <p>
+ * Additional factories can be registered using the {@link java.util.ServiceLoader} mechanism by listing their class names
+ * in a META-INF/services/uk.gov.gchq.gaffer.store.serialiser.RawAggregatorFactory file.
+ * A raw aggregator is only worthwhile when the serialised values can be combined
+ * more cheaply than by deserialising them, see {@link RawAggregators}.
+ */
+public interface RawAggregatorFactory {
+    /**
+     * Creates a {@link RawAggregator} that gives the same result as serialising the
+     * result of the aggregate function.
+     *
+     * @param serialiser        the serialiser used for the property
+     * @param aggregateFunction the aggregate function used for the property
+     * @return the raw aggregator, or null if the pair is not supported
+     */
+    RawAggregator create(final ToBytesSerialiser<?> serialiser, final BinaryOperator<?> aggregateFunction);
+}
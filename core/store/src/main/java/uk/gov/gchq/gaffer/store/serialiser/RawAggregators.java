@@ -0,0 +1,152 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.store.serialiser;
+
+import uk.gov.gchq.gaffer.serialisation.ToBytesSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.ordered.OrderedDateSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.ordered.OrderedDoubleSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.ordered.OrderedFloatSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.ordered.OrderedIntegerSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.ordered.OrderedLongSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.raw.CompactRawIntegerSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.raw.CompactRawLongSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.raw.CompactRawSerialisationUtils;
+import uk.gov.gchq.koryphe.impl.binaryoperator.Max;
+import uk.gov.gchq.koryphe.impl.binaryoperator.Min;
+import uk.gov.gchq.koryphe.impl.binaryoperator.Sum;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.function.BinaryOperator;
+
+/**
+ * Utility methods for getting {@link RawAggregator}s.
+ * <p>
+ * The following raw aggregators are built in:
+ * <ul>
+ * <li>{@link Max} and {@link Min} for the serialisers in the
+ * {@code uk.gov.gchq.gaffer.serialisation.implementation.ordered} package, by
+ * comparing the serialised bytes. Some other serialisers report that they
+ * preserve object ordering but do not order their bytes in the same way as
+ * the objects, e.g. little endian and string encoded numbers.</li>
+ * <li>{@link Sum} for the {@link CompactRawLongSerialiser} and
+ * {@link CompactRawIntegerSerialiser}, without creating any objects.</li>
+ * </ul>
+ * There are no built in raw aggregators for sketches and bitmaps, such as
+ * HyperLogLogPlus, RoaringBitmap and TimestampSet properties. Their serialised
+ * forms cannot be merged without deserialising both values, and a raw aggregator
+ * would deserialise and reserialise the aggregated state for every value, which is
+ * slower than the existing aggregation that keeps the state deserialised. Those
+ * properties continue to be aggregated by deserialising them.
+ * <p>
+ * Other raw aggregators can be added using a {@link RawAggregatorFactory}.
+ */
+public final class RawAggregators {
+    private static final RawAggregator MAX = (state, bytes, offset, length) ->
+            compare(state, bytes, offset, length) >= 0 ? state : copy(bytes, offset, length);
+    private static final RawAggregator MIN = (state, bytes, offset, length) ->
+            compare(state, bytes, offset, length) <= 0 ? state : copy(bytes, offset, length);
+    private static final RawAggregator LONG_SUM = (state, bytes, offset, length) ->
+            CompactRawSerialisationUtils.writeLong(CompactRawSerialisationUtils.readLong(state, 0)
+                    + CompactRawSerialisationUtils.readLong(bytes, offset));
+    private static final RawAggregator INTEGER_SUM = (state, bytes, offset, length) ->
+            CompactRawSerialisationUtils.writeLong((int) CompactRawSerialisationUtils.readLong(state, 0)
+                    + (int) CompactRawSerialisationUtils.readLong(bytes, offset));
+
+    private static final Set<Class<?>> ORDERED_SERIALISERS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            OrderedDateSerialiser.class,
+            OrderedDoubleSerialiser.class,
+            OrderedFloatSerialiser.class,
+            OrderedIntegerSerialiser.class,
+            OrderedLongSerialiser.class)));
+
+    private static List<RawAggregatorFactory> factories;
+
+    private RawAggregators() {
+        // private constructor to prevent instantiation
+    }
+
+    /**
+     * Gets a {@link RawAggregator} for the serialiser and aggregate function.
+     *
+     * @param serialiser        the serialiser used for the property
+     * @param aggregateFunction the aggregate function used for the property
+     * @return the raw aggregator, or null if there is no raw aggregator for the pair
+     */
+    public static RawAggregator getRawAggregator(final ToBytesSerialiser<?> serialiser, final BinaryOperator<?> aggregateFunction) {
+        if (null == serialiser || null == aggregateFunction) {
+            return null;
+        }
+
+        final Class<?> functionClass = aggregateFunction.getClass();
+        if (Max.class.equals(functionClass) || Min.class.equals(functionClass)) {
+            if (ORDERED_SERIALISERS.contains(serialiser.getClass())) {
+                return Max.class.equals(functionClass) ? MAX : MIN;
+            }
+        } else if (Sum.class.equals(functionClass)) {
+            if (CompactRawLongSerialiser.class.equals(serialiser.getClass())) {
+                return LONG_SUM;
+            }
+            if (CompactRawIntegerSerialiser.class.equals(serialiser.getClass())) {
+                return INTEGER_SUM;
+            }
+        }
+
+        for (final RawAggregatorFactory factory : getFactories()) {
+            final RawAggregator rawAggregator = factory.create(serialiser, aggregateFunction);
+            if (null != rawAggregator) {
+                return rawAggregator;
+            }
+        }
+
+        return null;
+    }
+
+    private static synchronized List<RawAggregatorFactory> getFactories() {
+        if (null == factories) {
+            final List<RawAggregatorFactory> loadedFactories = new ArrayList<>();
+            for (final RawAggregatorFactory factory : ServiceLoader.load(RawAggregatorFactory.class)) {
+                loadedFactories.add(factory);
+            }
+            factories = Collections.unmodifiableList(loadedFactories);
+        }
+        return factories;
+    }
+
+    // Compares the bytes in the same way as Accumulo and HBase order keys
+    private static int compare(final byte[] state, final byte[] bytes, final int offset, final int length) {
+        final int minLength = Math.min(state.length, length);
+        for (int i = 0; i < minLength; i++) {
+            final int diff = (state[i] & 0xff) - (bytes[offset + i] & 0xff);
+            if (0 != diff) {
+                return diff;
+            }
+        }
+        return state.length - length;
+    }
+
+    private static byte[] copy(final byte[] bytes, final int offset, final int length) {
+        final byte[] copy = new byte[length];
+        System.arraycopy(bytes, offset, copy, 0, length);
+        return copy;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.store.util;
+
+import uk.gov.gchq.gaffer.operation.OperationException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Splits items into batches which are processed in parallel on a pool of daemon
+ * threads, while the calling thread reads the items into the next batch.
+ * <p>
+ * A pool is created for each number of threads the first time it is needed, and is
+ * shared by all the calls to {@link #execute(Iterator, int, int, BatchProcessor)} with
+ * that number of threads. Idle threads time out, so unused pools do not hold on to
+ * threads. At most {@code threads}
+ * batches are held in memory for each call. If a batch fails, the failure is thrown
+ * as soon as it is noticed and the remaining batches are cancelled.
+ */
+public class ParallelBatchExecutor {
+    private final String threadNamePrefix;
+    private final AtomicInteger threadCount = new AtomicInteger();
+    private final Map<Integer, ExecutorService> executors = new HashMap<>();
+
+    /**
+     * @param threadNamePrefix the prefix of the names of the threads used to process the batches
+     */
+    public ParallelBatchExecutor(final String threadNamePrefix) {
+        this.threadNamePrefix = threadNamePrefix;
+    }
+
+    /**
+     * Processes all the non null items in batches and waits for the batches to complete.
+     *
+     * @param items     the items to process
+     * @param batchSize the maximum number of items in each batch
+     * @param threads   the number of batches to process at the same time
+     * @param processor processes a batch of items
+     * @param <T>       the type of the items
+     * @throws OperationException if a batch fails or the calling thread is interrupted
+     */
+    public <T> void execute(final Iterator<? extends T> items, final int batchSize, final int threads,
+                            final BatchProcessor<T> processor) throws OperationException {
+        // Limits the number of batches held in memory
+        final Semaphore batchPermits = new Semaphore(threads);
+        final List<Future<?>> batchFutures = new LinkedList<>();
+        try {
+            while (items.hasNext()) {
+                final List<T> batch = new ArrayList<>(Math.min(batchSize, 10000));
+                while (batch.size() < batchSize && items.hasNext()) {
+                    final T item = items.next();
+                    if (null != item) {
+                        batch.add(item);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    batchPermits.acquire();
+                    try {
+                        batchFutures.add(getExecutor(threads).submit(() -> {
+                            try {
+                                processor.process(batch);
+                            } finally {
+                                batchPermits.release();
+                            }
+                            return null;
+                        }));
+                    } catch (final RuntimeException e) {
+                        batchPermits.release();
+                        throw e;
+                    }
+                    checkCompletedBatches(batchFutures);
+                }
+            }
+
+            for (final Future<?> batchFuture : batchFutures) {
+                getResult(batchFuture);
+            }
+            batchFutures.clear();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OperationException("Interrupted whilst processing batches", e);
+        } finally {
+            for (final Future<?> batchFuture : batchFutures) {
+                batchFuture.cancel(true);
+            }
+        }
+    }
+
+    // Fails fast if a batch has already failed and stops holding on to completed batches
+    private void checkCompletedBatches(final List<Future<?>> batchFutures) throws OperationException, InterruptedException {
+        final Iterator<Future<?>> itr = batchFutures.iterator();
+        while (itr.hasNext()) {
+            final Future<?> batchFuture = itr.next();
+            if (batchFuture.isDone()) {
+                getResult(batchFuture);
+                itr.remove();
+            }
+        }
+    }
+
+    private void getResult(final Future<?> batchFuture) throws OperationException, InterruptedException {
+        try {
+            batchFuture.get();
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new OperationException("Failed to process batch: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private synchronized ExecutorService getExecutor(final int threads) {
+        return executors.computeIfAbsent(threads, this::createExecutor);
+    }
+
+    private ExecutorService createExecutor(final int threads) {
+        final ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            final Thread thread = new Thread(runnable, threadNamePrefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+        return threadPoolExecutor;
+    }
+
+    /**
+     * Processes a batch of items.
+     *
+     * @param <T> the type of the items
+     */
+    public interface BatchProcessor<T> {
+        void process(final List<T> batch) throws Exception;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.store.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A process wide cache of {@link Schema}s and {@link View}s parsed from json.
+ * <p>
+ * Store side iterators and coprocessors are given the schema and view as json
+ * each time they are initialised. Parsing the json, and building the validators
+ * and aggregators held within the schema, can take longer than the scan itself
+ * for small queries. This cache keys the parsed objects by a SHA-256 hash of the
+ * json bytes so the json is only parsed once per process. The hash is always
+ * calculated from the json that was received, so a cached object is only ever
+ * used for identical json.
+ * <p>
+ * The maximum number of schemas and views held is configured using the
+ * {@link #MAX_SIZE} system property. Cached objects are shared between threads
+ * so they must not be modified.
+ */
+public final class ParsedSchemaViewCache {
+    public static final String MAX_SIZE = "gaffer.store.parsedSchemaViewCache.maxSize";
+    public static final String MAX_SIZE_DEFAULT = "100";
+
+    private static final Cache<HashCode, Schema> SCHEMA_CACHE = createCache();
+    private static final Cache<HashCode, View> VIEW_CACHE = createCache();
+
+    private ParsedSchemaViewCache() {
+        // private constructor to prevent instantiation
+    }
+
+    /**
+     * Gets the {@link Schema} for the provided json, parsing the json if
+     * an identical schema is not already cached.
+     *
+     * @param jsonBytes the schema json
+     * @return the parsed schema
+     * @throws uk.gov.gchq.gaffer.data.elementdefinition.exception.SchemaException if the json cannot be parsed
+     */
+    public static Schema getSchema(final byte[] jsonBytes) {
+        return get(SCHEMA_CACHE, jsonBytes, () -> Schema.fromJson(jsonBytes));
+    }
+
+    /**
+     * Gets the {@link View} for the provided json, parsing the json if
+     * an identical view is not already cached.
+     *
+     * @param jsonBytes the view json
+     * @return the parsed view
+     * @throws uk.gov.gchq.gaffer.data.elementdefinition.exception.SchemaException if the json cannot be parsed
+     */
+    public static View getView(final byte[] jsonBytes) {
+        return get(VIEW_CACHE, jsonBytes, () -> View.fromJson(jsonBytes));
+    }
+
+    public static CacheStats getSchemaCacheStats() {
+        return SCHEMA_CACHE.stats();
+    }
+
+    public static CacheStats getViewCacheStats() {
+        return VIEW_CACHE.stats();
+    }
+
+    public static void clear() {
+        SCHEMA_CACHE.invalidateAll();
+        VIEW_CACHE.invalidateAll();
+    }
+
+    private static <T> T get(final Cache<HashCode, T> cache, final byte[] jsonBytes, final Callable<T> parser) {
+        try {
+            return cache.get(Hashing.sha256().hashBytes(jsonBytes), parser);
+        } catch (final UncheckedExecutionException e) {
+            // Rethrow the original exception so callers see the same errors as parsing directly
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        } catch (final ExecutionException e) {
+            throw new IllegalArgumentException("Unable to parse json", e.getCause());
+        }
+    }
+
+    private static <T> Cache<HashCode, T> createCache() {
+        return CacheBuilder.newBuilder()
+                .maximumSize(Long.parseLong(System.getProperty(MAX_SIZE, MAX_SIZE_DEFAULT)))
+                .recordStats()
+                .build();
+    }
+}
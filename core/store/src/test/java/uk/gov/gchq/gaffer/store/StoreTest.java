@@ -61,6 +61,7 @@ import uk.gov.gchq.gaffer.operation.impl.Count;
 import uk.gov.gchq.gaffer.operation.impl.CountGroups;
 import uk.gov.gchq.gaffer.operation.impl.DiscardOutput;
 import uk.gov.gchq.gaffer.operation.impl.ForEach;
+import uk.gov.gchq.gaffer.operation.impl.GetPaths;
 import uk.gov.gchq.gaffer.operation.impl.GetVariable;
 import uk.gov.gchq.gaffer.operation.impl.GetVariables;
 import uk.gov.gchq.gaffer.operation.impl.GetWalks;
@@ -539,6 +540,7 @@ public class StoreTest {
 
                 // Algorithm
                 GetWalks.class,
+                GetPaths.class,
 
                 // OperationChain
                 OperationChain.class,
@@ -648,6 +650,7 @@ public class StoreTest {
 
                 // Algorithm
                 GetWalks.class,
+                GetPaths.class,
 
                 // OperationChain
                 OperationChain.class,
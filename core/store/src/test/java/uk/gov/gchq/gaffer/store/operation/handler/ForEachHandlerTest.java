@@ -16,25 +16,44 @@
 
 package uk.gov.gchq.gaffer.store.operation.handler;
 
+import com.google.common.collect.Lists;
 import org.junit.Test;
 
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+import uk.gov.gchq.gaffer.commonutil.iterable.WrappedCloseableIterable;
+import uk.gov.gchq.gaffer.core.exception.GafferRuntimeException;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
 import uk.gov.gchq.gaffer.operation.OperationException;
 import uk.gov.gchq.gaffer.operation.impl.ForEach;
+import uk.gov.gchq.gaffer.operation.impl.Limit;
+import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
 import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
 import uk.gov.gchq.gaffer.operation.io.InputOutput;
 import uk.gov.gchq.gaffer.store.Context;
 import uk.gov.gchq.gaffer.store.Store;
 import uk.gov.gchq.gaffer.user.User;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 public class ForEachHandlerTest {
@@ -108,4 +127,303 @@ public class ForEachHandlerTest {
         assertEquals(1, result.size());
         assertSame(output, result.get(0));
     }
+
+    @Test
+    public void shouldExecuteConcurrentlyAndReturnResultsInOrder() throws OperationException {
+        // Given
+        final Context context = new Context(new User());
+        final AtomicInteger executing = new AtomicInteger();
+        final AtomicInteger maxExecuting = new AtomicInteger();
+        final Store store = createStore(input -> {
+            maxExecuting.accumulateAndGet(executing.incrementAndGet(), Math::max);
+            // Make the earlier inputs slower so that they complete out of order
+            Thread.sleep(10L * (10 - input));
+            executing.decrementAndGet();
+            return input * 2;
+        });
+        final ForEachHandler handler = new ForEachHandler();
+        handler.setParallelism(4);
+
+        // When
+        final Iterable<Object> results = (Iterable<Object>) handler.doOperation(createForEach(10), context, store);
+
+        // Then
+        assertEquals(Arrays.asList(0, 2, 4, 6, 8, 10, 12, 14, 16, 18), Lists.newArrayList(results));
+        assertTrue("Expected at most 4 operations to execute at the same time", maxExecuting.get() <= 4);
+        assertTrue("Expected more than 1 operation to execute at the same time", maxExecuting.get() > 1);
+    }
+
+    @Test
+    public void shouldExecuteConcurrentlyAndReturnResultsAsTheyComplete() throws OperationException {
+        // Given
+        final Context context = new Context(new User());
+        final CountDownLatch firstInputCanComplete = new CountDownLatch(2);
+        final Store store = createStore(input -> {
+            if (0 == input) {
+                firstInputCanComplete.await(10, TimeUnit.SECONDS);
+            }
+            return input;
+        });
+        final ForEachHandler handler = new ForEachHandler();
+        handler.setParallelism(2);
+        handler.setOrdered(false);
+
+        // When
+        final List<Object> results = new ArrayList<>();
+        for (final Object result : (Iterable<Object>) handler.doOperation(createForEach(3), context, store)) {
+            results.add(result);
+            firstInputCanComplete.countDown();
+        }
+
+        // Then
+        assertEquals(Arrays.asList(1, 2, 0), results);
+    }
+
+    @Test
+    public void shouldFailFastWhenExecutingConcurrently() throws OperationException {
+        // Given
+        final Context context = new Context(new User());
+        final Store store = createStore(input -> {
+            if (1 == input) {
+                throw new OperationException("Failed for input 1");
+            }
+            return input;
+        });
+        final ForEachHandler handler = new ForEachHandler();
+        handler.setParallelism(2);
+
+        // When / Then
+        try {
+            Lists.newArrayList((Iterable<Object>) handler.doOperation(createForEach(5), context, store));
+            fail("Exception expected");
+        } catch (final GafferRuntimeException e) {
+            assertTrue(e.getMessage().contains("Failed for input 1"));
+        }
+    }
+
+    @Test
+    public void shouldCollectErrorsWhenExecutingConcurrently() throws OperationException {
+        // Given
+        final Context context = new Context(new User());
+        final Store store = createStore(input -> {
+            if (1 == input || 3 == input) {
+                throw new OperationException("Failed for input " + input);
+            }
+            return input;
+        });
+        final ForEachHandler handler = new ForEachHandler();
+        handler.setParallelism(2);
+        handler.setFailFast(false);
+        final List<Object> results = new ArrayList<>();
+
+        // When / Then
+        try {
+            for (final Object result : (Iterable<Object>) handler.doOperation(createForEach(5), context, store)) {
+                results.add(result);
+            }
+            fail("Exception expected");
+        } catch (final GafferRuntimeException e) {
+            assertTrue(e.getMessage().contains("2 operations failed"));
+            assertTrue(e.getMessage().contains("Failed for input 1"));
+            assertEquals(1, e.getSuppressed().length);
+        }
+        assertEquals(Arrays.asList(0, 2, 4), results);
+    }
+
+    @Test
+    public void shouldStartExecutingConcurrentlyBeforeResultsAreConsumed() throws Exception {
+        // Given
+        final Context context = new Context(new User());
+        final CountDownLatch started = new CountDownLatch(2);
+        final Store store = createStore(input -> {
+            started.countDown();
+            return input;
+        });
+        final ForEachHandler handler = new ForEachHandler();
+        handler.setParallelism(2);
+
+        // When
+        final CloseableIterable<Object> results = (CloseableIterable<Object>) handler.doOperation(createForEach(5), context, store);
+
+        // Then
+        try {
+            assertTrue("Expected the first operations to start before the results were consumed",
+                    started.await(10, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList(0, 1, 2, 3, 4), Lists.newArrayList(results));
+        } finally {
+            results.close();
+        }
+    }
+
+    @Test
+    public void shouldExecuteOperationsWithoutOutputConcurrentlyBeforeReturning() throws OperationException {
+        // Given
+        final Context context = new Context(new User());
+        final Store store = mock(Store.class);
+        final ForEach<Iterable<Element>, Object> forEach = new ForEach.Builder<Iterable<Element>, Object>()
+                .input(Arrays.asList(
+                        Collections.singletonList(new Entity("group", "vertex1")),
+                        Collections.singletonList(new Entity("group", "vertex2")),
+                        Collections.singletonList(new Entity("group", "vertex3"))))
+                .operation(new AddElements())
+                .build();
+        final ForEachHandler handler = new ForEachHandler();
+        handler.setParallelism(2);
+
+        // When
+        final Iterable<Object> results = (Iterable<Object>) handler.doOperation(forEach, context, store);
+
+        // Then
+        verify(store, times(3)).execute(any(AddElements.class), any(Context.class));
+        assertEquals(Arrays.asList(null, null, null), Lists.newArrayList(results));
+    }
+
+    @Test
+    public void shouldExecuteEachOperationWithItsOwnContextWhenExecutingConcurrently() throws OperationException {
+        // Given
+        final Context context = new Context(new User("user01"));
+        final Set<Context> contexts = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Store store = mock(Store.class);
+        given(store.execute(any(Limit.class), any(Context.class))).willAnswer(invocation -> {
+            final Context operationContext = (Context) invocation.getArguments()[1];
+            synchronized (contexts) {
+                contexts.add(operationContext);
+            }
+            assertEquals(context.getUser(), operationContext.getUser());
+            return 1;
+        });
+        final ForEachHandler handler = new ForEachHandler();
+        handler.setParallelism(2);
+
+        // When
+        Lists.newArrayList((Iterable<Object>) handler.doOperation(createForEach(4), context, store));
+
+        // Then
+        assertEquals(4, contexts.size());
+        assertFalse(contexts.contains(context));
+    }
+
+    @Test
+    public void shouldKeepAtMostParallelismOperationsInFlightWhenOrdered() throws Exception {
+        // Given
+        final Context context = new Context(new User());
+        final AtomicInteger started = new AtomicInteger();
+        final CountDownLatch firstInputCanComplete = new CountDownLatch(1);
+        final Store store = createStore(input -> {
+            started.incrementAndGet();
+            if (0 == input) {
+                firstInputCanComplete.await(10, TimeUnit.SECONDS);
+            }
+            return input;
+        });
+        final ForEachHandler handler = new ForEachHandler();
+        handler.setParallelism(2);
+
+        // When
+        final CloseableIterable<Object> results = (CloseableIterable<Object>) handler.doOperation(createForEach(5), context, store);
+        final Thread consumer = new Thread(() -> results.iterator().hasNext());
+        consumer.start();
+
+        // Then
+        try {
+            for (int i = 0; i < 20 && started.get() < 2; i++) {
+                Thread.sleep(50);
+            }
+            Thread.sleep(100);
+            assertEquals(2, started.get());
+        } finally {
+            firstInputCanComplete.countDown();
+            results.close();
+        }
+    }
+
+    @Test
+    public void shouldReadAndCloseLazyResultsOnTheExecutorThreads() throws Exception {
+        // Given
+        final Context context = new Context(new User());
+        final List<String> readingThreads = Collections.synchronizedList(new ArrayList<>());
+        final AtomicInteger closed = new AtomicInteger();
+        final Store store = createStore(input -> new WrappedCloseableIterable<Integer>(Collections.singletonList(input)) {
+            @Override
+            public CloseableIterator<Integer> iterator() {
+                readingThreads.add(Thread.currentThread().getName());
+                return super.iterator();
+            }
+
+            @Override
+            public void close() {
+                closed.incrementAndGet();
+            }
+        });
+        final ForEachHandler handler = new ForEachHandler();
+        handler.setParallelism(2);
+
+        // When
+        final List<List<Object>> results = new ArrayList<>();
+        for (final Object result : (Iterable<Object>) handler.doOperation(createForEach(4), context, store)) {
+            results.add(Lists.newArrayList((Iterable<Object>) result));
+        }
+
+        // Then
+        assertEquals(Arrays.asList(
+                Collections.singletonList(0),
+                Collections.singletonList(1),
+                Collections.singletonList(2),
+                Collections.singletonList(3)), results);
+        assertEquals(Collections.nCopies(4, "forEach-executor"), readingThreads);
+        assertEquals(4, closed.get());
+    }
+
+    @Test
+    public void shouldReturnTheRestOfLazyResultsLargerThanThePrefetchLimit() throws Exception {
+        // Given
+        final Context context = new Context(new User());
+        final AtomicInteger closed = new AtomicInteger();
+        final Store store = createStore(input -> new WrappedCloseableIterable<Integer>(Arrays.asList(input, input, input)) {
+            @Override
+            public void close() {
+                closed.incrementAndGet();
+            }
+        });
+        final ForEachHandler handler = new ForEachHandler();
+        handler.setParallelism(2);
+        handler.setPrefetchLimit(2);
+
+        // When
+        final List<Object> results = new ArrayList<>();
+        final CloseableIterable<Object> forEachResults = (CloseableIterable<Object>) handler.doOperation(createForEach(2), context, store);
+        for (final Object result : forEachResults) {
+            try (final CloseableIterable<Object> resultIterable = (CloseableIterable<Object>) result) {
+                results.addAll(Lists.newArrayList(resultIterable));
+            }
+        }
+
+        // Then
+        assertEquals(Arrays.asList(0, 0, 0, 1, 1, 1), results);
+        assertEquals(2, closed.get());
+    }
+
+    private static ForEach<Iterable<Integer>, Object> createForEach(final int numInputs) {
+        final List<Iterable<Integer>> inputs = new ArrayList<>();
+        for (int i = 0; i < numInputs; i++) {
+            inputs.add(Collections.singletonList(i));
+        }
+        return new ForEach.Builder<Iterable<Integer>, Object>()
+                .input(inputs)
+                .operation(new Limit<>(1))
+                .build();
+    }
+
+    private static Store createStore(final LimitExecutor executor) throws OperationException {
+        final Store store = mock(Store.class);
+        given(store.execute(any(Limit.class), any(Context.class))).willAnswer(invocation -> {
+            final Limit<Integer> limit = (Limit<Integer>) invocation.getArguments()[0];
+            return executor.execute(limit.getInput().iterator().next());
+        });
+        return store;
+    }
+
+    private interface LimitExecutor {
+        Object execute(final Integer input) throws Exception;
+    }
 }
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.store.operation.handler;
+
+import com.google.common.collect.Lists;
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.commonutil.iterable.WrappedCloseableIterable;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.id.EdgeId.MatchedVertex;
+import uk.gov.gchq.gaffer.data.graph.Walk;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
+import uk.gov.gchq.gaffer.operation.graph.SeededGraphFilters.IncludeIncomingOutgoingType;
+import uk.gov.gchq.gaffer.operation.impl.GetPaths;
+import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
+import uk.gov.gchq.gaffer.store.Context;
+import uk.gov.gchq.gaffer.store.Store;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class GetPathsHandlerTest {
+    // 1 -> 2 -> 3 -> 4, 1 -> 5 -> 4 and 6 -> 4
+    private static final List<Edge> EDGES = Arrays.asList(
+            createEdge("1", "2"),
+            createEdge("2", "3"),
+            createEdge("3", "4"),
+            createEdge("1", "5"),
+            createEdge("5", "4"),
+            createEdge("6", "4"));
+
+    private final Context context = new Context();
+    private Store store;
+
+    @Before
+    public void before() throws OperationException {
+        store = mock(Store.class);
+        given(store.execute(any(GetElements.class), any(Context.class))).willAnswer(invocation -> {
+            final GetElements getElements = (GetElements) invocation.getArguments()[0];
+            final boolean incoming = IncludeIncomingOutgoingType.INCOMING == getElements.getIncludeIncomingOutGoing();
+            final List<Element> results = new ArrayList<>();
+            for (final Object seed : getElements.getInput()) {
+                final Object vertex = ((EntitySeed) seed).getVertex();
+                for (final Edge edge : EDGES) {
+                    if (!incoming && vertex.equals(edge.getSource())) {
+                        results.add(new Edge(edge.getGroup(), edge.getSource(), edge.getDestination(), true, MatchedVertex.SOURCE, null));
+                    } else if (incoming && vertex.equals(edge.getDestination())) {
+                        results.add(new Edge(edge.getGroup(), edge.getSource(), edge.getDestination(), true, MatchedVertex.DESTINATION, null));
+                    }
+                }
+            }
+            return new WrappedCloseableIterable<>(results);
+        });
+    }
+
+    @Test
+    public void shouldHandleNullInput() throws Exception {
+        // Given
+        final GetPaths operation = new GetPaths.Builder()
+                .targets("4")
+                .maxHops(2)
+                .build();
+
+        // When
+        final Iterable<Walk> result = new GetPathsHandler().doOperation(operation, context, store);
+
+        // Then
+        assertNull(result);
+    }
+
+    @Test
+    public void shouldGetPathsBetweenSourcesAndTargetsShortestFirst() throws Exception {
+        // Given
+        final GetPaths operation = new GetPaths.Builder()
+                .input(new EntitySeed("1"))
+                .targets("4")
+                .maxHops(3)
+                .build();
+
+        // When
+        final Iterable<Walk> result = new GetPathsHandler().doOperation(operation, context, store);
+
+        // Then
+        assertEquals(Arrays.asList(
+                Arrays.asList("1", "5", "4"),
+                Arrays.asList("1", "2", "3", "4")),
+                getVertices(result));
+        verify(store, times(3)).execute(any(GetElements.class), any(Context.class));
+    }
+
+    @Test
+    public void shouldOnlyGetPathsWithinMaxHops() throws Exception {
+        // Given
+        final GetPaths operation = new GetPaths.Builder()
+                .input(new EntitySeed("1"))
+                .targets("4")
+                .maxHops(2)
+                .build();
+
+        // When
+        final Iterable<Walk> result = new GetPathsHandler().doOperation(operation, context, store);
+
+        // Then
+        assertEquals(Arrays.asList(
+                Arrays.asList("1", "5", "4")),
+                getVertices(result));
+    }
+
+    @Test
+    public void shouldGetPathsToTargetsReachedByTheSourcesOnly() throws Exception {
+        // Given
+        final GetPaths operation = new GetPaths.Builder()
+                .input(new EntitySeed("1"), new EntitySeed("2"))
+                .targets("3")
+                .maxHops(1)
+                .build();
+
+        // When
+        final Iterable<Walk> result = new GetPathsHandler().doOperation(operation, context, store);
+
+        // Then
+        assertEquals(Arrays.asList(
+                Arrays.asList("2", "3")),
+                getVertices(result));
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenMaxHopsIsExceeded() {
+        // Given
+        final GetPaths operation = new GetPaths.Builder()
+                .input(new EntitySeed("1"))
+                .targets("4")
+                .maxHops(3)
+                .build();
+        final GetPathsHandler handler = new GetPathsHandler();
+        handler.setMaxHops(2);
+
+        // When / Then
+        try {
+            handler.doOperation(operation, context, store);
+            fail("Exception expected");
+        } catch (final OperationException e) {
+            assertEquals("GetPaths operation contains 3 hops. The maximum number of hops is: 2", e.getMessage());
+        }
+    }
+
+    private static List<List<Object>> getVertices(final Iterable<Walk> walks) {
+        final List<List<Object>> vertices = new ArrayList<>();
+        for (final Walk walk : walks) {
+            vertices.add(Lists.newArrayList(walk.getVerticesOrdered()));
+        }
+        return vertices;
+    }
+
+    private static Edge createEdge(final String source, final String destination) {
+        return new Edge.Builder()
+                .group(TestGroups.EDGE)
+                .source(source)
+                .dest(destination)
+                .directed(true)
+                .build();
+    }
+}
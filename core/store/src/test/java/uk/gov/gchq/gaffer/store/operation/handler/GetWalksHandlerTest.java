@@ -17,20 +17,47 @@
 package uk.gov.gchq.gaffer.store.operation.handler;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import org.junit.Test;
 
 import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.id.EdgeId;
+import uk.gov.gchq.gaffer.data.element.id.EntityId;
 import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
 import uk.gov.gchq.gaffer.data.graph.Walk;
 import uk.gov.gchq.gaffer.exception.SerialisationException;
 import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser;
+import uk.gov.gchq.gaffer.operation.OperationChain;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
 import uk.gov.gchq.gaffer.operation.impl.GetWalks;
 import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
+import uk.gov.gchq.gaffer.operation.impl.output.ToEntitySeeds;
+import uk.gov.gchq.gaffer.operation.io.Output;
+import uk.gov.gchq.gaffer.store.Context;
+import uk.gov.gchq.gaffer.store.Store;
+import uk.gov.gchq.gaffer.user.User;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
 
 public class GetWalksHandlerTest {
     @Test
@@ -67,4 +94,92 @@ public class GetWalksHandlerTest {
         // Then
         assertNotNull(deserialisedObj);
     }
+
+    @Test
+    public void shouldOnlyUseEachVertexOnceAsASeedForTheNextHop() throws Exception {
+        // Given
+        final List<List<Object>> seedsForEachHop = new ArrayList<>();
+        final Store store = createStore(seedsForEachHop);
+        final GetWalks operation = createGetWalks(null);
+
+        // When
+        final List<Walk> walks = Lists.newArrayList(new GetWalksHandler().doOperation(operation, new Context(new User()), store));
+
+        // Then - D is reached from both B and C but is only used as a seed once
+        assertEquals(Arrays.asList(
+                Collections.singletonList("A"),
+                Arrays.asList("B", "C"),
+                Collections.singletonList("D")), seedsForEachHop);
+        final Set<List<Object>> vertices = new HashSet<>();
+        for (final Walk walk : walks) {
+            vertices.add(walk.getVerticesOrdered());
+        }
+        assertEquals(Sets.newHashSet(
+                Arrays.asList("A", "B", "D", "E"),
+                Arrays.asList("A", "B", "D", "F"),
+                Arrays.asList("A", "C", "D", "E"),
+                Arrays.asList("A", "C", "D", "F")), vertices);
+        assertEquals(4, walks.size());
+    }
+
+    @Test
+    public void shouldTruncateWalksWhenNumberOfWalksExceedsResultsLimit() throws Exception {
+        // Given - each hop returns 2 edges, but there are 4 walks
+        final Store store = createStore(new ArrayList<>());
+        final GetWalks operation = createGetWalks(3);
+
+        // When
+        final List<Walk> walks = Lists.newArrayList(new GetWalksHandler().doOperation(operation, new Context(new User()), store));
+
+        // Then
+        assertEquals(3, walks.size());
+        for (final Walk walk : walks) {
+            assertEquals(4, walk.getVerticesOrdered().size());
+        }
+    }
+
+    private static GetWalks createGetWalks(final Integer resultsLimit) {
+        final GetWalks.Builder builder = new GetWalks.Builder()
+                .input(new EntitySeed("A"))
+                .operations(createGetEdges(), createGetEdges(), createGetEdges());
+        if (null != resultsLimit) {
+            builder.resultsLimit(resultsLimit);
+        }
+        return builder.build();
+    }
+
+    private static GetElements createGetEdges() {
+        return new GetElements.Builder()
+                .view(new View.Builder()
+                        .edge(TestGroups.EDGE)
+                        .build())
+                .build();
+    }
+
+    private static Store createStore(final List<List<Object>> seedsForEachHop) throws OperationException {
+        // The store contains the edges A-B, A-C, B-D, C-D, D-E and D-F
+        final Map<Object, List<Object>> adjacentVertices = new HashMap<>();
+        adjacentVertices.put("A", Arrays.asList("B", "C"));
+        adjacentVertices.put("B", Collections.singletonList("D"));
+        adjacentVertices.put("C", Collections.singletonList("D"));
+        adjacentVertices.put("D", Arrays.asList("E", "F"));
+
+        final Store store = mock(Store.class);
+        given(store.execute(any(Output.class), any(Context.class))).willAnswer(invocation -> {
+            final OperationChain<?> opChain = (OperationChain<?>) invocation.getArguments()[0];
+            final ToEntitySeeds toEntitySeeds = (ToEntitySeeds) opChain.getOperations().get(0);
+            final List<Object> seeds = new ArrayList<>();
+            final List<Element> edges = new ArrayList<>();
+            for (final Object seed : toEntitySeeds.getInput()) {
+                final Object vertex = seed instanceof EntityId ? ((EntityId) seed).getVertex() : seed;
+                seeds.add(vertex);
+                for (final Object adjacentVertex : adjacentVertices.getOrDefault(vertex, Collections.emptyList())) {
+                    edges.add(new Edge(TestGroups.EDGE, vertex, adjacentVertex, true, EdgeId.MatchedVertex.SOURCE, null));
+                }
+            }
+            seedsForEachHop.add(seeds);
+            return edges;
+        });
+        return store;
+    }
 }
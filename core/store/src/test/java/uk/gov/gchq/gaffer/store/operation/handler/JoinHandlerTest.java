@@ -16,6 +16,7 @@
 
 package uk.gov.gchq.gaffer.store.operation.handler;
 
+import com.google.common.collect.Iterables;
 import org.junit.Test;
 
 import uk.gov.gchq.gaffer.operation.OperationException;
@@ -28,6 +29,7 @@ import uk.gov.gchq.gaffer.store.operation.handler.join.JoinHandler;
 import uk.gov.gchq.gaffer.store.operation.handler.join.match.ElementMatch;
 import uk.gov.gchq.gaffer.store.operation.handler.join.match.KeyFunctionMatch;
 import uk.gov.gchq.gaffer.user.User;
+import uk.gov.gchq.koryphe.tuple.MapTuple;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -84,6 +86,28 @@ public class JoinHandlerTest {
         }
     }
 
+    @Test
+    public void shouldNotLimitInputWhenSpillingToDisk() throws OperationException {
+        // Given
+        final JoinHandler handler = new JoinHandler();
+        handler.setSpillToDisk(true);
+        final List<Integer> inputList = Arrays.asList(1, 2, 3);
+
+        final Join<Integer> joinOp = new Join.Builder<Integer>()
+                .input(inputList)
+                .joinType(JoinType.FULL)
+                .matchKey(MatchKey.LEFT)
+                .matchMethod(new KeyFunctionMatch())
+                .collectionLimit(1)
+                .build();
+
+        // When
+        final Iterable<? extends MapTuple> results = handler.doOperation(joinOp, context, store);
+
+        // Then
+        assertEquals(3, Iterables.size(results));
+    }
+
     @Test
     public void shouldThrowExceptionWhenNoMatchMethodIsSpecified() {
         // Given
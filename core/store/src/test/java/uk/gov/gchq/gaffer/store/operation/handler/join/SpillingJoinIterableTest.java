@@ -0,0 +1,276 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.store.operation.handler.join;
+
+import com.google.common.collect.Lists;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import uk.gov.gchq.gaffer.commonutil.CommonTestConstants;
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.commonutil.TestPropertyNames;
+import uk.gov.gchq.gaffer.commonutil.exception.LimitExceededException;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.id.EdgeId.MatchedVertex;
+import uk.gov.gchq.gaffer.operation.impl.join.match.MatchKey;
+import uk.gov.gchq.gaffer.operation.impl.join.methods.JoinType;
+import uk.gov.gchq.gaffer.serialisation.implementation.StringSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.ordered.OrderedLongSerialiser;
+import uk.gov.gchq.gaffer.store.operation.handler.join.match.ElementMatch;
+import uk.gov.gchq.gaffer.store.operation.handler.join.match.KeyFunctionMatch;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.schema.SchemaEdgeDefinition;
+import uk.gov.gchq.gaffer.store.schema.SchemaEntityDefinition;
+import uk.gov.gchq.gaffer.store.schema.TypeDefinition;
+import uk.gov.gchq.koryphe.tuple.MapTuple;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class SpillingJoinIterableTest {
+    @Rule
+    public final TemporaryFolder testFolder = new TemporaryFolder(CommonTestConstants.TMP_DIRECTORY);
+
+    @Test
+    public void shouldGiveSameResultsAsInMemoryJoinWhenInputsFitInMemory() {
+        final List<Integer> left = createIntegers(50);
+        final List<Integer> right = createIntegers(20);
+
+        for (final JoinType joinType : JoinType.values()) {
+            // When
+            final List<MapTuple> results = Lists.newArrayList(new SpillingJoinIterable(left, right,
+                    new KeyFunctionMatch(), joinType.createInstance(), MatchKey.LEFT, true,
+                    100, null, testFolder.getRoot()));
+
+            // Then
+            assertEquals(joinType.createInstance().join(left, right, new KeyFunctionMatch(), MatchKey.LEFT, true), results);
+        }
+    }
+
+    @Test
+    public void shouldGiveSameResultsAsInMemoryJoinWhenSpillingToDisk() {
+        final List<Integer> left = createIntegers(200);
+        final List<Integer> right = createIntegers(100);
+
+        for (final JoinType joinType : JoinType.values()) {
+            for (final MatchKey matchKey : MatchKey.values()) {
+                for (final boolean flatten : new boolean[]{true, false}) {
+                    // When
+                    final List<MapTuple> results = Lists.newArrayList(new SpillingJoinIterable(left, right,
+                            new KeyFunctionMatch(), joinType.createInstance(), matchKey, flatten,
+                            10, 4, null, testFolder.getRoot()));
+
+                    // Then
+                    final List<MapTuple> expected = joinType.createInstance().join(left, right, new KeyFunctionMatch(), matchKey, flatten);
+                    assertEquals(new HashSet<>(expected), new HashSet<>(results));
+                    assertEquals(expected.size(), results.size());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shouldSpillElementsUsingSchemaSerialisers() {
+        // Given
+        final Schema schema = new Schema.Builder()
+                .entity(TestGroups.ENTITY, new SchemaEntityDefinition.Builder()
+                        .vertex("string")
+                        .property(TestPropertyNames.COUNT, "long")
+                        .build())
+                .type("string", new TypeDefinition.Builder()
+                        .clazz(String.class)
+                        .serialiser(new StringSerialiser())
+                        .build())
+                .type("long", new TypeDefinition.Builder()
+                        .clazz(Long.class)
+                        .serialiser(new OrderedLongSerialiser())
+                        .build())
+                .vertexSerialiser(new StringSerialiser())
+                .build();
+        final List<Element> left = new ArrayList<>();
+        final List<Element> right = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            left.add(new Entity.Builder().group(TestGroups.ENTITY).vertex("vertex" + i).property(TestPropertyNames.COUNT, (long) i).build());
+            right.add(new Entity.Builder().group(TestGroups.ENTITY).vertex("vertex" + (i % 25)).property(TestPropertyNames.COUNT, (long) i).build());
+        }
+
+        // When
+        final List<MapTuple> results = Lists.newArrayList(new SpillingJoinIterable(left, right,
+                new ElementMatch(), JoinType.INNER.createInstance(), MatchKey.LEFT, true,
+                5, 4, schema, testFolder.getRoot()));
+
+        // Then
+        final List<MapTuple> expected = JoinType.INNER.createInstance().join(left, right, new ElementMatch(), MatchKey.LEFT, true);
+        assertEquals(new HashSet<>(expected), new HashSet<>(results));
+        assertEquals(expected.size(), results.size());
+    }
+
+    @Test
+    public void shouldKeepTheMatchedVertexOfSpilledEdges() {
+        // Given
+        final Schema schema = new Schema.Builder()
+                .edge(TestGroups.EDGE, new SchemaEdgeDefinition.Builder()
+                        .source("string")
+                        .destination("string")
+                        .directed("directed.either")
+                        .property(TestPropertyNames.COUNT, "long")
+                        .build())
+                .type("string", new TypeDefinition.Builder()
+                        .clazz(String.class)
+                        .serialiser(new StringSerialiser())
+                        .build())
+                .type("long", new TypeDefinition.Builder()
+                        .clazz(Long.class)
+                        .serialiser(new OrderedLongSerialiser())
+                        .build())
+                .type("directed.either", Boolean.class)
+                .vertexSerialiser(new StringSerialiser())
+                .build();
+        final List<Element> left = new ArrayList<>();
+        final List<Element> right = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            left.add(createEdge(i, i));
+            right.add(createEdge(i % 25, i));
+        }
+
+        // When
+        final List<MapTuple> results = Lists.newArrayList(new SpillingJoinIterable(left, right,
+                new ElementMatch(), JoinType.INNER.createInstance(), MatchKey.LEFT, true,
+                5, 4, schema, testFolder.getRoot()));
+
+        // Then - Edge equality ignores the matched vertex, but the string representation includes it
+        final List<MapTuple> expected = JoinType.INNER.createInstance().join(left, right, new ElementMatch(), MatchKey.LEFT, true);
+        assertEquals(toStrings(expected), toStrings(results));
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenTooManyCandidatesHaveTheSameKey() {
+        // Given
+        final List<Integer> left = Collections.singletonList(1);
+        final List<Integer> right = Collections.nCopies(20, 1);
+
+        // When / Then
+        try {
+            Lists.newArrayList(new SpillingJoinIterable(left, right,
+                    new KeyFunctionMatch(), JoinType.INNER.createInstance(), MatchKey.LEFT, true,
+                    10, 2, null, testFolder.getRoot()));
+            fail("Exception expected");
+        } catch (final LimitExceededException e) {
+            assertEquals(0, testFolder.getRoot().list().length);
+        }
+    }
+
+    @Test
+    public void shouldDeleteSpillFilesWhenIteratorIsClosed() {
+        // Given
+        final List<Integer> left = createIntegers(100);
+        final List<Integer> right = createIntegers(100);
+        final CloseableIterator<MapTuple> itr = new SpillingJoinIterable(left, right,
+                new KeyFunctionMatch(), JoinType.INNER.createInstance(), MatchKey.LEFT, true,
+                10, null, testFolder.getRoot()).iterator();
+        itr.next();
+
+        // When
+        itr.close();
+
+        // Then
+        assertFalse(itr.hasNext());
+        assertEquals(0, testFolder.getRoot().list().length);
+    }
+
+    @Test
+    public void shouldDeleteSpillFilesOnceAllResultsHaveBeenReturned() {
+        // Given
+        final List<Integer> left = createIntegers(100);
+        final List<Integer> right = createIntegers(100);
+        final CloseableIterator<MapTuple> itr = new SpillingJoinIterable(left, right,
+                new KeyFunctionMatch(), JoinType.INNER.createInstance(), MatchKey.LEFT, true,
+                10, null, testFolder.getRoot()).iterator();
+
+        // When
+        while (itr.hasNext()) {
+            itr.next();
+        }
+
+        // Then
+        assertEquals(0, testFolder.getRoot().list().length);
+    }
+
+    @Test
+    public void shouldDeletePartitionFilesOnceTheyHaveBeenRead() {
+        // Given
+        final List<Integer> left = createIntegers(100);
+        final List<Integer> right = createIntegers(100);
+        final CloseableIterator<MapTuple> itr = new SpillingJoinIterable(left, right,
+                new KeyFunctionMatch(), JoinType.INNER.createInstance(), MatchKey.LEFT, true,
+                10, 4, null, testFolder.getRoot()).iterator();
+
+        // When
+        itr.next();
+
+        // Then - the match candidates of the partition being joined have been deleted
+        try {
+            final File[] spillDirectories = testFolder.getRoot().listFiles();
+            assertEquals(1, spillDirectories.length);
+            final String[] spillFiles = spillDirectories[0].list();
+            final long candidateFiles = Arrays.stream(spillFiles).filter(name -> name.startsWith("candidates-")).count();
+            final long keyFiles = Arrays.stream(spillFiles).filter(name -> name.startsWith("keys-")).count();
+            assertEquals(keyFiles - 1, candidateFiles);
+        } finally {
+            itr.close();
+        }
+    }
+
+    private List<Integer> createIntegers(final int size) {
+        final List<Integer> integers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            integers.add(i % (size / 2 + 1));
+        }
+        return integers;
+    }
+
+    private static Edge createEdge(final int vertex, final int count) {
+        return new Edge.Builder()
+                .group(TestGroups.EDGE)
+                .source("vertex" + vertex)
+                .dest("dest" + vertex)
+                .directed(0 == vertex % 2)
+                .matchedVertex(0 == vertex % 3 ? MatchedVertex.SOURCE : MatchedVertex.DESTINATION)
+                .property(TestPropertyNames.COUNT, (long) count)
+                .build();
+    }
+
+    private static List<String> toStrings(final List<MapTuple> tuples) {
+        return tuples.stream()
+                .map(tuple -> tuple.get(MatchKey.LEFT.name()) + " " + tuple.get(MatchKey.RIGHT.name()))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.store.operation.handler.join.match;
+
+import com.google.common.collect.Sets;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.commonutil.CollectionUtil;
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.commonutil.TestPropertyNames;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class IndexedElementMatchTest {
+
+    @Test
+    public void shouldFullyMatchEqualElementsWithNoGroupBy() {
+        // Given
+        final Entity testEntity = createEntity(TestGroups.ENTITY_3, 3L);
+        final List<Entity> comparisonEntityList = Arrays.asList(testEntity.shallowClone(), testEntity.shallowClone());
+
+        final IndexedElementMatch elementMatch = new IndexedElementMatch();
+        elementMatch.init(comparisonEntityList);
+
+        // When
+        final List<Element> matchingElements = elementMatch.matching(testEntity);
+
+        // Then
+        assertEquals(comparisonEntityList, matchingElements);
+    }
+
+    @Test
+    public void shouldPartiallyMatchEqualElementsWithNoGroupBy() {
+        // Given
+        final Entity testEntity = createEntity(TestGroups.ENTITY_3, 3L);
+        final Entity testEntity2 = createEntity(TestGroups.ENTITY_4, 3L);
+        final List<Entity> comparisonEntityList = Arrays.asList(testEntity.shallowClone(), testEntity2.shallowClone());
+
+        final IndexedElementMatch elementMatch = new IndexedElementMatch();
+        elementMatch.init(comparisonEntityList);
+
+        // When
+        final List<Element> matchingElements = elementMatch.matching(testEntity);
+
+        // Then
+        assertEquals(Arrays.asList(testEntity), matchingElements);
+    }
+
+    @Test
+    public void shouldPartiallyMatchEqualElementsWithGroupBy() {
+        // Given
+        final Entity testEntity = createEntity(TestGroups.ENTITY_3, 3L);
+        final Entity testEntity2 = createEntity(TestGroups.ENTITY_3, 5L);
+        final List<Entity> comparisonEntityList = Arrays.asList(testEntity.shallowClone(), testEntity2.shallowClone());
+
+        final IndexedElementMatch elementMatch = new IndexedElementMatch(TestPropertyNames.COUNT);
+        elementMatch.init(comparisonEntityList);
+
+        // When
+        final List<Element> matchingElements = elementMatch.matching(testEntity);
+
+        // Then
+        assertEquals(Arrays.asList(testEntity), matchingElements);
+    }
+
+    @Test
+    public void shouldRebuildIndexWhenGroupByPropertiesChange() {
+        // Given
+        final Entity testEntity = createEntity(TestGroups.ENTITY_3, 3L);
+        final Entity testEntity2 = createEntity(TestGroups.ENTITY_3, 5L);
+        final List<Entity> comparisonEntityList = Arrays.asList(testEntity.shallowClone(), testEntity2.shallowClone());
+
+        final IndexedElementMatch elementMatch = new IndexedElementMatch();
+        elementMatch.init(comparisonEntityList);
+
+        // When
+        elementMatch.setElementGroupByProperties(Sets.newHashSet(TestPropertyNames.COUNT));
+        final List<Element> matchingElements = elementMatch.matching(testEntity2);
+
+        // Then
+        assertEquals(Arrays.asList(testEntity2), matchingElements);
+    }
+
+    @Test
+    public void shouldGiveSameMatchesAsElementMatch() {
+        // Given
+        final List<Element> candidates = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            candidates.add(createEntity(TestGroups.ENTITY, (long) (i % 3)));
+            candidates.add(createEdge(i % 4, (i + 1) % 4, i % 2 == 0, (long) (i % 3)));
+        }
+        final ElementMatch elementMatch = new ElementMatch(TestPropertyNames.COUNT);
+        elementMatch.init(candidates);
+        final IndexedElementMatch indexedElementMatch = new IndexedElementMatch(TestPropertyNames.COUNT);
+        indexedElementMatch.init(candidates);
+
+        // When / Then
+        for (final Element testElement : candidates) {
+            assertEquals(elementMatch.matching(testElement), indexedElementMatch.matching(testElement));
+        }
+    }
+
+    @Test
+    public void shouldThrowExceptionIfInitialisedWithNullValue() {
+        // Given
+        final IndexedElementMatch elementMatch = new IndexedElementMatch();
+
+        // When / Then
+        try {
+            elementMatch.init(null);
+            fail("Exception expected");
+        } catch (final IllegalArgumentException e) {
+            assertEquals("IndexedElementMatch must be initialised with non-null match candidates", e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldThrowExceptionIfNotInitialised() {
+        // Given
+        final IndexedElementMatch elementMatch = new IndexedElementMatch();
+
+        // When / Then
+        try {
+            elementMatch.matching(new Entity("testGroup", "test"));
+            fail("Exception expected");
+        } catch (final IllegalArgumentException e) {
+            assertEquals("IndexedElementMatch must be initialised with non-null match candidates", e.getMessage());
+        }
+    }
+
+    private Entity createEntity(final String group, final long count) {
+        return new Entity.Builder()
+                .group(group)
+                .vertex("vertex")
+                .property(TestPropertyNames.SET, CollectionUtil.treeSet("3"))
+                .property(TestPropertyNames.COUNT, count)
+                .build();
+    }
+
+    private Edge createEdge(final int source, final int destination, final boolean directed, final long count) {
+        return new Edge.Builder()
+                .group(TestGroups.EDGE)
+                .source(source)
+                .dest(destination)
+                .directed(directed)
+                .property(TestPropertyNames.COUNT, count)
+                .build();
+    }
+}
@@ -278,4 +278,19 @@ public class NamedOperationCacheTest {
 
         cache.addNamedOperation(alt, true, userWithAdminAuth, ADMIN_AUTH);
     }
+
+    @Test
+    public void shouldResolveUpdatedOperationChainAfterOverwrite() throws CacheOperationFailedException {
+        // Given
+        cache.addNamedOperation(standard, false, standardUser);
+        final OperationChain<?> standardResolved = cache.getNamedOperation(OPERATION_NAME, standardUser).getOperationChain(null);
+
+        // When
+        cache.addNamedOperation(alternative, true, advancedUser);
+        final OperationChain<?> alternativeResolved = cache.getNamedOperation(OPERATION_NAME, standardUser).getOperationChain(null);
+
+        // Then
+        assertEquals(AddElements.class, standardResolved.getOperations().get(0).getClass());
+        assertEquals(GetElements.class, alternativeResolved.getOperations().get(0).getClass());
+    }
 }
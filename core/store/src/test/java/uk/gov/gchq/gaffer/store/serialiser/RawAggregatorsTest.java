@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.store.serialiser;
+
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.serialisation.ToBytesSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.StringSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.ordered.OrderedDoubleSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.ordered.OrderedLongSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.raw.CompactRawIntegerSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.raw.CompactRawLongSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.raw.RawLongSerialiser;
+import uk.gov.gchq.koryphe.impl.binaryoperator.Max;
+import uk.gov.gchq.koryphe.impl.binaryoperator.Min;
+import uk.gov.gchq.koryphe.impl.binaryoperator.StringConcat;
+import uk.gov.gchq.koryphe.impl.binaryoperator.Sum;
+
+import java.util.function.BinaryOperator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class RawAggregatorsTest {
+    @Test
+    public void shouldSumCompactRawLongs() throws SerialisationException {
+        assertRawAggregationMatches(new CompactRawLongSerialiser(), new Sum(), 5L, 1000000000000L);
+        assertRawAggregationMatches(new CompactRawLongSerialiser(), new Sum(), -200L, 3L);
+    }
+
+    @Test
+    public void shouldSumCompactRawIntegers() throws SerialisationException {
+        assertRawAggregationMatches(new CompactRawIntegerSerialiser(), new Sum(), 5, 100000);
+        assertRawAggregationMatches(new CompactRawIntegerSerialiser(), new Sum(), Integer.MAX_VALUE, 1);
+    }
+
+    @Test
+    public void shouldApplyMaxAndMinToOrderedSerialisers() throws SerialisationException {
+        for (final BinaryOperator function : new BinaryOperator[]{new Max(), new Min()}) {
+            assertRawAggregationMatches(new OrderedLongSerialiser(), function, -5L, 300L);
+            assertRawAggregationMatches(new OrderedLongSerialiser(), function, 300L, 2L);
+            assertRawAggregationMatches(new OrderedDoubleSerialiser(), function, -1.5, -2.5);
+            assertRawAggregationMatches(new OrderedDoubleSerialiser(), function, 7.0, 7.0);
+        }
+    }
+
+    @Test
+    public void shouldReturnNullIfThereIsNoRawAggregator() {
+        assertNull(RawAggregators.getRawAggregator(new StringSerialiser(), new StringConcat()));
+        assertNull(RawAggregators.getRawAggregator(new CompactRawLongSerialiser(), new Max()));
+        assertNull(RawAggregators.getRawAggregator(new RawLongSerialiser(), new Max()));
+        assertNull(RawAggregators.getRawAggregator(new OrderedLongSerialiser(), new Sum()));
+        assertNull(RawAggregators.getRawAggregator(null, new Sum()));
+    }
+
+    private <T> void assertRawAggregationMatches(final ToBytesSerialiser<T> serialiser, final BinaryOperator function,
+                                                 final T state, final T value) throws SerialisationException {
+        // Given
+        final RawAggregator rawAggregator = RawAggregators.getRawAggregator(serialiser, function);
+        final byte[] valueBytes = serialiser.serialise(value);
+        final byte[] paddedValueBytes = new byte[valueBytes.length + 2];
+        System.arraycopy(valueBytes, 0, paddedValueBytes, 1, valueBytes.length);
+
+        // When
+        final byte[] result = rawAggregator.apply(serialiser.serialise(state), paddedValueBytes, 1, valueBytes.length);
+
+        // Then
+        assertEquals(function.apply(state, value), serialiser.deserialise(result));
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.store.util;
+
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.operation.OperationException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ParallelBatchExecutorTest {
+    private final ParallelBatchExecutor batchExecutor = new ParallelBatchExecutor("test-batch-");
+
+    @Test
+    public void shouldProcessAllNonNullItemsInBatches() throws OperationException {
+        // Given
+        final List<Integer> items = new ArrayList<>();
+        IntStream.range(0, 25).forEach(items::add);
+        items.add(null);
+        final List<Integer> processedItems = Collections.synchronizedList(new ArrayList<>());
+        final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        final AtomicInteger processing = new AtomicInteger();
+        final AtomicInteger maxProcessing = new AtomicInteger();
+
+        // When
+        batchExecutor.execute(items.iterator(), 10, 2, batch -> {
+            maxProcessing.accumulateAndGet(processing.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            batchSizes.add(batch.size());
+            processedItems.addAll(batch);
+            processing.decrementAndGet();
+        });
+
+        // Then
+        Collections.sort(processedItems);
+        Collections.sort(batchSizes);
+        assertEquals(items.subList(0, 25), processedItems);
+        assertEquals(Arrays.asList(5, 10, 10), batchSizes);
+        assertTrue("Expected at most 2 batches to be processed at the same time", maxProcessing.get() <= 2);
+    }
+
+    @Test(timeout = 10000)
+    public void shouldUseTheNumberOfThreadsOfEachCall() throws Exception {
+        // Given - a first call with 1 thread
+        batchExecutor.execute(Arrays.asList(1, 2).iterator(), 1, 1, batch -> {
+        });
+        final CountDownLatch started = new CountDownLatch(3);
+
+        // When - each batch waits for all 3 batches to start, so 3 threads are needed
+        batchExecutor.execute(Arrays.asList(1, 2, 3).iterator(), 1, 3, batch -> {
+            started.countDown();
+            started.await();
+        });
+
+        // Then
+        assertEquals(0, started.getCount());
+    }
+
+    @Test(timeout = 10000)
+    public void shouldStopReadingItemsWhenABatchFails() {
+        // Given - the items never run out, so this only completes if the failure is noticed
+        final IOException failure = new IOException("Batch failed");
+        final Iterator<Integer> items = new Iterator<Integer>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Integer next() {
+                return 1;
+            }
+        };
+
+        // When / Then
+        try {
+            batchExecutor.execute(items, 10, 2, batch -> {
+                throw failure;
+            });
+            fail("Exception expected");
+        } catch (final OperationException e) {
+            assertSame(failure, e.getCause());
+        }
+    }
+
+    @Test
+    public void shouldRethrowRuntimeExceptionsFromBatches() throws OperationException {
+        // Given
+        final IllegalArgumentException failure = new IllegalArgumentException("Invalid item");
+
+        // When / Then
+        try {
+            batchExecutor.execute(Arrays.asList(1, 2, 3).iterator(), 2, 2, batch -> {
+                throw failure;
+            });
+            fail("Exception expected");
+        } catch (final IllegalArgumentException e) {
+            assertSame(failure, e);
+        }
+    }
+}
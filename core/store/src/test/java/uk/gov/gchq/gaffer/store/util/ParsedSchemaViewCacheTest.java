@@ -0,0 +1,93 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.store.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.commonutil.JsonAssert;
+import uk.gov.gchq.gaffer.commonutil.StringUtil;
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.data.elementdefinition.exception.SchemaException;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.schema.SchemaEntityDefinition;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class ParsedSchemaViewCacheTest {
+    @Before
+    public void before() {
+        ParsedSchemaViewCache.clear();
+    }
+
+    @Test
+    public void shouldParseSchemaOnceForIdenticalJson() {
+        // Given
+        final Schema schema = new Schema.Builder()
+                .entity(TestGroups.ENTITY, new SchemaEntityDefinition.Builder()
+                        .vertex("string")
+                        .build())
+                .type("string", String.class)
+                .build();
+        final long hitCount = ParsedSchemaViewCache.getSchemaCacheStats().hitCount();
+
+        // When
+        final Schema result1 = ParsedSchemaViewCache.getSchema(schema.toCompactJson());
+        final Schema result2 = ParsedSchemaViewCache.getSchema(schema.toCompactJson());
+
+        // Then
+        JsonAssert.assertEquals(schema.toCompactJson(), result1.toCompactJson());
+        assertSame(result1, result2);
+        assertEquals(hitCount + 1, ParsedSchemaViewCache.getSchemaCacheStats().hitCount());
+    }
+
+    @Test
+    public void shouldParseViewsWithDifferentJsonSeparately() {
+        // Given
+        final View view1 = new View.Builder()
+                .entity(TestGroups.ENTITY)
+                .build();
+        final View view2 = new View.Builder()
+                .edge(TestGroups.EDGE)
+                .build();
+
+        // When
+        final View result1 = ParsedSchemaViewCache.getView(view1.toCompactJson());
+        final View result2 = ParsedSchemaViewCache.getView(view2.toCompactJson());
+
+        // Then
+        JsonAssert.assertEquals(view1.toCompactJson(), result1.toCompactJson());
+        JsonAssert.assertEquals(view2.toCompactJson(), result2.toCompactJson());
+        assertNotSame(result1, ParsedSchemaViewCache.getView(view2.toCompactJson()));
+        assertSame(result2, ParsedSchemaViewCache.getView(view2.toCompactJson()));
+    }
+
+    @Test
+    public void shouldThrowSchemaExceptionForInvalidJson() {
+        // When / Then
+        try {
+            ParsedSchemaViewCache.getView(StringUtil.toBytes("{invalid"));
+            fail("Exception expected");
+        } catch (final SchemaException e) {
+            // Expected
+        }
+    }
+}
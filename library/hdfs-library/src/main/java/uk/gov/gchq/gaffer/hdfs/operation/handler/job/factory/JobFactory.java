@@ -21,6 +21,7 @@ import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapreduce.Job;
 
 import uk.gov.gchq.gaffer.hdfs.operation.MapReduce;
+import uk.gov.gchq.gaffer.operation.Operation;
 import uk.gov.gchq.gaffer.store.Store;
 import uk.gov.gchq.gaffer.store.StoreProperties;
 
@@ -36,6 +37,13 @@ public interface JobFactory<O extends MapReduce> {
     String MAPPER_GENERATOR = "mapperGenerator";
     String VALIDATE = "validate";
 
+    /**
+     * The maximum number of aggregated elements each mapper holds in memory
+     * before writing them out. This can be set as an operation option. If it
+     * is not set, or is less than 1, the mappers do not aggregate elements.
+     */
+    String MAPPER_AGGREGATION_BUFFER_SIZE = "gaffer.hdfs.mapper.aggregation.buffer.size";
+
     /**
      * Creates a job with the store specific job initialisation and then applies the operation specific
      * {@link uk.gov.gchq.gaffer.hdfs.operation.handler.job.initialiser.JobInitialiser}.
@@ -71,6 +79,12 @@ public interface JobFactory<O extends MapReduce> {
             if (storeProperties.getStrictJson() != null) {
                 configuration.setBoolean(StoreProperties.STRICT_JSON, storeProperties.getStrictJson());
             }
+            if (operation instanceof Operation) {
+                final String bufferSize = ((Operation) operation).getOption(MAPPER_AGGREGATION_BUFFER_SIZE);
+                if (null != bufferSize) {
+                    configuration.setInt(MAPPER_AGGREGATION_BUFFER_SIZE, Integer.parseInt(bufferSize));
+                }
+            }
 
             setupJob(job, operation, mapperGeneratorClassName, store);
 
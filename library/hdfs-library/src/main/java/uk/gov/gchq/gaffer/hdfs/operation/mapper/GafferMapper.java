@@ -27,11 +27,16 @@ import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser;
 import uk.gov.gchq.gaffer.store.ElementValidator;
 import uk.gov.gchq.gaffer.store.StoreProperties;
 import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.util.AggregatorUtil;
 import uk.gov.gchq.koryphe.serialisation.json.SimpleClassNameIdResolver;
 
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 
+import static uk.gov.gchq.gaffer.hdfs.operation.handler.job.factory.AddElementsFromHdfsJobFactory.MAPPER_AGGREGATION_BUFFER_SIZE;
 import static uk.gov.gchq.gaffer.hdfs.operation.handler.job.factory.AddElementsFromHdfsJobFactory.MAPPER_GENERATOR;
 import static uk.gov.gchq.gaffer.hdfs.operation.handler.job.factory.AddElementsFromHdfsJobFactory.SCHEMA;
 import static uk.gov.gchq.gaffer.hdfs.operation.handler.job.factory.AddElementsFromHdfsJobFactory.VALIDATE;
@@ -42,6 +47,16 @@ import static uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser.STRICT_JSON_DE
  * {@link MapperGenerator} to map the input data into
  * {@link Element}s and then delegates the elements to an abstract map method to serialise them
  * and add them to the job map context.
+ * <p>
+ * If the mapper aggregation buffer size is set, elements in aggregated groups
+ * are aggregated in memory, using the ingest group-by properties and
+ * aggregators in the schema, before being passed to the abstract map method.
+ * This reduces the number of elements written by the mapper when the input
+ * contains many repeated elements. The buffer is flushed when it contains
+ * the maximum number of distinct elements and when the mapper is cleaned up.
+ * The number of elements before and after aggregation are recorded in the
+ * "Mapper aggregation" counters. The {@link MapperGenerator} must create a new
+ * {@link Element} each time, as the buffered elements are updated in place.
  *
  * @param <KEY_IN>    type of input key
  * @param <VALUE_IN>  type of input value
@@ -50,9 +65,15 @@ import static uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser.STRICT_JSON_DE
  */
 public abstract class GafferMapper<KEY_IN, VALUE_IN, KEY_OUT, VALUE_OUT> extends Mapper<KEY_IN, VALUE_IN, KEY_OUT, VALUE_OUT> {
     private static final Logger LOGGER = LoggerFactory.getLogger(GafferMapper.class);
+    private static final String MAPPER_AGGREGATION_COUNTER_GROUP = "Mapper aggregation";
     private MapperGenerator<KEY_IN, VALUE_IN> mapperGenerator;
     private boolean doValidation;
     private ElementValidator elementValidator;
+    private Map<Element, Element> aggregationBuffer;
+    private int aggregationBufferSize;
+    private Collection<String> aggregatedGroups;
+    private AggregatorUtil.ToIngestElementKey toElementKey;
+    private AggregatorUtil.IngestElementBinaryOperator elementAggregator;
     protected Schema schema;
 
     @Override
@@ -73,13 +94,25 @@ public abstract class GafferMapper<KEY_IN, VALUE_IN, KEY_OUT, VALUE_OUT> extends
         }
 
         configureJSONSerialiser(context);
+
+        aggregationBufferSize = context.getConfiguration().getInt(MAPPER_AGGREGATION_BUFFER_SIZE, 0);
+        if (aggregationBufferSize > 0) {
+            aggregationBuffer = new HashMap<>();
+            aggregatedGroups = schema.getAggregatedGroups();
+            toElementKey = new AggregatorUtil.ToIngestElementKey(schema);
+            elementAggregator = new AggregatorUtil.IngestElementBinaryOperator(schema);
+        }
     }
 
     @Override
     protected void map(final KEY_IN keyIn, final VALUE_IN valueIn, final Context context) throws IOException, InterruptedException {
         for (final Element element : mapperGenerator.getElements(keyIn, valueIn, context)) {
             if (!doValidation || isValid(element)) {
-                map(element, context);
+                if (null != aggregationBuffer && aggregatedGroups.contains(element.getGroup())) {
+                    aggregate(element, context);
+                } else {
+                    map(element, context);
+                }
             } else {
                 LOGGER.warn("Element {} did not validate: {}", element, getValidationFailureMessage(element));
                 context.getCounter("Bulk import", "Invalid element count").increment(1L);
@@ -87,6 +120,31 @@ public abstract class GafferMapper<KEY_IN, VALUE_IN, KEY_OUT, VALUE_OUT> extends
         }
     }
 
+    @Override
+    protected void cleanup(final Context context) throws IOException, InterruptedException {
+        flushAggregationBuffer(context);
+        super.cleanup(context);
+    }
+
+    private void aggregate(final Element element, final Context context) throws IOException, InterruptedException {
+        aggregationBuffer.merge(toElementKey.apply(element), element, elementAggregator);
+        context.getCounter(MAPPER_AGGREGATION_COUNTER_GROUP, "Input element count").increment(1L);
+        if (aggregationBuffer.size() >= aggregationBufferSize) {
+            flushAggregationBuffer(context);
+        }
+    }
+
+    private void flushAggregationBuffer(final Context context) throws IOException, InterruptedException {
+        if (null != aggregationBuffer && !aggregationBuffer.isEmpty()) {
+            for (final Element element : aggregationBuffer.values()) {
+                map(element, context);
+            }
+            context.getCounter(MAPPER_AGGREGATION_COUNTER_GROUP, "Output element count").increment(aggregationBuffer.size());
+            context.getCounter(MAPPER_AGGREGATION_COUNTER_GROUP, "Flush count").increment(1L);
+            aggregationBuffer.clear();
+        }
+    }
+
     private void configureJSONSerialiser(final Context context) {
         final Configuration configuration = context.getConfiguration();
         final String jsonSerialiserClass = configuration.get(StoreProperties.JSON_SERIALISER_CLASS);
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.hdfs.operation.mapper;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Counter;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.commonutil.CommonConstants;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.hdfs.operation.handler.job.factory.JobFactory;
+import uk.gov.gchq.gaffer.hdfs.operation.mapper.generator.JsonMapperGenerator;
+import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.schema.SchemaEntityDefinition;
+import uk.gov.gchq.gaffer.store.schema.TypeDefinition;
+import uk.gov.gchq.koryphe.impl.binaryoperator.Sum;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class GafferMapperTest {
+    private static final String AGGREGATED_GROUP = "aggregatedGroup";
+    private static final String NON_AGGREGATED_GROUP = "nonAggregatedGroup";
+    private static final String COUNT = "count";
+
+    @Test
+    public void shouldNotAggregateElementsWhenBufferSizeIsNotSet() throws Exception {
+        // Given
+        final Mapper.Context context = createContext(null);
+        final TestMapper mapper = new TestMapper();
+        mapper.setup(context);
+
+        // When
+        map(mapper, context, createEntity(AGGREGATED_GROUP, "A"), createEntity(AGGREGATED_GROUP, "A"));
+        mapper.cleanup(context);
+
+        // Then
+        assertEquals(Arrays.asList(createEntity(AGGREGATED_GROUP, "A"), createEntity(AGGREGATED_GROUP, "A")), mapper.elements);
+    }
+
+    @Test
+    public void shouldAggregateElementsInAggregatedGroups() throws Exception {
+        // Given
+        final Counter inputCounter = mock(Counter.class);
+        final Counter outputCounter = mock(Counter.class);
+        final Mapper.Context context = createContext(10);
+        given(context.getCounter("Mapper aggregation", "Input element count")).willReturn(inputCounter);
+        given(context.getCounter("Mapper aggregation", "Output element count")).willReturn(outputCounter);
+        final TestMapper mapper = new TestMapper();
+        mapper.setup(context);
+
+        // When
+        map(mapper, context,
+                createEntity(AGGREGATED_GROUP, "A"),
+                createEntity(AGGREGATED_GROUP, "B"),
+                createEntity(AGGREGATED_GROUP, "A"),
+                createEntity(NON_AGGREGATED_GROUP, "A"),
+                createEntity(NON_AGGREGATED_GROUP, "A"));
+        final List<Element> elementsBeforeCleanup = new ArrayList<>(mapper.elements);
+        mapper.cleanup(context);
+
+        // Then
+        assertEquals(Arrays.asList(createEntity(NON_AGGREGATED_GROUP, "A"), createEntity(NON_AGGREGATED_GROUP, "A")), elementsBeforeCleanup);
+        assertEquals(4, mapper.elements.size());
+        assertEquals(createEntity(AGGREGATED_GROUP, "A", 2L), getElement(mapper.elements, "A", AGGREGATED_GROUP));
+        assertEquals(createEntity(AGGREGATED_GROUP, "B"), getElement(mapper.elements, "B", AGGREGATED_GROUP));
+        verify(inputCounter, times(3)).increment(1L);
+        verify(outputCounter).increment(2L);
+    }
+
+    @Test
+    public void shouldFlushBufferWhenItIsFull() throws Exception {
+        // Given
+        final Mapper.Context context = createContext(2);
+        final TestMapper mapper = new TestMapper();
+        mapper.setup(context);
+
+        // When
+        map(mapper, context,
+                createEntity(AGGREGATED_GROUP, "A"),
+                createEntity(AGGREGATED_GROUP, "A"),
+                createEntity(AGGREGATED_GROUP, "B"),
+                createEntity(AGGREGATED_GROUP, "C"));
+        final int numElementsBeforeCleanup = mapper.elements.size();
+        mapper.cleanup(context);
+
+        // Then
+        assertEquals(2, numElementsBeforeCleanup);
+        assertEquals(3, mapper.elements.size());
+        assertEquals(createEntity(AGGREGATED_GROUP, "A", 2L), getElement(mapper.elements, "A", AGGREGATED_GROUP));
+        assertEquals(createEntity(AGGREGATED_GROUP, "C"), mapper.elements.get(2));
+    }
+
+    private static void map(final TestMapper mapper, final Mapper.Context context, final Element... elements) throws Exception {
+        for (final Element element : elements) {
+            mapper.map(new LongWritable(), new Text(JSONSerialiser.serialise(element)), context);
+        }
+    }
+
+    private static Element getElement(final List<Element> elements, final String vertex, final String group) {
+        return elements.stream()
+                .filter(element -> group.equals(element.getGroup()) && vertex.equals(((Entity) element).getVertex()))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static Entity createEntity(final String group, final String vertex) {
+        return createEntity(group, vertex, 1L);
+    }
+
+    private static Entity createEntity(final String group, final String vertex, final long count) {
+        return new Entity.Builder()
+                .group(group)
+                .vertex(vertex)
+                .property(COUNT, count)
+                .build();
+    }
+
+    private static Mapper.Context createContext(final Integer bufferSize) throws Exception {
+        final Configuration configuration = new Configuration();
+        configuration.set(JobFactory.SCHEMA, new String(createSchema().toCompactJson(), CommonConstants.UTF_8));
+        configuration.set(JobFactory.MAPPER_GENERATOR, JsonMapperGenerator.class.getName());
+        configuration.setBoolean(JobFactory.VALIDATE, true);
+        if (null != bufferSize) {
+            configuration.setInt(JobFactory.MAPPER_AGGREGATION_BUFFER_SIZE, bufferSize);
+        }
+
+        final Mapper.Context context = mock(Mapper.Context.class);
+        given(context.getConfiguration()).willReturn(configuration);
+        given(context.getCounter(anyString(), anyString())).willReturn(mock(Counter.class));
+        return context;
+    }
+
+    private static Schema createSchema() {
+        return new Schema.Builder()
+                .entity(AGGREGATED_GROUP, new SchemaEntityDefinition.Builder()
+                        .vertex("string")
+                        .property(COUNT, "long")
+                        .build())
+                .entity(NON_AGGREGATED_GROUP, new SchemaEntityDefinition.Builder()
+                        .vertex("string")
+                        .property(COUNT, "long")
+                        .aggregate(false)
+                        .build())
+                .type("string", String.class)
+                .type("long", new TypeDefinition.Builder()
+                        .clazz(Long.class)
+                        .aggregateFunction(new Sum())
+                        .build())
+                .build();
+    }
+
+    private static final class TestMapper extends GafferMapper<LongWritable, Text, NullWritable, NullWritable> {
+        private final List<Element> elements = new ArrayList<>();
+
+        @Override
+        protected void map(final Element element, final Context context) {
+            elements.add(element);
+        }
+    }
+}
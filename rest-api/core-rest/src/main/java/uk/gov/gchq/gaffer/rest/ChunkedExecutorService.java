@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.rest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The bounded {@link ExecutorService} used to execute chunked operation requests
+ * and write their results.
+ * <p>
+ * The number of threads and the number of requests that can wait for a thread are
+ * configured using the {@link SystemProperty#CHUNKED_EXECUTOR_THREADS} and
+ * {@link SystemProperty#CHUNKED_EXECUTOR_QUEUE_SIZE} system properties. Requests
+ * submitted once the queue is full are rejected.
+ */
+public final class ChunkedExecutorService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChunkedExecutorService.class);
+    private static ExecutorService service;
+
+    private ChunkedExecutorService() {
+        // private constructor to prevent instantiation
+    }
+
+    public static synchronized ExecutorService getService() {
+        if (null == service) {
+            final int threads = Integer.parseInt(System.getProperty(SystemProperty.CHUNKED_EXECUTOR_THREADS, SystemProperty.CHUNKED_EXECUTOR_THREADS_DEFAULT));
+            final int queueSize = Integer.parseInt(System.getProperty(SystemProperty.CHUNKED_EXECUTOR_QUEUE_SIZE, SystemProperty.CHUNKED_EXECUTOR_QUEUE_SIZE_DEFAULT));
+            LOGGER.debug("Initialising ChunkedExecutorService with {} threads and a queue size of {}", threads, queueSize);
+            final AtomicInteger threadCount = new AtomicInteger();
+            final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueSize), runnable -> {
+                final Thread thread = new Thread(runnable, "chunked-output-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.allowCoreThreadTimeOut(true);
+            service = executor;
+        }
+        return service;
+    }
+
+    public static synchronized void shutdown() {
+        if (null != service) {
+            service.shutdownNow();
+        }
+        service = null;
+    }
+}
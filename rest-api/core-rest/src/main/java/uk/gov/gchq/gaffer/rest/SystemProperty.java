@@ -45,6 +45,13 @@ public abstract class SystemProperty {
     public static final String JSON_SERIALISER_CLASS = JSONSerialiser.JSON_SERIALISER_CLASS_KEY;
     public static final String JSON_SERIALISER_MODULES = JSONSerialiser.JSON_SERIALISER_MODULES;
     public static final String REST_DEBUG = DebugUtil.DEBUG;
+    public static final String CHUNKED_EXECUTOR_THREADS = "gaffer.rest-api.chunked.threads";
+    public static final String CHUNKED_EXECUTOR_QUEUE_SIZE = "gaffer.rest-api.chunked.queueSize";
+    /**
+     * The maximum time, in milliseconds, to wait for the first chunk of results
+     * before the response status of a chunked request is decided.
+     */
+    public static final String CHUNKED_FIRST_CHUNK_TIMEOUT = "gaffer.rest-api.chunked.firstChunkTimeout";
 
     // Exposed Property Keys
     /**
@@ -98,6 +105,9 @@ public abstract class SystemProperty {
     public static final String GRAPH_FACTORY_CLASS_DEFAULT = DefaultGraphFactory.class.getName();
     public static final String USER_FACTORY_CLASS_DEFAULT = UnknownUserFactory.class.getName();
     public static final String REST_DEBUG_DEFAULT = DebugUtil.DEBUG_DEFAULT;
+    public static final String CHUNKED_EXECUTOR_THREADS_DEFAULT = "20";
+    public static final String CHUNKED_EXECUTOR_QUEUE_SIZE_DEFAULT = "100";
+    public static final String CHUNKED_FIRST_CHUNK_TIMEOUT_DEFAULT = "30000";
     public static final String APP_TITLE_DEFAULT = "Gaffer REST";
     public static final String APP_DESCRIPTION_DEFAULT = "The Gaffer REST service.";
     public static final String APP_DOCUMENTATION_URL_DEFAULT = "https://gchq.github.io/gaffer-doc/";
@@ -24,6 +24,8 @@ import org.slf4j.LoggerFactory;
 
 import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.core.exception.GafferRuntimeException;
+import uk.gov.gchq.gaffer.core.exception.Status;
 import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.data.element.id.EntityId;
 import uk.gov.gchq.gaffer.operation.Operation;
@@ -36,6 +38,7 @@ import uk.gov.gchq.gaffer.operation.impl.generate.GenerateObjects;
 import uk.gov.gchq.gaffer.operation.impl.get.GetAdjacentIds;
 import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
 import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
+import uk.gov.gchq.gaffer.rest.ChunkedExecutorService;
 import uk.gov.gchq.gaffer.rest.factory.GraphFactory;
 import uk.gov.gchq.gaffer.rest.factory.UserFactory;
 import uk.gov.gchq.gaffer.store.Context;
@@ -43,6 +46,7 @@ import uk.gov.gchq.gaffer.store.Context;
 import javax.inject.Inject;
 
 import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
 
 import static uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser.createDefaultMapper;
 
@@ -80,15 +84,21 @@ public class OperationService implements IOperationService {
         final ChunkedOutput<String> output = new ChunkedOutput<>(String.class, "\r\n");
 
         // write chunks to the chunked output object
-        new Thread(() -> {
-            try {
-                final Object result = _execute(opChain);
-                chunkResult(result, output);
-            } finally {
-                CloseableUtil.close(output);
-                CloseableUtil.close(opChain);
-            }
-        }).start();
+        try {
+            ChunkedExecutorService.getService().execute(() -> {
+                try {
+                    final Object result = _execute(opChain);
+                    chunkResult(result, output);
+                } finally {
+                    CloseableUtil.close(output);
+                    CloseableUtil.close(opChain);
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            CloseableUtil.close(output);
+            CloseableUtil.close(opChain);
+            throw new GafferRuntimeException("Too many chunked requests are being executed, please try again later", e, Status.SERVICE_UNAVAILABLE);
+        }
 
         return output;
     }
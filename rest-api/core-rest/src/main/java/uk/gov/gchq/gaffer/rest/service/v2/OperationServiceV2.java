@@ -17,7 +17,6 @@
 package uk.gov.gchq.gaffer.rest.service.v2;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.glassfish.jersey.server.ChunkedOutput;
@@ -28,6 +27,7 @@ import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
 import uk.gov.gchq.gaffer.commonutil.Required;
 import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
 import uk.gov.gchq.gaffer.commonutil.exception.UnauthorisedException;
+import uk.gov.gchq.gaffer.commonutil.iterable.WrappedCloseableIterable;
 import uk.gov.gchq.gaffer.commonutil.pair.Pair;
 import uk.gov.gchq.gaffer.core.exception.Error;
 import uk.gov.gchq.gaffer.core.exception.GafferRuntimeException;
@@ -38,6 +38,8 @@ import uk.gov.gchq.gaffer.operation.Operation;
 import uk.gov.gchq.gaffer.operation.OperationChain;
 import uk.gov.gchq.gaffer.operation.OperationException;
 import uk.gov.gchq.gaffer.operation.io.Output;
+import uk.gov.gchq.gaffer.rest.ChunkedExecutorService;
+import uk.gov.gchq.gaffer.rest.SystemProperty;
 import uk.gov.gchq.gaffer.rest.factory.GraphFactory;
 import uk.gov.gchq.gaffer.rest.factory.UserFactory;
 import uk.gov.gchq.gaffer.rest.service.v2.example.ExamplesFactory;
@@ -52,14 +54,22 @@ import javax.ws.rs.core.Response;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static javax.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
 import static javax.ws.rs.core.Response.Status.NOT_FOUND;
+import static javax.ws.rs.core.Response.Status.SERVICE_UNAVAILABLE;
 import static uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser.createDefaultMapper;
 import static uk.gov.gchq.gaffer.rest.ServiceConstants.GAFFER_MEDIA_TYPE;
 import static uk.gov.gchq.gaffer.rest.ServiceConstants.GAFFER_MEDIA_TYPE_HEADER;
@@ -122,67 +132,63 @@ public class OperationServiceV2 implements IOperationServiceV2 {
         return executeChunkedChain(OperationChain.wrap(operation));
     }
 
-    @SuppressFBWarnings
     @Override
     public Response executeChunkedChain(final OperationChain opChain) {
         // Create chunked output instance
-        final Throwable[] threadException = new Throwable[1];
         final ChunkedOutput<String> output = new ChunkedOutput<>(String.class, "\r\n");
         final Context context = userFactory.createContext();
 
-        // create thread to write chunks to the chunked output object
-        Thread thread = new Thread(() -> {
+        // Completed when the first chunk is ready to be written, or exceptionally if the operation fails before then
+        final CompletableFuture<Void> firstChunk = new CompletableFuture<>();
+        // The task handles its own failures, so executing it as a FutureTask does not hide them
+        final FutureTask<Void> task = new FutureTask<>(() -> {
             try {
-                final Object result = _execute(opChain, context).getFirst();
-                chunkResult(result, output);
-            } catch (final Exception e) {
-                throw new RuntimeException(e);
+                executeChunked(opChain, context, output, firstChunk);
+            } catch (final RuntimeException e) {
+                LOGGER.error("Failed to execute chunked operation chain", e);
+                if (!firstChunk.completeExceptionally(e)) {
+                    writeError(e, output);
+                }
             } finally {
                 CloseableUtil.close(output);
                 CloseableUtil.close(opChain);
             }
-        });
-
-        // By default threads throw nothing, so set the ExceptionHandler
-        thread.setUncaughtExceptionHandler((thread1, exception) -> threadException[0] = exception.getCause());
-
-        thread.start();
-
-        // Sleep to check exception will be caught
+        }, null);
         try {
-            Thread.sleep(1000);
-        } catch (final InterruptedException e) {
-            return Response.status(INTERNAL_SERVER_ERROR)
-                    .entity(new Error.ErrorBuilder()
-                            .status(Status.INTERNAL_SERVER_ERROR)
-                            .statusCode(500)
-                            .simpleMessage(e.getMessage())
-                            .build())
-                    .header(GAFFER_MEDIA_TYPE_HEADER, GAFFER_MEDIA_TYPE)
-                    .build();
+            ChunkedExecutorService.getService().execute(task);
+        } catch (final RejectedExecutionException e) {
+            CloseableUtil.close(output);
+            CloseableUtil.close(opChain);
+            return createErrorResponse(SERVICE_UNAVAILABLE, Status.SERVICE_UNAVAILABLE,
+                    "Too many chunked requests are being executed, please try again later");
         }
 
-        // If there was an UnauthorisedException thrown return 403, else return a 500
-        if (null != threadException[0]) {
-            if (threadException.getClass().equals(UnauthorisedException.class)) {
-                return Response.status(INTERNAL_SERVER_ERROR)
-                        .entity(new Error.ErrorBuilder()
-                                .status(Status.FORBIDDEN)
-                                .statusCode(403)
-                                .simpleMessage(threadException[0].getMessage())
-                                .build())
-                        .header(GAFFER_MEDIA_TYPE_HEADER, GAFFER_MEDIA_TYPE)
-                        .build();
-            } else {
-                return Response.status(INTERNAL_SERVER_ERROR)
-                        .entity(new Error.ErrorBuilder()
-                                .status(Status.INTERNAL_SERVER_ERROR)
-                                .statusCode(500)
-                                .simpleMessage(threadException[0].getMessage())
-                                .build())
-                        .header(GAFFER_MEDIA_TYPE_HEADER, GAFFER_MEDIA_TYPE)
-                        .build();
+        // Wait for the first chunk so that any exception can be returned with the appropriate status
+        try {
+            try {
+                firstChunk.get(Long.parseLong(System.getProperty(SystemProperty.CHUNKED_FIRST_CHUNK_TIMEOUT,
+                        SystemProperty.CHUNKED_FIRST_CHUNK_TIMEOUT_DEFAULT)), TimeUnit.MILLISECONDS);
+            } catch (final TimeoutException e) {
+                // The operation is still running so the results will be streamed once they are available. Completing
+                // the first chunk hands the response over to the operation, which then reports any failure in the
+                // chunked output. If the operation completed the first chunk just before this, its outcome is used.
+                if (firstChunk.complete(null)) {
+                    LOGGER.debug("First chunk was not available within the timeout, returning the chunked output");
+                } else {
+                    firstChunk.get();
+                }
+            }
+        } catch (final InterruptedException e) {
+            task.cancel(true);
+            Thread.currentThread().interrupt();
+            return createErrorResponse(INTERNAL_SERVER_ERROR, Status.INTERNAL_SERVER_ERROR, e.getMessage());
+        } catch (final ExecutionException e) {
+            // If there was an UnauthorisedException thrown return 403, else return a 500
+            final Throwable cause = e.getCause();
+            if (cause instanceof UnauthorisedException) {
+                return createErrorResponse(INTERNAL_SERVER_ERROR, Status.FORBIDDEN, cause.getMessage());
             }
+            return createErrorResponse(INTERNAL_SERVER_ERROR, Status.INTERNAL_SERVER_ERROR, cause.getMessage());
         }
 
         // Return ok output
@@ -301,6 +307,11 @@ public class OperationServiceV2 implements IOperationServiceV2 {
             final Iterable itr = (Iterable) result;
             try {
                 for (final Object item : itr) {
+                    // Stop iterating if the client has disconnected
+                    if (output.isClosed()) {
+                        LOGGER.debug("Chunked output has been closed, stopping iteration of the results");
+                        break;
+                    }
                     output.write(mapper.writeValueAsString(item));
                 }
             } catch (final IOException ioe) {
@@ -317,6 +328,82 @@ public class OperationServiceV2 implements IOperationServiceV2 {
         }
     }
 
+    private void executeChunked(final OperationChain opChain, final Context context, final ChunkedOutput<String> output,
+                                final CompletableFuture<Void> firstChunk) {
+        final Object result;
+        try {
+            result = _execute(opChain, context).getFirst();
+        } catch (final Exception e) {
+            reportFailure(e, output, firstChunk);
+            return;
+        }
+
+        if (result instanceof Iterable) {
+            final Iterator<?> resultItr;
+            try {
+                // Fetch the first result so failures when the results are first read are also reported
+                resultItr = ((Iterable<?>) result).iterator();
+                resultItr.hasNext();
+            } catch (final Exception e) {
+                CloseableUtil.close(result);
+                reportFailure(e, output, firstChunk);
+                return;
+            }
+
+            firstChunk.complete(null);
+            try {
+                chunkResult(new WrappedCloseableIterable<>((Iterator<Object>) resultItr), output);
+            } finally {
+                CloseableUtil.close(resultItr);
+                CloseableUtil.close(result);
+            }
+        } else {
+            firstChunk.complete(null);
+            chunkResult(result, output);
+        }
+    }
+
+    /**
+     * Reports a failure of a chunked operation chain. If the response has not been returned yet then the failure is
+     * returned as an error response, otherwise it is logged and written to the chunked output as an {@link Error}.
+     *
+     * @param failure    the failure
+     * @param output     the chunked output
+     * @param firstChunk the future for the first chunk
+     */
+    private void reportFailure(final Exception failure, final ChunkedOutput<String> output, final CompletableFuture<Void> firstChunk) {
+        if (!firstChunk.completeExceptionally(failure)) {
+            LOGGER.error("Failed to execute chunked operation chain after the response was returned", failure);
+            writeError(failure, output);
+        }
+    }
+
+    protected void writeError(final Throwable failure, final ChunkedOutput<String> output) {
+        if (output.isClosed()) {
+            return;
+        }
+        try {
+            output.write(mapper.writeValueAsString(new Error.ErrorBuilder()
+                    .status(Status.INTERNAL_SERVER_ERROR)
+                    .statusCode(Status.INTERNAL_SERVER_ERROR.getStatusCode())
+                    .simpleMessage(failure.getMessage())
+                    .build()));
+        } catch (final IOException ioe) {
+            LOGGER.warn("IOException (chunks)", ioe);
+        }
+    }
+
+    private Response createErrorResponse(final Response.Status responseStatus, final Status status, final String message) {
+        return Response.status(responseStatus)
+                .entity(new Error.ErrorBuilder()
+                        .status(status)
+                        .statusCode(status.getStatusCode())
+                        .simpleMessage(message)
+                        .build())
+                .header(GAFFER_MEDIA_TYPE_HEADER, GAFFER_MEDIA_TYPE)
+                .build();
+    }
+
     private Operation generateExampleJson(final Class<? extends Operation> opClass) throws IllegalAccessException, InstantiationException {
         return examplesFactory.generateExample(opClass);
     }
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.rest;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ChunkedExecutorServiceTest {
+
+    @After
+    public void after() {
+        ChunkedExecutorService.shutdown();
+        System.clearProperty(SystemProperty.CHUNKED_EXECUTOR_THREADS);
+        System.clearProperty(SystemProperty.CHUNKED_EXECUTOR_QUEUE_SIZE);
+    }
+
+    @Test
+    public void shouldCreateServiceUsingDefaultProperties() {
+        // When
+        final ThreadPoolExecutor service = (ThreadPoolExecutor) ChunkedExecutorService.getService();
+
+        // Then
+        assertEquals(Integer.parseInt(SystemProperty.CHUNKED_EXECUTOR_THREADS_DEFAULT), service.getMaximumPoolSize());
+        assertEquals(Integer.parseInt(SystemProperty.CHUNKED_EXECUTOR_QUEUE_SIZE_DEFAULT), service.getQueue().remainingCapacity());
+        assertSame(service, ChunkedExecutorService.getService());
+    }
+
+    @Test
+    public void shouldRejectRequestsOnceThreadsAndQueueAreInUse() throws InterruptedException {
+        // Given
+        System.setProperty(SystemProperty.CHUNKED_EXECUTOR_THREADS, "1");
+        System.setProperty(SystemProperty.CHUNKED_EXECUTOR_QUEUE_SIZE, "1");
+        final ExecutorService service = ChunkedExecutorService.getService();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            service.execute(() -> {
+                started.countDown();
+                awaitQuietly(release);
+            });
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            service.execute(() -> awaitQuietly(release));
+
+            // When / Then
+            try {
+                service.execute(() -> awaitQuietly(release));
+                fail("Exception expected");
+            } catch (final RejectedExecutionException e) {
+                assertEquals(1, ((ThreadPoolExecutor) service).getQueue().size());
+            }
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void shouldCreateNewServiceAfterShutdown() {
+        // Given
+        final ExecutorService service = ChunkedExecutorService.getService();
+
+        // When
+        ChunkedExecutorService.shutdown();
+
+        // Then
+        assertTrue(service.isShutdown());
+        assertNotSame(service, ChunkedExecutorService.getService());
+    }
+
+    private static void awaitQuietly(final CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
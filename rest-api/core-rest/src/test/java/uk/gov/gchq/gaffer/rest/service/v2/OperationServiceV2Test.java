@@ -0,0 +1,230 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.rest.service.v2;
+
+import org.glassfish.jersey.server.ChunkedOutput;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import uk.gov.gchq.gaffer.commonutil.exception.UnauthorisedException;
+import uk.gov.gchq.gaffer.commonutil.pair.Pair;
+import uk.gov.gchq.gaffer.core.exception.Error;
+import uk.gov.gchq.gaffer.core.exception.Status;
+import uk.gov.gchq.gaffer.operation.Operation;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
+import uk.gov.gchq.gaffer.rest.ChunkedExecutorService;
+import uk.gov.gchq.gaffer.rest.SystemProperty;
+import uk.gov.gchq.gaffer.rest.factory.UserFactory;
+import uk.gov.gchq.gaffer.store.Context;
+
+import javax.ws.rs.core.Response;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OperationServiceV2Test {
+
+    @InjectMocks
+    private TestOperationService service;
+
+    @Mock
+    private UserFactory userFactory;
+
+    @Before
+    public void setup() {
+        given(userFactory.createContext()).willReturn(new Context());
+    }
+
+    @After
+    public void after() {
+        ChunkedExecutorService.shutdown();
+        System.clearProperty(SystemProperty.CHUNKED_FIRST_CHUNK_TIMEOUT);
+    }
+
+    @Test
+    public void shouldReturnForbiddenErrorWhenUnauthorisedBeforeFirstChunk() {
+        // Given
+        service.result = () -> {
+            throw new UnauthorisedException("User is not authorised");
+        };
+
+        // When
+        final Response response = service.executeChunked(new GetAllElements());
+
+        // Then
+        assertEquals(500, response.getStatus());
+        assertEquals(Status.FORBIDDEN, ((Error) response.getEntity()).getStatus());
+        assertEquals("User is not authorised", ((Error) response.getEntity()).getSimpleMessage());
+    }
+
+    @Test
+    public void shouldReturnErrorWhenFirstResultCannotBeRead() {
+        // Given
+        service.result = () -> (Iterable<Object>) () -> new FailingIterator(0);
+
+        // When
+        final Response response = service.executeChunked(new GetAllElements());
+
+        // Then
+        assertEquals(500, response.getStatus());
+        assertEquals(Status.INTERNAL_SERVER_ERROR, ((Error) response.getEntity()).getStatus());
+        assertEquals("Failed to read result", ((Error) response.getEntity()).getSimpleMessage());
+    }
+
+    @Test
+    public void shouldReturnChunkedOutputOnceFirstChunkIsReady() {
+        // Given
+        service.result = () -> Arrays.asList(1, 2, 3);
+
+        // When
+        final Response response = service.executeChunked(new GetAllElements());
+
+        // Then
+        assertEquals(200, response.getStatus());
+        assertTrue(response.getEntity() instanceof ChunkedOutput);
+    }
+
+    @Test
+    public void shouldReturnChunkedOutputWhenFirstChunkIsNotReadyWithinTimeout() throws InterruptedException {
+        // Given
+        System.setProperty(SystemProperty.CHUNKED_FIRST_CHUNK_TIMEOUT, "10");
+        final CountDownLatch release = new CountDownLatch(1);
+        service.result = () -> {
+            release.await(10, TimeUnit.SECONDS);
+            return Arrays.asList(1, 2, 3);
+        };
+
+        // When
+        final Response response;
+        try {
+            response = service.executeChunked(new GetAllElements());
+        } finally {
+            release.countDown();
+        }
+
+        // Then
+        assertEquals(200, response.getStatus());
+        assertTrue(response.getEntity() instanceof ChunkedOutput);
+    }
+
+    @Test
+    public void shouldCloseOutputWhenResultsFailAfterFirstChunk() throws InterruptedException {
+        // Given
+        service.result = () -> (Iterable<Object>) () -> new FailingIterator(1);
+
+        // When
+        final Response response = service.executeChunked(new GetAllElements());
+
+        // Then
+        assertEquals(200, response.getStatus());
+        final ChunkedOutput<?> output = (ChunkedOutput<?>) response.getEntity();
+        for (int i = 0; i < 100 && !output.isClosed(); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(output.isClosed());
+    }
+
+    @Test
+    public void shouldWriteErrorToOutputWhenOperationFailsAfterTimeout() throws InterruptedException {
+        // Given
+        System.setProperty(SystemProperty.CHUNKED_FIRST_CHUNK_TIMEOUT, "10");
+        final CountDownLatch release = new CountDownLatch(1);
+        service.result = () -> {
+            release.await(10, TimeUnit.SECONDS);
+            throw new RuntimeException("Operation failed");
+        };
+
+        // When
+        final Response response;
+        try {
+            response = service.executeChunked(new GetAllElements());
+        } finally {
+            release.countDown();
+        }
+
+        // Then
+        assertEquals(200, response.getStatus());
+        final ChunkedOutput<?> output = (ChunkedOutput<?>) response.getEntity();
+        for (int i = 0; i < 100 && !output.isClosed(); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(output.isClosed());
+        assertNotNull(service.writtenError);
+        assertEquals("Operation failed", service.writtenError.getMessage());
+    }
+
+    public static class TestOperationService extends OperationServiceV2 {
+        private ResultSupplier result;
+        private volatile Throwable writtenError;
+
+        @Override
+        protected void writeError(final Throwable failure, final ChunkedOutput<String> output) {
+            writtenError = failure;
+            super.writeError(failure, output);
+        }
+
+        @Override
+        protected <O> Pair<O, String> _execute(final Operation operation, final Context context) {
+            try {
+                return new Pair<>((O) result.get(), context.getJobId());
+            } catch (final RuntimeException e) {
+                throw e;
+            } catch (final Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private interface ResultSupplier {
+        Object get() throws Exception;
+    }
+
+    private static final class FailingIterator implements Iterator<Object> {
+        private int remaining;
+
+        private FailingIterator(final int numResults) {
+            this.remaining = numResults;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (remaining <= 0) {
+                throw new RuntimeException("Failed to read result");
+            }
+            return true;
+        }
+
+        @Override
+        public Object next() {
+            hasNext();
+            return remaining--;
+        }
+    }
+}
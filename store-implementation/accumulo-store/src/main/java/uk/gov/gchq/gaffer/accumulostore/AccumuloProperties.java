@@ -45,6 +45,7 @@ public class AccumuloProperties extends StoreProperties {
     public static final String NAMESPACE = "accumulo.namespace";
     public static final String THREADS_FOR_BATCH_SCANNER = "accumulo.batchScannerThreads";
     public static final String MAX_ENTRIES_FOR_BATCH_SCANNER = "accumulo.entriesForBatchScanner";
+    public static final String BATCH_SCANNER_PREFETCH_DEPTH = "accumulo.batchScannerPrefetchDepth";
     public static final String CLIENT_SIDE_BLOOM_FILTER_SIZE = "accumulo.clientSideBloomFilterSize";
     public static final String FALSE_POSITIVE_RATE = "accumulo.falsePositiveRate";
     public static final String MAX_BLOOM_FILTER_TO_PASS_TO_AN_ITERATOR = "accumulo.maxBloomFilterToPassToAnIterator";
@@ -58,6 +59,7 @@ public class AccumuloProperties extends StoreProperties {
     // default values
     private static final String NUM_THREADS_FOR_BATCH_WRITER_DEFAULT = "10";
     private static final String MAX_ENTRIES_FOR_BATCH_SCANNER_DEFAULT = "50000";
+    private static final String BATCH_SCANNER_PREFETCH_DEPTH_DEFAULT = "0";
     private static final String CLIENT_SIDE_BLOOM_FILTER_SIZE_DEFAULT = "838860800";
     private static final String FALSE_POSITIVE_RATE_DEFAULT = "0.0002";
     private static final String MAX_BLOOM_FILTER_TO_PASS_TO_AN_ITERATOR_DEFAULT = "8388608";
@@ -303,6 +305,28 @@ public class AccumuloProperties extends StoreProperties {
         set(MAX_ENTRIES_FOR_BATCH_SCANNER, maxEntriesForBatchScanner);
     }
 
+    /**
+     * Gets the number of batch scanners to open ahead of the batch scanner currently
+     * being read when retrieving elements for a large number of seeds. The prefetched
+     * batch scanners start their lookups as soon as they are opened. A value of 0 means
+     * each batch scanner is only opened once the previous one has been read.
+     *
+     * @return An integer representing the number of batch scanners to prefetch.
+     */
+    public int getBatchScannerPrefetchDepth() {
+        return Integer.parseInt(get(BATCH_SCANNER_PREFETCH_DEPTH, BATCH_SCANNER_PREFETCH_DEPTH_DEFAULT));
+    }
+
+    /**
+     * Sets the number of batch scanners to open ahead of the batch scanner currently
+     * being read.
+     *
+     * @param batchScannerPrefetchDepth the number of batch scanners to prefetch.
+     */
+    public void setBatchScannerPrefetchDepth(final String batchScannerPrefetchDepth) {
+        set(BATCH_SCANNER_PREFETCH_DEPTH, batchScannerPrefetchDepth);
+    }
+
     /**
      * Gets the size that should be used for the creation of bloom filters on the
      * client side.
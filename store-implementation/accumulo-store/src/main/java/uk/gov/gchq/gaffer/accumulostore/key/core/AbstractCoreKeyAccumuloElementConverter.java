@@ -33,6 +33,7 @@ import uk.gov.gchq.gaffer.data.element.EdgeDirection;
 import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.data.element.Entity;
 import uk.gov.gchq.gaffer.data.element.Properties;
+import uk.gov.gchq.gaffer.data.element.function.ElementAggregator;
 import uk.gov.gchq.gaffer.data.element.id.EdgeId;
 import uk.gov.gchq.gaffer.data.element.id.ElementId;
 import uk.gov.gchq.gaffer.data.element.id.EntityId;
@@ -43,13 +44,21 @@ import uk.gov.gchq.gaffer.serialisation.implementation.raw.CompactRawSerialisati
 import uk.gov.gchq.gaffer.store.schema.Schema;
 import uk.gov.gchq.gaffer.store.schema.SchemaElementDefinition;
 import uk.gov.gchq.gaffer.store.schema.TypeDefinition;
+import uk.gov.gchq.gaffer.store.serialiser.RawAggregator;
+import uk.gov.gchq.gaffer.store.serialiser.RawAggregators;
+import uk.gov.gchq.koryphe.tuple.binaryoperator.TupleAdaptedBinaryOperator;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.BinaryOperator;
 
 @SuppressWarnings("unchecked")
 public abstract class AbstractCoreKeyAccumuloElementConverter implements AccumuloElementConverter {
@@ -499,6 +508,57 @@ public abstract class AbstractCoreKeyAccumuloElementConverter implements Accumul
         }
     }
 
+    /**
+     * Creates a {@link RawValueAggregator} that aggregates the values for a group
+     * without deserialising them, if there is a
+     * {@link uk.gov.gchq.gaffer.store.serialiser.RawAggregator} for the serialiser
+     * and aggregate function of every property stored in the value.
+     *
+     * @param group                    the group
+     * @param aggregator               the aggregator to apply to the group
+     * @param ignoreNonValueProperties true if aggregate functions for properties that are not stored
+     *                                 in the value can be ignored, otherwise null is returned
+     * @return the raw value aggregator, or null if the values must be deserialised to be aggregated
+     */
+    public RawValueAggregator getRawValueAggregator(final String group, final ElementAggregator aggregator, final boolean ignoreNonValueProperties) {
+        final SchemaElementDefinition elementDefinition = schema.getElement(group);
+        if (null == elementDefinition || null == aggregator) {
+            return null;
+        }
+
+        final Map<String, BinaryOperator<?>> aggregateFunctions = new HashMap<>();
+        for (final TupleAdaptedBinaryOperator<String, ?> component : aggregator.getComponents()) {
+            final String[] selection = component.getSelection();
+            if (1 != selection.length) {
+                return null;
+            }
+            if (!elementDefinition.containsProperty(selection[0]) || !isStoredInValue(selection[0], elementDefinition)) {
+                if (ignoreNonValueProperties) {
+                    continue;
+                }
+                return null;
+            }
+            if (null != aggregateFunctions.put(selection[0], component.getBinaryOperator())) {
+                return null;
+            }
+        }
+
+        final List<RawAggregator> rawAggregators = new ArrayList<>();
+        for (final String propertyName : elementDefinition.getProperties()) {
+            if (isStoredInValue(propertyName, elementDefinition)) {
+                final TypeDefinition typeDefinition = elementDefinition.getPropertyTypeDef(propertyName);
+                final ToBytesSerialiser serialiser = (null != typeDefinition) ? (ToBytesSerialiser) typeDefinition.getSerialiser() : null;
+                final RawAggregator rawAggregator = RawAggregators.getRawAggregator(serialiser, aggregateFunctions.get(propertyName));
+                if (null == rawAggregator) {
+                    return null;
+                }
+                rawAggregators.add(rawAggregator);
+            }
+        }
+
+        return new RawValueAggregator(rawAggregators);
+    }
+
     protected boolean isStoredInValue(final String propertyName, final SchemaElementDefinition elementDef) {
         return !elementDef.getGroupBy().contains(propertyName)
                 && !propertyName.equals(schema.getVisibilityProperty())
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.accumulostore.key.core;
+
+import org.apache.accumulo.core.data.Value;
+
+import uk.gov.gchq.gaffer.accumulostore.utils.AccumuloStoreConstants;
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.serialisation.implementation.raw.CompactRawSerialisationUtils;
+import uk.gov.gchq.gaffer.store.serialiser.RawAggregator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A {@code RawValueAggregator} aggregates Accumulo {@link Value}s created by an
+ * {@link AbstractCoreKeyAccumuloElementConverter} without deserialising the
+ * properties, using a {@link RawAggregator} for each property stored in the value.
+ * <p>
+ * Instances are created using
+ * {@link AbstractCoreKeyAccumuloElementConverter#getRawValueAggregator(String, uk.gov.gchq.gaffer.data.element.function.ElementAggregator, boolean)}.
+ */
+public class RawValueAggregator {
+    private final RawAggregator[] rawAggregators;
+
+    public RawValueAggregator(final List<RawAggregator> rawAggregators) {
+        this.rawAggregators = rawAggregators.toArray(new RawAggregator[rawAggregators.size()]);
+    }
+
+    /**
+     * Aggregates the values.
+     *
+     * @param values the values to aggregate
+     * @return the aggregated value
+     * @throws SerialisationException if the values cannot be aggregated
+     */
+    public Value aggregate(final Iterator<Value> values) throws SerialisationException {
+        final Value first = values.next();
+        if (!values.hasNext()) {
+            return first;
+        }
+
+        final byte[][] state = new byte[rawAggregators.length][];
+        addValue(state, first.get(), true);
+        while (values.hasNext()) {
+            addValue(state, values.next().get(), false);
+        }
+
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try {
+            for (final byte[] propertyBytes : state) {
+                CompactRawSerialisationUtils.write(propertyBytes.length, stream);
+                stream.write(propertyBytes);
+            }
+        } catch (final IOException e) {
+            throw new SerialisationException("Failed to write aggregated properties", e);
+        }
+        return new Value(stream.toByteArray());
+    }
+
+    private void addValue(final byte[][] state, final byte[] bytes, final boolean isFirst) throws SerialisationException {
+        int position = 0;
+        for (int i = 0; i < rawAggregators.length; i++) {
+            final int offset;
+            final int length;
+            if (position < bytes.length) {
+                // Properties are stored as the length followed by the serialised bytes
+                offset = position + CompactRawSerialisationUtils.decodeVIntSize(bytes[position]);
+                length = (int) CompactRawSerialisationUtils.readLong(bytes, position);
+                position = offset + length;
+            } else {
+                offset = 0;
+                length = 0;
+            }
+
+            if (isFirst || 0 == state[i].length) {
+                state[i] = copy(bytes, offset, length);
+            } else if (0 < length) {
+                state[i] = rawAggregators[i].apply(state[i], bytes, offset, length);
+            }
+        }
+    }
+
+    private static byte[] copy(final byte[] bytes, final int offset, final int length) {
+        if (0 == length) {
+            return AccumuloStoreConstants.EMPTY_BYTES;
+        }
+        final byte[] copy = new byte[length];
+        System.arraycopy(bytes, offset, copy, 0, length);
+        return copy;
+    }
+}
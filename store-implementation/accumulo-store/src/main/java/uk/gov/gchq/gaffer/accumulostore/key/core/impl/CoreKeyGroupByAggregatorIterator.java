@@ -17,14 +17,19 @@ package uk.gov.gchq.gaffer.accumulostore.key.core.impl;
 
 import org.apache.accumulo.core.data.Key;
 
+import uk.gov.gchq.gaffer.accumulostore.key.core.AbstractCoreKeyAccumuloElementConverter;
+import uk.gov.gchq.gaffer.accumulostore.key.core.RawValueAggregator;
 import uk.gov.gchq.gaffer.accumulostore.utils.IteratorOptionsBuilder;
 import uk.gov.gchq.gaffer.data.element.Properties;
 import uk.gov.gchq.gaffer.data.element.function.ElementAggregator;
 
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 
 public class CoreKeyGroupByAggregatorIterator extends CoreKeyGroupByCombiner {
+    private final Map<String, RawValueAggregator> rawValueAggregators = new HashMap<>();
 
     @Override
     public Properties reduce(final String group, final Key key, final Iterator<Properties> iter, final Set<String> groupBy, final ElementAggregator viewAggregator) {
@@ -46,6 +51,22 @@ public class CoreKeyGroupByAggregatorIterator extends CoreKeyGroupByCombiner {
         return aggregatedProps;
     }
 
+    // Values can be aggregated without deserialising them if there is no view aggregator,
+    // the schema groupBy is used and every property in the value has a RawAggregator
+    @Override
+    protected RawValueAggregator getRawValueAggregator(final String group, final Set<String> groupBy, final ElementAggregator viewAggregator) {
+        if (null != viewAggregator || !(elementConverter instanceof AbstractCoreKeyAccumuloElementConverter)
+                || !schema.getElement(group).getGroupBy().equals(groupBy)) {
+            return null;
+        }
+
+        if (!rawValueAggregators.containsKey(group)) {
+            rawValueAggregators.put(group, ((AbstractCoreKeyAccumuloElementConverter) elementConverter)
+                    .getRawValueAggregator(group, schema.getElement(group).getQueryAggregator(groupBy, null), false));
+        }
+        return rawValueAggregators.get(group);
+    }
+
     @Override
     public IteratorOptions describeOptions() {
         return new IteratorOptionsBuilder(super.describeOptions())
@@ -34,6 +34,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import uk.gov.gchq.gaffer.accumulostore.key.AccumuloElementConverter;
+import uk.gov.gchq.gaffer.accumulostore.key.core.RawValueAggregator;
 import uk.gov.gchq.gaffer.accumulostore.key.exception.AccumuloElementConversionException;
 import uk.gov.gchq.gaffer.accumulostore.key.exception.AggregationException;
 import uk.gov.gchq.gaffer.accumulostore.utils.AccumuloStoreConstants;
@@ -46,7 +47,9 @@ import uk.gov.gchq.gaffer.data.element.function.ElementAggregator;
 import uk.gov.gchq.gaffer.data.elementdefinition.exception.SchemaException;
 import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
 import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewElementDefinition;
+import uk.gov.gchq.gaffer.exception.SerialisationException;
 import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.util.ParsedSchemaViewCache;
 
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
@@ -149,14 +152,7 @@ public abstract class CoreKeyGroupByCombiner extends WrappingIterator
             final byte[] topColumnVisibility = source.getTopKey().getColumnVisibilityData().getBackingArray();
             final long topTimestamp = source.getTopKey().getTimestamp();
             final Value topValue = new Value(source.getTopValue());
-
-            try {
-                source.next();
-                hasNext = _hasNext();
-            } catch (final IOException e) {
-                throw new RuntimeException(e); // Looks like a bad idea, but
-                // this is what the in-built Combiner iterator does
-            }
+            advance();
 
             final Properties properties = new Properties();
             try {
@@ -186,6 +182,31 @@ public abstract class CoreKeyGroupByCombiner extends WrappingIterator
             throw new UnsupportedOperationException();
         }
 
+        /**
+         * Gets the next {@link Value} without deserialising its properties.
+         *
+         * @return the next value
+         */
+        public Value nextValue() {
+            if (!hasNext) {
+                throw new NoSuchElementException();
+            }
+
+            final Value topValue = new Value(source.getTopValue());
+            advance();
+            return topValue;
+        }
+
+        private void advance() {
+            try {
+                source.next();
+                hasNext = _hasNext();
+            } catch (final IOException e) {
+                throw new RuntimeException(e); // Looks like a bad idea, but
+                // this is what the in-built Combiner iterator does
+            }
+        }
+
         private boolean areGroupByPropertiesEqual(final Key key1, final Key key2) {
             if (null != groupBy && groupBy.isEmpty()) {
                 return true;
@@ -281,15 +302,28 @@ public abstract class CoreKeyGroupByCombiner extends WrappingIterator
                 groupBy = schema.getElement(group).getGroupBy();
             }
 
-            final Iterator<Properties> iter = new KeyValueIterator(
+            final KeyValueIterator iter = new KeyValueIterator(
                     getSource(), group, elementConverter, schema, groupBy);
-            final Properties aggregatedProperties = reduce(group, workKey, iter, groupBy, elementDef.getAggregator());
+            final RawValueAggregator rawValueAggregator = getRawValueAggregator(group, groupBy, elementDef.getAggregator());
+            final Properties aggregatedProperties;
+            final Value aggregatedValue;
+            if (null == rawValueAggregator) {
+                aggregatedProperties = reduce(group, workKey, iter, groupBy, elementDef.getAggregator());
+                aggregatedValue = null;
+            } else {
+                aggregatedProperties = null;
+                aggregatedValue = reduceValues(rawValueAggregator, iter);
+            }
 
             try {
                 final Properties properties = elementConverter.getPropertiesFromColumnQualifier(group, workKey.getColumnQualifierData().getBackingArray());
                 properties.putAll(elementConverter.getPropertiesFromColumnVisibility(group, workKey.getColumnVisibilityData().getBackingArray()));
-                properties.putAll(aggregatedProperties);
-                topValue = elementConverter.getValueFromProperties(group, properties);
+                if (null == aggregatedValue) {
+                    properties.putAll(aggregatedProperties);
+                    topValue = elementConverter.getValueFromProperties(group, properties);
+                } else {
+                    topValue = aggregatedValue;
+                }
                 topKey = new Key(workKey.getRowData().getBackingArray(), columnFamily,
                         elementConverter.buildColumnQualifier(group, properties),
                         elementConverter.buildColumnVisibility(group, properties),
@@ -328,6 +362,39 @@ public abstract class CoreKeyGroupByCombiner extends WrappingIterator
         }
     }
 
+    /**
+     * Gets a {@link RawValueAggregator} to aggregate the values for a group without
+     * deserialising their properties. This is only used if the result would be the same
+     * as calling {@link #reduce(String, Key, Iterator, Set, ElementAggregator)}, so
+     * by default null is returned and the values are always deserialised.
+     *
+     * @param group          the schema group taken from the key
+     * @param groupBy        the groupBy properties
+     * @param viewAggregator an optional view aggregator
+     * @return the raw value aggregator, or null if the properties should be reduced
+     */
+    protected RawValueAggregator getRawValueAggregator(final String group, final Set<String> groupBy, final ElementAggregator viewAggregator) {
+        return null;
+    }
+
+    private Value reduceValues(final RawValueAggregator rawValueAggregator, final KeyValueIterator iter) {
+        try {
+            return rawValueAggregator.aggregate(new Iterator<Value>() {
+                @Override
+                public boolean hasNext() {
+                    return iter.hasNext();
+                }
+
+                @Override
+                public Value next() {
+                    return iter.nextValue();
+                }
+            });
+        } catch (final SerialisationException e) {
+            throw new AggregationException("Failed to aggregate the serialised properties", e);
+        }
+    }
+
     /**
      * Reduces an iterator of {@link Properties} into a single Properties object.
      *
@@ -359,13 +426,13 @@ public abstract class CoreKeyGroupByCombiner extends WrappingIterator
     public void init(final SortedKeyValueIterator<Key, Value> source, final Map<String, String> options, final IteratorEnvironment env) throws IOException {
         super.init(source, options, env);
         try {
-            schema = Schema.fromJson(options.get(AccumuloStoreConstants.SCHEMA).getBytes(CommonConstants.UTF_8));
+            schema = ParsedSchemaViewCache.getSchema(options.get(AccumuloStoreConstants.SCHEMA).getBytes(CommonConstants.UTF_8));
         } catch (final UnsupportedEncodingException e) {
             throw new SchemaException("Unable to deserialise the schema", e);
         }
         LOGGER.debug("Initialising CoreKeyGroupByCombiner with schema {}", schema);
         try {
-            view = View.fromJson(options.get(AccumuloStoreConstants.VIEW).getBytes(CommonConstants.UTF_8));
+            view = ParsedSchemaViewCache.getView(options.get(AccumuloStoreConstants.VIEW).getBytes(CommonConstants.UTF_8));
         } catch (final UnsupportedEncodingException e) {
             throw new SchemaException("Unable to deserialise the view", e);
         }
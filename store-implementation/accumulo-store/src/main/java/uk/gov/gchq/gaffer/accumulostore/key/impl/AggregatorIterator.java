@@ -16,6 +16,7 @@
 
 package uk.gov.gchq.gaffer.accumulostore.key.impl;
 
+import com.google.common.collect.Iterators;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.iterators.Combiner;
@@ -25,6 +26,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import uk.gov.gchq.gaffer.accumulostore.key.AccumuloElementConverter;
+import uk.gov.gchq.gaffer.accumulostore.key.core.AbstractCoreKeyAccumuloElementConverter;
+import uk.gov.gchq.gaffer.accumulostore.key.core.RawValueAggregator;
 import uk.gov.gchq.gaffer.accumulostore.key.exception.AccumuloElementConversionException;
 import uk.gov.gchq.gaffer.accumulostore.key.exception.AggregationException;
 import uk.gov.gchq.gaffer.accumulostore.utils.AccumuloStoreConstants;
@@ -33,11 +36,14 @@ import uk.gov.gchq.gaffer.commonutil.CommonConstants;
 import uk.gov.gchq.gaffer.data.element.Properties;
 import uk.gov.gchq.gaffer.data.element.function.ElementAggregator;
 import uk.gov.gchq.gaffer.data.elementdefinition.exception.SchemaException;
+import uk.gov.gchq.gaffer.exception.SerialisationException;
 import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.util.ParsedSchemaViewCache;
 
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 
@@ -52,6 +58,7 @@ public class AggregatorIterator extends Combiner {
 
     private Schema schema;
     private AccumuloElementConverter elementConverter;
+    private final Map<String, RawValueAggregator> rawValueAggregators = new HashMap<>();
 
     @Override
     public Value reduce(final Key key, final Iterator<Value> iter) {
@@ -62,6 +69,15 @@ public class AggregatorIterator extends Combiner {
             return value;
         }
         final String group = elementConverter.getGroupFromColumnFamily(key.getColumnFamilyData().getBackingArray());
+        final RawValueAggregator rawValueAggregator = getRawValueAggregator(group);
+        if (null != rawValueAggregator) {
+            try {
+                return rawValueAggregator.aggregate(Iterators.concat(Iterators.singletonIterator(value), iter));
+            } catch (final SerialisationException e) {
+                throw new AggregationException("Failed to aggregate the serialised properties", e);
+            }
+        }
+
         Properties properties;
         final ElementAggregator aggregator = schema.getElement(group).getIngestAggregator();
         try {
@@ -86,12 +102,26 @@ public class AggregatorIterator extends Combiner {
         }
     }
 
+    // The values can be aggregated without deserialising them if every property
+    // in the value has a RawAggregator for the ingest aggregator
+    private RawValueAggregator getRawValueAggregator(final String group) {
+        if (!(elementConverter instanceof AbstractCoreKeyAccumuloElementConverter)) {
+            return null;
+        }
+
+        if (!rawValueAggregators.containsKey(group)) {
+            rawValueAggregators.put(group, ((AbstractCoreKeyAccumuloElementConverter) elementConverter)
+                    .getRawValueAggregator(group, schema.getElement(group).getIngestAggregator(), true));
+        }
+        return rawValueAggregators.get(group);
+    }
+
     @Override
     public void init(final SortedKeyValueIterator<Key, Value> source, final Map<String, String> options,
                      final IteratorEnvironment env) throws IOException {
         super.init(source, options, env);
         try {
-            schema = Schema.fromJson(options.get(AccumuloStoreConstants.SCHEMA).getBytes(CommonConstants.UTF_8));
+            schema = ParsedSchemaViewCache.getSchema(options.get(AccumuloStoreConstants.SCHEMA).getBytes(CommonConstants.UTF_8));
         } catch (final UnsupportedEncodingException e) {
             throw new SchemaException("Unable to deserialise the schema from json", e);
         }
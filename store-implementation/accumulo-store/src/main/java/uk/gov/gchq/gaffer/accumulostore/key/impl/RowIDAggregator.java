@@ -38,6 +38,7 @@ import uk.gov.gchq.gaffer.data.element.Properties;
 import uk.gov.gchq.gaffer.data.element.function.ElementAggregator;
 import uk.gov.gchq.gaffer.data.elementdefinition.exception.SchemaException;
 import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.util.ParsedSchemaViewCache;
 
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
@@ -109,7 +110,7 @@ public class RowIDAggregator extends WrappingIterator implements OptionDescriber
         super.init(source, options, env);
         this.source = source;
         try {
-            schema = Schema.fromJson(options.get(AccumuloStoreConstants.SCHEMA).getBytes(CommonConstants.UTF_8));
+            schema = ParsedSchemaViewCache.getSchema(options.get(AccumuloStoreConstants.SCHEMA).getBytes(CommonConstants.UTF_8));
         } catch (final UnsupportedEncodingException e) {
             throw new SchemaException("Unable to deserialise the schema", e);
         }
@@ -40,7 +40,9 @@ import uk.gov.gchq.gaffer.operation.io.Output;
 import uk.gov.gchq.gaffer.store.StoreException;
 import uk.gov.gchq.gaffer.user.User;
 
+import java.util.ArrayDeque;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map.Entry;
@@ -88,36 +90,40 @@ public abstract class AccumuloItemRetriever<OP extends Output<CloseableIterable<
 
     protected abstract void addToRanges(final I_ITEM seed, final Set<Range> ranges) throws RangeFactoryException;
 
+    /**
+     * Iterates over the elements for the seeds, reading up to
+     * {@link uk.gov.gchq.gaffer.accumulostore.AccumuloProperties#getMaxEntriesForBatchScanner()}
+     * seeds into each {@link BatchScanner}.
+     * <p>
+     * If {@link uk.gov.gchq.gaffer.accumulostore.AccumuloProperties#getBatchScannerPrefetchDepth()}
+     * is greater than 0, that number of batch scanners are opened ahead of the batch
+     * scanner currently being read. A batch scanner starts its lookups on its own query
+     * threads as soon as it is opened, so the tablet servers are not left idle while
+     * the current batch is consumed.
+     */
     protected class ElementIterator implements CloseableIterator<Element> {
         private final Iterator<? extends I_ITEM> idsIterator;
-        private int count;
-        private BatchScanner scanner;
-        private Iterator<Entry<Key, Value>> scannerIterator;
+        private final int prefetchDepth;
+        private final Deque<ScannerBatch> prefetchedBatches = new ArrayDeque<>();
+        private int batchCount;
+        private ScannerBatch batch;
         private Element nextElm;
 
         public ElementIterator(final Iterator<? extends I_ITEM> idIterator) throws RetrieverException {
             idsIterator = idIterator;
-            count = 0;
-            final Set<Range> ranges = new HashSet<>();
-            while (idsIterator.hasNext() && count < store.getProperties().getMaxEntriesForBatchScanner()) {
-                count++;
-                try {
-                    addToRanges(idsIterator.next(), ranges);
-                } catch (final RangeFactoryException e) {
-                    LOGGER.error("Failed to create a range from given seed pair", e);
-                }
-            }
+            prefetchDepth = store.getProperties().getBatchScannerPrefetchDepth();
 
             // Create BatchScanner, appropriately configured (i.e. ranges,
             // iterators, etc).
             try {
-                scanner = getScanner(ranges);
+                batch = openBatch();
+                prefetchBatches();
             } catch (final Exception e) {
+                close();
                 CloseableUtil.close(idsIterator);
                 CloseableUtil.close(ids);
                 throw new RetrieverException(e);
             }
-            scannerIterator = scanner.iterator();
         }
 
         @Override
@@ -126,56 +132,46 @@ public abstract class AccumuloItemRetriever<OP extends Output<CloseableIterable<
             if (null != nextElm) {
                 return true;
             }
-            while (scannerIterator.hasNext()) {
-                final Entry<Key, Value> entry = scannerIterator.next();
-                try {
-                    nextElm = elementConverter.getFullElement(
-                            entry.getKey(),
-                            entry.getValue(),
-                            includeMatchedVertex);
-                } catch (final AccumuloElementConversionException e) {
-                    LOGGER.error("Failed to re-create an element from a key value entry set returning next element as null",
-                            e);
-                    continue;
-                }
-                doTransformation(nextElm);
-                if (doPostFilter(nextElm)) {
-                    ViewUtil.removeProperties(operation.getView(), nextElm);
-                    return true;
-                } else {
-                    nextElm = null;
-                }
-            }
-            // If current scanner is spent then go back to the iterator
-            // through the provided entities, and see if there are more.
-            // If so create the next scanner, if there are no more entities
-            // then return false.
-            while (idsIterator.hasNext() && !scannerIterator.hasNext()) {
-                count = 0;
-                final Set<Range> ranges = new HashSet<>();
-                while (idsIterator.hasNext() && count < store.getProperties().getMaxEntriesForBatchScanner()) {
-                    count++;
+            while (null != batch) {
+                while (batch.scannerIterator.hasNext()) {
+                    final Entry<Key, Value> entry = batch.scannerIterator.next();
+                    batch.entryCount++;
                     try {
-                        addToRanges(idsIterator.next(), ranges);
-                    } catch (final RangeFactoryException e) {
-                        LOGGER.error("Failed to create a range from given seed", e);
+                        nextElm = elementConverter.getFullElement(
+                                entry.getKey(),
+                                entry.getValue(),
+                                includeMatchedVertex);
+                    } catch (final AccumuloElementConversionException e) {
+                        LOGGER.error("Failed to re-create an element from a key value entry set returning next element as null",
+                                e);
+                        continue;
+                    }
+                    doTransformation(nextElm);
+                    if (doPostFilter(nextElm)) {
+                        ViewUtil.removeProperties(operation.getView(), nextElm);
+                        return true;
+                    } else {
+                        nextElm = null;
                     }
                 }
-                scanner.close();
+
+                // If current scanner is spent then move on to the next prefetched
+                // scanner, or create the next scanner from the provided seeds.
+                // If there are no more seeds then return false.
+                batch.close();
+                batch = prefetchedBatches.poll();
                 try {
-                    scanner = getScanner(ranges);
+                    if (null == batch && idsIterator.hasNext()) {
+                        batch = openBatch();
+                    }
+                    prefetchBatches();
                 } catch (final TableNotFoundException | StoreException e) {
                     LOGGER.error("{} returning iterator doesn't have any more elements", e.getMessage(), e);
+                    close();
                     return false;
                 }
-                scannerIterator = scanner.iterator();
-            }
-            if (!scannerIterator.hasNext()) {
-                scanner.close();
-                return false;
-            } else {
-                return hasNext();
             }
+            return false;
         }
 
         @Override
@@ -197,8 +193,70 @@ public abstract class AccumuloItemRetriever<OP extends Output<CloseableIterable<
 
         @Override
         public void close() {
-            if (null != scanner) {
+            if (null != batch) {
+                batch.close();
+                batch = null;
+            }
+            for (final ScannerBatch prefetchedBatch : prefetchedBatches) {
+                prefetchedBatch.close();
+            }
+            prefetchedBatches.clear();
+        }
+
+        private void prefetchBatches() throws TableNotFoundException, StoreException {
+            while (prefetchedBatches.size() < prefetchDepth && idsIterator.hasNext()) {
+                prefetchedBatches.add(openBatch());
+            }
+        }
+
+        private ScannerBatch openBatch() throws TableNotFoundException, StoreException {
+            final long startTime = System.currentTimeMillis();
+            int count = 0;
+            final Set<Range> ranges = new HashSet<>();
+            while (idsIterator.hasNext() && count < store.getProperties().getMaxEntriesForBatchScanner()) {
+                count++;
+                try {
+                    addToRanges(idsIterator.next(), ranges);
+                } catch (final RangeFactoryException e) {
+                    LOGGER.error("Failed to create a range from given seed", e);
+                }
+            }
+
+            return new ScannerBatch(++batchCount, count, ranges, startTime);
+        }
+    }
+
+    /**
+     * A {@link BatchScanner} for a batch of seeds, along with the timings for the batch.
+     */
+    private final class ScannerBatch {
+        private final int batchNumber;
+        private final int seedCount;
+        private final int rangeCount;
+        private final long startTime;
+        private final long openedTime;
+        private final BatchScanner scanner;
+        private final Iterator<Entry<Key, Value>> scannerIterator;
+        private long entryCount;
+        private boolean closed;
+
+        private ScannerBatch(final int batchNumber, final int seedCount, final Set<Range> ranges, final long startTime)
+                throws TableNotFoundException, StoreException {
+            this.batchNumber = batchNumber;
+            this.seedCount = seedCount;
+            this.rangeCount = ranges.size();
+            this.startTime = startTime;
+            this.scanner = getScanner(ranges);
+            this.scannerIterator = scanner.iterator();
+            this.openedTime = System.currentTimeMillis();
+        }
+
+        private void close() {
+            if (!closed) {
+                closed = true;
                 scanner.close();
+                LOGGER.debug("Batch {} of {} seeds and {} ranges returned {} entries. Opened in {}ms and closed after {}ms",
+                        batchNumber, seedCount, rangeCount, entryCount, openedTime - startTime, System.currentTimeMillis() - startTime);
             }
         }
     }
@@ -16,22 +16,34 @@
 package uk.gov.gchq.gaffer.accumulostore.key.core;
 
 import com.google.common.primitives.Bytes;
+import org.apache.accumulo.core.data.Value;
 import org.junit.Test;
 
 import uk.gov.gchq.gaffer.accumulostore.key.AbstractAccumuloElementConverterTest;
 import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.commonutil.TestPropertyNames;
 import uk.gov.gchq.gaffer.data.element.Edge;
 import uk.gov.gchq.gaffer.data.element.EdgeDirection;
 import uk.gov.gchq.gaffer.data.element.Properties;
 import uk.gov.gchq.gaffer.serialisation.implementation.StringSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.ordered.OrderedIntegerSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.ordered.OrderedLongSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.raw.CompactRawLongSerialiser;
 import uk.gov.gchq.gaffer.store.schema.Schema;
 import uk.gov.gchq.gaffer.store.schema.SchemaEdgeDefinition;
 import uk.gov.gchq.gaffer.store.schema.TypeDefinition;
+import uk.gov.gchq.koryphe.impl.binaryoperator.Max;
+import uk.gov.gchq.koryphe.impl.binaryoperator.Min;
+import uk.gov.gchq.koryphe.impl.binaryoperator.StringConcat;
+import uk.gov.gchq.koryphe.impl.binaryoperator.Sum;
 
 import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public abstract class AbstractCoreKeyAccumuloElementConverterTest extends AbstractAccumuloElementConverterTest<AbstractCoreKeyAccumuloElementConverter> {
 
@@ -133,4 +145,90 @@ public abstract class AbstractCoreKeyAccumuloElementConverterTest extends Abstra
             return "Empty".getBytes();
         }
     }
+
+    @Test
+    public void shouldAggregateValuesWithoutDeserialisingThem() throws Exception {
+        // Given
+        final Schema testSchema = createRawAggregationSchema();
+        final AbstractCoreKeyAccumuloElementConverter testConverter = createConverter(testSchema);
+        final List<Value> values = Arrays.asList(
+                testConverter.getValueFromProperties(TestGroups.EDGE, createProperties(1L, 5L, 3)),
+                testConverter.getValueFromProperties(TestGroups.EDGE, createProperties(10L, 2L, null)),
+                testConverter.getValueFromProperties(TestGroups.EDGE, createProperties(200L, -7L, -4)));
+
+        // When
+        final RawValueAggregator rawValueAggregator = testConverter.getRawValueAggregator(
+                TestGroups.EDGE, testSchema.getElement(TestGroups.EDGE).getIngestAggregator(), true);
+        final Value aggregatedValue = rawValueAggregator.aggregate(values.iterator());
+
+        // Then
+        assertEquals(createProperties(211L, 5L, -4), testConverter.getPropertiesFromValue(TestGroups.EDGE, aggregatedValue));
+    }
+
+    @Test
+    public void shouldNotCreateRawValueAggregatorIfAPropertyHasNoRawAggregator() {
+        // Given
+        final Schema testSchema = new Schema.Builder()
+                .merge(createRawAggregationSchema())
+                .edge(TestGroups.EDGE_2, new SchemaEdgeDefinition.Builder()
+                        .source("string")
+                        .destination("string")
+                        .directed("true")
+                        .property(TestPropertyNames.COUNT, "compactLong")
+                        .property(TestPropertyNames.PROP_1, "string")
+                        .build())
+                .build();
+        final AbstractCoreKeyAccumuloElementConverter testConverter = createConverter(testSchema);
+
+        // When
+        final RawValueAggregator rawValueAggregator = testConverter.getRawValueAggregator(
+                TestGroups.EDGE_2, testSchema.getElement(TestGroups.EDGE_2).getIngestAggregator(), true);
+
+        // Then
+        assertNull(rawValueAggregator);
+    }
+
+    private Schema createRawAggregationSchema() {
+        return new Schema.Builder()
+                .edge(TestGroups.EDGE, new SchemaEdgeDefinition.Builder()
+                        .source("string")
+                        .destination("string")
+                        .directed("true")
+                        .property(TestPropertyNames.COUNT, "compactLong")
+                        .property(TestPropertyNames.PROP_1, "orderedLong")
+                        .property(TestPropertyNames.PROP_2, "orderedInteger")
+                        .build())
+                .type("string", new TypeDefinition.Builder()
+                        .clazz(String.class)
+                        .serialiser(new StringSerialiser())
+                        .aggregateFunction(new StringConcat())
+                        .build())
+                .type("compactLong", new TypeDefinition.Builder()
+                        .clazz(Long.class)
+                        .serialiser(new CompactRawLongSerialiser())
+                        .aggregateFunction(new Sum())
+                        .build())
+                .type("orderedLong", new TypeDefinition.Builder()
+                        .clazz(Long.class)
+                        .serialiser(new OrderedLongSerialiser())
+                        .aggregateFunction(new Max())
+                        .build())
+                .type("orderedInteger", new TypeDefinition.Builder()
+                        .clazz(Integer.class)
+                        .serialiser(new OrderedIntegerSerialiser())
+                        .aggregateFunction(new Min())
+                        .build())
+                .type("true", Boolean.class)
+                .build();
+    }
+
+    private Properties createProperties(final Long count, final Long prop1, final Integer prop2) {
+        final Properties properties = new Properties();
+        properties.put(TestPropertyNames.COUNT, count);
+        properties.put(TestPropertyNames.PROP_1, prop1);
+        if (null != prop2) {
+            properties.put(TestPropertyNames.PROP_2, prop2);
+        }
+        return properties;
+    }
 }
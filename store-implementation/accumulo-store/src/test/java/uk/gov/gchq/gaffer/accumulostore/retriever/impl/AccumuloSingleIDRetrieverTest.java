@@ -114,6 +114,17 @@ public class AccumuloSingleIDRetrieverTest {
         //Should find both i-B and i-C edges and entities i
     }
 
+    @Test
+    public void testEntityIdQueryEdgesAndEntitiesWithPrefetchedBatchScanners() throws AccumuloException, StoreException {
+        final AccumuloProperties properties = PROPERTIES.clone();
+        properties.setMaxEntriesForBatchScanner("100");
+        properties.setBatchScannerPrefetchDepth("3");
+        final AccumuloStore store = new SingleUseMockAccumuloStore();
+        store.initialise("prefetchGraph", SCHEMA, properties);
+
+        testEntityIdQueryEdgesAndEntities(store);
+    }
+
     @Test
     public void testEntityIdQueryEdgesOnly() throws AccumuloException, StoreException {
         testEntityIdQueryEdgesOnly(byteEntityStore);
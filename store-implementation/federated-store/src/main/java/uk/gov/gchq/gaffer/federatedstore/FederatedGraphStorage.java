@@ -16,6 +16,9 @@
 
 package uk.gov.gchq.gaffer.federatedstore;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.Sets;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +43,7 @@ import uk.gov.gchq.gaffer.store.schema.Schema;
 import uk.gov.gchq.gaffer.store.schema.Schema.Builder;
 import uk.gov.gchq.gaffer.user.User;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -49,6 +53,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -64,12 +69,28 @@ public class FederatedGraphStorage {
     public static final String USER_IS_ATTEMPTING_TO_OVERWRITE = "User is attempting to overwrite a graph within FederatedStore. GraphId: %s";
     public static final String ACCESS_IS_NULL = "Can not put graph into storage without a FederatedAccess key.";
     public static final String GRAPH_IDS_NOT_VISIBLE = "The following graphIds are not visible or do not exist: %s";
+    public static final int MERGED_CACHE_MAX_SIZE = 1000;
     public static final String UNABLE_TO_MERGE_THE_SCHEMAS_FOR_ALL_OF_YOUR_FEDERATED_GRAPHS = "Unable to merge the schemas for all of your federated graphs: %s. You can limit which graphs to query for using the operation option: %s";
     private Map<FederatedAccess, Set<Graph>> storage = new HashMap<>();
     private FederatedStoreCache federatedStoreCache = new FederatedStoreCache();
     private Boolean isCacheEnabled = false;
     private GraphLibrary graphLibrary;
 
+    /**
+     * The version of the graphs held in storage. This is incremented whenever a
+     * graph is added, removed or has its access or graphId changed, so that merged
+     * schemas and traits are not reused after the graphs have changed.
+     */
+    private final AtomicLong version = new AtomicLong();
+    private final Cache<List<Object>, Schema> mergedSchemaCache = CacheBuilder.newBuilder()
+            .maximumSize(MERGED_CACHE_MAX_SIZE)
+            .recordStats()
+            .build();
+    private final Cache<List<Object>, Set<StoreTrait>> mergedTraitsCache = CacheBuilder.newBuilder()
+            .maximumSize(MERGED_CACHE_MAX_SIZE)
+            .recordStats()
+            .build();
+
     protected void startCacheServiceLoader() throws StorageException {
         if (CacheServiceLoader.isEnabled()) {
             isCacheEnabled = true;
@@ -128,6 +149,7 @@ public class FederatedGraphStorage {
                 } else {
                     existingGraphs.add(builtGraph);
                 }
+                graphsChanged();
             } catch (final Exception e) {
                 throw new StorageException("Error adding graph " + graphId + " to storage due to: " + e.getMessage(), e);
             }
@@ -193,7 +215,7 @@ public class FederatedGraphStorage {
     }
 
     private boolean remove(final String graphId, final Predicate<Entry<FederatedAccess, Set<Graph>>> entryPredicateForGraphRemoval) {
-        return storage.entrySet().stream()
+        final boolean isAnyRemoved = storage.entrySet().stream()
                 .filter(entryPredicateForGraphRemoval)
                 .map(entry -> {
                     boolean isRemoved = false;
@@ -213,6 +235,10 @@ public class FederatedGraphStorage {
                 })
                 .collect(Collectors.toSet())
                 .contains(true);
+        if (isAnyRemoved) {
+            graphsChanged();
+        }
+        return isAnyRemoved;
     }
 
     private void deleteFromCache(final String graphId) {
@@ -299,15 +325,22 @@ public class FederatedGraphStorage {
         }
 
         final List<String> graphIds = FederatedStoreUtil.getGraphIds(config);
-        final Stream<Graph> graphs = getStream(user, graphIds);
-        final Builder schemaBuilder = new Builder();
-        try {
-            graphs.forEach(g -> schemaBuilder.merge(g.getSchema()));
-        } catch (final SchemaException e) {
-            final List<String> resultGraphIds = getStream(user, graphIds).map(Graph::getGraphId).collect(Collectors.toList());
-            throw new SchemaException(String.format(UNABLE_TO_MERGE_THE_SCHEMAS_FOR_ALL_OF_YOUR_FEDERATED_GRAPHS, resultGraphIds, KEY_OPERATION_OPTIONS_GRAPH_IDS), e);
+        final long currentVersion = version.get();
+        final List<Graph> graphs = getStream(user, graphIds).collect(Collectors.toList());
+        final List<Object> cacheKey = createMergedCacheKey(currentVersion, graphs);
+        Schema schema = mergedSchemaCache.getIfPresent(cacheKey);
+        if (null == schema) {
+            final Builder schemaBuilder = new Builder();
+            try {
+                graphs.forEach(g -> schemaBuilder.merge(g.getSchema()));
+            } catch (final SchemaException e) {
+                final List<String> resultGraphIds = graphs.stream().map(Graph::getGraphId).collect(Collectors.toList());
+                throw new SchemaException(String.format(UNABLE_TO_MERGE_THE_SCHEMAS_FOR_ALL_OF_YOUR_FEDERATED_GRAPHS, resultGraphIds, KEY_OPERATION_OPTIONS_GRAPH_IDS), e);
+            }
+            schema = schemaBuilder.build();
+            mergedSchemaCache.put(cacheKey, schema);
         }
-        return schemaBuilder.build();
+        return schema;
     }
 
     /**
@@ -325,7 +358,15 @@ public class FederatedGraphStorage {
         final Set<StoreTrait> traits = Sets.newHashSet(StoreTrait.values());
         if (null != op && op.isCurrentTraits()) {
             final List<String> graphIds = FederatedStoreUtil.getGraphIds(op.getOptions());
-            final Stream<Graph> graphs = getStream(context.getUser(), graphIds);
+            final long currentVersion = version.get();
+            final List<Graph> graphs = getStream(context.getUser(), graphIds).collect(Collectors.toList());
+            // The traits are fetched by executing an operation as the user, so the user is part of the key
+            final List<Object> cacheKey = Arrays.asList(createMergedCacheKey(currentVersion, graphs), context.getUser());
+            final Set<StoreTrait> cachedTraits = mergedTraitsCache.getIfPresent(cacheKey);
+            if (null != cachedTraits) {
+                return Sets.newHashSet(cachedTraits);
+            }
+
             final GetTraits getTraits = op.shallowClone();
             graphs.forEach(g -> {
                 try {
@@ -334,6 +375,7 @@ public class FederatedGraphStorage {
                     throw new RuntimeException("Unable to fetch traits from graph " + g.getGraphId(), e);
                 }
             });
+            mergedTraitsCache.put(cacheKey, Collections.unmodifiableSet(Sets.newHashSet(traits)));
         }
 
         return traits;
@@ -352,13 +394,51 @@ public class FederatedGraphStorage {
      */
     public Set<StoreTrait> getTraits(final Map<String, String> config, final User user) {
         final List<String> graphIds = FederatedStoreUtil.getGraphIds(config);
+        final long currentVersion = version.get();
         Collection<Graph> graphs = get(user, graphIds);
-
-        final Set<StoreTrait> traits = graphs.isEmpty() ? Sets.newHashSet() : Sets.newHashSet(StoreTrait.values());
-        for (final Graph graph : graphs) {
-            traits.retainAll(graph.getStoreTraits());
+        final List<Object> cacheKey = createMergedCacheKey(currentVersion, graphs);
+        Set<StoreTrait> traits = mergedTraitsCache.getIfPresent(cacheKey);
+        if (null == traits) {
+            traits = graphs.isEmpty() ? Sets.newHashSet() : Sets.newHashSet(StoreTrait.values());
+            for (final Graph graph : graphs) {
+                traits.retainAll(graph.getStoreTraits());
+            }
+            traits = Collections.unmodifiableSet(traits);
+            mergedTraitsCache.put(cacheKey, traits);
         }
-        return traits;
+        return Sets.newHashSet(traits);
+    }
+
+    /**
+     * Returns the statistics of the cache of merged schemas, which is used to
+     * avoid merging the schemas of the same graphs for every operation.
+     *
+     * @return the merged schema cache statistics
+     */
+    public CacheStats getMergedSchemaCacheStats() {
+        return mergedSchemaCache.stats();
+    }
+
+    /**
+     * Returns the statistics of the cache of merged store traits, which is used
+     * to avoid merging the traits of the same graphs for every operation.
+     *
+     * @return the merged traits cache statistics
+     */
+    public CacheStats getMergedTraitsCacheStats() {
+        return mergedTraitsCache.stats();
+    }
+
+    // The merged schema and traits only depend on which graphs are merged, and in which
+    // order, so they are cached against the graphIds and the version of the storage.
+    private List<Object> createMergedCacheKey(final long currentVersion, final Collection<Graph> graphs) {
+        return Arrays.asList(currentVersion, graphs.stream().map(Graph::getGraphId).collect(Collectors.toList()));
+    }
+
+    private void graphsChanged() {
+        version.incrementAndGet();
+        mergedSchemaCache.invalidateAll();
+        mergedTraitsCache.invalidateAll();
     }
 
     private void validateAllGivenGraphIdsAreVisibleForUser(final User user, final Collection<String> graphIds) {
@@ -558,6 +638,7 @@ public class FederatedGraphStorage {
             for (final Entry<FederatedAccess, Set<Graph>> entry : storage.entrySet()) {
                 entry.getValue().removeIf(graph -> graph.getGraphId().equals(graphId));
             }
+            graphsChanged();
 
             //add the graph being moved.
             this.put(new GraphSerialisable.Builder().graph(graphToMove).build(), newFederatedAccess);
@@ -591,6 +672,7 @@ public class FederatedGraphStorage {
                     break;
                 }
             }
+            graphsChanged();
 
             final GraphConfig configWithNewGraphId = new GraphConfig.Builder()
                     .json(new GraphSerialisable.Builder().graph(graphToMove).build().getConfig())
@@ -17,6 +17,7 @@
 package uk.gov.gchq.gaffer.federatedstore;
 
 import com.google.common.base.Strings;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.Sets;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -91,6 +92,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -120,6 +123,8 @@ public class FederatedStore extends Store {
     private Boolean isPublicAccessAllowed = Boolean.valueOf(IS_PUBLIC_ACCESS_ALLOWED_DEFAULT);
     private static final List<Integer> ALL_IDS = new ArrayList<>();
     private final int id;
+    private ExecutorService federatedExecutorService;
+    private ExecutorService federatedMergeExecutorService;
 
     public FederatedStore() {
         Integer i = null;
@@ -163,6 +168,55 @@ public class FederatedStore extends Store {
         return (FederatedStoreProperties) super.getProperties();
     }
 
+    /**
+     * Gets the {@link ExecutorService} used to execute operations on the sub-graphs
+     * concurrently. The thread pool is created the first time this is called.
+     *
+     * @return the {@link ExecutorService}, or null if the sub-graphs should be
+     * executed on in turn as {@link FederatedStoreProperties#EXECUTOR_THREADS} is not set.
+     */
+    public synchronized ExecutorService getFederatedExecutorService() {
+        if (null == federatedExecutorService) {
+            final Integer threads = getProperties().getExecutorThreads();
+            if (null == threads || threads < 1) {
+                return null;
+            }
+            LOGGER.debug("Creating federated executor thread pool with {} threads", threads);
+            federatedExecutorService = Executors.newFixedThreadPool(threads, runnable -> {
+                final Thread thread = new Thread(runnable, "federated-executor-" + getGraphId());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return federatedExecutorService;
+    }
+
+    /**
+     * Gets the {@link ExecutorService} used to merge the results from the sub-graphs
+     * when they are executed on concurrently. This is separate from
+     * {@link #getFederatedExecutorService()} and is not bounded, as the merge tasks
+     * wait for the results of the sub-graphs and could otherwise block the
+     * executions they are waiting for. The thread pool is created the first time
+     * this is called.
+     *
+     * @return the {@link ExecutorService}, or null if the sub-graphs should be
+     * executed on in turn as {@link FederatedStoreProperties#EXECUTOR_THREADS} is not set.
+     */
+    public synchronized ExecutorService getFederatedMergeExecutorService() {
+        if (null == federatedMergeExecutorService) {
+            if (null == getFederatedExecutorService()) {
+                return null;
+            }
+            LOGGER.debug("Creating federated merge thread pool");
+            federatedMergeExecutorService = Executors.newCachedThreadPool(runnable -> {
+                final Thread thread = new Thread(runnable, "federated-merge-" + getGraphId());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return federatedMergeExecutorService;
+    }
+
     /**
      * <p>
      * Within FederatedStore an {@link Operation} is executed against a
@@ -345,6 +399,22 @@ public class FederatedStore extends Store {
         return graphStorage.getTraits(getTraits, context);
     }
 
+    /**
+     * @return the statistics of the cache of merged sub-graph schemas
+     * @see FederatedGraphStorage#getMergedSchemaCacheStats()
+     */
+    public CacheStats getMergedSchemaCacheStats() {
+        return graphStorage.getMergedSchemaCacheStats();
+    }
+
+    /**
+     * @return the statistics of the cache of merged sub-graph store traits
+     * @see FederatedGraphStorage#getMergedTraitsCacheStats()
+     */
+    public CacheStats getMergedTraitsCacheStats() {
+        return graphStorage.getMergedTraitsCacheStats();
+    }
+
     /**
      * <p>
      * Gets a collection of graph objects within FederatedStore scope from the
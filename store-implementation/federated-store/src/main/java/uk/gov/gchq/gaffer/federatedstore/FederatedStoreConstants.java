@@ -25,6 +25,8 @@ public final class FederatedStoreConstants {
     public static final String DEFAULT_VALUE_KEY_SKIP_FAILED_FEDERATED_STORE_EXECUTE = String.valueOf(false);
     public static final String DEFAULT_VALUE_IS_PUBLIC = String.valueOf(false);
     public static final String KEY_FEDERATION_ADMIN = "gaffer.federatedstore.operation.admin";
+    public static final String KEY_AGGREGATE_RESULTS = "gaffer.federatedstore.operation.aggregateResults";
+    public static final String DEFAULT_VALUE_KEY_AGGREGATE_RESULTS = String.valueOf(false);
 
     private FederatedStoreConstants() {
         // private constructor to prevent users instantiating this class as it
@@ -34,4 +36,8 @@ public final class FederatedStoreConstants {
     public static String getSkipFailedFederatedStoreExecute(final Operation op) {
         return op.getOption(KEY_SKIP_FAILED_FEDERATED_STORE_EXECUTE, DEFAULT_VALUE_KEY_SKIP_FAILED_FEDERATED_STORE_EXECUTE);
     }
+
+    public static String getAggregateResults(final Operation op) {
+        return op.getOption(KEY_AGGREGATE_RESULTS, DEFAULT_VALUE_KEY_AGGREGATE_RESULTS);
+    }
 }
@@ -47,6 +47,38 @@ public class FederatedStoreProperties extends StoreProperties {
     public static final String CACHE_SERVICE_CLASS = CacheProperties.CACHE_SERVICE_CLASS;
     public static final String CACHE_SERVICE_CLASS_DEFAULT = null;
 
+    /**
+     * The number of threads used to execute operations on the sub-graphs concurrently.
+     * If this is not set, operations are executed on each sub-graph in turn.
+     * e.g. gaffer.federatedstore.executor.threads=8
+     */
+    public static final String EXECUTOR_THREADS = "gaffer.federatedstore.executor.threads";
+    public static final String EXECUTOR_THREADS_DEFAULT = null;
+
+    /**
+     * The maximum number of milliseconds to wait for a sub-graph to execute an operation
+     * when executing concurrently.
+     * e.g. gaffer.federatedstore.executor.graphTimeout=30000
+     */
+    public static final String EXECUTOR_GRAPH_TIMEOUT = "gaffer.federatedstore.executor.graphTimeout";
+    public static final String EXECUTOR_GRAPH_TIMEOUT_DEFAULT = null;
+
+    /**
+     * The number of results from the sub-graphs to buffer when streaming results concurrently.
+     * e.g. gaffer.federatedstore.executor.resultsQueueSize=1000
+     */
+    public static final String EXECUTOR_RESULTS_QUEUE_SIZE = "gaffer.federatedstore.executor.resultsQueueSize";
+    public static final String EXECUTOR_RESULTS_QUEUE_SIZE_DEFAULT = "1000";
+
+    /**
+     * The maximum number of distinct elements to hold in memory when aggregating
+     * the results from the sub-graphs. Aggregation across the sub-graphs is enabled
+     * using the gaffer.federatedstore.operation.aggregateResults operation option.
+     * e.g. gaffer.federatedstore.aggregateResults.limit=100000
+     */
+    public static final String AGGREGATE_RESULTS_LIMIT = "gaffer.federatedstore.aggregateResults.limit";
+    public static final String AGGREGATE_RESULTS_LIMIT_DEFAULT = "100000";
+
     public FederatedStoreProperties() {
         super(FederatedStore.class);
     }
@@ -94,4 +126,38 @@ public class FederatedStoreProperties extends StoreProperties {
     public void setGraphsCanHavePublicAccess(final boolean b) {
         set(IS_PUBLIC_ACCESS_ALLOWED, Boolean.toString(b));
     }
+
+    public Integer getExecutorThreads() {
+        final String threads = get(EXECUTOR_THREADS, EXECUTOR_THREADS_DEFAULT);
+        return null != threads ? Integer.parseInt(threads) : null;
+    }
+
+    public void setExecutorThreads(final Integer threads) {
+        set(EXECUTOR_THREADS, null != threads ? threads.toString() : null);
+    }
+
+    public Long getExecutorGraphTimeout() {
+        final String timeout = get(EXECUTOR_GRAPH_TIMEOUT, EXECUTOR_GRAPH_TIMEOUT_DEFAULT);
+        return null != timeout ? Long.parseLong(timeout) : null;
+    }
+
+    public void setExecutorGraphTimeout(final Long timeout) {
+        set(EXECUTOR_GRAPH_TIMEOUT, null != timeout ? timeout.toString() : null);
+    }
+
+    public int getExecutorResultsQueueSize() {
+        return Integer.parseInt(get(EXECUTOR_RESULTS_QUEUE_SIZE, EXECUTOR_RESULTS_QUEUE_SIZE_DEFAULT));
+    }
+
+    public void setExecutorResultsQueueSize(final int resultsQueueSize) {
+        set(EXECUTOR_RESULTS_QUEUE_SIZE, String.valueOf(resultsQueueSize));
+    }
+
+    public int getAggregateResultsLimit() {
+        return Integer.parseInt(get(AGGREGATE_RESULTS_LIMIT, AGGREGATE_RESULTS_LIMIT_DEFAULT));
+    }
+
+    public void setAggregateResultsLimit(final int limit) {
+        set(AGGREGATE_RESULTS_LIMIT, String.valueOf(limit));
+    }
 }
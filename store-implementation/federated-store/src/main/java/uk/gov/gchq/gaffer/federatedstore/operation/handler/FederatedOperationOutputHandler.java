@@ -17,6 +17,7 @@
 package uk.gov.gchq.gaffer.federatedstore.operation.handler;
 
 import uk.gov.gchq.gaffer.federatedstore.FederatedStore;
+import uk.gov.gchq.gaffer.federatedstore.util.FederatedGraphExecutor;
 import uk.gov.gchq.gaffer.federatedstore.util.FederatedStoreUtil;
 import uk.gov.gchq.gaffer.graph.Graph;
 import uk.gov.gchq.gaffer.operation.OperationException;
@@ -25,15 +26,17 @@ import uk.gov.gchq.gaffer.store.Context;
 import uk.gov.gchq.gaffer.store.Store;
 import uk.gov.gchq.gaffer.store.operation.handler.OutputOperationHandler;
 
-import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import static uk.gov.gchq.gaffer.federatedstore.FederatedStoreConstants.KEY_OPERATION_OPTIONS_GRAPH_IDS;
 import static uk.gov.gchq.gaffer.federatedstore.FederatedStoreConstants.getSkipFailedFederatedStoreExecute;
 
 /**
- * A abstract handler for Operations with output for FederatedStore
+ * A abstract handler for Operations with output for FederatedStore.
+ * The operation is executed on the sub-graphs using a {@link FederatedGraphExecutor}.
  *
  * @see uk.gov.gchq.gaffer.store.operation.handler.OperationHandler
  * @see uk.gov.gchq.gaffer.federatedstore.FederatedStore
@@ -44,23 +47,16 @@ public abstract class FederatedOperationOutputHandler<OP extends Output<O>, O> i
     @Override
     public O doOperation(final OP operation, final Context context, final Store store) throws OperationException {
         final Collection<Graph> graphs = ((FederatedStore) store).getGraphs(context.getUser(), operation.getOption(KEY_OPERATION_OPTIONS_GRAPH_IDS), operation);
-        final List<O> results = new ArrayList<>(graphs.size());
+        final OP graphsOperation = getOperationForGraphs(operation, store);
+        final LinkedHashMap<Graph, Callable<O>> tasks = new LinkedHashMap<>(graphs.size());
         for (final Graph graph : graphs) {
-            final OP updatedOp = FederatedStoreUtil.updateOperationForGraph(operation, graph);
+            final OP updatedOp = FederatedStoreUtil.updateOperationForGraph(graphsOperation, graph);
             if (null != updatedOp) {
-                O execute = null;
-                try {
-                    execute = graph.execute(updatedOp, context);
-                } catch (final Exception e) {
-                    if (!Boolean.valueOf(getSkipFailedFederatedStoreExecute(updatedOp))) {
-                        throw new OperationException(FederatedStoreUtil.createOperationErrorMsg(operation, graph.getGraphId(), e), e);
-                    }
-                }
-                if (null != execute) {
-                    results.add(execute);
-                }
+                tasks.put(graph, () -> graph.execute(updatedOp, context));
             }
         }
+        final List<O> results = FederatedGraphExecutor.execute((FederatedStore) store, operation, tasks,
+                Boolean.valueOf(getSkipFailedFederatedStoreExecute(operation)));
         try {
             return mergeResults(results, operation, context, store);
         } catch (final Exception e) {
@@ -68,5 +64,17 @@ public abstract class FederatedOperationOutputHandler<OP extends Output<O>, O> i
         }
     }
 
+    /**
+     * Returns the operation to execute on the delegate graphs, before it is updated
+     * for each graph. The results are merged using the original operation.
+     *
+     * @param operation the operation executed on the FederatedStore
+     * @param store     the FederatedStore
+     * @return the operation to execute on the delegate graphs
+     */
+    protected OP getOperationForGraphs(final OP operation, final Store store) {
+        return operation;
+    }
+
     protected abstract O mergeResults(final List<O> results, final OP operation, final Context context, final Store store);
 }
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.federatedstore.operation.handler.impl;
+
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.federatedstore.FederatedStore;
+import uk.gov.gchq.gaffer.federatedstore.util.AggregatedElementsIterable;
+import uk.gov.gchq.gaffer.operation.graph.OperationView;
+import uk.gov.gchq.gaffer.operation.io.Output;
+import uk.gov.gchq.gaffer.store.Context;
+import uk.gov.gchq.gaffer.store.Store;
+
+import java.util.List;
+
+import static uk.gov.gchq.gaffer.federatedstore.FederatedStoreConstants.getAggregateResults;
+
+/**
+ * A handler for Operations that return a CloseableIterable of {@link Element}s for FederatedStore.
+ * The results from the delegate graphs are merged as in {@link FederatedOperationIterableHandler}.
+ * If the operation option gaffer.federatedstore.operation.aggregateResults is set to true, the
+ * merged results are also aggregated using the merged schema of the delegate graphs, so an element
+ * held in several graphs is returned once. The delegate graphs are then queried without the post
+ * aggregation filters and transformers in the view, which are applied to the aggregated results.
+ *
+ * @see AggregatedElementsIterable
+ */
+public class FederatedElementsIterableHandler<OP extends Output<CloseableIterable<? extends Element>> & OperationView>
+        extends FederatedOperationIterableHandler<OP, CloseableIterable<? extends Element>> {
+    @Override
+    protected OP getOperationForGraphs(final OP operation, final Store store) {
+        if (isAggregateResults(operation, store) && null != operation.getView()) {
+            final OP graphsOperation = (OP) operation.shallowClone();
+            graphsOperation.setView(AggregatedElementsIterable.createGraphView(operation.getView()));
+            return graphsOperation;
+        }
+        return operation;
+    }
+
+    @Override
+    protected CloseableIterable<? extends Element> mergeResults(final List<CloseableIterable<? extends Element>> results, final OP operation,
+                                                                final Context context, final Store store) {
+        final CloseableIterable<? extends Element> mergedResults = super.mergeResults(results, operation, context, store);
+        if (isAggregateResults(operation, store)) {
+            // The graphs were queried without the post aggregation functions, so they
+            // are applied here even if only 1 graph returned results
+            final FederatedStore federatedStore = (FederatedStore) store;
+            return new AggregatedElementsIterable(mergedResults, federatedStore.getSchema(operation, context),
+                    operation.getView(), federatedStore.getProperties().getAggregateResultsLimit(), results.size() > 1);
+        }
+
+        return mergedResults;
+    }
+
+    private boolean isAggregateResults(final OP operation, final Store store) {
+        return store instanceof FederatedStore && Boolean.valueOf(getAggregateResults(operation));
+    }
+}
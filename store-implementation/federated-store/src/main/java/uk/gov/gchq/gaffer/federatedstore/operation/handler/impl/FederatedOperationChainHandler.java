@@ -21,7 +21,9 @@ import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
 import uk.gov.gchq.gaffer.commonutil.iterable.WrappedCloseableIterable;
 import uk.gov.gchq.gaffer.federatedstore.FederatedStore;
 import uk.gov.gchq.gaffer.federatedstore.operation.FederatedOperationChain;
+import uk.gov.gchq.gaffer.federatedstore.util.FederatedGraphExecutor;
 import uk.gov.gchq.gaffer.federatedstore.util.FederatedStoreUtil;
+import uk.gov.gchq.gaffer.federatedstore.util.InterleavedCloseableIterable;
 import uk.gov.gchq.gaffer.graph.Graph;
 import uk.gov.gchq.gaffer.operation.OperationChain;
 import uk.gov.gchq.gaffer.operation.OperationException;
@@ -30,9 +32,11 @@ import uk.gov.gchq.gaffer.store.Store;
 import uk.gov.gchq.gaffer.store.operation.handler.OutputOperationHandler;
 import uk.gov.gchq.gaffer.store.operation.handler.util.OperationHandlerUtil;
 
-import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 
 import static uk.gov.gchq.gaffer.federatedstore.FederatedStoreConstants.KEY_OPERATION_OPTIONS_GRAPH_IDS;
 import static uk.gov.gchq.gaffer.federatedstore.FederatedStoreConstants.KEY_SKIP_FAILED_FEDERATED_STORE_EXECUTE;
@@ -41,25 +45,16 @@ public class FederatedOperationChainHandler<I, O_ITEM> implements OutputOperatio
     @Override
     public CloseableIterable<O_ITEM> doOperation(final FederatedOperationChain<I, O_ITEM> operation, final Context context, final Store store) throws OperationException {
         final Collection<Graph> graphs = ((FederatedStore) store).getGraphs(context.getUser(), operation.getOption(KEY_OPERATION_OPTIONS_GRAPH_IDS), operation);
-        final List<Object> results = new ArrayList<>(graphs.size());
+        final LinkedHashMap<Graph, Callable<Object>> tasks = new LinkedHashMap<>(graphs.size());
         for (final Graph graph : graphs) {
             final OperationChain opChain = operation.getOperationChain();
             OperationHandlerUtil.updateOperationInput(opChain, operation.getInput());
             final OperationChain updatedOp = FederatedStoreUtil.updateOperationForGraph(opChain, graph);
             if (null != updatedOp) {
-                Object result = null;
-                try {
-                    result = graph.execute(updatedOp, context);
-                } catch (final Exception e) {
-                    if (!Boolean.valueOf(updatedOp.getOption(KEY_SKIP_FAILED_FEDERATED_STORE_EXECUTE))) {
-                        throw new OperationException(FederatedStoreUtil.createOperationErrorMsg(operation, graph.getGraphId(), e), e);
-                    }
-                }
-                if (null != result) {
-                    results.add(result);
-                }
+                tasks.put(graph, () -> graph.execute(updatedOp, context));
             }
         }
+        final List<Object> results = FederatedGraphExecutor.execute((FederatedStore) store, operation, tasks, isSkipFailed(operation));
         return mergeResults(results, operation, context, store);
     }
 
@@ -85,9 +80,19 @@ public class FederatedOperationChainHandler<I, O_ITEM> implements OutputOperatio
         }
 
         if (areIterable) {
+            final ExecutorService executorService = store instanceof FederatedStore ? ((FederatedStore) store).getFederatedMergeExecutorService() : null;
+            if (null != executorService) {
+                return new InterleavedCloseableIterable(results, executorService,
+                        ((FederatedStore) store).getProperties().getExecutorResultsQueueSize(),
+                        isSkipFailed(operation));
+            }
             return new ChainedIterable(CollectionUtil.toIterableArray((List) results));
         }
 
         return new WrappedCloseableIterable(results);
     }
+
+    private boolean isSkipFailed(final FederatedOperationChain<I, O_ITEM> operation) {
+        return Boolean.valueOf(operation.getOperationChain().getOption(KEY_SKIP_FAILED_FEDERATED_STORE_EXECUTE));
+    }
 }
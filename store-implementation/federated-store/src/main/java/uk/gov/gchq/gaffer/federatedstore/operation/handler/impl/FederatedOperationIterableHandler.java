@@ -19,17 +19,24 @@ package uk.gov.gchq.gaffer.federatedstore.operation.handler.impl;
 import uk.gov.gchq.gaffer.commonutil.CollectionUtil;
 import uk.gov.gchq.gaffer.commonutil.iterable.ChainedIterable;
 import uk.gov.gchq.gaffer.commonutil.iterable.EmptyClosableIterable;
+import uk.gov.gchq.gaffer.federatedstore.FederatedStore;
 import uk.gov.gchq.gaffer.federatedstore.operation.handler.FederatedOperationOutputHandler;
+import uk.gov.gchq.gaffer.federatedstore.util.InterleavedCloseableIterable;
 import uk.gov.gchq.gaffer.operation.io.Output;
 import uk.gov.gchq.gaffer.store.Context;
 import uk.gov.gchq.gaffer.store.Store;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import static uk.gov.gchq.gaffer.federatedstore.FederatedStoreConstants.getSkipFailedFederatedStoreExecute;
 
 /**
  * A generic handler for Operations with CloseableIterable of elements for FederatedStore.
  * Simply executes the operation on each delegate graph then chains the results together
- * using a {@link ChainedIterable}.
+ * using a {@link ChainedIterable}. If the FederatedStore executes on the delegate graphs
+ * concurrently, the results are instead consumed concurrently and interleaved using an
+ * {@link InterleavedCloseableIterable}.
  *
  * @see FederatedOperationOutputHandler
  */
@@ -40,6 +47,17 @@ public class FederatedOperationIterableHandler<OP extends Output<O>, O extends I
             return (O) new EmptyClosableIterable<>();
         }
 
+        if (results.size() > 1 && store instanceof FederatedStore) {
+            final FederatedStore federatedStore = (FederatedStore) store;
+            final ExecutorService executorService = federatedStore.getFederatedMergeExecutorService();
+            if (null != executorService) {
+                // Stream the results from all the graphs into 1 iterable
+                return (O) new InterleavedCloseableIterable<>((List) results, executorService,
+                        federatedStore.getProperties().getExecutorResultsQueueSize(),
+                        Boolean.valueOf(getSkipFailedFederatedStoreExecute(operation)));
+            }
+        }
+
         // Concatenate all the results into 1 iterable
         return (O) new ChainedIterable<>(CollectionUtil.toIterableArray(results));
     }
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.federatedstore.util;
+
+import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
+import uk.gov.gchq.gaffer.commonutil.exception.LimitExceededException;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.function.ElementAggregator;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewUtil;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewElementDefinition;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.util.AggregatorUtil;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An {@code AggregatedElementsIterable} applies query time aggregation to the
+ * {@link Element}s returned from several graphs, using the aggregators in the
+ * merged {@link Schema} and the groupBy properties and aggregators in the {@link View}.
+ * <p>
+ * Elements in groups that are not aggregated are returned as soon as they are read.
+ * Elements in aggregated groups are combined in memory and returned once all the
+ * elements have been read. The number of distinct aggregated elements held in memory
+ * is limited, if the limit is exceeded a {@link LimitExceededException} is thrown.
+ * The elements are aggregated into copies, so the elements read from the graphs are
+ * not modified.
+ * <p>
+ * The post aggregation filter, transformer, post transform filter and property
+ * projection in the {@link View} are applied to the merged elements, so the graphs
+ * should be queried without them. See {@link #createGraphView(View)}.
+ */
+public class AggregatedElementsIterable implements CloseableIterable<Element> {
+    private final Iterable<? extends Element> elements;
+    private final Schema schema;
+    private final View view;
+    private final int maxAggregatedElements;
+    private final boolean aggregate;
+
+    public AggregatedElementsIterable(final Iterable<? extends Element> elements, final Schema schema, final View view,
+                                      final int maxAggregatedElements) {
+        this(elements, schema, view, maxAggregatedElements, true);
+    }
+
+    /**
+     * @param elements              the elements read from the graphs
+     * @param schema                the merged schema of the graphs
+     * @param view                  the view the elements were queried with
+     * @param maxAggregatedElements the maximum number of distinct aggregated elements to hold in memory
+     * @param aggregate             if false the elements are only filtered and transformed, e.g. when
+     *                              the elements were read from a single graph
+     */
+    public AggregatedElementsIterable(final Iterable<? extends Element> elements, final Schema schema, final View view,
+                                      final int maxAggregatedElements, final boolean aggregate) {
+        if (null == elements) {
+            throw new IllegalArgumentException("Elements are required");
+        }
+        if (null == schema) {
+            throw new IllegalArgumentException("Schema is required");
+        }
+        this.elements = elements;
+        this.schema = schema;
+        this.view = null != view ? new View.Builder().merge(view).expandGlobalDefinitions().build() : null;
+        this.maxAggregatedElements = maxAggregatedElements;
+        this.aggregate = aggregate;
+    }
+
+    /**
+     * Creates the view to query the graphs with. The post aggregation filters,
+     * transformers, post transform filters and property projections are removed,
+     * as they can only be applied once the elements from all the graphs have been
+     * aggregated.
+     *
+     * @param view the view to query the graphs with
+     * @return the view without the functions applied after aggregation
+     */
+    public static View createGraphView(final View view) {
+        if (null == view) {
+            return null;
+        }
+
+        final View expandedView = new View.Builder().merge(view).expandGlobalDefinitions().build();
+        final View.Builder graphView = new View.Builder()
+                .merge(expandedView)
+                .allEntities(view.isAllEntities())
+                .allEdges(view.isAllEdges());
+        expandedView.getEntities().forEach((group, elementDef) -> graphView.entity(group, createGraphElementDefinition(elementDef)));
+        expandedView.getEdges().forEach((group, elementDef) -> graphView.edge(group, createGraphElementDefinition(elementDef)));
+        return graphView.build();
+    }
+
+    private static ViewElementDefinition createGraphElementDefinition(final ViewElementDefinition elementDef) {
+        return new ViewElementDefinition.Builder()
+                .merge(elementDef)
+                .clearPostAggregationFilter()
+                .clearTransform()
+                .clearPostTransformFilter()
+                .allProperties()
+                .build();
+    }
+
+    @Override
+    public void close() {
+        CloseableUtil.close(elements);
+    }
+
+    @Override
+    public CloseableIterator<Element> iterator() {
+        return new AggregatedElementsIterator(elements.iterator());
+    }
+
+    private final class AggregatedElementsIterator implements CloseableIterator<Element> {
+        private final Iterator<? extends Element> elementsItr;
+        private final Collection<String> aggregatedGroups = aggregate ? schema.getAggregatedGroups() : Collections.emptySet();
+        private final Map<String, AggregatorUtil.ToElementKey> toKeys = new HashMap<>();
+        private final Map<String, ElementAggregator> aggregators = new HashMap<>();
+        private Map<Element, Element> aggregatedElements = new LinkedHashMap<>();
+        private Iterator<Element> aggregatedElementsItr;
+        private Element nextElement;
+        private boolean closed;
+
+        private AggregatedElementsIterator(final Iterator<? extends Element> elementsItr) {
+            this.elementsItr = elementsItr;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (null != nextElement) {
+                return true;
+            }
+
+            if (closed) {
+                return false;
+            }
+
+            if (null == aggregatedElementsItr) {
+                while (elementsItr.hasNext()) {
+                    final Element element = elementsItr.next();
+                    if (null != element) {
+                        if (aggregatedGroups.contains(element.getGroup())) {
+                            aggregate(element);
+                        } else if (postAggregate(element)) {
+                            nextElement = element;
+                            return true;
+                        }
+                    }
+                }
+
+                // All the elements have been read so the aggregated elements can be returned
+                CloseableUtil.close(elementsItr);
+                aggregatedElementsItr = aggregatedElements.values().iterator();
+                aggregatedElements = null;
+            }
+
+            while (aggregatedElementsItr.hasNext()) {
+                final Element element = aggregatedElementsItr.next();
+                if (postAggregate(element)) {
+                    nextElement = element;
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        @Override
+        public Element next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Element element = nextElement;
+            nextElement = null;
+            return element;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            CloseableUtil.close(elementsItr);
+            aggregatedElements = null;
+            aggregatedElementsItr = null;
+            nextElement = null;
+        }
+
+        private void aggregate(final Element element) {
+            final String group = element.getGroup();
+            final Element key = toKeys.computeIfAbsent(group, this::createToKey).apply(element);
+            final Element aggregatedElement = aggregatedElements.get(key);
+            if (null == aggregatedElement) {
+                if (aggregatedElements.size() >= maxAggregatedElements) {
+                    close();
+                    throw new LimitExceededException("Too many elements to aggregate across the graphs, the limit is "
+                            + maxAggregatedElements + " distinct elements");
+                }
+                aggregatedElements.put(key, element.shallowClone());
+            } else {
+                aggregators.computeIfAbsent(group, this::createAggregator).apply(aggregatedElement, element);
+            }
+        }
+
+        private boolean postAggregate(final Element element) {
+            final ViewElementDefinition elementDef = null != view ? view.getElement(element.getGroup()) : null;
+            if (null == elementDef) {
+                return true;
+            }
+            if (null != elementDef.getPostAggregationFilter() && !elementDef.getPostAggregationFilter().test(element)) {
+                return false;
+            }
+            if (null != elementDef.getTransformer()) {
+                elementDef.getTransformer().apply(element);
+            }
+            if (null != elementDef.getPostTransformFilter() && !elementDef.getPostTransformFilter().test(element)) {
+                return false;
+            }
+            ViewUtil.removeProperties(elementDef, element);
+            return true;
+        }
+
+        private AggregatorUtil.ToElementKey createToKey(final String group) {
+            final Map<String, Set<String>> groupBys = new HashMap<>(1);
+            groupBys.put(group, AggregatorUtil.getQueryGroupBy(group, schema, view));
+            return new AggregatorUtil.ToElementKey(groupBys);
+        }
+
+        private ElementAggregator createAggregator(final String group) {
+            final ViewElementDefinition viewElementDef = null != view ? view.getElement(group) : null;
+            if (null == viewElementDef) {
+                return schema.getElement(group).getQueryAggregator(null, null);
+            }
+            return schema.getElement(group).getQueryAggregator(viewElementDef.getGroupBy(), viewElementDef.getAggregator());
+        }
+    }
+}
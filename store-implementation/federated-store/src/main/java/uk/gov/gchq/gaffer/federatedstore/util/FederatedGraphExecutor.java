@@ -0,0 +1,142 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.federatedstore.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
+import uk.gov.gchq.gaffer.federatedstore.FederatedStore;
+import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.operation.Operation;
+import uk.gov.gchq.gaffer.operation.OperationException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Utility for executing an {@link Operation} on each of the sub-graphs of a
+ * {@link FederatedStore}.
+ * <p>
+ * If the FederatedStore has an executor service (see
+ * {@link uk.gov.gchq.gaffer.federatedstore.FederatedStoreProperties#EXECUTOR_THREADS})
+ * the sub-graphs are executed on concurrently, each with an optional timeout,
+ * otherwise they are executed on in turn.
+ */
+public final class FederatedGraphExecutor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FederatedGraphExecutor.class);
+
+    private FederatedGraphExecutor() {
+        // Private constructor to prevent instantiation.
+    }
+
+    /**
+     * Executes the tasks for each sub-graph.
+     *
+     * @param store      the federated store
+     * @param operation  the federated operation, used for the error messages
+     * @param tasks      the task to execute for each graph
+     * @param skipFailed true if graphs that fail or time out should be skipped
+     * @param <T>        the result type
+     * @return the non-null results in the same order as the tasks
+     * @throws OperationException if a task fails and failed executions should not be skipped
+     */
+    public static <T> List<T> execute(final FederatedStore store, final Operation operation, final LinkedHashMap<Graph, Callable<T>> tasks, final boolean skipFailed) throws OperationException {
+        final ExecutorService executorService = store.getFederatedExecutorService();
+        if (null == executorService || tasks.size() < 2) {
+            return executeInTurn(operation, tasks, skipFailed);
+        }
+        return executeConcurrently(executorService, store.getProperties().getExecutorGraphTimeout(), operation, tasks, skipFailed);
+    }
+
+    private static <T> List<T> executeInTurn(final Operation operation, final Map<Graph, Callable<T>> tasks, final boolean skipFailed) throws OperationException {
+        final List<T> results = new ArrayList<>(tasks.size());
+        for (final Map.Entry<Graph, Callable<T>> entry : tasks.entrySet()) {
+            T result = null;
+            try {
+                result = entry.getValue().call();
+            } catch (final Exception e) {
+                handleFailure(operation, entry.getKey().getGraphId(), e, skipFailed);
+            }
+            if (null != result) {
+                results.add(result);
+            }
+        }
+        return results;
+    }
+
+    private static <T> List<T> executeConcurrently(final ExecutorService executorService, final Long timeout, final Operation operation, final Map<Graph, Callable<T>> tasks, final boolean skipFailed) throws OperationException {
+        final long deadline = null != timeout ? System.currentTimeMillis() + timeout : 0L;
+        final Map<Graph, Future<T>> futures = new LinkedHashMap<>(tasks.size());
+        for (final Map.Entry<Graph, Callable<T>> entry : tasks.entrySet()) {
+            futures.put(entry.getKey(), executorService.submit(entry.getValue()));
+        }
+
+        final List<T> results = new ArrayList<>(tasks.size());
+        boolean completed = false;
+        try {
+            for (final Map.Entry<Graph, Future<T>> entry : futures.entrySet()) {
+                final String graphId = entry.getKey().getGraphId();
+                final Future<T> future = entry.getValue();
+                T result = null;
+                try {
+                    result = null != timeout
+                            ? future.get(Math.max(0L, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)
+                            : future.get();
+                } catch (final ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    handleFailure(operation, graphId, cause instanceof Exception ? (Exception) cause : e, skipFailed);
+                } catch (final TimeoutException e) {
+                    future.cancel(true);
+                    handleFailure(operation, graphId, new TimeoutException("Graph " + graphId + " did not respond within " + timeout + "ms"), skipFailed);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new OperationException("Interrupted whilst waiting for graph " + graphId, e);
+                }
+                if (null != result) {
+                    results.add(result);
+                }
+            }
+            completed = true;
+        } finally {
+            if (!completed) {
+                for (final Future<T> future : futures.values()) {
+                    future.cancel(true);
+                }
+                for (final T result : results) {
+                    CloseableUtil.close(result);
+                }
+            }
+        }
+        return results;
+    }
+
+    private static void handleFailure(final Operation operation, final String graphId, final Exception e, final boolean skipFailed) throws OperationException {
+        if (!skipFailed) {
+            throw new OperationException(FederatedStoreUtil.createOperationErrorMsg(operation, graphId, e), e);
+        }
+        LOGGER.debug("Skipping failed execution on graph {}: {}", graphId, e.getMessage());
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.federatedstore.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+import uk.gov.gchq.gaffer.core.exception.GafferRuntimeException;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@code InterleavedCloseableIterable} is an iterable composed of other
+ * {@link Iterable}s, which are consumed concurrently.
+ * <p>
+ * Each child iterable is iterated on a thread from the provided
+ * {@link ExecutorService} and its items are added to a bounded queue, so items are
+ * available as soon as any child iterable produces them. The order of the items from
+ * each child iterable is preserved, but the items from different child iterables are
+ * interleaved.
+ * <p>
+ * The {@link ExecutorService} should not be bounded by the tasks that produce the
+ * child iterables, otherwise the threads consuming the child iterables may wait for
+ * tasks queued behind them.
+ * <p>
+ * The iterators should be closed once they are no longer required, so that the
+ * threads consuming the child iterables are released. Threads waiting for space in
+ * the queue check periodically whether the iterator or this iterable has been closed,
+ * or the iterator has been abandoned and garbage collected, so they are released even
+ * if they do not respond to being interrupted. Likewise, an iterator waiting for items
+ * checks periodically whether this iterable has been closed.
+ *
+ * @param <T> the type of items in the iterable.
+ */
+public class InterleavedCloseableIterable<T> implements CloseableIterable<T> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(InterleavedCloseableIterable.class);
+    private static final Object NULL_ITEM = new Object();
+    private static final Object END_OF_ITERABLE = new Object();
+    private static final Object NO_ITEM = new Object();
+    private static final long OFFER_TIMEOUT_MS = 100L;
+    private static final long POLL_TIMEOUT_MS = 100L;
+
+    private final List<? extends Iterable<? extends T>> iterables;
+    private final ExecutorService executorService;
+    private final int queueSize;
+    private final boolean skipFailed;
+    private volatile boolean closed;
+
+    public InterleavedCloseableIterable(final List<? extends Iterable<? extends T>> iterables, final ExecutorService executorService,
+                                        final int queueSize, final boolean skipFailed) {
+        if (null == iterables || iterables.isEmpty()) {
+            throw new IllegalArgumentException("At least 1 iterable is required.");
+        }
+        if (null == executorService) {
+            throw new IllegalArgumentException("An executor service is required.");
+        }
+        this.iterables = iterables;
+        this.executorService = executorService;
+        this.queueSize = queueSize;
+        this.skipFailed = skipFailed;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (final Iterable<? extends T> iterable : iterables) {
+            CloseableUtil.close(iterable);
+        }
+    }
+
+    @Override
+    public CloseableIterator<T> iterator() {
+        return new InterleavedIterator();
+    }
+
+    private static final class Failure {
+        private final Exception exception;
+
+        private Failure(final Exception exception) {
+            this.exception = exception;
+        }
+    }
+
+    /**
+     * The state shared between an {@link InterleavedIterator} and the tasks consuming
+     * the child iterables. The tasks only hold a weak reference to the iterator, so
+     * an abandoned iterator can be garbage collected and its tasks released.
+     */
+    private static final class SharedState {
+        private final BlockingQueue<Object> queue;
+        private volatile boolean closed;
+
+        private SharedState(final int queueSize) {
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+        }
+    }
+
+    private class InterleavedIterator implements CloseableIterator<T> {
+        private final SharedState state = new SharedState(queueSize);
+        private final List<Future<?>> futures = new ArrayList<>(iterables.size());
+        private int remaining = iterables.size();
+        private Object next = NO_ITEM;
+
+        InterleavedIterator() {
+            final WeakReference<InterleavedIterator> iteratorRef = new WeakReference<>(this);
+            for (final Iterable<? extends T> iterable : iterables) {
+                futures.add(executorService.submit(new Consumer(iterable, state, iteratorRef)));
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (NO_ITEM == next && remaining > 0 && !state.closed) {
+                if (closed) {
+                    close();
+                    return false;
+                }
+
+                final Object item;
+                try {
+                    item = state.queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    close();
+                    return false;
+                }
+
+                if (null == item) {
+                    continue;
+                }
+                if (END_OF_ITERABLE == item) {
+                    remaining--;
+                } else if (item instanceof Failure) {
+                    remaining--;
+                    final Exception exception = ((Failure) item).exception;
+                    if (!skipFailed) {
+                        close();
+                        throw new GafferRuntimeException("Failed to retrieve results: " + exception.getMessage(), exception);
+                    }
+                    LOGGER.debug("Skipping failed results: {}", exception.getMessage());
+                } else {
+                    next = item;
+                }
+            }
+            return NO_ITEM != next;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Object item = next;
+            next = NO_ITEM;
+            return NULL_ITEM == item ? null : (T) item;
+        }
+
+        @Override
+        public void close() {
+            if (!state.closed) {
+                state.closed = true;
+                for (final Future<?> future : futures) {
+                    future.cancel(true);
+                }
+                state.queue.clear();
+            }
+        }
+    }
+
+    /**
+     * Consumes a child iterable, adding its items to the queue of an iterator.
+     * This does not hold a strong reference to the iterator.
+     */
+    private class Consumer implements Runnable {
+        private final Iterable<? extends T> iterable;
+        private final SharedState state;
+        private final WeakReference<?> iteratorRef;
+
+        Consumer(final Iterable<? extends T> iterable, final SharedState state, final WeakReference<?> iteratorRef) {
+            this.iterable = iterable;
+            this.state = state;
+            this.iteratorRef = iteratorRef;
+        }
+
+        @Override
+        public void run() {
+            Iterator<? extends T> iterator = null;
+            try {
+                iterator = iterable.iterator();
+                while (!isCancelled() && iterator.hasNext()) {
+                    final T item = iterator.next();
+                    if (!offer(null == item ? NULL_ITEM : item)) {
+                        return;
+                    }
+                }
+                offer(END_OF_ITERABLE);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (final Exception e) {
+                try {
+                    offer(new Failure(e));
+                } catch (final InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            } finally {
+                CloseableUtil.close(iterator);
+            }
+        }
+
+        /**
+         * Waits for space in the queue to add the item, giving up if the iterator is
+         * closed or abandoned, or this iterable is closed.
+         *
+         * @param item the item to add
+         * @return true if the item was added, false if the iterator was closed or abandoned first
+         * @throws InterruptedException if interrupted while waiting
+         */
+        private boolean offer(final Object item) throws InterruptedException {
+            while (!isCancelled()) {
+                if (state.queue.offer(item, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean isCancelled() {
+            if (state.closed || closed) {
+                return true;
+            }
+            if (null == iteratorRef.get()) {
+                LOGGER.debug("Iterator was abandoned without being closed, releasing the consumer");
+                state.closed = true;
+                state.queue.clear();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -351,6 +351,45 @@ public class FederatedGraphStorageTest {
         assertEquals("Revealing hidden traits", 0, traits.size());
     }
 
+    @Test
+    public void shouldReuseMergedSchemaUntilGraphsChange() throws Exception {
+        // Given
+        graphStorage.put(a, access);
+        final Schema schemaA = graphStorage.getSchema((Map<String, String>) null, testUserContext);
+
+        // When
+        final Schema schemaAForAuthUser = graphStorage.getSchema((Map<String, String>) null, authUserContext);
+        graphStorage.put(b, access);
+        final Schema schemaAB = graphStorage.getSchema((Map<String, String>) null, testUserContext);
+        graphStorage.remove(GRAPH_ID_B, testUser);
+        final Schema schemaAAfterRemove = graphStorage.getSchema((Map<String, String>) null, testUserContext);
+
+        // Then
+        assertSame(schemaA, schemaAForAuthUser);
+        assertEquals(2, schemaAB.getTypes().size());
+        assertEquals(1, schemaAAfterRemove.getTypes().size());
+        assertEquals(1, graphStorage.getMergedSchemaCacheStats().hitCount());
+        assertEquals(3, graphStorage.getMergedSchemaCacheStats().missCount());
+    }
+
+    @Test
+    public void shouldReuseMergedTraitsUntilGraphAccessChanges() throws Exception {
+        // Given
+        graphStorage.put(a, access);
+        graphStorage.getTraits(null, testUser);
+
+        // When
+        final Set<StoreTrait> traits = graphStorage.getTraits(null, testUser);
+        graphStorage.changeGraphAccess(GRAPH_ID_A, new FederatedAccess(Sets.newHashSet(X), X), testUser);
+        final Set<StoreTrait> traitsAfterAccessChange = graphStorage.getTraits(null, testUser);
+
+        // Then
+        assertEquals(10, traits.size());
+        assertEquals("Revealing hidden traits", 0, traitsAfterAccessChange.size());
+        assertEquals(1, graphStorage.getMergedTraitsCacheStats().hitCount());
+        assertEquals(2, graphStorage.getMergedTraitsCacheStats().missCount());
+    }
+
     @Test
     public void shouldRemoveForAddingUser() throws Exception {
         graphStorage.put(a, access);
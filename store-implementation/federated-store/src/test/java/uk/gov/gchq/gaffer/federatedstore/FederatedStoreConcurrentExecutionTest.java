@@ -0,0 +1,139 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.federatedstore;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.accumulostore.AccumuloProperties;
+import uk.gov.gchq.gaffer.accumulostore.SingleUseMockAccumuloStore;
+import uk.gov.gchq.gaffer.cache.CacheServiceLoader;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.federatedstore.operation.AddGraph;
+import uk.gov.gchq.gaffer.operation.OperationChain;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
+import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAdjacentIds;
+import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
+import uk.gov.gchq.gaffer.store.Context;
+import uk.gov.gchq.gaffer.store.library.HashMapGraphLibrary;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.schema.SchemaEdgeDefinition;
+import uk.gov.gchq.gaffer.user.StoreUser;
+
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static uk.gov.gchq.gaffer.federatedstore.FederatedStoreConstants.KEY_OPERATION_OPTIONS_GRAPH_IDS;
+
+public class FederatedStoreConcurrentExecutionTest {
+    private static final String FED_ID = "testFedStore";
+    private static final String GRAPH_1 = "graph1";
+    private static final String GRAPH_2 = "graph2";
+    private static final String PROP_1 = "prop1";
+    private static final String SCHEMA_1 = "schema1";
+    private static final String EDGE_GROUP = "edge";
+    private static final String CACHE_SERVICE_CLASS_STRING = "uk.gov.gchq.gaffer.cache.impl.HashMapCacheService";
+
+    private FederatedStore store;
+    private Context blankContext;
+
+    @Before
+    public void setUp() throws Exception {
+        CacheServiceLoader.shutdown();
+        final FederatedStoreProperties fedProps = new FederatedStoreProperties();
+        fedProps.setCacheProperties(CACHE_SERVICE_CLASS_STRING);
+        // Fewer threads than graphs
+        fedProps.setExecutorThreads(1);
+
+        store = new FederatedStore();
+        final HashMapGraphLibrary library = new HashMapGraphLibrary();
+        HashMapGraphLibrary.clear();
+
+        final AccumuloProperties storeProperties = new AccumuloProperties();
+        storeProperties.setStoreClass(SingleUseMockAccumuloStore.class);
+
+        library.addProperties(PROP_1, storeProperties);
+        library.addSchema(SCHEMA_1, new Schema.Builder()
+                .edge(EDGE_GROUP, new SchemaEdgeDefinition.Builder()
+                        .source("string")
+                        .destination("string")
+                        .directed("true")
+                        .build())
+                .type("string", String.class)
+                .type("true", Boolean.class)
+                .build());
+        store.setGraphLibrary(library);
+        store.initialise(FED_ID, null, fedProps);
+        blankContext = new Context(StoreUser.blankUser());
+
+        addGraphWithEdge(GRAPH_1, createEdge("A", "B"));
+        addGraphWithEdge(GRAPH_2, createEdge("B", "C"));
+    }
+
+    @After
+    public void tearDown() {
+        CacheServiceLoader.shutdown();
+    }
+
+    @Test(timeout = 60000)
+    public void shouldExecuteChainedOperationWithFewerThreadsThanGraphs() throws Exception {
+        // Given
+        final OperationChain<CloseableIterable<? extends Element>> chain = new OperationChain.Builder()
+                .first(new GetAdjacentIds.Builder()
+                        .input(new EntitySeed("A"))
+                        .build())
+                .then(new GetElements())
+                .build();
+
+        // When
+        final Set<Element> results;
+        try (final CloseableIterable<? extends Element> elements = store.execute(chain, blankContext)) {
+            results = Sets.newHashSet(elements);
+        }
+
+        // Then
+        assertEquals(Sets.newHashSet(createEdge("A", "B"), createEdge("B", "C")), results);
+    }
+
+    private void addGraphWithEdge(final String graphId, final Edge edge) throws Exception {
+        store.execute(new AddGraph.Builder()
+                .graphId(graphId)
+                .parentPropertiesId(PROP_1)
+                .parentSchemaIds(Lists.newArrayList(SCHEMA_1))
+                .isPublic(true)
+                .build(), blankContext);
+        store.execute(new AddElements.Builder()
+                .input(edge)
+                .option(KEY_OPERATION_OPTIONS_GRAPH_IDS, graphId)
+                .build(), blankContext);
+    }
+
+    private Edge createEdge(final String source, final String destination) {
+        return new Edge.Builder()
+                .group(EDGE_GROUP)
+                .source(source)
+                .dest(destination)
+                .directed(true)
+                .build();
+    }
+}
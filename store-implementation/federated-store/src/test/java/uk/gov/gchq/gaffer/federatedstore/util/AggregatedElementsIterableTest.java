@@ -0,0 +1,339 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.federatedstore.util;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.commonutil.TestPropertyNames;
+import uk.gov.gchq.gaffer.commonutil.exception.LimitExceededException;
+import uk.gov.gchq.gaffer.commonutil.iterable.ChainedIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.function.ElementFilter;
+import uk.gov.gchq.gaffer.data.element.function.ElementTransformer;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewElementDefinition;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.schema.SchemaEdgeDefinition;
+import uk.gov.gchq.gaffer.store.schema.SchemaEntityDefinition;
+import uk.gov.gchq.gaffer.store.schema.TypeDefinition;
+import uk.gov.gchq.koryphe.impl.binaryoperator.Sum;
+import uk.gov.gchq.koryphe.impl.function.ToString;
+import uk.gov.gchq.koryphe.impl.predicate.IsEqual;
+import uk.gov.gchq.koryphe.impl.predicate.IsMoreThan;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AggregatedElementsIterableTest {
+    private final Schema schema = new Schema.Builder()
+            .entity(TestGroups.ENTITY, new SchemaEntityDefinition.Builder()
+                    .vertex("string")
+                    .property(TestPropertyNames.COUNT, "long")
+                    .property(TestPropertyNames.PROP_1, "string")
+                    .groupBy(TestPropertyNames.PROP_1)
+                    .build())
+            .edge(TestGroups.EDGE, new SchemaEdgeDefinition.Builder()
+                    .source("string")
+                    .destination("string")
+                    .directed("true")
+                    .property(TestPropertyNames.COUNT, "long")
+                    .aggregate(false)
+                    .build())
+            .type("string", String.class)
+            .type("long", new TypeDefinition.Builder()
+                    .clazz(Long.class)
+                    .aggregateFunction(new Sum())
+                    .build())
+            .type("true", Boolean.class)
+            .build();
+
+    @Test
+    public void shouldAggregateElementsFromDifferentGraphs() {
+        // Given
+        final List<Element> graph1Results = Arrays.asList(
+                createEntity("A", "x", 1L),
+                createEntity("B", "x", 2L));
+        final List<Element> graph2Results = Arrays.asList(
+                createEntity("A", "x", 3L),
+                createEntity("A", "y", 4L));
+
+        // When
+        final List<Element> results = Lists.newArrayList(new AggregatedElementsIterable(
+                new ChainedIterable<>(graph1Results, graph2Results), schema, null, 10));
+
+        // Then
+        assertEquals(Arrays.asList(
+                createEntity("A", "x", 4L),
+                createEntity("B", "x", 2L),
+                createEntity("A", "y", 4L)), results);
+    }
+
+    @Test
+    public void shouldUseViewGroupByWhenAggregating() {
+        // Given
+        final View view = new View.Builder()
+                .entity(TestGroups.ENTITY, new ViewElementDefinition.Builder()
+                        .groupBy()
+                        .build())
+                .build();
+        final List<Element> graph1Results = Collections.singletonList(createEntity("A", null, 1L));
+        final List<Element> graph2Results = Collections.singletonList(createEntity("A", null, 3L));
+
+        // When
+        final List<Element> results = Lists.newArrayList(new AggregatedElementsIterable(
+                new ChainedIterable<>(graph1Results, graph2Results), schema, view, 10));
+
+        // Then
+        assertEquals(Collections.singletonList(createEntity("A", null, 4L)), results);
+    }
+
+    @Test
+    public void shouldApplyPostAggregationFilterToAggregatedElements() {
+        // Given
+        final View view = new View.Builder()
+                .entity(TestGroups.ENTITY, new ViewElementDefinition.Builder()
+                        .postAggregationFilter(new ElementFilter.Builder()
+                                .select(TestPropertyNames.COUNT)
+                                .execute(new IsMoreThan(5L))
+                                .build())
+                        .build())
+                .build();
+        final List<Element> graph1Results = Arrays.asList(
+                createEntity("A", "x", 3L),
+                createEntity("B", "x", 1L));
+        final List<Element> graph2Results = Collections.singletonList(createEntity("A", "x", 4L));
+
+        // When
+        final List<Element> results = Lists.newArrayList(new AggregatedElementsIterable(
+                new ChainedIterable<>(graph1Results, graph2Results), schema, view, 10));
+
+        // Then
+        assertEquals(Collections.singletonList(createEntity("A", "x", 7L)), results);
+    }
+
+    @Test
+    public void shouldTransformAndProjectElementsAfterAggregating() {
+        // Given
+        final View view = new View.Builder()
+                .entity(TestGroups.ENTITY, new ViewElementDefinition.Builder()
+                        .transientProperty(TestPropertyNames.TRANSIENT_1, String.class)
+                        .transformer(new ElementTransformer.Builder()
+                                .select(TestPropertyNames.COUNT)
+                                .execute(new ToString())
+                                .project(TestPropertyNames.TRANSIENT_1)
+                                .build())
+                        .postTransformFilter(new ElementFilter.Builder()
+                                .select(TestPropertyNames.TRANSIENT_1)
+                                .execute(new IsEqual("7"))
+                                .build())
+                        .properties(TestPropertyNames.TRANSIENT_1)
+                        .build())
+                .build();
+        final List<Element> graph1Results = Collections.singletonList(createEntity("A", "x", 3L));
+        final List<Element> graph2Results = Arrays.asList(
+                createEntity("A", "x", 4L),
+                createEntity("B", "x", 6L));
+
+        // When
+        final List<Element> results = Lists.newArrayList(new AggregatedElementsIterable(
+                new ChainedIterable<>(graph1Results, graph2Results), schema, view, 10));
+
+        // Then
+        assertEquals(Collections.singletonList(new Entity.Builder()
+                .group(TestGroups.ENTITY)
+                .vertex("A")
+                .property(TestPropertyNames.TRANSIENT_1, "7")
+                .build()), results);
+    }
+
+    @Test
+    public void shouldOnlyFilterElementsWhenNotAggregating() {
+        // Given
+        final View view = new View.Builder()
+                .entity(TestGroups.ENTITY, new ViewElementDefinition.Builder()
+                        .postAggregationFilter(new ElementFilter.Builder()
+                                .select(TestPropertyNames.COUNT)
+                                .execute(new IsMoreThan(2L))
+                                .build())
+                        .build())
+                .build();
+        final List<Element> elements = Arrays.asList(
+                createEntity("A", "x", 3L),
+                createEntity("A", "x", 1L),
+                createEntity("A", "x", 4L));
+
+        // When
+        final List<Element> results = Lists.newArrayList(new AggregatedElementsIterable(
+                elements, schema, view, 1, false));
+
+        // Then
+        assertEquals(Arrays.asList(
+                createEntity("A", "x", 3L),
+                createEntity("A", "x", 4L)), results);
+    }
+
+    @Test
+    public void shouldNotModifyElementsReadFromTheGraphs() {
+        // Given
+        final Entity graph1Entity = createEntity("A", "x", 3L);
+        final Entity graph2Entity = createEntity("A", "x", 4L);
+
+        // When
+        final List<Element> results = Lists.newArrayList(new AggregatedElementsIterable(
+                Arrays.asList(graph1Entity, graph2Entity), schema, null, 10));
+
+        // Then
+        assertEquals(Collections.singletonList(createEntity("A", "x", 7L)), results);
+        assertEquals(createEntity("A", "x", 3L), graph1Entity);
+        assertEquals(createEntity("A", "x", 4L), graph2Entity);
+    }
+
+    @Test
+    public void shouldRemovePostAggregationFunctionsFromTheGraphView() {
+        // Given
+        final View view = new View.Builder()
+                .entity(TestGroups.ENTITY, new ViewElementDefinition.Builder()
+                        .groupBy()
+                        .preAggregationFilter(new ElementFilter.Builder()
+                                .select(TestPropertyNames.COUNT)
+                                .execute(new IsMoreThan(1L))
+                                .build())
+                        .postAggregationFilter(new ElementFilter.Builder()
+                                .select(TestPropertyNames.COUNT)
+                                .execute(new IsMoreThan(5L))
+                                .build())
+                        .transformer(new ElementTransformer.Builder()
+                                .select(TestPropertyNames.COUNT)
+                                .execute(new ToString())
+                                .project(TestPropertyNames.PROP_1)
+                                .build())
+                        .postTransformFilter(new ElementFilter.Builder()
+                                .select(TestPropertyNames.PROP_1)
+                                .execute(new IsEqual("7"))
+                                .build())
+                        .excludeProperties(TestPropertyNames.COUNT)
+                        .build())
+                .edge(TestGroups.EDGE)
+                .build();
+
+        // When
+        final View graphView = AggregatedElementsIterable.createGraphView(view);
+
+        // Then
+        final ViewElementDefinition entityDef = graphView.getEntity(TestGroups.ENTITY);
+        assertEquals(1, entityDef.getPreAggregationFilterFunctions().size());
+        assertEquals(Collections.emptySet(), entityDef.getGroupBy());
+        assertNull(entityDef.getPostAggregationFilter());
+        assertNull(entityDef.getTransformer());
+        assertNull(entityDef.getPostTransformFilter());
+        assertTrue(entityDef.isAllProperties());
+        assertEquals(view.getEdgeGroups(), graphView.getEdgeGroups());
+    }
+
+    @Test
+    public void shouldReturnElementsInNonAggregatedGroupsUnchanged() {
+        // Given
+        final Edge edge = new Edge.Builder()
+                .group(TestGroups.EDGE)
+                .source("A")
+                .dest("B")
+                .directed(true)
+                .property(TestPropertyNames.COUNT, 1L)
+                .build();
+        final List<Element> graph1Results = Arrays.asList(edge, createEntity("A", "x", 1L));
+        final List<Element> graph2Results = Arrays.asList(edge, createEntity("A", "x", 1L));
+
+        // When
+        final CloseableIterator<Element> itr = new AggregatedElementsIterable(
+                new ChainedIterable<>(graph1Results, graph2Results), schema, null, 10).iterator();
+
+        // Then
+        assertEquals(edge, itr.next());
+        assertEquals(edge, itr.next());
+        assertEquals(createEntity("A", "x", 2L), itr.next());
+        assertTrue(!itr.hasNext());
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenTooManyElementsToAggregate() {
+        // Given
+        final List<Element> elements = Arrays.asList(
+                createEntity("A", "x", 1L),
+                createEntity("A", "x", 1L),
+                createEntity("B", "x", 1L),
+                createEntity("C", "x", 1L));
+
+        // When / Then
+        try {
+            Lists.newArrayList(new AggregatedElementsIterable(elements, schema, null, 2));
+            fail("Exception expected");
+        } catch (final LimitExceededException e) {
+            assertTrue(e.getMessage().contains("2"));
+        }
+    }
+
+    @Test
+    public void shouldReturnNoMoreElementsOnceClosed() {
+        // Given
+        final List<Element> elements = Arrays.asList(
+                createEntity("A", "x", 1L),
+                createEntity("B", "x", 1L));
+        final CloseableIterator<Element> itr = new AggregatedElementsIterable(elements, schema, null, 10).iterator();
+        assertTrue(itr.hasNext());
+        itr.next();
+
+        // When
+        itr.close();
+
+        // Then
+        assertFalse(itr.hasNext());
+    }
+
+    @Test
+    public void shouldReturnNoElementsWhenClosedBeforeBeingRead() {
+        // Given
+        final CloseableIterator<Element> itr = new AggregatedElementsIterable(
+                Collections.singletonList(createEntity("A", "x", 1L)), schema, null, 10).iterator();
+
+        // When
+        itr.close();
+
+        // Then
+        assertFalse(itr.hasNext());
+    }
+
+    private Entity createEntity(final String vertex, final String prop1, final long count) {
+        return new Entity.Builder()
+                .group(TestGroups.ENTITY)
+                .vertex(vertex)
+                .property(TestPropertyNames.PROP_1, prop1)
+                .property(TestPropertyNames.COUNT, count)
+                .build();
+    }
+}
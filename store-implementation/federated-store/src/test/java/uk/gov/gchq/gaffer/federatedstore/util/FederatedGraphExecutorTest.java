@@ -0,0 +1,171 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.federatedstore.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.federatedstore.FederatedStore;
+import uk.gov.gchq.gaffer.federatedstore.FederatedStoreProperties;
+import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.graph.GraphConfig;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
+import uk.gov.gchq.gaffer.store.Store;
+import uk.gov.gchq.gaffer.store.StoreProperties;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class FederatedGraphExecutorTest {
+    private final ExecutorService executorService = Executors.newFixedThreadPool(4);
+    private final FederatedStoreProperties properties = new FederatedStoreProperties();
+    private final FederatedStore store = mock(FederatedStore.class);
+
+    @Before
+    public void before() {
+        given(store.getFederatedExecutorService()).willReturn(executorService);
+        given(store.getProperties()).willReturn(properties);
+    }
+
+    @After
+    public void after() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void shouldExecuteOnGraphsConcurrentlyAndReturnResultsInGraphOrder() throws OperationException {
+        // Given
+        final CountDownLatch allStarted = new CountDownLatch(3);
+        final LinkedHashMap<Graph, Callable<Integer>> tasks = new LinkedHashMap<>();
+        for (int i = 1; i <= 3; i++) {
+            final int result = i;
+            tasks.put(createGraph("graph" + i), () -> {
+                // Each task waits for the others to start, so this only completes if run concurrently
+                allStarted.countDown();
+                assertTrue(allStarted.await(10, TimeUnit.SECONDS));
+                return result;
+            });
+        }
+
+        // When
+        final List<Integer> results = FederatedGraphExecutor.execute(store, new GetAllElements(), tasks, false);
+
+        // Then
+        assertEquals(Arrays.asList(1, 2, 3), results);
+    }
+
+    @Test
+    public void shouldExecuteOnGraphsInTurnWhenThereIsNoExecutorService() throws OperationException {
+        // Given
+        given(store.getFederatedExecutorService()).willReturn(null);
+        final LinkedHashMap<Graph, Callable<Integer>> tasks = new LinkedHashMap<>();
+        tasks.put(createGraph("graph1"), () -> 1);
+        tasks.put(createGraph("graph2"), () -> null);
+        tasks.put(createGraph("graph3"), () -> 3);
+
+        // When
+        final List<Integer> results = FederatedGraphExecutor.execute(store, new GetAllElements(), tasks, false);
+
+        // Then
+        assertEquals(Arrays.asList(1, 3), results);
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenGraphTimesOut() {
+        // Given
+        properties.setExecutorGraphTimeout(100L);
+        final LinkedHashMap<Graph, Callable<Integer>> tasks = createTasksWithSlowGraph();
+
+        // When / Then
+        try {
+            FederatedGraphExecutor.execute(store, new GetAllElements(), tasks, false);
+            fail("Exception expected");
+        } catch (final OperationException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("slowGraph"));
+        }
+    }
+
+    @Test
+    public void shouldSkipGraphThatTimesOutWhenSkipFailedIsTrue() throws OperationException {
+        // Given
+        properties.setExecutorGraphTimeout(100L);
+        final LinkedHashMap<Graph, Callable<Integer>> tasks = createTasksWithSlowGraph();
+
+        // When
+        final List<Integer> results = FederatedGraphExecutor.execute(store, new GetAllElements(), tasks, true);
+
+        // Then
+        assertEquals(Arrays.asList(1, 3), results);
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenGraphFails() {
+        // Given
+        final LinkedHashMap<Graph, Callable<Integer>> tasks = new LinkedHashMap<>();
+        tasks.put(createGraph("graph1"), () -> 1);
+        tasks.put(createGraph("graph2"), () -> {
+            throw new RuntimeException("Test Exception");
+        });
+
+        // When / Then
+        try {
+            FederatedGraphExecutor.execute(store, new GetAllElements(), tasks, false);
+            fail("Exception expected");
+        } catch (final OperationException e) {
+            assertEquals("Test Exception", e.getCause().getMessage());
+        }
+    }
+
+    private LinkedHashMap<Graph, Callable<Integer>> createTasksWithSlowGraph() {
+        final LinkedHashMap<Graph, Callable<Integer>> tasks = new LinkedHashMap<>();
+        tasks.put(createGraph("graph1"), () -> 1);
+        tasks.put(createGraph("slowGraph"), () -> {
+            Thread.sleep(10000);
+            return 2;
+        });
+        tasks.put(createGraph("graph3"), () -> 3);
+        return tasks;
+    }
+
+    private Graph createGraph(final String graphId) {
+        final Store mockStore = mock(Store.class);
+        given(mockStore.getGraphId()).willReturn(graphId);
+        given(mockStore.getSchema()).willReturn(new Schema());
+        given(mockStore.getProperties()).willReturn(new StoreProperties());
+        return new Graph.Builder()
+                .config(new GraphConfig.Builder()
+                        .graphId(graphId)
+                        .build())
+                .store(mockStore)
+                .build();
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.federatedstore.util;
+
+import com.google.common.collect.Lists;
+import org.junit.After;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+import uk.gov.gchq.gaffer.core.exception.GafferRuntimeException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class InterleavedCloseableIterableTest {
+    private final ExecutorService executorService = Executors.newFixedThreadPool(4);
+
+    @After
+    public void after() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void shouldReturnAllItemsPreservingOrderWithinEachIterable() {
+        // Given
+        final List<Integer> itr1 = Arrays.asList(1, 2, 3, 4, 5);
+        final List<Integer> itr2 = Arrays.asList(6, 7, 8);
+        final List<Integer> itr3 = Collections.emptyList();
+        final List<Integer> itr4 = Arrays.asList(9, null, 10);
+
+        // When
+        final List<Integer> results = Lists.newArrayList(new InterleavedCloseableIterable<>(
+                Arrays.asList(itr1, itr2, itr3, itr4), executorService, 2, false));
+
+        // Then
+        assertEquals(11, results.size());
+        assertInOrder(results, itr1);
+        assertInOrder(results, itr2);
+        assertInOrder(results, Arrays.asList(9, 10));
+        assertTrue(results.contains(null));
+    }
+
+    @Test
+    public void shouldReturnResultsFromFastIterableBeforeSlowIterableCompletes() throws InterruptedException {
+        // Given
+        final CountDownLatch slowIterableLatch = new CountDownLatch(1);
+        final Iterable<Integer> slowIterable = () -> new Iterator<Integer>() {
+            private boolean returned;
+
+            @Override
+            public boolean hasNext() {
+                if (!returned) {
+                    try {
+                        slowIterableLatch.await(10, TimeUnit.SECONDS);
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return !returned;
+            }
+
+            @Override
+            public Integer next() {
+                returned = true;
+                return 2;
+            }
+        };
+        final Iterator<Integer> iterator = new InterleavedCloseableIterable<>(
+                Arrays.asList(slowIterable, Collections.singletonList(1)), executorService, 10, false).iterator();
+
+        // When
+        final Integer first = iterator.next();
+        slowIterableLatch.countDown();
+        final Integer second = iterator.next();
+
+        // Then
+        assertEquals(1, (int) first);
+        assertEquals(2, (int) second);
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenIterableFails() {
+        // Given
+        final Iterable<Integer> failingIterable = () -> {
+            throw new RuntimeException("Test Exception");
+        };
+        final Iterable<Integer> iterable = new InterleavedCloseableIterable<>(
+                Arrays.asList(Arrays.asList(1, 2), failingIterable), executorService, 10, false);
+
+        // When / Then
+        try {
+            Lists.newArrayList(iterable);
+            fail("Exception expected");
+        } catch (final GafferRuntimeException e) {
+            assertEquals("Test Exception", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void shouldSkipFailedIterableWhenSkipFailedIsTrue() {
+        // Given
+        final Iterable<Integer> failingIterable = () -> {
+            throw new RuntimeException("Test Exception");
+        };
+
+        // When
+        final List<Integer> results = Lists.newArrayList(new InterleavedCloseableIterable<>(
+                Arrays.asList(Arrays.asList(1, 2), failingIterable), executorService, 10, true));
+
+        // Then
+        assertEquals(Arrays.asList(1, 2), results);
+    }
+
+    @Test
+    public void shouldReleaseThreadWaitingForSpaceInQueueWhenClosedWithoutInterrupting() throws Exception {
+        // Given - an executor that does not interrupt its tasks when they are cancelled
+        final ExecutorService nonInterruptingExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>()) {
+            @Override
+            protected <V> RunnableFuture<V> newTaskFor(final Runnable runnable, final V value) {
+                return new FutureTask<V>(runnable, value) {
+                    @Override
+                    public boolean cancel(final boolean mayInterruptIfRunning) {
+                        return super.cancel(false);
+                    }
+                };
+            }
+        };
+        final CountDownLatch queueFullLatch = new CountDownLatch(1);
+        final Iterable<Integer> iterable = () -> new Iterator<Integer>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < 100;
+            }
+
+            @Override
+            public Integer next() {
+                if (2 == next) {
+                    // The first item has been taken and the second is in the queue
+                    queueFullLatch.countDown();
+                }
+                return next++;
+            }
+        };
+
+        try {
+            final CloseableIterator<Integer> iterator = new InterleavedCloseableIterable<>(
+                    Collections.singletonList(iterable), nonInterruptingExecutor, 1, false).iterator();
+            assertEquals(0, (int) iterator.next());
+            assertTrue(queueFullLatch.await(10, TimeUnit.SECONDS));
+
+            // When
+            iterator.close();
+
+            // Then - the executor's only thread is available to run another task
+            assertTrue(nonInterruptingExecutor.submit(() -> true).get(10, TimeUnit.SECONDS));
+        } finally {
+            nonInterruptingExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenNoIterablesProvided() {
+        try {
+            new InterleavedCloseableIterable<>(new ArrayList<Iterable<Integer>>(), executorService, 10, false);
+            fail("Exception expected");
+        } catch (final IllegalArgumentException e) {
+            assertEquals("At least 1 iterable is required.", e.getMessage());
+        }
+    }
+
+    private void assertInOrder(final List<Integer> results, final List<Integer> expected) {
+        final List<Integer> actual = new ArrayList<>();
+        for (final Integer result : results) {
+            if (expected.contains(result)) {
+                actual.add(result);
+            }
+        }
+        assertEquals(expected, actual);
+    }
+}
@@ -42,9 +42,11 @@ public class HBaseProperties extends StoreProperties {
     public static final String WRITE_BUFFER_SIZE = "hbase.writeBufferSize";
     public static final String DEPENDENCY_JARS_HDFS_DIR_PATH = "hbase.hdfs.jars.path";
     public static final String MAX_ENTRIES_FOR_BATCH_SCANNER = "hbase.entriesForBatchScanner";
+    public static final String INGEST_THREADS = "hbase.ingestThreads";
 
     public static final int WRITE_BUFFER_SIZE_DEFAULT = 1000000;
     public static final String MAX_ENTRIES_FOR_BATCH_SCANNER_DEFAULT = "50000";
+    public static final String INGEST_THREADS_DEFAULT = "2";
 
     public HBaseProperties() {
         super(HBaseStore.class);
@@ -164,6 +166,27 @@ public class HBaseProperties extends StoreProperties {
         set(MAX_ENTRIES_FOR_BATCH_SCANNER, maxEntriesForBatchScanner);
     }
 
+    /**
+     * Get the number of threads used to aggregate and serialise batches of
+     * elements when adding elements.
+     *
+     * @return the number of threads used to aggregate and serialise batches of elements
+     */
+    public int getIngestThreads() {
+        return Integer.parseInt(get(INGEST_THREADS, INGEST_THREADS_DEFAULT));
+    }
+
+    /**
+     * Set the number of threads used to aggregate and serialise batches of
+     * elements when adding elements.
+     *
+     * @param ingestThreads the number of threads used to aggregate and serialise
+     *                      batches of elements
+     */
+    public void setIngestThreads(final String ingestThreads) {
+        set(INGEST_THREADS, ingestThreads);
+    }
+
     @Override
     public String getJsonSerialiserModules() {
         return new StringDeduplicateConcat().apply(
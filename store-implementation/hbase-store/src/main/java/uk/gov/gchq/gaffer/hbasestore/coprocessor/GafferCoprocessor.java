@@ -33,6 +33,7 @@ import uk.gov.gchq.gaffer.hbasestore.coprocessor.scanner.StoreScanner;
 import uk.gov.gchq.gaffer.hbasestore.serialisation.ElementSerialisation;
 import uk.gov.gchq.gaffer.hbasestore.utils.HBaseStoreConstants;
 import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.util.ParsedSchemaViewCache;
 
 import java.io.IOException;
 
@@ -43,7 +44,7 @@ public class GafferCoprocessor extends BaseRegionObserver {
     @Override
     public void start(final CoprocessorEnvironment e) throws IOException {
         final String schemaJson = StringUtil.unescapeComma(e.getConfiguration().get(HBaseStoreConstants.SCHEMA));
-        schema = Schema.fromJson(Bytes.toBytes(schemaJson));
+        schema = ParsedSchemaViewCache.getSchema(Bytes.toBytes(schemaJson));
         serialisation = new ElementSerialisation(schema);
     }
 
@@ -16,12 +16,16 @@
 
 package uk.gov.gchq.gaffer.hbasestore.operation.handler;
 
-import org.apache.hadoop.hbase.client.HTable;
+import org.apache.hadoop.hbase.client.BufferedMutator;
+import org.apache.hadoop.hbase.client.BufferedMutatorParams;
 import org.apache.hadoop.hbase.client.Put;
-import org.apache.hadoop.hbase.client.Table;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import uk.gov.gchq.gaffer.commonutil.pair.Pair;
 import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Properties;
+import uk.gov.gchq.gaffer.exception.SerialisationException;
 import uk.gov.gchq.gaffer.hbasestore.HBaseStore;
 import uk.gov.gchq.gaffer.hbasestore.serialisation.ElementSerialisation;
 import uk.gov.gchq.gaffer.operation.OperationException;
@@ -30,19 +34,47 @@ import uk.gov.gchq.gaffer.store.Context;
 import uk.gov.gchq.gaffer.store.Store;
 import uk.gov.gchq.gaffer.store.StoreException;
 import uk.gov.gchq.gaffer.store.operation.handler.OperationHandler;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.util.AggregatorUtil;
+import uk.gov.gchq.gaffer.store.util.ParallelBatchExecutor;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * HBase will skip 'puts' if there are multiple 'puts' with the same rowId and column qualifier.
- * To work around this issue, we need to aggregate elements within each batch before adding them to HBase.
+ * To work around this issue, elements within each batch are aggregated using the schema
+ * ingest aggregators before they are added to HBase.
  * Due to this, optimising the batch size could have a big impact on performance.
  * Configure the batch size using store property: hbase.writeBufferSize
+ * <p>
+ * Batches of elements are aggregated and serialised in parallel on background threads and
+ * the puts are written using a {@link BufferedMutator}, which groups them by region server
+ * and sends them asynchronously. The calling thread only reads the elements into batches.
+ * Configure the number of threads using store property: hbase.ingestThreads
+ * <p>
+ * Counts of the elements, puts and batches written, and the time spent serialising and
+ * writing them, are recorded across all operations to help tune the batch size and
+ * number of threads.
  */
 public class AddElementsHandler implements OperationHandler<AddElements> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AddElementsHandler.class);
+
+    private final LongAdder elementCount = new LongAdder();
+    private final LongAdder putCount = new LongAdder();
+    private final LongAdder batchCount = new LongAdder();
+    private final LongAdder serialisationTimeNanos = new LongAdder();
+    private final LongAdder writeTimeNanos = new LongAdder();
+    private final ParallelBatchExecutor batchExecutor = new ParallelBatchExecutor("hbase-add-elements-");
+
     @Override
     public Void doOperation(final AddElements operation,
                             final Context context, final Store store)
@@ -57,52 +89,139 @@ public class AddElementsHandler implements OperationHandler<AddElements> {
             return;
         }
 
+        final long startTime = System.currentTimeMillis();
+        final long initialElementCount = elementCount.sum();
+        final int threads = store.getProperties().getIngestThreads();
+        final BufferedMutator mutator;
+        try {
+            mutator = store.getConnection().getBufferedMutator(new BufferedMutatorParams(store.getTableName()));
+        } catch (final IOException | StoreException e) {
+            throw new OperationException("Failed to add elements", e);
+        }
+
         try {
-            final Table table = store.getTable();
-            final Iterator<? extends Element> elements = addElementsOperation.getInput().iterator();
             final ElementSerialisation serialisation = new ElementSerialisation(store.getSchema());
-            final int batchSize = store.getProperties().getWriteBufferSize();
-            List<Put> puts = new ArrayList<>(batchSize);
-            while (elements.hasNext()) {
-                for (int i = 0; i < batchSize && elements.hasNext(); i++) {
-                    final Element element = elements.next();
-                    if (null == element) {
-                        i--;
-                        continue;
-                    }
-                    try {
-                        final Pair<Put, Put> putPair = serialisation.getPuts(element);
-                        puts.add(putPair.getFirst());
-                        if (null != putPair.getSecond()) {
-                            i++;
-                            if (i >= batchSize) {
-                                executePuts(table, puts);
-                                puts = new ArrayList<>(batchSize);
-                                i = 0;
-                            }
-                            puts.add(putPair.getSecond());
-                        }
-                    } catch (final Exception e) {
-                        if (addElementsOperation.isValidate() && !addElementsOperation.isSkipInvalidElements()) {
-                            throw e;
-                        }
-                        // otherwise just ignore the error
+            batchExecutor.execute(addElementsOperation.getInput().iterator(), store.getProperties().getWriteBufferSize(), threads,
+                    batch -> writeBatch(batch, addElementsOperation, store.getSchema(), serialisation, mutator));
+
+            final long flushStartTime = System.nanoTime();
+            mutator.flush();
+            writeTimeNanos.add(System.nanoTime() - flushStartTime);
+        } catch (final IOException e) {
+            throw new OperationException("Failed to add elements", e);
+        } finally {
+            try {
+                mutator.close();
+            } catch (final IOException e) {
+                LOGGER.warn("Failed to close the BufferedMutator", e);
+            }
+        }
+
+        LOGGER.debug("Added {} elements in {} ms", elementCount.sum() - initialElementCount, System.currentTimeMillis() - startTime);
+    }
+
+    private void writeBatch(final List<Element> batch, final AddElements addElementsOperation, final Schema schema,
+                            final ElementSerialisation serialisation, final BufferedMutator mutator) throws IOException {
+        final long startTime = System.nanoTime();
+        final List<Put> puts = new ArrayList<>(batch.size());
+        for (final Element element : aggregate(batch, addElementsOperation, schema, serialisation)) {
+            try {
+                final Pair<Put, Put> putPair = serialisation.getPuts(element);
+                puts.add(putPair.getFirst());
+                if (null != putPair.getSecond()) {
+                    puts.add(putPair.getSecond());
+                }
+            } catch (final Exception e) {
+                if (addElementsOperation.isValidate() && !addElementsOperation.isSkipInvalidElements()) {
+                    throw e;
+                }
+                // otherwise just ignore the error
+            }
+        }
+        final long serialisedTime = System.nanoTime();
+        serialisationTimeNanos.add(serialisedTime - startTime);
+
+        if (!puts.isEmpty()) {
+            mutator.mutate(puts);
+        }
+        writeTimeNanos.add(System.nanoTime() - serialisedTime);
+        elementCount.add(batch.size());
+        putCount.add(puts.size());
+        batchCount.increment();
+    }
+
+    private List<Element> aggregate(final List<Element> batch, final AddElements addElementsOperation, final Schema schema,
+                                    final ElementSerialisation serialisation) {
+        if (!schema.isAggregationEnabled()) {
+            return batch;
+        }
+
+        final Set<String> aggregatedGroups = new HashSet<>(schema.getAggregatedGroups());
+        final AggregatorUtil.ToIngestElementKey toIngestElementKey = new AggregatorUtil.ToIngestElementKey(schema);
+        final Map<Element, Element> aggregatedElements = new LinkedHashMap<>();
+        final Set<Element> copiedElements = Collections.newSetFromMap(new IdentityHashMap<>());
+        final List<Element> elements = new ArrayList<>(batch.size());
+        for (final Element element : batch) {
+            if (!aggregatedGroups.contains(element.getGroup())) {
+                elements.add(element);
+                continue;
+            }
+
+            try {
+                final Element key = toIngestElementKey.apply(element);
+                Element state = aggregatedElements.get(key);
+                if (null == state) {
+                    aggregatedElements.put(key, element);
+                } else {
+                    // The input elements must not be modified, so aggregate into a copy
+                    if (!copiedElements.contains(state)) {
+                        state = copy(state, serialisation);
+                        copiedElements.add(state);
+                        aggregatedElements.put(key, state);
                     }
+                    schema.getElement(element.getGroup()).getIngestAggregator().apply(state, element);
+                }
+            } catch (final Exception e) {
+                if (addElementsOperation.isValidate() && !addElementsOperation.isSkipInvalidElements()) {
+                    throw new IllegalArgumentException("Failed to aggregate element: " + element, e);
                 }
-                executePuts(table, puts);
-                puts = new ArrayList<>(batchSize);
+                // otherwise add the element without aggregating it
+                elements.add(element);
             }
-        } catch (final IOException | StoreException e) {
-            throw new OperationException("Failed to add elements", e);
         }
+        elements.addAll(aggregatedElements.values());
+        return elements;
     }
 
-    private void executePuts(final Table table, final List<Put> puts) throws IOException {
-        if (!puts.isEmpty()) {
-            table.put(puts);
-            if (table instanceof HTable) {
-                ((HTable) table).flushCommits();
+    // The values of mutable properties, such as maps and sets, are copied via their serialised form
+    private Element copy(final Element element, final ElementSerialisation serialisation) throws SerialisationException {
+        final Element copy = element.shallowClone();
+        final Properties valueProperties = serialisation.getPropertiesFromValue(element.getGroup(), serialisation.getValue(element));
+        for (final Map.Entry<String, Object> entry : valueProperties.entrySet()) {
+            if (null != element.getProperty(entry.getKey())) {
+                copy.putProperty(entry.getKey(), entry.getValue());
             }
         }
+        return copy;
+    }
+
+    public long getElementCount() {
+        return elementCount.sum();
+    }
+
+    public long getPutCount() {
+        return putCount.sum();
+    }
+
+    public long getBatchCount() {
+        return batchCount.sum();
+    }
+
+    public long getSerialisationTimeNanos() {
+        return serialisationTimeNanos.sum();
+    }
+
+    public long getWriteTimeNanos() {
+        return writeTimeNanos.sum();
     }
 }
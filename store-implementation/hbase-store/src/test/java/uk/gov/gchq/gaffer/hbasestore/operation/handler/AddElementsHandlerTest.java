@@ -17,9 +17,10 @@
 package uk.gov.gchq.gaffer.hbasestore.operation.handler;
 
 import com.google.common.collect.Lists;
-import org.apache.hadoop.hbase.client.HTable;
+import org.apache.hadoop.hbase.client.BufferedMutator;
+import org.apache.hadoop.hbase.client.BufferedMutatorParams;
+import org.apache.hadoop.hbase.client.Connection;
 import org.apache.hadoop.hbase.client.Put;
-import org.apache.hadoop.hbase.client.Table;
 import org.hamcrest.core.IsCollectionContaining;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
@@ -53,6 +54,7 @@ import java.util.List;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -138,8 +140,7 @@ public class AddElementsHandlerTest {
         final Context context = mock(Context.class);
         final HBaseStore store = mock(HBaseStore.class);
 
-        final HTable table = mock(HTable.class);
-        given(store.getTable()).willReturn(table);
+        final BufferedMutator mutator = mockBufferedMutator(store);
 
         final HBaseProperties properties = HBaseProperties.loadStoreProperties(StreamUtil.storeProps(getClass()));
         final int writeBufferSize = 5;
@@ -153,8 +154,9 @@ public class AddElementsHandlerTest {
 
         // Then
         final ArgumentCaptor<List<Put>> putsCaptor = (ArgumentCaptor) ArgumentCaptor.forClass(List.class);
-        verify(table, times(2)).put(putsCaptor.capture());
-        verify(table, times(2)).flushCommits();
+        verify(mutator, times(2)).mutate(putsCaptor.capture());
+        verify(mutator).flush();
+        verify(mutator).close();
         final List<List<Put>> allPuts = putsCaptor.getAllValues();
         assertEquals(2, allPuts.size());
         final List<Put> combinedPuts = new ArrayList<>();
@@ -182,8 +184,7 @@ public class AddElementsHandlerTest {
         final Context context = mock(Context.class);
         final HBaseStore store = mock(HBaseStore.class);
 
-        final Table table = mock(Table.class);
-        given(store.getTable()).willReturn(table);
+        final BufferedMutator mutator = mockBufferedMutator(store);
 
         final HBaseProperties properties = HBaseProperties.loadStoreProperties(StreamUtil.storeProps(getClass()));
         given(store.getProperties()).willReturn(properties);
@@ -194,7 +195,7 @@ public class AddElementsHandlerTest {
         handler.doOperation(addElements, context, store);
 
         // Then
-        verify(table, never()).put(anyListOf(Put.class));
+        verify(mutator, never()).mutate(anyListOf(Put.class));
     }
 
     private List<Element> createElements() {
@@ -255,7 +256,7 @@ public class AddElementsHandlerTest {
     }
 
     @Test
-    public void shouldThrowNoExceptionsWhenValidateFlagSetToFalse() throws OperationException, StoreException {
+    public void shouldThrowNoExceptionsWhenValidateFlagSetToFalse() throws OperationException, StoreException, IOException {
         final AddElements addElements = new AddElements.Builder()
                 .input(new Edge("Unknown group", "source", "dest", true))
                 .validate(false)
@@ -265,8 +266,7 @@ public class AddElementsHandlerTest {
         final Context context = mock(Context.class);
         final HBaseStore store = mock(HBaseStore.class);
 
-        final Table table = mock(Table.class);
-        given(store.getTable()).willReturn(table);
+        mockBufferedMutator(store);
 
         final HBaseProperties properties = HBaseProperties.loadStoreProperties(StreamUtil.storeProps(getClass()));
         given(store.getProperties()).willReturn(properties);
@@ -276,4 +276,59 @@ public class AddElementsHandlerTest {
         // When / Then - no exceptions
         handler.doOperation(addElements, context, store);
     }
+
+    @Test
+    public void shouldAggregateElementsInEachBatchBeforeAddingThem() throws OperationException, StoreException, IOException {
+        // Given
+        final AddElementsHandler handler = new AddElementsHandler();
+        final Entity entity1 = new Entity.Builder()
+                .group(TestGroups.ENTITY)
+                .vertex("vertexI")
+                .property("prop1", "a")
+                .property("visibility", "public")
+                .property("count", 1)
+                .build();
+        final Entity entity2 = new Entity.Builder()
+                .group(TestGroups.ENTITY)
+                .vertex("vertexI")
+                .property("prop1", "a")
+                .property("visibility", "public")
+                .property("count", 2)
+                .build();
+        final AddElements addElements = new AddElements.Builder()
+                .input(entity1, entity2)
+                .build();
+        final Context context = mock(Context.class);
+        final HBaseStore store = mock(HBaseStore.class);
+
+        final BufferedMutator mutator = mockBufferedMutator(store);
+
+        final HBaseProperties properties = HBaseProperties.loadStoreProperties(StreamUtil.storeProps(getClass()));
+        given(store.getProperties()).willReturn(properties);
+
+        given(store.getSchema()).willReturn(SCHEMA_WITH_AGGREGATION);
+
+        // When
+        handler.doOperation(addElements, context, store);
+
+        // Then
+        final ArgumentCaptor<List<Put>> putsCaptor = (ArgumentCaptor) ArgumentCaptor.forClass(List.class);
+        verify(mutator).mutate(putsCaptor.capture());
+        final List<Element> elementsAdded = CellUtil.getElements(putsCaptor.getValue(), new ElementSerialisation(SCHEMA_WITH_AGGREGATION), false);
+        assertEquals(1, elementsAdded.size());
+        assertEquals(3, elementsAdded.get(0).getProperty("count"));
+        assertEquals(1, entity1.getProperty("count"));
+        assertEquals(2, entity2.getProperty("count"));
+        assertEquals(2, handler.getElementCount());
+        assertEquals(1, handler.getPutCount());
+        assertEquals(1, handler.getBatchCount());
+    }
+
+    private BufferedMutator mockBufferedMutator(final HBaseStore store) throws StoreException, IOException {
+        final Connection connection = mock(Connection.class);
+        final BufferedMutator mutator = mock(BufferedMutator.class);
+        given(store.getConnection()).willReturn(connection);
+        given(connection.getBufferedMutator(any(BufferedMutatorParams.class))).willReturn(mutator);
+        return mutator;
+    }
 }
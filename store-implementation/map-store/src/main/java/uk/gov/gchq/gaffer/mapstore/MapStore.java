@@ -28,7 +28,10 @@ import uk.gov.gchq.gaffer.mapstore.impl.GetAdjacentIdsHandler;
 import uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandler;
 import uk.gov.gchq.gaffer.mapstore.impl.GetElementsHandler;
 import uk.gov.gchq.gaffer.mapstore.impl.MapImpl;
+import uk.gov.gchq.gaffer.mapstore.impl.MapSnapshot;
+import uk.gov.gchq.gaffer.mapstore.impl.WriteMapSnapshotHandler;
 import uk.gov.gchq.gaffer.mapstore.operation.CountAllElementsDefaultView;
+import uk.gov.gchq.gaffer.mapstore.operation.WriteMapSnapshot;
 import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
 import uk.gov.gchq.gaffer.operation.impl.get.GetAdjacentIds;
 import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
@@ -44,6 +47,8 @@ import uk.gov.gchq.gaffer.store.operation.handler.OutputOperationHandler;
 import uk.gov.gchq.gaffer.store.operation.handler.job.GetAllJobDetailsHandler;
 import uk.gov.gchq.gaffer.store.schema.Schema;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
@@ -60,6 +65,10 @@ import java.util.Set;
  * Indices can optionally be maintained to allow quick look-up of {@link Element}s based on {@link EntityId}s
  * or {@link uk.gov.gchq.gaffer.data.element.id.EdgeId}s.
  * </p>
+ * <p>
+ * If a snapshot directory is set, the elements can be written to a local snapshot
+ * using the {@link WriteMapSnapshot} operation, which is restored when the store is initialised.
+ * </p>
  */
 public class MapStore extends Store {
     public static final Set<StoreTrait> TRAITS = new HashSet<>(Arrays.asList(
@@ -84,6 +93,10 @@ public class MapStore extends Store {
 
         // Initialise maps
         mapImpl = createMapImpl();
+
+        if (null != getProperties().getSnapshotDir() && null == mapImpl.getSnapshot()) {
+            restoreSnapshot();
+        }
     }
 
     public MapImpl getMapImpl() {
@@ -119,9 +132,20 @@ public class MapStore extends Store {
         return new MapImpl(getSchema(), getProperties());
     }
 
+    protected void restoreSnapshot() throws StoreException {
+        final String snapshotDir = getProperties().getSnapshotDir();
+        try {
+            new MapSnapshot(getSchema(), Paths.get(snapshotDir), getGraphId(), getProperties().isSnapshotChangeLog())
+                    .restore(mapImpl);
+        } catch (final IOException | IllegalArgumentException e) {
+            throw new StoreException("Unable to restore the map snapshot from " + snapshotDir, e);
+        }
+    }
+
     @Override
     protected void addAdditionalOperationHandlers() {
         addOperationHandler(CountAllElementsDefaultView.class, new CountAllElementsDefaultViewHandler());
+        addOperationHandler(WriteMapSnapshot.class, new WriteMapSnapshotHandler());
         addOperationHandler(GetAllJobDetails.class, new GetAllJobDetailsHandler());
     }
 
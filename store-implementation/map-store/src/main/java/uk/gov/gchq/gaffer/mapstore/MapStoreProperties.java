@@ -47,6 +47,55 @@ public class MapStoreProperties extends StoreProperties {
     public static final String INGEST_BUFFER_SIZE = "gaffer.store.mapstore.map.ingest.buffer.size";
     public static final int INGEST_BUFFER_SIZE_DEFAULT = 0;
 
+    /**
+     * Property name for enabling the concurrent mode, which allows elements to
+     * be added and retrieved from multiple threads at the same time.
+     */
+    public static final String CONCURRENT = "gaffer.store.mapstore.concurrent";
+    public static final String CONCURRENT_DEFAULT = "false";
+
+    /**
+     * Property name for the number of threads used to add batches of elements
+     * in the concurrent mode. Batches are only used if the ingest buffer size
+     * is set.
+     */
+    public static final String INGEST_THREADS = "gaffer.store.mapstore.map.ingest.threads";
+    public static final int INGEST_THREADS_DEFAULT = 1;
+
+    /**
+     * Property name for enabling the compact index. Instead of indexing each
+     * element against new seed objects, the vertices are encoded as ints and
+     * the elements are referenced by int from per-vertex adjacency arrays.
+     * The index is only used if createIndex is true.
+     */
+    public static final String COMPACT_INDEX = "gaffer.store.mapstore.compactIndex";
+    public static final String COMPACT_INDEX_DEFAULT = "false";
+
+    /**
+     * Property name for enabling compact properties. The properties of the
+     * stored elements are held in arrays, using a slot layout created for each
+     * group from the schema, rather than in hash maps.
+     */
+    public static final String COMPACT_PROPERTIES = "gaffer.store.mapstore.compactProperties";
+    public static final String COMPACT_PROPERTIES_DEFAULT = "false";
+
+    /**
+     * Property name for the local directory the map snapshots are written to
+     * by the {@link uk.gov.gchq.gaffer.mapstore.operation.WriteMapSnapshot}
+     * operation. If a snapshot exists in this directory it is restored when
+     * the store is initialised.
+     */
+    public static final String SNAPSHOT_DIR = "gaffer.store.mapstore.snapshot.dir";
+    public static final String SNAPSHOT_DIR_DEFAULT = null;
+
+    /**
+     * Property name for enabling the change log. If enabled, elements added
+     * after the latest snapshot are appended to a log in the snapshot
+     * directory and replayed when the store is initialised.
+     */
+    public static final String SNAPSHOT_CHANGE_LOG = "gaffer.store.mapstore.snapshot.changeLog";
+    public static final String SNAPSHOT_CHANGE_LOG_DEFAULT = "false";
+
     public MapStoreProperties() {
         super(MapStore.class);
     }
@@ -80,6 +129,22 @@ public class MapStoreProperties extends StoreProperties {
         return Boolean.parseBoolean(get(CREATE_INDEX, CREATE_INDEX_DEFAULT));
     }
 
+    public void setCompactIndex(final boolean compactIndex) {
+        set(COMPACT_INDEX, Boolean.toString(compactIndex));
+    }
+
+    public boolean isCompactIndex() {
+        return Boolean.parseBoolean(get(COMPACT_INDEX, COMPACT_INDEX_DEFAULT));
+    }
+
+    public void setCompactProperties(final boolean compactProperties) {
+        set(COMPACT_PROPERTIES, Boolean.toString(compactProperties));
+    }
+
+    public boolean isCompactProperties() {
+        return Boolean.parseBoolean(get(COMPACT_PROPERTIES, COMPACT_PROPERTIES_DEFAULT));
+    }
+
     public String getMapFactory() {
         return get(MAP_FACTORY, MAP_FACTORY_DEFAULT.getName());
     }
@@ -113,6 +178,43 @@ public class MapStoreProperties extends StoreProperties {
         set(INGEST_BUFFER_SIZE, String.valueOf(ingestBufferSize));
     }
 
+    public boolean isConcurrent() {
+        return Boolean.parseBoolean(get(CONCURRENT, CONCURRENT_DEFAULT));
+    }
+
+    public void setConcurrent(final boolean concurrent) {
+        set(CONCURRENT, Boolean.toString(concurrent));
+    }
+
+    public int getIngestThreads() {
+        final String threads = get(INGEST_THREADS, null);
+        if (null == threads) {
+            return INGEST_THREADS_DEFAULT;
+        }
+
+        return Integer.parseInt(threads);
+    }
+
+    public void setIngestThreads(final int ingestThreads) {
+        set(INGEST_THREADS, String.valueOf(ingestThreads));
+    }
+
+    public String getSnapshotDir() {
+        return get(SNAPSHOT_DIR, SNAPSHOT_DIR_DEFAULT);
+    }
+
+    public void setSnapshotDir(final String snapshotDir) {
+        set(SNAPSHOT_DIR, snapshotDir);
+    }
+
+    public boolean isSnapshotChangeLog() {
+        return Boolean.parseBoolean(get(SNAPSHOT_CHANGE_LOG, SNAPSHOT_CHANGE_LOG_DEFAULT));
+    }
+
+    public void setSnapshotChangeLog(final boolean snapshotChangeLog) {
+        set(SNAPSHOT_CHANGE_LOG, Boolean.toString(snapshotChangeLog));
+    }
+
     public boolean isStaticMap() {
         return Boolean.parseBoolean(get(STATIC_MAP, STATIC_MAP_DEFAULT));
     }
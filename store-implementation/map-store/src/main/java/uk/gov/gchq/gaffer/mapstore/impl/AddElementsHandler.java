@@ -18,16 +18,10 @@ package uk.gov.gchq.gaffer.mapstore.impl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import uk.gov.gchq.gaffer.data.element.Edge;
 import uk.gov.gchq.gaffer.data.element.Element;
-import uk.gov.gchq.gaffer.data.element.Entity;
 import uk.gov.gchq.gaffer.data.element.GroupedProperties;
-import uk.gov.gchq.gaffer.data.element.id.EdgeId;
-import uk.gov.gchq.gaffer.data.element.id.EntityId;
 import uk.gov.gchq.gaffer.mapstore.MapStore;
 import uk.gov.gchq.gaffer.operation.OperationException;
-import uk.gov.gchq.gaffer.operation.data.EdgeSeed;
-import uk.gov.gchq.gaffer.operation.data.EntitySeed;
 import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
 import uk.gov.gchq.gaffer.store.Context;
 import uk.gov.gchq.gaffer.store.Store;
@@ -36,16 +30,28 @@ import uk.gov.gchq.gaffer.store.operation.handler.OperationHandler;
 import uk.gov.gchq.gaffer.store.schema.Schema;
 import uk.gov.gchq.gaffer.store.schema.SchemaElementDefinition;
 import uk.gov.gchq.gaffer.store.util.AggregatorUtil;
+import uk.gov.gchq.gaffer.store.util.ParallelBatchExecutor;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.Lock;
 
 /**
  * An {@link OperationHandler} for the {@link AddElements} operation on the {@link MapStore}.
+ * <p>
+ * In the concurrent mode, if an ingest buffer size is set, the batches of
+ * elements are aggregated and added in parallel using the number of threads
+ * set in the store property: gaffer.store.mapstore.map.ingest.threads
+ * <p>
+ * If the {@link MapSnapshot} change log is enabled, the added elements are
+ * appended to the change log, which is flushed at the end of the operation.
  */
 public class AddElementsHandler implements OperationHandler<AddElements> {
     private static final Logger LOGGER = LoggerFactory.getLogger(AddElementsHandler.class);
 
+    private final ParallelBatchExecutor batchExecutor = new ParallelBatchExecutor("map-store-add-elements-");
+
     @Override
     public Void doOperation(final AddElements addElements, final Context context, final Store store) throws OperationException {
         Iterable<? extends Element> elements = addElements.getInput();
@@ -53,17 +59,46 @@ public class AddElementsHandler implements OperationHandler<AddElements> {
             elements = new ValidatedElements(elements, store.getSchema(), addElements.isSkipInvalidElements());
         }
 
-        addElements(elements, (MapStore) store);
+        final MapStore mapStore = (MapStore) store;
+        addElements(elements, mapStore);
+
+        final MapSnapshot mapSnapshot = mapStore.getMapImpl().getSnapshot();
+        if (null != mapSnapshot) {
+            try {
+                mapSnapshot.flushChangeLog();
+            } catch (final IOException e) {
+                throw new OperationException("Unable to flush the change log", e);
+            }
+        }
         return null;
     }
 
-    private void addElements(final Iterable<? extends Element> elements, final MapStore mapStore) {
+    /**
+     * Adds the elements directly to the maps, without batching. This is used
+     * to replay the change log before the snapshot is attached to the maps.
+     *
+     * @param elements the elements to add
+     * @param mapImpl  the maps to add the elements to
+     * @param schema   the schema
+     */
+    static void replayElements(final Iterable<? extends Element> elements, final MapImpl mapImpl, final Schema schema) {
+        for (final Element element : elements) {
+            if (null != element) {
+                addElementAndIndex(element, schema, mapImpl);
+            }
+        }
+    }
+
+    private void addElements(final Iterable<? extends Element> elements, final MapStore mapStore) throws OperationException {
         final MapImpl mapImpl = mapStore.getMapImpl();
         final Schema schema = mapStore.getSchema();
 
         final int bufferSize = mapStore.getProperties().getIngestBufferSize();
+        final int threads = mapStore.getProperties().getIngestThreads();
 
-        if (bufferSize < 1) {
+        if (bufferSize > 0 && threads > 1 && mapImpl.isConcurrent()) {
+            addBatchesInParallel(elements, mapImpl, schema, bufferSize, threads);
+        } else if (bufferSize < 1) {
             // Add all elements directly
             addBatch(mapImpl, schema, elements);
         } else {
@@ -88,20 +123,45 @@ public class AddElementsHandler implements OperationHandler<AddElements> {
         }
     }
 
+    private void addBatchesInParallel(final Iterable<? extends Element> elements, final MapImpl mapImpl, final Schema schema,
+                                      final int bufferSize, final int threads) throws OperationException {
+        LOGGER.info("Adding elements in batches using {} threads, batch size = {}", threads, bufferSize);
+        batchExecutor.execute(elements.iterator(), bufferSize, threads,
+                batch -> addBatch(mapImpl, schema, AggregatorUtil.ingestAggregate(batch, schema)));
+    }
+
     private void addBatch(final MapImpl mapImpl, final Schema schema, final Iterable<? extends Element> elements) {
+        final Lock ingestLock = mapImpl.getIngestLock();
         for (final Element element : elements) {
             if (null != element) {
-                final Element elementForIndexing = addElement(element, schema, mapImpl);
-
-                // Update entityIdToElements and edgeIdToElements if index required
-                if (mapImpl.isMaintainIndex()) {
-                    updateElementIndex(elementForIndexing, mapImpl);
+                if (null == ingestLock) {
+                    addElementAndIndex(element, schema, mapImpl);
+                } else {
+                    ingestLock.lock();
+                    try {
+                        addElementAndIndex(element, schema, mapImpl);
+                    } finally {
+                        ingestLock.unlock();
+                    }
                 }
             }
         }
     }
 
-    private Element addElement(final Element element, final Schema schema, final MapImpl mapImpl) {
+    private static void addElementAndIndex(final Element element, final Schema schema, final MapImpl mapImpl) {
+        final Element elementForIndexing = addElement(element, schema, mapImpl);
+
+        // Update entityIdToElements and edgeIdToElements if index required
+        if (mapImpl.isMaintainIndex()) {
+            mapImpl.addToIndex(elementForIndexing);
+        }
+
+        if (null != mapImpl.getSnapshot()) {
+            mapImpl.getSnapshot().appendToChangeLog(element);
+        }
+    }
+
+    private static Element addElement(final Element element, final Schema schema, final MapImpl mapImpl) {
         final Element elementForIndexing;
         if (!mapImpl.isAggregationEnabled(element)) {
             elementForIndexing = addNonAggElement(element, schema, mapImpl);
@@ -111,9 +171,9 @@ public class AddElementsHandler implements OperationHandler<AddElements> {
         return elementForIndexing;
     }
 
-    private Element addAggElement(final Element element, final MapImpl mapImpl) {
+    private static Element addAggElement(final Element element, final MapImpl mapImpl) {
         final String group = element.getGroup();
-        final Element elementWithGroupByProperties = element.emptyClone();
+        final Element elementWithGroupByProperties = mapImpl.emptyClone(element);
         final GroupedProperties properties = new GroupedProperties(element.getGroup());
         if (null != mapImpl.getGroupByProperties(group)) {
             for (final String propertyName : mapImpl.getGroupByProperties(group)) {
@@ -130,8 +190,8 @@ public class AddElementsHandler implements OperationHandler<AddElements> {
         return elementWithGroupByProperties;
     }
 
-    private Element addNonAggElement(final Element element, final Schema schema, final MapImpl mapImpl) {
-        final Element elementClone = element.emptyClone();
+    private static Element addNonAggElement(final Element element, final Schema schema, final MapImpl mapImpl) {
+        final Element elementClone = mapImpl.emptyClone(element);
 
         // Copy properties that exist in the schema
         final SchemaElementDefinition elementDef = schema.getElement(element.getGroup());
@@ -142,24 +202,4 @@ public class AddElementsHandler implements OperationHandler<AddElements> {
         mapImpl.addNonAggElement(elementClone);
         return elementClone;
     }
-
-    private void updateElementIndex(final Element element, final MapImpl mapImpl) {
-        if (element instanceof Entity) {
-            final Entity entity = (Entity) element;
-            final EntityId entityId = new EntitySeed(entity.getVertex());
-            mapImpl.addIndex(entityId, element);
-        } else {
-            final Edge edge = (Edge) element;
-            edge.setIdentifiers(edge.getSource(), edge.getDestination(), edge.isDirected(), EdgeId.MatchedVertex.SOURCE);
-            final EntityId sourceEntityId = new EntitySeed(edge.getSource());
-            mapImpl.addIndex(sourceEntityId, edge);
-
-            final Edge destMatchedEdge = new Edge(edge.getGroup(), edge.getSource(), edge.getDestination(), edge.isDirected(), EdgeId.MatchedVertex.DESTINATION, edge.getProperties());
-            final EntityId destinationEntityId = new EntitySeed(edge.getDestination());
-            mapImpl.addIndex(destinationEntityId, destMatchedEdge);
-
-            final EdgeId edgeId = new EdgeSeed(edge.getSource(), edge.getDestination(), edge.isDirected());
-            mapImpl.addIndex(edgeId, edge);
-        }
-    }
 }
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.mapstore.impl;
+
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.id.DirectedType;
+import uk.gov.gchq.gaffer.data.element.id.EdgeId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact alternative to the entityIdToElements and edgeIdToElements
+ * indexes in the {@link MapImpl}.
+ * <p>
+ * Each vertex is encoded as an int id using a dictionary and each indexed
+ * element is stored once in an array of element slots. For each vertex id
+ * there are adjacency arrays holding the slots of its entities, the edges it
+ * is the source of and the edges it is the destination of. Each adjacency
+ * array holds its size in the first position, followed by the slots.
+ * <p>
+ * Edges are only stored with the source as the matched vertex. The copies
+ * matched on the destination are created when the index is read, rather than
+ * being held in memory for the lifetime of the store. Edge ids are looked up
+ * by scanning the outgoing edges of the source vertex.
+ * <p>
+ * All methods are synchronized, so the index can be used in the concurrent
+ * mode. Lookups return a new list, so the results can be iterated whilst
+ * further elements are added.
+ */
+final class CompactIndex {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int INITIAL_ADJACENCY_CAPACITY = 4;
+
+    private final Map<Object, Integer> vertexIds = new HashMap<>();
+    private final Map<Element, Integer> slotIds = new HashMap<>();
+    private Element[] slots;
+    private int[][] entitySlots;
+    private int[][] outEdgeSlots;
+    private int[][] inEdgeSlots;
+    private int slotCount;
+    private int vertexCount;
+
+    CompactIndex() {
+        clear();
+    }
+
+    synchronized void add(final Element element) {
+        if (slotIds.containsKey(element)) {
+            return;
+        }
+
+        final int slot = addSlot(element);
+        if (element instanceof Entity) {
+            final int vertexId = encode(((Entity) element).getVertex());
+            entitySlots[vertexId] = append(entitySlots[vertexId], slot);
+        } else {
+            final Edge edge = (Edge) element;
+            final int sourceId = encode(edge.getSource());
+            outEdgeSlots[sourceId] = append(outEdgeSlots[sourceId], slot);
+            final int destinationId = encode(edge.getDestination());
+            inEdgeSlots[destinationId] = append(inEdgeSlots[destinationId], slot);
+        }
+    }
+
+    synchronized List<Element> lookup(final Object vertex) {
+        final Integer vertexId = vertexIds.get(vertex);
+        if (null == vertexId) {
+            return Collections.emptyList();
+        }
+
+        final int[] entities = entitySlots[vertexId];
+        final int[] outEdges = outEdgeSlots[vertexId];
+        final int[] inEdges = inEdgeSlots[vertexId];
+        final List<Element> results = new ArrayList<>(size(entities) + size(outEdges) + size(inEdges));
+        for (int i = 1; i <= size(entities); i++) {
+            results.add(slots[entities[i]]);
+        }
+        for (int i = 1; i <= size(outEdges); i++) {
+            results.add(slots[outEdges[i]]);
+        }
+        for (int i = 1; i <= size(inEdges); i++) {
+            final Edge edge = (Edge) slots[inEdges[i]];
+            // Self loops have already been added, matched on the source
+            if (!edge.getSource().equals(edge.getDestination())) {
+                results.add(new Edge(edge.getGroup(), edge.getSource(), edge.getDestination(), edge.isDirected(), EdgeId.MatchedVertex.DESTINATION, edge.getProperties()));
+            }
+        }
+        return results;
+    }
+
+    synchronized List<Element> lookup(final EdgeId edgeId) {
+        final Integer sourceId = vertexIds.get(edgeId.getSource());
+        if (null == sourceId) {
+            return Collections.emptyList();
+        }
+
+        final int[] outEdges = outEdgeSlots[sourceId];
+        final DirectedType directedType = edgeId.getDirectedType();
+        final List<Element> results = new ArrayList<>();
+        for (int i = 1; i <= size(outEdges); i++) {
+            final Edge edge = (Edge) slots[outEdges[i]];
+            if (edge.getDestination().equals(edgeId.getDestination())
+                    && (DirectedType.isEither(directedType) || edge.isDirected() == DirectedType.isDirected(directedType))) {
+                results.add(edge);
+            }
+        }
+        return results;
+    }
+
+    synchronized int getVertexCount() {
+        return vertexCount;
+    }
+
+    synchronized int getElementCount() {
+        return slotCount;
+    }
+
+    synchronized void clear() {
+        vertexIds.clear();
+        slotIds.clear();
+        slots = new Element[INITIAL_CAPACITY];
+        entitySlots = new int[INITIAL_CAPACITY][];
+        outEdgeSlots = new int[INITIAL_CAPACITY][];
+        inEdgeSlots = new int[INITIAL_CAPACITY][];
+        slotCount = 0;
+        vertexCount = 0;
+    }
+
+    private int addSlot(final Element element) {
+        if (slotCount == slots.length) {
+            slots = Arrays.copyOf(slots, grow(slots.length));
+        }
+        final int slot = slotCount++;
+        slots[slot] = element;
+        slotIds.put(element, slot);
+        return slot;
+    }
+
+    private int encode(final Object vertex) {
+        final Integer existingId = vertexIds.get(vertex);
+        if (null != existingId) {
+            return existingId;
+        }
+
+        if (vertexCount == entitySlots.length) {
+            final int capacity = grow(vertexCount);
+            entitySlots = Arrays.copyOf(entitySlots, capacity);
+            outEdgeSlots = Arrays.copyOf(outEdgeSlots, capacity);
+            inEdgeSlots = Arrays.copyOf(inEdgeSlots, capacity);
+        }
+        final int vertexId = vertexCount++;
+        vertexIds.put(vertex, vertexId);
+        return vertexId;
+    }
+
+    private static int[] append(final int[] adjacency, final int slot) {
+        int[] result = adjacency;
+        if (null == result) {
+            result = new int[INITIAL_ADJACENCY_CAPACITY];
+        } else if (result[0] + 1 == result.length) {
+            result = Arrays.copyOf(result, grow(result.length));
+        }
+        result[0]++;
+        result[result[0]] = slot;
+        return result;
+    }
+
+    private static int size(final int[] adjacency) {
+        return null == adjacency ? 0 : adjacency[0];
+    }
+
+    private static int grow(final int capacity) {
+        return capacity + (capacity >> 1) + 1;
+    }
+}
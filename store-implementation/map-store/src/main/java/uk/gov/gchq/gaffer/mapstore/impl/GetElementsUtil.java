@@ -28,7 +28,6 @@ import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
 import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewElementDefinition;
 import uk.gov.gchq.gaffer.operation.SeedMatching.SeedMatchingType;
 import uk.gov.gchq.gaffer.operation.data.EdgeSeed;
-import uk.gov.gchq.gaffer.operation.data.EntitySeed;
 import uk.gov.gchq.gaffer.operation.graph.SeededGraphFilters.IncludeIncomingOutgoingType;
 import uk.gov.gchq.gaffer.store.schema.Schema;
 
@@ -61,7 +60,7 @@ public final class GetElementsUtil {
         Predicate<Element> isFiltered = e -> !groups.contains(e.getGroup());
 
         if (elementId instanceof EntityId) {
-            final Collection<Element> elements = mapImpl.lookup(new EntitySeed(((EntityId) elementId).getVertex()));
+            final Collection<Element> elements = mapImpl.lookupVertex(((EntityId) elementId).getVertex());
             if (elements.isEmpty()) {
                 return Collections.emptySet();
             }
@@ -93,11 +92,11 @@ public final class GetElementsUtil {
                 relevantElements.addAll(mapImpl.lookup(edgeId));
             }
 
-            mapImpl.lookup(new EntitySeed(edgeId.getSource()))
+            mapImpl.lookupVertex(edgeId.getSource())
                     .stream()
                     .filter(e -> e instanceof Entity)
                     .forEach(relevantElements::add);
-            mapImpl.lookup(new EntitySeed(edgeId.getDestination()))
+            mapImpl.lookupVertex(edgeId.getDestination())
                     .stream()
                     .filter(e -> e instanceof Entity)
                     .forEach(relevantElements::add);
@@ -17,14 +17,20 @@ package uk.gov.gchq.gaffer.mapstore.impl;
 
 import uk.gov.gchq.gaffer.commonutil.iterable.RepeatItemIterable;
 import uk.gov.gchq.gaffer.commonutil.stream.Streams;
+import uk.gov.gchq.gaffer.data.element.CompactProperties;
+import uk.gov.gchq.gaffer.data.element.Edge;
 import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
 import uk.gov.gchq.gaffer.data.element.GroupedProperties;
+import uk.gov.gchq.gaffer.data.element.PropertiesLayout;
 import uk.gov.gchq.gaffer.data.element.id.EdgeId;
 import uk.gov.gchq.gaffer.data.element.id.EntityId;
 import uk.gov.gchq.gaffer.mapstore.MapStoreProperties;
 import uk.gov.gchq.gaffer.mapstore.factory.MapFactory;
 import uk.gov.gchq.gaffer.mapstore.factory.SimpleMapFactory;
 import uk.gov.gchq.gaffer.mapstore.multimap.MultiMap;
+import uk.gov.gchq.gaffer.operation.data.EdgeSeed;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
 import uk.gov.gchq.gaffer.store.schema.Schema;
 import uk.gov.gchq.gaffer.store.schema.SchemaElementDefinition;
 import uk.gov.gchq.gaffer.store.util.AggregatorUtil;
@@ -36,6 +42,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Stream;
 
 /**
@@ -53,6 +62,20 @@ import java.util.stream.Stream;
  * handlers for the {@link uk.gov.gchq.gaffer.mapstore.MapStore} to be placed in the
  * same package and get access to the maps, without exposing the internal state of
  * the MapStore to classes outside of this package.
+ * <p>
+ * In the concurrent mode the maps are created as concurrent maps, aggregated
+ * properties are merged into a copy so readers never see partially aggregated
+ * properties. {@link #getAllElements(Set)} iterates over the maps without
+ * locking, so it does not block ingest; the iteration is weakly consistent and
+ * may or may not include elements that are added whilst it is in progress.
+ * <p>
+ * If the compact index is enabled, the elements are indexed using a
+ * {@link CompactIndex} instead of the entityIdToElements and edgeIdToElements
+ * multimaps. The compact index is always held on the heap, regardless of the
+ * {@link MapFactory}.
+ * <p>
+ * The maps can be written to and restored from local files using a
+ * {@link MapSnapshot}.
  */
 public class MapImpl {
     public static final String AGG_ELEMENTS = "aggElements";
@@ -82,30 +105,54 @@ public class MapImpl {
      */
     private final MultiMap<EdgeId, Element> edgeIdToElements;
 
+    /**
+     * compactIndex replaces entityIdToElements and edgeIdToElements if the compact index is enabled
+     */
+    private final CompactIndex compactIndex;
+
     private final MapFactory mapFactory;
     private final Map<String, Set<String>> groupToGroupByProperties = new HashMap<>();
     private final Map<String, Set<String>> groupToNonGroupByProperties = new HashMap<>();
+    private final Map<String, PropertiesLayout> groupToPropertiesLayout = new HashMap<>();
     private final Set<String> groupsWithNoAggregation = new HashSet<>();
     private final List<String> aggregatedGroups;
     private final Schema schema;
     private final boolean maintainIndex;
     private final AggregatorUtil.IngestPropertiesBinaryOperator propertyAggregator;
+    private final boolean concurrent;
+    private final boolean compactProperties;
+
+    /**
+     * Elements are added whilst holding the read lock, so many threads can add
+     * elements at once. The write lock is held whilst writing a {@link MapSnapshot}.
+     */
+    private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+
+    private MapSnapshot mapSnapshot;
 
     public MapImpl(final Schema schema, final MapStoreProperties mapStoreProperties) {
         this.schema = schema;
         propertyAggregator = new AggregatorUtil.IngestPropertiesBinaryOperator(schema);
         mapFactory = createMapFactory(schema, mapStoreProperties);
         maintainIndex = mapStoreProperties.getCreateIndex();
+        concurrent = mapStoreProperties.isConcurrent();
+        compactProperties = mapStoreProperties.isCompactProperties();
 
         for (final String group : schema.getGroups()) {
             aggElements.put(group, mapFactory.getMap(group + "|" + AGG_ELEMENTS, Element.class, GroupedProperties.class));
             nonAggElements.put(group, mapFactory.getMap(group + "|" + NON_AGG_ELEMENTS, Element.class, Long.class));
         }
 
-        if (maintainIndex) {
+        if (maintainIndex && mapStoreProperties.isCompactIndex()) {
+            compactIndex = new CompactIndex();
+            entityIdToElements = null;
+            edgeIdToElements = null;
+        } else if (maintainIndex) {
+            compactIndex = null;
             entityIdToElements = mapFactory.getMultiMap(ENTITY_ID_TO_ELEMENTS, EntityId.class, Element.class);
             edgeIdToElements = mapFactory.getMultiMap(EDGE_ID_TO_ELEMENTS, EdgeId.class, Element.class);
         } else {
+            compactIndex = null;
             entityIdToElements = null;
             edgeIdToElements = null;
         }
@@ -118,7 +165,9 @@ public class MapImpl {
     public void clear() {
         aggElements.clear();
         nonAggElements.clear();
-        if (maintainIndex) {
+        if (null != compactIndex) {
+            compactIndex.clear();
+        } else if (maintainIndex) {
             entityIdToElements.clear();
             edgeIdToElements.clear();
         }
@@ -130,12 +179,21 @@ public class MapImpl {
 
     void addAggElement(final Element elementWithGroupByProperties, final GroupedProperties properties) {
         if (null != aggElements.get(elementWithGroupByProperties.getGroup())) {
-            aggElements.get(elementWithGroupByProperties.getGroup())
-                    .merge(elementWithGroupByProperties, properties, propertyAggregator);
+            if (concurrent) {
+                aggElements.get(elementWithGroupByProperties.getGroup())
+                        .merge(elementWithGroupByProperties, properties, (a, b) -> propertyAggregator.apply(copy(a), b));
+            } else {
+                aggElements.get(elementWithGroupByProperties.getGroup())
+                        .merge(elementWithGroupByProperties, properties, propertyAggregator);
+            }
         }
     }
 
     Collection<Element> lookup(final EntityId entitId) {
+        if (null != compactIndex) {
+            return compactIndex.lookup(entitId.getVertex());
+        }
+
         Collection<Element> results = entityIdToElements.get(entitId);
         if (null == results) {
             results = Collections.emptySet();
@@ -144,7 +202,19 @@ public class MapImpl {
         return results;
     }
 
+    Collection<Element> lookupVertex(final Object vertex) {
+        if (null != compactIndex) {
+            return compactIndex.lookup(vertex);
+        }
+
+        return lookup(new EntitySeed(vertex));
+    }
+
     Collection<Element> lookup(final EdgeId edgeId) {
+        if (null != compactIndex) {
+            return compactIndex.lookup(edgeId);
+        }
+
         Collection<Element> results = edgeIdToElements.get(edgeId);
         if (null == results) {
             results = Collections.emptySet();
@@ -177,31 +247,97 @@ public class MapImpl {
     }
 
     Stream<Element> getAllAggElements(final Set<String> groups) {
-        return aggElements.entrySet().stream()
-                .filter(entry -> groups.contains(entry.getKey()))
-                .map(Map.Entry::getValue)
-                .flatMap(map -> map.entrySet().stream())
-                .map(x -> {
-                    final Element element = x.getKey().emptyClone();
-                    element.copyProperties(x.getKey().getProperties());
-                    element.copyProperties(x.getValue());
-                    return cloneElement(element, schema);
-                });
+        return toAggElements(getEntries(aggElements, groups));
     }
 
     Stream<Element> getAllNonAggElements(final Set<String> groups) {
-        return nonAggElements.entrySet().stream()
-                .filter(entry -> groups.contains(entry.getKey()))
-                .map(Map.Entry::getValue)
-                .flatMap(map -> map.entrySet().stream())
-                .map(x -> new RepeatItemIterable<>(cloneElement(x.getKey(), schema), x.getValue()))
-                .flatMap(Streams::toStream);
+        return toNonAggElements(getEntries(nonAggElements, groups));
     }
 
     Stream<Element> getAllElements(final Set<String> groups) {
         return Stream.concat(getAllAggElements(groups), getAllNonAggElements(groups));
     }
 
+    /**
+     * Get the lock that must be held whilst adding an element and its indexes.
+     *
+     * @return the lock to hold whilst adding elements, or null if the concurrent
+     * mode is not enabled
+     */
+    Lock getIngestLock() {
+        return concurrent ? snapshotLock.readLock() : null;
+    }
+
+    /**
+     * Get the lock that must be held whilst writing a {@link MapSnapshot}, so
+     * that no elements are added whilst the snapshot is written.
+     *
+     * @return the lock to hold whilst writing a snapshot, or null if the
+     * concurrent mode is not enabled
+     */
+    Lock getSnapshotWriteLock() {
+        return concurrent ? snapshotLock.writeLock() : null;
+    }
+
+    public MapSnapshot getSnapshot() {
+        return mapSnapshot;
+    }
+
+    void setSnapshot(final MapSnapshot mapSnapshot) {
+        this.mapSnapshot = mapSnapshot;
+    }
+
+    Stream<Map.Entry<Element, GroupedProperties>> getAllAggEntries() {
+        return getEntries(aggElements, schema.getGroups());
+    }
+
+    Stream<Map.Entry<Element, Long>> getAllNonAggEntries() {
+        return getEntries(nonAggElements, schema.getGroups());
+    }
+
+    void restoreAggElement(final Element elementWithGroupByProperties, final GroupedProperties properties) {
+        aggElements.get(elementWithGroupByProperties.getGroup()).put(elementWithGroupByProperties, properties);
+        if (maintainIndex) {
+            addToIndex(elementWithGroupByProperties);
+        }
+    }
+
+    void restoreNonAggElement(final Element element, final long count) {
+        nonAggElements.get(element.getGroup()).put(element, count);
+        if (maintainIndex) {
+            addToIndex(element);
+        }
+    }
+
+    /**
+     * Add an element key from aggElements or nonAggElements to the indexes.
+     *
+     * @param element the element to index
+     */
+    void addToIndex(final Element element) {
+        if (element instanceof Entity) {
+            if (null != compactIndex) {
+                compactIndex.add(element);
+            } else {
+                addIndex(new EntitySeed(((Entity) element).getVertex()), element);
+            }
+        } else {
+            final Edge edge = (Edge) element;
+            edge.setIdentifiers(edge.getSource(), edge.getDestination(), edge.isDirected(), EdgeId.MatchedVertex.SOURCE);
+            if (null != compactIndex) {
+                // The destination matched copy is created when the index is read
+                compactIndex.add(edge);
+            } else {
+                addIndex(new EntitySeed(edge.getSource()), edge);
+
+                final Edge destMatchedEdge = new Edge(edge.getGroup(), edge.getSource(), edge.getDestination(), edge.isDirected(), EdgeId.MatchedVertex.DESTINATION, edge.getProperties());
+                addIndex(new EntitySeed(edge.getDestination()), destMatchedEdge);
+
+                addIndex(new EdgeSeed(edge.getSource(), edge.getDestination(), edge.isDirected()), edge);
+            }
+        }
+    }
+
     void addIndex(final EntityId entityId, final Element element) {
         entityIdToElements.put(entityId, element);
     }
@@ -210,6 +346,10 @@ public class MapImpl {
         edgeIdToElements.put(edgeId, element);
     }
 
+    boolean isCompactIndex() {
+        return null != compactIndex;
+    }
+
     boolean isMaintainIndex() {
         return maintainIndex;
     }
@@ -226,6 +366,19 @@ public class MapImpl {
         return groupToNonGroupByProperties.get(group);
     }
 
+    /**
+     * Creates an empty clone of an element, to be stored in the maps. If compact
+     * properties are enabled the clone uses {@link CompactProperties} with the
+     * layout for the group of the element.
+     *
+     * @param element the element to clone
+     * @return the empty clone
+     */
+    Element emptyClone(final Element element) {
+        final PropertiesLayout layout = groupToPropertiesLayout.get(element.getGroup());
+        return null != layout ? element.emptyClone(new CompactProperties(layout)) : element.emptyClone();
+    }
+
     boolean isAggregationEnabled(final Element element) {
         return !groupsWithNoAggregation.contains(element.getGroup());
     }
@@ -252,6 +405,38 @@ public class MapImpl {
         return totalCount;
     }
 
+    boolean isConcurrent() {
+        return concurrent;
+    }
+
+    private Stream<Element> toAggElements(final Stream<Map.Entry<Element, GroupedProperties>> entries) {
+        return entries.map(x -> {
+            final Element element = x.getKey().emptyClone();
+            element.copyProperties(x.getKey().getProperties());
+            element.copyProperties(x.getValue());
+            return cloneElement(element, schema);
+        });
+    }
+
+    private Stream<Element> toNonAggElements(final Stream<Map.Entry<Element, Long>> entries) {
+        return entries
+                .map(x -> new RepeatItemIterable<>(cloneElement(x.getKey(), schema), x.getValue()))
+                .flatMap(Streams::toStream);
+    }
+
+    private GroupedProperties copy(final GroupedProperties properties) {
+        final GroupedProperties copy = new GroupedProperties(properties.getGroup());
+        copy.putAll(properties);
+        return copy;
+    }
+
+    private static <V> Stream<Map.Entry<Element, V>> getEntries(final Map<String, Map<Element, V>> elements, final Set<String> groups) {
+        return elements.entrySet().stream()
+                .filter(entry -> groups.contains(entry.getKey()))
+                .map(Map.Entry::getValue)
+                .flatMap(map -> map.entrySet().stream());
+    }
+
     private MapFactory createMapFactory(final Schema schema,
                                         final MapStoreProperties mapStoreProperties) {
         final MapFactory mapFactory;
@@ -279,5 +464,10 @@ public class MapImpl {
         final Set<String> nonGroupByProperties = new HashSet<>(sed.getProperties());
         nonGroupByProperties.removeAll(sed.getGroupBy());
         groupToNonGroupByProperties.put(group, nonGroupByProperties);
+        if (compactProperties) {
+            // The stored elements of aggregated groups only hold the group-by properties
+            groupToPropertiesLayout.put(group, new PropertiesLayout(groupsWithNoAggregation.contains(group)
+                    ? sed.getProperties() : sed.getGroupBy()));
+        }
     }
 }
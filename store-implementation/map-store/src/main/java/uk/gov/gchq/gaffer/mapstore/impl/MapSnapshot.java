@@ -0,0 +1,612 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.mapstore.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.gchq.gaffer.commonutil.StringUtil;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.GroupedProperties;
+import uk.gov.gchq.gaffer.data.element.Properties;
+import uk.gov.gchq.gaffer.serialisation.Serialiser;
+import uk.gov.gchq.gaffer.serialisation.ToBytesSerialiser;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.schema.SchemaElementDefinition;
+import uk.gov.gchq.gaffer.store.schema.TypeDefinition;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * A {@code MapSnapshot} writes the aggregated and non aggregated elements held
+ * in a {@link MapImpl} to a binary file in a local directory, and restores
+ * them when the {@link uk.gov.gchq.gaffer.mapstore.MapStore} is initialised.
+ * <p>
+ * The vertices and properties are serialised using the {@link ToBytesSerialiser}s
+ * in the schema. A snapshot is restored using memory-mapped I/O and the
+ * elements are put directly into the maps, so they are not aggregated again.
+ * The indexes only reference the elements in the maps, so they are rebuilt
+ * from the restored elements rather than being written to the snapshot.
+ * <p>
+ * If the change log is enabled, each element added after the latest snapshot
+ * is appended to a change log. When the snapshot is restored the change log
+ * is replayed, so these elements are aggregated into the restored maps. The
+ * change log is truncated each time a new snapshot is written. The snapshot
+ * and the change log both start with an epoch, which is incremented each time
+ * a snapshot is written. A change log is only replayed if its epoch is not
+ * older than the snapshot's, so if the process stops after a new snapshot has
+ * replaced the previous one but before the change log has been truncated,
+ * the elements in the change log are not aggregated into the snapshot twice.
+ * Each thread
+ * serialises the elements it adds into its own buffer, which is only appended
+ * to the change log when it is full or the change log is flushed, so threads
+ * adding elements in parallel do not wait for each other.
+ */
+public class MapSnapshot implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MapSnapshot.class);
+
+    private static final int MAGIC = 0x47414d53;
+    private static final int CHANGE_LOG_MAGIC = 0x47414d43;
+    private static final int VERSION = 2;
+    private static final byte END = 0;
+    private static final byte AGG_ELEMENT = 1;
+    private static final byte NON_AGG_ELEMENT = 2;
+    private static final byte CHANGE_LOG_ELEMENT = 3;
+    private static final byte ENTITY = 1;
+    private static final byte EDGE = 2;
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final int THREAD_BUFFER_SIZE = 64 * 1024;
+    private static final int REPLAY_BATCH_SIZE = 10000;
+
+    private final Schema schema;
+    private final Path snapshotFile;
+    private final Path changeLogFile;
+    private final boolean changeLog;
+    private final long regionSize;
+    private final ToBytesSerialiser<Object> vertexSerialiser;
+    private final Map<String, Map<String, ToBytesSerialiser<Object>>> propertySerialisers = new HashMap<>();
+    private final Set<ChangeLogBuffer> changeLogBuffers = ConcurrentHashMap.newKeySet();
+    private final ThreadLocal<ChangeLogBuffer> threadChangeLogBuffer = ThreadLocal.withInitial(() -> {
+        final ChangeLogBuffer buffer = new ChangeLogBuffer();
+        changeLogBuffers.add(buffer);
+        return buffer;
+    });
+    private volatile DataOutputStream changeLogOut;
+    private long epoch;
+
+    public MapSnapshot(final Schema schema, final Path directory, final String graphId, final boolean changeLog) {
+        this(schema, directory, graphId, changeLog, Integer.MAX_VALUE);
+    }
+
+    MapSnapshot(final Schema schema, final Path directory, final String graphId, final boolean changeLog, final long regionSize) {
+        this.schema = schema;
+        this.snapshotFile = directory.resolve(graphId + ".snapshot");
+        this.changeLogFile = directory.resolve(graphId + ".changelog");
+        this.changeLog = changeLog;
+        this.regionSize = regionSize;
+        this.vertexSerialiser = toBytesSerialiser(schema.getVertexSerialiser(), "vertex");
+        for (final String group : schema.getGroups()) {
+            final SchemaElementDefinition elementDef = schema.getElement(group);
+            final Map<String, ToBytesSerialiser<Object>> serialisers = new HashMap<>();
+            for (final String property : elementDef.getProperties()) {
+                final TypeDefinition typeDef = elementDef.getPropertyTypeDef(property);
+                serialisers.put(property, toBytesSerialiser(null != typeDef ? typeDef.getSerialiser() : null, group + "." + property));
+            }
+            propertySerialisers.put(group, serialisers);
+        }
+    }
+
+    public Path getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    public Path getChangeLogFile() {
+        return changeLogFile;
+    }
+
+    /**
+     * Restores the latest snapshot and replays the change log into the maps,
+     * then attaches this snapshot to the maps so that new elements are
+     * appended to the change log. If this snapshot has already been
+     * restored, its change log is closed first.
+     *
+     * @param mapImpl the empty maps to restore the elements into
+     * @throws IOException if the snapshot or change log could not be read
+     */
+    public void restore(final MapImpl mapImpl) throws IOException {
+        close();
+        epoch = 0;
+        Files.createDirectories(snapshotFile.getParent());
+        if (Files.exists(snapshotFile)) {
+            final long startTime = System.currentTimeMillis();
+            final long count = readSnapshot(mapImpl);
+            LOGGER.info("Restored {} elements from {} in {}ms", count, snapshotFile, System.currentTimeMillis() - startTime);
+        }
+
+        if (changeLog) {
+            long validLength = 0;
+            if (Files.exists(changeLogFile)) {
+                validLength = replayChangeLog(mapImpl);
+            }
+            if (validLength > 0) {
+                try (final FileChannel channel = FileChannel.open(changeLogFile, StandardOpenOption.WRITE)) {
+                    // Removes any partially written element
+                    channel.truncate(validLength);
+                }
+                openChangeLog(StandardOpenOption.APPEND);
+            } else {
+                // There is no change log for the current epoch, so a new one is started
+                openChangeLog(StandardOpenOption.TRUNCATE_EXISTING);
+            }
+        } else if (Files.exists(changeLogFile)) {
+            LOGGER.warn("The change log is disabled, so {} has not been replayed", changeLogFile);
+        }
+
+        mapImpl.setSnapshot(this);
+    }
+
+    /**
+     * Writes all of the elements in the maps to a new snapshot, which
+     * replaces the previous snapshot, then truncates the change log. The new
+     * snapshot has the next epoch, so the previous change log is not
+     * replayed into it if it is not truncated. In the concurrent mode
+     * elements cannot be added whilst the snapshot is written.
+     *
+     * @param mapImpl the maps to write
+     * @return the number of aggregated and non aggregated entries written
+     * @throws IOException if the snapshot could not be written
+     */
+    public long write(final MapImpl mapImpl) throws IOException {
+        final Lock lock = mapImpl.getSnapshotWriteLock();
+        if (null != lock) {
+            lock.lock();
+        }
+        try {
+            synchronized (this) {
+                final Path tmpFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+                final long nextEpoch = epoch + 1;
+                long count = 0;
+                try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile), BUFFER_SIZE))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    out.writeLong(nextEpoch);
+                    final Iterator<Map.Entry<Element, GroupedProperties>> aggItr = mapImpl.getAllAggEntries().iterator();
+                    while (aggItr.hasNext()) {
+                        final Map.Entry<Element, GroupedProperties> entry = aggItr.next();
+                        out.writeByte(AGG_ELEMENT);
+                        writeElement(out, entry.getKey());
+                        writeProperties(out, entry.getKey().getGroup(), entry.getValue());
+                        count++;
+                    }
+                    final Iterator<Map.Entry<Element, Long>> nonAggItr = mapImpl.getAllNonAggEntries().iterator();
+                    while (nonAggItr.hasNext()) {
+                        final Map.Entry<Element, Long> entry = nonAggItr.next();
+                        out.writeByte(NON_AGG_ELEMENT);
+                        writeElement(out, entry.getKey());
+                        out.writeLong(entry.getValue());
+                        count++;
+                    }
+                    out.writeByte(END);
+                }
+                Files.move(tmpFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                epoch = nextEpoch;
+
+                if (null != changeLogOut) {
+                    // The buffered elements are already in the snapshot
+                    for (final ChangeLogBuffer buffer : changeLogBuffers) {
+                        buffer.discard();
+                    }
+                    openChangeLog(StandardOpenOption.TRUNCATE_EXISTING);
+                }
+                return count;
+            }
+        } finally {
+            if (null != lock) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Appends an element to the change log, if the change log is enabled.
+     * The element is serialised into a buffer for the current thread, which
+     * is written to the change log when it is full or the change log is
+     * flushed.
+     *
+     * @param element the element to append
+     */
+    void appendToChangeLog(final Element element) {
+        if (null != changeLogOut) {
+            final ChangeLogBuffer buffer = threadChangeLogBuffer.get();
+            final boolean full;
+            try {
+                full = buffer.append(element);
+            } catch (final IOException e) {
+                throw new RuntimeException("Unable to append element to the change log: " + changeLogFile, e);
+            }
+            if (full) {
+                try {
+                    synchronized (this) {
+                        writeBuffer(buffer);
+                    }
+                } catch (final IOException e) {
+                    throw new RuntimeException("Unable to append elements to the change log: " + changeLogFile, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the elements buffered by all threads to the change log and
+     * flushes it.
+     *
+     * @throws IOException if the change log could not be written
+     */
+    public synchronized void flushChangeLog() throws IOException {
+        if (null != changeLogOut) {
+            writeBuffers();
+            changeLogOut.flush();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (null != changeLogOut) {
+            try {
+                writeBuffers();
+            } finally {
+                changeLogOut.close();
+                changeLogOut = null;
+            }
+        }
+    }
+
+    // Must be called whilst holding the lock on this snapshot
+    private void writeBuffers() throws IOException {
+        for (final ChangeLogBuffer buffer : changeLogBuffers) {
+            writeBuffer(buffer);
+            if (buffer.isOwnerTerminated()) {
+                changeLogBuffers.remove(buffer);
+            }
+        }
+    }
+
+    // Must be called whilst holding the lock on this snapshot
+    private void writeBuffer(final ChangeLogBuffer buffer) throws IOException {
+        if (null != changeLogOut) {
+            buffer.writeTo(changeLogOut);
+        }
+    }
+
+    private long readSnapshot(final MapImpl mapImpl) throws IOException {
+        long count = 0;
+        try (final MappedInput in = new MappedInput(snapshotFile, regionSize)) {
+            if (MAGIC != in.readInt() || VERSION != in.readInt()) {
+                throw new IOException("Unrecognised map snapshot: " + snapshotFile);
+            }
+            epoch = in.readLong();
+            byte type = in.readByte();
+            while (END != type) {
+                final Element element = readElement(in);
+                if (AGG_ELEMENT == type) {
+                    final GroupedProperties properties = new GroupedProperties(element.getGroup());
+                    readProperties(in, element.getGroup(), properties);
+                    mapImpl.restoreAggElement(element, properties);
+                } else if (NON_AGG_ELEMENT == type) {
+                    mapImpl.restoreNonAggElement(element, in.readLong());
+                } else {
+                    throw new IOException("Unrecognised record type " + type + " in map snapshot: " + snapshotFile);
+                }
+                count++;
+                type = in.readByte();
+            }
+        }
+        return count;
+    }
+
+    // Returns the length of the valid part of the change log, or 0 if it should not be appended to
+    private long replayChangeLog(final MapImpl mapImpl) throws IOException {
+        long count = 0;
+        long validLength = 0;
+        final List<Element> batch = new ArrayList<>(REPLAY_BATCH_SIZE);
+        try (final MappedInput in = new MappedInput(changeLogFile, regionSize)) {
+            final long changeLogEpoch;
+            try {
+                if (CHANGE_LOG_MAGIC != in.readInt() || VERSION != in.readInt()) {
+                    throw new IOException("Unrecognised change log: " + changeLogFile);
+                }
+                changeLogEpoch = in.readLong();
+            } catch (final EOFException e) {
+                LOGGER.warn("Ignoring partially written header of the change log: {}", changeLogFile);
+                return 0;
+            }
+            if (changeLogEpoch < epoch) {
+                // The snapshot was written after these elements were logged, but the change log was not truncated
+                LOGGER.warn("Ignoring change log {} from epoch {}, as the elements are already in the snapshot from epoch {}",
+                        changeLogFile, changeLogEpoch, epoch);
+                return 0;
+            }
+            epoch = changeLogEpoch;
+            validLength = in.getPosition();
+            while (in.hasRemaining()) {
+                try {
+                    if (CHANGE_LOG_ELEMENT != in.readByte()) {
+                        throw new IOException("Unrecognised record type in change log: " + changeLogFile);
+                    }
+                    batch.add(readElement(in));
+                } catch (final EOFException e) {
+                    LOGGER.warn("Ignoring partially written element at the end of the change log: {}", changeLogFile);
+                    break;
+                }
+                validLength = in.getPosition();
+                if (batch.size() >= REPLAY_BATCH_SIZE) {
+                    AddElementsHandler.replayElements(batch, mapImpl, schema);
+                    count += batch.size();
+                    batch.clear();
+                }
+            }
+        }
+        AddElementsHandler.replayElements(batch, mapImpl, schema);
+        count += batch.size();
+        LOGGER.info("Replayed {} elements from {}", count, changeLogFile);
+        return validLength;
+    }
+
+    private synchronized void openChangeLog(final StandardOpenOption option) throws IOException {
+        if (null != changeLogOut) {
+            changeLogOut.close();
+        }
+        changeLogOut = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(changeLogFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, option), BUFFER_SIZE));
+        if (StandardOpenOption.APPEND != option) {
+            changeLogOut.writeInt(CHANGE_LOG_MAGIC);
+            changeLogOut.writeInt(VERSION);
+            changeLogOut.writeLong(epoch);
+            changeLogOut.flush();
+        }
+    }
+
+    private void writeElement(final DataOutputStream out, final Element element) throws IOException {
+        writeBytes(out, StringUtil.toBytes(element.getGroup()));
+        if (element instanceof Entity) {
+            out.writeByte(ENTITY);
+            writeBytes(out, vertexSerialiser.serialise(((Entity) element).getVertex()));
+        } else {
+            final Edge edge = (Edge) element;
+            out.writeByte(EDGE);
+            writeBytes(out, vertexSerialiser.serialise(edge.getSource()));
+            writeBytes(out, vertexSerialiser.serialise(edge.getDestination()));
+            out.writeBoolean(edge.isDirected());
+        }
+        writeProperties(out, element.getGroup(), element.getProperties());
+    }
+
+    private Element readElement(final MappedInput in) throws IOException {
+        final String group = StringUtil.toString(in.readBytes());
+        final Element element;
+        final byte elementType = in.readByte();
+        if (ENTITY == elementType) {
+            element = new Entity(group, vertexSerialiser.deserialise(in.readBytes()));
+        } else if (EDGE == elementType) {
+            final Object source = vertexSerialiser.deserialise(in.readBytes());
+            final Object destination = vertexSerialiser.deserialise(in.readBytes());
+            element = new Edge(group, source, destination, in.readBoolean());
+        } else {
+            throw new IOException("Unrecognised element type " + elementType);
+        }
+        readProperties(in, group, element.getProperties());
+        return element;
+    }
+
+    // Only the properties that are set are written, so the restored element keys are equal to the originals
+    private void writeProperties(final DataOutputStream out, final String group, final Properties properties) throws IOException {
+        final Map<String, ToBytesSerialiser<Object>> serialisers = getPropertySerialisers(group);
+        int size = 0;
+        for (final Object value : properties.values()) {
+            if (null != value) {
+                size++;
+            }
+        }
+        out.writeInt(size);
+        for (final Map.Entry<String, Object> property : properties.entrySet()) {
+            if (null != property.getValue()) {
+                final ToBytesSerialiser<Object> serialiser = serialisers.get(property.getKey());
+                if (null == serialiser) {
+                    throw new IOException("No serialiser found for property " + property.getKey() + " in group " + group);
+                }
+                writeBytes(out, StringUtil.toBytes(property.getKey()));
+                writeBytes(out, serialiser.serialise(property.getValue()));
+            }
+        }
+    }
+
+    private void readProperties(final MappedInput in, final String group, final Properties properties) throws IOException {
+        final Map<String, ToBytesSerialiser<Object>> serialisers = getPropertySerialisers(group);
+        final int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            final String propertyName = StringUtil.toString(in.readBytes());
+            final ToBytesSerialiser<Object> serialiser = serialisers.get(propertyName);
+            if (null == serialiser) {
+                throw new IOException("No serialiser found for property " + propertyName + " in group " + group);
+            }
+            properties.put(propertyName, serialiser.deserialise(in.readBytes()));
+        }
+    }
+
+    private Map<String, ToBytesSerialiser<Object>> getPropertySerialisers(final String group) throws IOException {
+        final Map<String, ToBytesSerialiser<Object>> serialisers = propertySerialisers.get(group);
+        if (null == serialisers) {
+            throw new IOException("Group " + group + " is not in the schema");
+        }
+        return serialisers;
+    }
+
+    private static void writeBytes(final DataOutputStream out, final byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ToBytesSerialiser<Object> toBytesSerialiser(final Serialiser serialiser, final String name) {
+        if (!(serialiser instanceof ToBytesSerialiser)) {
+            throw new IllegalArgumentException("Map snapshots require a " + ToBytesSerialiser.class.getSimpleName()
+                    + " for " + name + ", found: " + (null != serialiser ? serialiser.getClass().getName() : null));
+        }
+        return (ToBytesSerialiser<Object>) serialiser;
+    }
+
+    /**
+     * Buffers the change log elements added by a single thread. The lock on
+     * the snapshot is always acquired before the lock on a buffer.
+     */
+    private final class ChangeLogBuffer extends ByteArrayOutputStream {
+        private final Thread owner = Thread.currentThread();
+        private final DataOutputStream out = new DataOutputStream(this);
+
+        private ChangeLogBuffer() {
+            super(THREAD_BUFFER_SIZE);
+        }
+
+        // Returns true if the buffer is full and should be written to the change log
+        private synchronized boolean append(final Element element) throws IOException {
+            final int start = count;
+            try {
+                out.writeByte(CHANGE_LOG_ELEMENT);
+                writeElement(out, element);
+            } catch (final IOException | RuntimeException e) {
+                // Removes the partially written element
+                count = start;
+                throw e;
+            }
+            return count >= THREAD_BUFFER_SIZE;
+        }
+
+        @Override
+        public synchronized void writeTo(final OutputStream changeLogOut) throws IOException {
+            super.writeTo(changeLogOut);
+            reset();
+        }
+
+        private synchronized void discard() {
+            reset();
+        }
+
+        private boolean isOwnerTerminated() {
+            return !owner.isAlive();
+        }
+    }
+
+    /**
+     * Reads a file using memory-mapped regions. A new region is mapped when
+     * the next value does not fit in the current region, so files larger
+     * than a single mapped buffer can be read.
+     */
+    private static final class MappedInput implements Closeable {
+        private final FileChannel channel;
+        private final long size;
+        private final long regionSize;
+        private long regionStart;
+        private MappedByteBuffer buffer;
+
+        private MappedInput(final Path file, final long regionSize) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.size = channel.size();
+            this.regionSize = regionSize;
+            map(0, 0);
+        }
+
+        private boolean hasRemaining() {
+            return getPosition() < size;
+        }
+
+        private long getPosition() {
+            return regionStart + buffer.position();
+        }
+
+        private byte readByte() throws IOException {
+            require(Byte.BYTES);
+            return buffer.get();
+        }
+
+        private boolean readBoolean() throws IOException {
+            return 0 != readByte();
+        }
+
+        private int readInt() throws IOException {
+            require(Integer.BYTES);
+            return buffer.getInt();
+        }
+
+        private long readLong() throws IOException {
+            require(Long.BYTES);
+            return buffer.getLong();
+        }
+
+        private byte[] readBytes() throws IOException {
+            final int length = readInt();
+            if (length < 0) {
+                throw new IOException("Invalid length: " + length);
+            }
+            require(length);
+            final byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return bytes;
+        }
+
+        private void require(final int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                final long position = getPosition();
+                if (size - position < bytes) {
+                    throw new EOFException();
+                }
+                map(position, bytes);
+            }
+        }
+
+        private void map(final long position, final int minimumSize) throws IOException {
+            regionStart = position;
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(Math.max(regionSize, minimumSize), size - position));
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
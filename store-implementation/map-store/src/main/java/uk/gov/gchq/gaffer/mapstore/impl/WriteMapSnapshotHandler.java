@@ -0,0 +1,55 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.mapstore.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.gchq.gaffer.mapstore.MapStore;
+import uk.gov.gchq.gaffer.mapstore.MapStoreProperties;
+import uk.gov.gchq.gaffer.mapstore.operation.WriteMapSnapshot;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.store.Context;
+import uk.gov.gchq.gaffer.store.Store;
+import uk.gov.gchq.gaffer.store.operation.handler.OperationHandler;
+
+import java.io.IOException;
+
+/**
+ * An {@link OperationHandler} for the {@link WriteMapSnapshot} operation on the {@link MapStore}.
+ */
+public class WriteMapSnapshotHandler implements OperationHandler<WriteMapSnapshot> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WriteMapSnapshotHandler.class);
+
+    @Override
+    public Void doOperation(final WriteMapSnapshot operation, final Context context, final Store store) throws OperationException {
+        final MapImpl mapImpl = ((MapStore) store).getMapImpl();
+        final MapSnapshot mapSnapshot = mapImpl.getSnapshot();
+        if (null == mapSnapshot) {
+            throw new OperationException("Map snapshots are not enabled, the store property " + MapStoreProperties.SNAPSHOT_DIR + " must be set");
+        }
+
+        try {
+            final long startTime = System.currentTimeMillis();
+            final long count = mapSnapshot.write(mapImpl);
+            LOGGER.info("Wrote {} elements to {} in {}ms", count, mapSnapshot.getSnapshotFile(), System.currentTimeMillis() - startTime);
+        } catch (final IOException e) {
+            throw new OperationException("Unable to write the map snapshot to " + mapSnapshot.getSnapshotFile(), e);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.mapstore.multimap;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A {@link MapOfSets} that can be updated and read from multiple threads.
+ * <p>
+ * The wrapped map must be a {@link ConcurrentMap}. A {@link ConcurrentHashMap}
+ * only locks the bin containing the key being updated, so updates to different
+ * keys do not block each other. The value sets are concurrent sets, so they can
+ * be iterated whilst values are being added.
+ */
+public class ConcurrentMapOfSets<K, V> extends MapOfSets<K, V> {
+    public ConcurrentMapOfSets() {
+        this(new ConcurrentHashMap<>());
+    }
+
+    public ConcurrentMapOfSets(final ConcurrentMap<K, Set<V>> multiMap) {
+        super(multiMap);
+    }
+
+    @Override
+    public void put(final K key, final Collection<V> values) {
+        getWrappedMap().computeIfAbsent(key, k -> createSet()).addAll(values);
+    }
+
+    @Override
+    protected Set<V> createSet() {
+        return ConcurrentHashMap.newKeySet();
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.mapstore.operation;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import uk.gov.gchq.gaffer.operation.Operation;
+import uk.gov.gchq.koryphe.Since;
+import uk.gov.gchq.koryphe.Summary;
+
+import java.util.Map;
+
+/**
+ * A {@code WriteMapSnapshot} operation writes all of the elements in a
+ * {@link uk.gov.gchq.gaffer.mapstore.MapStore} to a snapshot in the directory
+ * set in the store property gaffer.store.mapstore.snapshot.dir. The snapshot
+ * is restored when the store is next initialised.
+ */
+@JsonPropertyOrder(value = {"class"}, alphabetic = true)
+@Since("1.12.1")
+@Summary("Writes a snapshot of the map store")
+public class WriteMapSnapshot implements Operation {
+    private Map<String, String> options;
+
+    @Override
+    public WriteMapSnapshot shallowClone() {
+        return new WriteMapSnapshot.Builder()
+                .options(options)
+                .build();
+    }
+
+    @Override
+    public Map<String, String> getOptions() {
+        return options;
+    }
+
+    @Override
+    public void setOptions(final Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static final class Builder extends Operation.BaseBuilder<WriteMapSnapshot, Builder> {
+        public Builder() {
+            super(new WriteMapSnapshot());
+        }
+    }
+}
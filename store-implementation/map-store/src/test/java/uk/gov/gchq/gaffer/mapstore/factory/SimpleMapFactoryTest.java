@@ -19,13 +19,16 @@ import org.junit.Test;
 
 import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.mapstore.MapStoreProperties;
+import uk.gov.gchq.gaffer.mapstore.multimap.ConcurrentMapOfSets;
 import uk.gov.gchq.gaffer.mapstore.multimap.MapOfSets;
+import uk.gov.gchq.gaffer.mapstore.multimap.MultiMap;
 import uk.gov.gchq.gaffer.mapstore.utils.ElementCloner;
 import uk.gov.gchq.gaffer.store.StoreException;
 import uk.gov.gchq.gaffer.store.schema.Schema;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -144,6 +147,44 @@ public class SimpleMapFactoryTest {
         assertNotSame(map1, map2);
     }
 
+    @Test
+    public void shouldCreateConcurrentMapsAndMultiMapsInConcurrentMode() throws StoreException {
+        // Given
+        final Schema schema = mock(Schema.class);
+        final MapStoreProperties properties = new MapStoreProperties();
+        properties.setConcurrent(true);
+        final SimpleMapFactory factory = new SimpleMapFactory();
+
+        factory.initialise(schema, properties);
+
+        // When
+        final Map<Object, Object> map = factory.getMap("mapName1", Object.class, Object.class);
+        final MultiMap<Object, Object> multiMap = factory.getMultiMap("mapName2", Object.class, Object.class);
+
+        // Then
+        assertTrue(map instanceof ConcurrentHashMap);
+        assertTrue(multiMap instanceof ConcurrentMapOfSets);
+        assertTrue(((ConcurrentMapOfSets) multiMap).getWrappedMap() instanceof ConcurrentHashMap);
+    }
+
+    @Test
+    public void shouldThrowExceptionIfMapClassIsNotConcurrentInConcurrentMode() throws StoreException {
+        // Given
+        final Schema schema = mock(Schema.class);
+        final MapStoreProperties properties = new MapStoreProperties();
+        properties.setConcurrent(true);
+        properties.set(SimpleMapFactory.MAP_CLASS, LinkedHashMap.class.getName());
+        final SimpleMapFactory factory = new SimpleMapFactory();
+
+        // When / Then
+        try {
+            factory.initialise(schema, properties);
+            fail("Exception expected");
+        } catch (final IllegalArgumentException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+
     @Test
     public void shouldCloneElementUsingCloner() throws StoreException {
         // Given
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.mapstore.impl;
+
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.id.DirectedType;
+import uk.gov.gchq.gaffer.data.element.id.EdgeId.MatchedVertex;
+import uk.gov.gchq.gaffer.operation.data.EdgeSeed;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CompactIndexTest {
+    @Test
+    public void shouldLookupEntitiesAndEdgesByVertex() {
+        // Given
+        final CompactIndex index = new CompactIndex();
+        final Entity entity = new Entity(TestGroups.ENTITY, 1L);
+        final Edge outEdge = createEdge(1L, 2L, true);
+        final Edge inEdge = createEdge(3L, 1L, true);
+        index.add(entity);
+        index.add(outEdge);
+        index.add(inEdge);
+
+        // When
+        final List<Element> results = index.lookup(1L);
+
+        // Then
+        assertEquals(Arrays.asList(entity, outEdge, inEdge), results);
+        assertSame(entity, results.get(0));
+        assertSame(outEdge, results.get(1));
+        assertEquals(MatchedVertex.DESTINATION, ((Edge) results.get(2)).getMatchedVertex());
+        assertEquals(Collections.singletonList(outEdge), index.lookup(2L));
+        assertTrue(index.lookup(4L).isEmpty());
+        assertEquals(3, index.getVertexCount());
+        assertEquals(3, index.getElementCount());
+    }
+
+    @Test
+    public void shouldLookupEdgesByEdgeId() {
+        // Given
+        final CompactIndex index = new CompactIndex();
+        final Edge directedEdge = createEdge(1L, 2L, true);
+        final Edge undirectedEdge = createEdge(1L, 2L, false);
+        index.add(directedEdge);
+        index.add(undirectedEdge);
+        index.add(createEdge(1L, 3L, true));
+
+        // When / Then
+        assertEquals(Collections.singletonList(directedEdge), index.lookup(new EdgeSeed(1L, 2L, true)));
+        assertEquals(Collections.singletonList(undirectedEdge), index.lookup(new EdgeSeed(1L, 2L, false)));
+        assertEquals(Arrays.asList(directedEdge, undirectedEdge), index.lookup(new EdgeSeed(1L, 2L, DirectedType.EITHER)));
+        assertTrue(index.lookup(new EdgeSeed(2L, 1L, true)).isEmpty());
+    }
+
+    @Test
+    public void shouldOnlyIndexEachElementOnceIncludingSelfLoops() {
+        // Given
+        final CompactIndex index = new CompactIndex();
+        final Edge selfLoop = createEdge("A", "A", true);
+
+        // When
+        index.add(selfLoop);
+        index.add(createEdge("A", "A", true));
+
+        // Then
+        assertEquals(Collections.singletonList(selfLoop), index.lookup("A"));
+        assertEquals(1, index.getElementCount());
+    }
+
+    @Test
+    public void shouldGrowWhenManyVerticesAndEdgesAreAdded() {
+        // Given
+        final CompactIndex index = new CompactIndex();
+        final int numVertices = 1000;
+
+        // When
+        for (int i = 1; i < numVertices; i++) {
+            index.add(createEdge(0, i, true));
+            index.add(new Entity(TestGroups.ENTITY, i));
+        }
+
+        // Then
+        assertEquals(numVertices, index.getVertexCount());
+        assertEquals(numVertices - 1, index.lookup(0).size());
+        for (int i = 1; i < numVertices; i++) {
+            assertEquals(Arrays.asList(new Entity(TestGroups.ENTITY, i), createEdge(0, i, true)), index.lookup(i));
+        }
+    }
+
+    @Test
+    public void shouldClearIndex() {
+        // Given
+        final CompactIndex index = new CompactIndex();
+        index.add(createEdge(1L, 2L, true));
+
+        // When
+        index.clear();
+
+        // Then
+        assertTrue(index.lookup(1L).isEmpty());
+        assertEquals(0, index.getVertexCount());
+        assertEquals(0, index.getElementCount());
+    }
+
+    private static Edge createEdge(final Object source, final Object destination, final boolean directed) {
+        return new Edge.Builder()
+                .group(TestGroups.EDGE)
+                .source(source)
+                .dest(destination)
+                .directed(directed)
+                .build();
+    }
+}
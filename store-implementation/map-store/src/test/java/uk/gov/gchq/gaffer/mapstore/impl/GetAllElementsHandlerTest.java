@@ -30,21 +30,31 @@ import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
 import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewElementDefinition;
 import uk.gov.gchq.gaffer.graph.Graph;
 import uk.gov.gchq.gaffer.graph.GraphConfig;
+import uk.gov.gchq.gaffer.mapstore.MapStore;
 import uk.gov.gchq.gaffer.mapstore.MapStoreProperties;
 import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
 import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
 import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
+import uk.gov.gchq.gaffer.operation.io.Output;
 import uk.gov.gchq.gaffer.store.StoreException;
 import uk.gov.gchq.gaffer.store.schema.Schema;
 import uk.gov.gchq.gaffer.user.User;
 import uk.gov.gchq.koryphe.impl.predicate.IsMoreThan;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -136,6 +146,111 @@ public class GetAllElementsHandlerTest {
         assertEquals(expectedResults, resultsSet);
     }
 
+    @Test
+    public void testAddAndGetAllElementsWithAggregationConcurrently() throws Exception {
+        // Given
+        final Graph graph = getConcurrentGraph();
+        final int numThreads = 4;
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads * 2);
+        final List<Future<?>> futures = new ArrayList<>();
+
+        // When - elements are added and read from many threads at once
+        try {
+            for (int i = 0; i < numThreads; i++) {
+                futures.add(executor.submit(() -> {
+                    graph.execute(new AddElements.Builder()
+                            .input(getElementsForAggregation())
+                            .build(), new User());
+                    return null;
+                }));
+                futures.add(executor.submit(() -> Streams.toStream(graph.execute(new GetAllElements(), new User())).count()));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        final Map<String, Integer> groupToCount = new HashMap<>();
+        for (final Element element : graph.execute(new GetAllElements(), new User())) {
+            groupToCount.merge(element.getGroup(), (Integer) element.getProperty(COUNT), Integer::sum);
+        }
+        final Map<String, Integer> expectedGroupToCount = new HashMap<>();
+        expectedGroupToCount.put(BASIC_ENTITY, numThreads * NUM_LOOPS);
+        expectedGroupToCount.put(BASIC_EDGE1, numThreads * 2 * NUM_LOOPS);
+        expectedGroupToCount.put(BASIC_EDGE2, numThreads * 3 * NUM_LOOPS);
+        assertEquals(expectedGroupToCount, groupToCount);
+    }
+
+    @Test(timeout = 60000)
+    public void shouldGetAllElementsWithoutWaitingForElementsThatAreBeingAdded() throws Exception {
+        // Given
+        final MapStoreProperties storeProperties = new MapStoreProperties();
+        storeProperties.setConcurrent(true);
+        final MapStore store = new MapStore();
+        store.initialise("concurrentGraph", getSchema(), storeProperties);
+        store.execute(new AddElements.Builder()
+                .input(getElements())
+                .build(), store.createContext(new User()));
+        final MapImpl mapImpl = store.getMapImpl();
+        final CountDownLatch ingestLocked = new CountDownLatch(1);
+        final CountDownLatch readFinished = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // When - another thread is part way through adding elements
+        final Set<Element> resultsSet = new HashSet<>();
+        try {
+            executor.submit(() -> {
+                final Lock ingestLock = mapImpl.getIngestLock();
+                ingestLock.lock();
+                try {
+                    ingestLocked.countDown();
+                    readFinished.await();
+                } finally {
+                    ingestLock.unlock();
+                }
+                return null;
+            });
+            ingestLocked.await();
+            mapImpl.getAllElements(store.getSchema().getGroups()).forEach(resultsSet::add);
+        } finally {
+            readFinished.countDown();
+            executor.shutdownNow();
+        }
+
+        // Then
+        assertEquals(new HashSet<>(getElements()), resultsSet);
+    }
+
+    @Test
+    public void testAddAndGetAllElementsWithCompactPropertiesMatchesDefaultProperties() throws OperationException {
+        for (final Schema schema : new Schema[]{getSchema(), getSchemaNoAggregation()}) {
+            // Given
+            final Graph graph = getGraph(schema, new MapStoreProperties());
+            final MapStoreProperties compactProperties = new MapStoreProperties();
+            compactProperties.setCompactProperties(true);
+            final Graph compactPropertiesGraph = getGraph(schema, compactProperties);
+            final AddElements addElements = new AddElements.Builder()
+                    .input(getElementsForAggregation())
+                    .build();
+            graph.execute(addElements, new User());
+            compactPropertiesGraph.execute(addElements, new User());
+
+            final List<Output<CloseableIterable<? extends Element>>> operations = Arrays.asList(new GetAllElements(),
+                    new GetElements.Builder().input(new EntitySeed("0"), new EntitySeed("X")).build());
+            for (final Output<CloseableIterable<? extends Element>> operation : operations) {
+                // When
+                final Map<Element, Integer> results = streamToCount(Streams.toStream(graph.execute(operation, new User())));
+                final Map<Element, Integer> compactPropertiesResults = streamToCount(Streams.toStream(compactPropertiesGraph.execute(operation, new User())));
+
+                // Then
+                assertEquals(results, compactPropertiesResults);
+            }
+        }
+    }
+
     @Test
     public void testGetAllElementsWithViewRestrictedByGroup() throws OperationException {
         // Given
@@ -391,6 +506,42 @@ public class GetAllElementsHandlerTest {
                 .build();
     }
 
+    static Graph getConcurrentGraph() {
+        final MapStoreProperties storeProperties = new MapStoreProperties();
+        storeProperties.setConcurrent(true);
+        storeProperties.setIngestBufferSize(3);
+        storeProperties.setIngestThreads(4);
+        return new Graph.Builder()
+                .config(new GraphConfig.Builder()
+                        .graphId("concurrentGraph")
+                        .build())
+                .addSchema(getSchema())
+                .storeProperties(storeProperties)
+                .build();
+    }
+
+    static Graph getGraph(final Schema schema, final MapStoreProperties storeProperties) {
+        return new Graph.Builder()
+                .config(new GraphConfig.Builder()
+                        .graphId("graph1")
+                        .build())
+                .addSchema(schema)
+                .storeProperties(storeProperties)
+                .build();
+    }
+
+    static Graph getCompactIndexGraph() {
+        final MapStoreProperties storeProperties = new MapStoreProperties();
+        storeProperties.setCompactIndex(true);
+        return new Graph.Builder()
+                .config(new GraphConfig.Builder()
+                        .graphId("compactIndexGraph")
+                        .build())
+                .addSchema(getSchema())
+                .storeProperties(storeProperties)
+                .build();
+    }
+
     static Schema getSchemaNoAggregation() {
         return Schema.fromJson(StreamUtil.openStreams(GetAllElementsHandlerTest.class, "schema-no-aggregation"));
     }
@@ -1168,6 +1168,48 @@ public class GetElementsHandlerTest {
         assertEquals("q", result2.getProperty(GetAllElementsHandlerTest.PROPERTY1));
     }
 
+    @Test
+    public void testGetElementsWithCompactIndexMatchesDefaultIndex() throws OperationException {
+        // Given
+        final Graph graph = GetAllElementsHandlerTest.getGraph();
+        final Graph compactIndexGraph = GetAllElementsHandlerTest.getCompactIndexGraph();
+        final List<Element> elements = getElements();
+        elements.add(new Edge.Builder()
+                .group(GetAllElementsHandlerTest.BASIC_EDGE1)
+                .source("A")
+                .dest("A")
+                .directed(true)
+                .property(GetAllElementsHandlerTest.PROPERTY1, "q")
+                .property(GetAllElementsHandlerTest.COUNT, 1)
+                .build());
+        final AddElements addElements = new AddElements.Builder()
+                .input(elements)
+                .build();
+        graph.execute(addElements, new User());
+        compactIndexGraph.execute(addElements, new User());
+
+        for (final IncludeIncomingOutgoingType inOutType : IncludeIncomingOutgoingType.values()) {
+            for (final SeedMatchingType seedMatchingType : SeedMatchingType.values()) {
+                // When
+                final GetElements getElements = new GetElements.Builder()
+                        .input(new EntitySeed("A"), new EntitySeed("B0"), new EntitySeed("X"), new EntitySeed("Y1"),
+                                new EdgeSeed("A", "B1", true), new EdgeSeed("Y2", "X", false),
+                                new EdgeSeed("A", "A", DirectedType.EITHER), new EntitySeed("unknown"))
+                        .inOutType(inOutType)
+                        .seedMatching(seedMatchingType)
+                        .build();
+                final List<Element> results = new ArrayList<>();
+                Streams.toStream(graph.execute(getElements, new User())).forEach(results::add);
+                final List<Element> compactIndexResults = new ArrayList<>();
+                Streams.toStream(compactIndexGraph.execute(getElements, new User())).forEach(compactIndexResults::add);
+
+                // Then
+                assertEquals(inOutType + " " + seedMatchingType, results.size(), compactIndexResults.size());
+                assertEquals(inOutType + " " + seedMatchingType, new HashSet<>(results), new HashSet<>(compactIndexResults));
+            }
+        }
+    }
+
     private static List<Element> getElements() {
         final List<Element> elements = new ArrayList<>();
         final Entity entity1 = new Entity(GetAllElementsHandlerTest.BASIC_ENTITY, "A");
@@ -0,0 +1,287 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.mapstore.impl;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import uk.gov.gchq.gaffer.commonutil.stream.Streams;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.graph.GraphConfig;
+import uk.gov.gchq.gaffer.mapstore.MapStore;
+import uk.gov.gchq.gaffer.mapstore.MapStoreProperties;
+import uk.gov.gchq.gaffer.mapstore.operation.WriteMapSnapshot;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
+import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.user.User;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MapSnapshotTest {
+    @Rule
+    public final TemporaryFolder testFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldWriteAndRestoreSnapshot() throws Exception {
+        // Given
+        final MapStoreProperties properties = createProperties(false);
+        final Graph graph = createGraph(GetAllElementsHandlerTest.getSchema(), properties);
+        graph.execute(new AddElements.Builder()
+                .input(GetAllElementsHandlerTest.getElements())
+                .build(), new User());
+
+        // When
+        graph.execute(new WriteMapSnapshot(), new User());
+        final Graph restoredGraph = createGraph(GetAllElementsHandlerTest.getSchema(), properties);
+
+        // Then
+        assertEquals(getAllElements(graph), getAllElements(restoredGraph));
+        assertEquals(getElements(graph, "A"), getElements(restoredGraph, "A"));
+        assertEquals(getElements(graph, "B2"), getElements(restoredGraph, "B2"));
+    }
+
+    @Test
+    public void shouldWriteAndRestoreSnapshotWithoutAggregation() throws Exception {
+        // Given
+        final MapStoreProperties properties = createProperties(false);
+        final Graph graph = createGraph(GetAllElementsHandlerTest.getSchemaNoAggregation(), properties);
+        graph.execute(new AddElements.Builder()
+                .input(GetAllElementsHandlerTest.getDuplicateElements())
+                .build(), new User());
+
+        // When
+        graph.execute(new WriteMapSnapshot(), new User());
+        final Graph restoredGraph = createGraph(GetAllElementsHandlerTest.getSchemaNoAggregation(), properties);
+
+        // Then
+        assertEquals(getAllElements(graph), getAllElements(restoredGraph));
+    }
+
+    @Test
+    public void shouldReplayChangeLogIntoRestoredSnapshot() throws Exception {
+        // Given
+        final MapStoreProperties properties = createProperties(true);
+        final Graph graph = createGraph(GetAllElementsHandlerTest.getSchema(), properties);
+        graph.execute(new AddElements.Builder()
+                .input(GetAllElementsHandlerTest.getElements())
+                .build(), new User());
+        graph.execute(new WriteMapSnapshot(), new User());
+
+        // When
+        graph.execute(new AddElements.Builder()
+                .input(GetAllElementsHandlerTest.getElements())
+                .build(), new User());
+        final Graph restoredGraph = createGraph(GetAllElementsHandlerTest.getSchema(), properties);
+
+        // Then
+        assertEquals(getAllElements(graph), getAllElements(restoredGraph));
+        assertEquals(getElements(graph, "A"), getElements(restoredGraph, "A"));
+    }
+
+    @Test
+    public void shouldNotReplayChangeLogThatIsAlreadyInTheSnapshot() throws Exception {
+        // Given
+        final MapStoreProperties properties = createProperties(true);
+        final MapStore store = new MapStore();
+        store.initialise("crashGraph", GetAllElementsHandlerTest.getSchema(), properties);
+        store.execute(new AddElements.Builder()
+                .input(GetAllElementsHandlerTest.getElements())
+                .build(), store.createContext(new User()));
+        final MapSnapshot snapshot = store.getMapImpl().getSnapshot();
+        snapshot.flushChangeLog();
+        final byte[] changeLog = Files.readAllBytes(snapshot.getChangeLogFile());
+
+        // When - the store stops after the snapshot has been written, but before the change log is truncated
+        store.execute(new WriteMapSnapshot(), store.createContext(new User()));
+        snapshot.close();
+        Files.write(snapshot.getChangeLogFile(), changeLog);
+        final MapStore restoredStore = new MapStore();
+        restoredStore.initialise("crashGraph", GetAllElementsHandlerTest.getSchema(), properties);
+
+        // Then
+        assertEquals(
+                GetAllElementsHandlerTest.streamToCount(store.getMapImpl().getAllElements(store.getSchema().getGroups())),
+                GetAllElementsHandlerTest.streamToCount(restoredStore.getMapImpl().getAllElements(restoredStore.getSchema().getGroups())));
+    }
+
+    @Test
+    public void shouldIgnorePartiallyWrittenElementAtTheEndOfTheChangeLog() throws Exception {
+        // Given
+        final MapStoreProperties properties = createProperties(true);
+        final Graph graph = createGraph(GetAllElementsHandlerTest.getSchema(), properties);
+        graph.execute(new AddElements.Builder()
+                .input(GetAllElementsHandlerTest.getElements())
+                .build(), new User());
+        final Path changeLogFile = testFolder.getRoot().toPath().resolve("snapshotGraph.changelog");
+        Files.write(changeLogFile, new byte[]{3, 0, 0}, StandardOpenOption.APPEND);
+
+        // When
+        final Graph restoredGraph = createGraph(GetAllElementsHandlerTest.getSchema(), properties);
+        restoredGraph.execute(new AddElements.Builder()
+                .input(new Entity(GetAllElementsHandlerTest.BASIC_ENTITY, "new"))
+                .build(), new User());
+        final Graph restoredGraph2 = createGraph(GetAllElementsHandlerTest.getSchema(), properties);
+
+        // Then
+        assertEquals(getAllElements(restoredGraph), getAllElements(restoredGraph2));
+        assertEquals(1, getElements(restoredGraph2, "new").size());
+    }
+
+    @Test
+    public void shouldReplayElementsAddedToTheChangeLogByManyThreads() throws Exception {
+        // Given
+        final MapStoreProperties properties = createProperties(true);
+        properties.setConcurrent(true);
+        properties.setIngestThreads(4);
+        properties.setIngestBufferSize(10);
+        final Graph graph = createGraph(GetAllElementsHandlerTest.getSchema(), properties);
+        final List<Element> elements = IntStream.range(0, 5000)
+                .mapToObj(i -> createEntity("vertex" + (i % 1000)))
+                .collect(Collectors.toList());
+
+        // When
+        graph.execute(new AddElements.Builder()
+                .input(elements)
+                .build(), new User());
+        final Graph restoredGraph = createGraph(GetAllElementsHandlerTest.getSchema(), properties);
+
+        // Then
+        final Map<Element, Integer> restoredElements = getAllElements(restoredGraph);
+        assertEquals(getAllElements(graph), restoredElements);
+        assertEquals(1000, restoredElements.size());
+        assertEquals(5, getElements(restoredGraph, "vertex0").get(0).getProperty(GetAllElementsHandlerTest.COUNT));
+    }
+
+    @Test
+    public void shouldCloseTheChangeLogWhenRestoredAgain() throws Exception {
+        // Given
+        final MapStoreProperties properties = createProperties(true);
+        final MapStore store = new MapStore();
+        store.initialise("restoredGraph", GetAllElementsHandlerTest.getSchema(), properties);
+        store.getMapImpl().getSnapshot().close();
+        final Schema schema = store.getSchema();
+        final MapSnapshot snapshot = new MapSnapshot(schema, testFolder.getRoot().toPath(), "restoredGraph", true);
+        snapshot.restore(new MapImpl(schema, properties));
+        snapshot.appendToChangeLog(createEntity("A"));
+
+        // When
+        final MapImpl mapImpl = new MapImpl(schema, properties);
+        snapshot.restore(mapImpl);
+        snapshot.appendToChangeLog(createEntity("B"));
+        snapshot.close();
+        final MapImpl restoredMapImpl = new MapImpl(schema, properties);
+        try (final MapSnapshot restoredSnapshot = new MapSnapshot(schema, testFolder.getRoot().toPath(), "restoredGraph", true)) {
+            restoredSnapshot.restore(restoredMapImpl);
+        }
+
+        // Then
+        assertEquals(1, mapImpl.getAllAggEntries().count());
+        assertEquals(2, restoredMapImpl.getAllAggEntries().count());
+    }
+
+    @Test
+    public void shouldRestoreSnapshotUsingManyMappedRegions() throws Exception {
+        // Given
+        final MapStoreProperties properties = createProperties(false);
+        final MapStore store = new MapStore();
+        store.initialise("regionGraph", GetAllElementsHandlerTest.getSchema(), properties);
+        store.execute(new AddElements.Builder()
+                .input(GetAllElementsHandlerTest.getElements())
+                .build(), store.createContext(new User()));
+        store.execute(new WriteMapSnapshot(), store.createContext(new User()));
+
+        // When
+        final MapStore restoredStore = new MapStore();
+        restoredStore.initialise("regionGraph", GetAllElementsHandlerTest.getSchema(), new MapStoreProperties());
+        new MapSnapshot(restoredStore.getSchema(), testFolder.getRoot().toPath(), "regionGraph", false, 7)
+                .restore(restoredStore.getMapImpl());
+
+        // Then
+        assertEquals(
+                GetAllElementsHandlerTest.streamToCount(store.getMapImpl().getAllElements(store.getSchema().getGroups())),
+                GetAllElementsHandlerTest.streamToCount(restoredStore.getMapImpl().getAllElements(restoredStore.getSchema().getGroups())));
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenSnapshotDirIsNotSet() {
+        // Given
+        final Graph graph = GetAllElementsHandlerTest.getGraph();
+
+        // When / Then
+        try {
+            graph.execute(new WriteMapSnapshot(), new User());
+            fail("Exception expected");
+        } catch (final OperationException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(MapStoreProperties.SNAPSHOT_DIR));
+        }
+    }
+
+    private static Entity createEntity(final String vertex) {
+        final Entity entity = new Entity(GetAllElementsHandlerTest.BASIC_ENTITY, vertex);
+        entity.putProperty(GetAllElementsHandlerTest.PROPERTY1, "p");
+        entity.putProperty(GetAllElementsHandlerTest.COUNT, 1);
+        return entity;
+    }
+
+    private MapStoreProperties createProperties(final boolean changeLog) {
+        final MapStoreProperties properties = new MapStoreProperties();
+        properties.setSnapshotDir(testFolder.getRoot().getAbsolutePath());
+        properties.setSnapshotChangeLog(changeLog);
+        return properties;
+    }
+
+    private static Graph createGraph(final Schema schema, final MapStoreProperties properties) {
+        return new Graph.Builder()
+                .config(new GraphConfig.Builder()
+                        .graphId("snapshotGraph")
+                        .build())
+                .addSchema(schema)
+                .storeProperties(properties)
+                .build();
+    }
+
+    private static Map<Element, Integer> getAllElements(final Graph graph) throws OperationException {
+        return GetAllElementsHandlerTest.streamToCount(
+                Streams.toStream(graph.execute(new GetAllElements(), new User())));
+    }
+
+    private static List<Element> getElements(final Graph graph, final String vertex) throws OperationException {
+        return Streams.toStream(graph.execute(new GetElements.Builder()
+                .input(new EntitySeed(vertex))
+                .build(), new User()))
+                .map(element -> (Element) element)
+                .sorted((first, second) -> first.toString().compareTo(second.toString()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.mapstore.multimap;
+
+import com.google.common.collect.Sets;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentMapOfSetsTest {
+    @Test
+    public void shouldPutValuesForNewAndExistingKeys() {
+        // Given
+        final ConcurrentMapOfSets<String, String> mapOfSets = new ConcurrentMapOfSets<>();
+
+        // When
+        final boolean putResult = mapOfSets.put("key1", "value1");
+        mapOfSets.put("key1", Arrays.asList("value2", "value3"));
+        mapOfSets.put("key2", Arrays.asList("value4"));
+
+        // Then
+        assertTrue(putResult);
+        assertEquals(Sets.newHashSet("value1", "value2", "value3"), new HashSet<>(mapOfSets.get("key1")));
+        assertEquals(Sets.newHashSet("value4"), new HashSet<>(mapOfSets.get("key2")));
+    }
+
+    @Test
+    public void shouldPutValuesFromMultipleThreads() throws Exception {
+        // Given
+        final ConcurrentMapOfSets<Integer, Integer> mapOfSets = new ConcurrentMapOfSets<>();
+        final int numThreads = 8;
+        final int numValues = 1000;
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        final List<Future<?>> futures = new ArrayList<>();
+
+        // When
+        try {
+            for (int thread = 0; thread < numThreads; thread++) {
+                final int offset = thread * numValues;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < numValues; i++) {
+                        mapOfSets.put(i % 10, offset + i);
+                    }
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        assertEquals(10, mapOfSets.keySet().size());
+        int total = 0;
+        for (final Integer key : mapOfSets.keySet()) {
+            total += mapOfSets.get(key).size();
+        }
+        assertEquals(numThreads * numValues, total);
+    }
+}
@@ -24,12 +24,14 @@ import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.spark.sql.SparkSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
 import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.data.element.IdentifierType;
+import uk.gov.gchq.gaffer.operation.OperationException;
 import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
 import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
 import uk.gov.gchq.gaffer.parquetstore.operation.handler.AddElementsHandler;
@@ -40,6 +42,7 @@ import uk.gov.gchq.gaffer.parquetstore.operation.handler.spark.GetDataFrameOfEle
 import uk.gov.gchq.gaffer.parquetstore.operation.handler.spark.ImportJavaRDDOfElementsHandler;
 import uk.gov.gchq.gaffer.parquetstore.operation.handler.spark.ImportRDDOfElementsHandler;
 import uk.gov.gchq.gaffer.parquetstore.operation.handler.utilities.CalculatePartitioner;
+import uk.gov.gchq.gaffer.parquetstore.operation.handler.utilities.MergeIntoNewSnapshot;
 import uk.gov.gchq.gaffer.parquetstore.partitioner.GraphPartitioner;
 import uk.gov.gchq.gaffer.parquetstore.partitioner.GroupPartitioner;
 import uk.gov.gchq.gaffer.parquetstore.partitioner.Partition;
@@ -82,9 +85,17 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 import static uk.gov.gchq.gaffer.store.StoreTrait.INGEST_AGGREGATION;
@@ -97,6 +108,11 @@ import static uk.gov.gchq.gaffer.store.StoreTrait.PRE_AGGREGATION_FILTERING;
  * It is designed to make the most of the Parquet file types by serialising the {@link Element}s using
  * {@link uk.gov.gchq.gaffer.parquetstore.serialisation.ParquetSerialiser}s which also allows for Gaffer objects to be
  * stored as multiple or nested columns of primitive types.
+ * <p>
+ * If {@link ParquetStoreProperties#getAddElementsIncremental()} is true then new elements are written to delta
+ * directories within the current snapshot directory. Each delta contains sorted and aggregated files for only the
+ * partitions that received new elements. Queries merge the deltas with the snapshot and the deltas are compacted into
+ * a new snapshot by {@link #compactDeltas(SparkSession)}.
  */
 public class ParquetStore extends Store {
     public static final String GROUP = "group";
@@ -108,6 +124,7 @@ public class ParquetStore extends Store {
     public static final String SNAPSHOT = "snapshot";
     public static final String REVERSED_EDGES = "reversedEdges";
     public static final String PARTITION = "partition";
+    public static final String DELTA = "delta";
     public static final int LENGTH_OF_PARTITION_NUMBER_IN_FILENAME = 7;
 
     @SuppressFBWarnings("MS_MUTABLE_ARRAY")
@@ -141,10 +158,13 @@ public class ParquetStore extends Store {
 //                    STORE_VALIDATION
             ));
 
-    private GraphPartitioner graphPartitioner;
-    private long currentSnapshot;
+    private volatile SnapshotState snapshotState;
     private SchemaUtils schemaUtils;
     private FileSystem fs;
+    private ExecutorService retrievalExecutorService;
+    private final Lock writeLock = new ReentrantLock();
+    private ExecutorService compactionExecutorService;
+    private Future<Void> compaction;
 
     @Override
     public void initialise(final String graphId, final Schema schema, final StoreProperties properties) throws StoreException {
@@ -181,9 +201,10 @@ public class ParquetStore extends Store {
         final Path dataDirPath = new Path(getDataDir());
         if (!fs.exists(dataDirPath) || 0 == fs.listStatus(dataDirPath).length) {
             LOGGER.info("Data directory {} doesn't exist or is empty so initialising directory structure", dataDirPath);
-            currentSnapshot = System.currentTimeMillis();
-            LOGGER.info("Initialising snapshot id to {}", currentSnapshot);
-            final Path snapshotPath = new Path(dataDirPath, getSnapshotPath(currentSnapshot));
+            final long snapshot = System.currentTimeMillis();
+            LOGGER.info("Initialising snapshot id to {}", snapshot);
+            snapshotState = new SnapshotState(getDataDir(), snapshot, null, Collections.emptyList(), Collections.emptyMap());
+            final Path snapshotPath = new Path(dataDirPath, getSnapshotPath(snapshot));
             LOGGER.info("Creating snapshot directory {}", snapshotPath);
             fs.mkdirs(snapshotPath);
             LOGGER.info("Creating group directories under {}", snapshotPath);
@@ -199,7 +220,7 @@ public class ParquetStore extends Store {
                 LOGGER.info("Created directory {}", groupDir);
             }
             LOGGER.info("Creating GraphPartitioner with 0 split points for each group");
-            graphPartitioner = new GraphPartitioner();
+            final GraphPartitioner graphPartitioner = new GraphPartitioner();
             for (final String group : getSchema().getGroups()) {
                 graphPartitioner.addGroupPartitioner(group, new GroupPartitioner(group, new ArrayList<>()));
             }
@@ -219,48 +240,59 @@ public class ParquetStore extends Store {
                 LOGGER.error("Data directory {} should contain a snapshot directory", dataDirPath);
                 throw new StoreException("Data directory should contain a snapshot directory");
             }
-            this.currentSnapshot = getLatestSnapshot();
-            LOGGER.info("Latest snapshot directory in data directory {} is {}", dataDirPath, this.currentSnapshot);
+            final long snapshot = getLatestSnapshot();
+            snapshotState = new SnapshotState(getDataDir(), snapshot, null, Collections.emptyList(), Collections.emptyMap());
+            LOGGER.info("Latest snapshot directory in data directory {} is {}", dataDirPath, snapshot);
             LOGGER.info("Verifying snapshot directory contains the correct directories");
             for (final String group : getSchema().getGroups()) {
                 final Path groupDir = getGroupPath(group);
                 if (!fs.exists(groupDir)) {
                     LOGGER.error("Directory {} should exist", groupDir);
-                    throw new StoreException("Group directory " + groupDir + " should exist in snapshot directory " + getSnapshotPath(this.currentSnapshot));
+                    throw new StoreException("Group directory " + groupDir + " should exist in snapshot directory " + getSnapshotPath(snapshot));
                 }
             }
             for (final String group : getSchema().getEdgeGroups()) {
                 final Path groupDir = getGroupPathForReversedEdges(group);
                 if (!fs.exists(groupDir)) {
                     LOGGER.error("Directory {} should exist", groupDir);
-                    throw new StoreException("Group directory " + groupDir + " should exist in snapshot directory " + getSnapshotPath(this.currentSnapshot));
+                    throw new StoreException("Group directory " + groupDir + " should exist in snapshot directory " + getSnapshotPath(snapshot));
                 }
             }
         }
     }
 
     public Path getGraphPartitionerPath() {
-        return new Path(getProperties().getDataDir() + "/" + SNAPSHOT + "=" + currentSnapshot, "graphPartitioner");
+        return getGraphPartitionerPath(snapshotState.getSnapshot());
+    }
+
+    private Path getGraphPartitionerPath(final long snapshot) {
+        return new Path(getProperties().getDataDir() + "/" + SNAPSHOT + "=" + snapshot, "graphPartitioner");
     }
 
     private void loadGraphPartitioner() throws StoreException {
         final String dataDir = getDataDir();
         try {
             if (fs.exists(new Path(dataDir))) {
-                this.currentSnapshot = getLatestSnapshot(dataDir);
-                LOGGER.info("Setting currentSnapshot to {}", this.currentSnapshot);
-                final Path path = getGraphPartitionerPath();
+                final long snapshot = getLatestSnapshot(dataDir);
+                LOGGER.info("Setting currentSnapshot to {}", snapshot);
+                final Path path = getGraphPartitionerPath(snapshot);
                 if (!fs.exists(path)) {
                     LOGGER.info("Graph partitioner does not exist in {} so creating it", path);
                     final GraphPartitioner partitioner =
-                            new CalculatePartitioner(new Path(dataDir + "/" + getSnapshotPath(this.currentSnapshot)), getSchema(), fs).call();
+                            new CalculatePartitioner(new Path(dataDir + "/" + getSnapshotPath(snapshot)), getSchema(), fs).call();
                     LOGGER.info("Writing graph partitioner to {}", path);
                     final FSDataOutputStream stream = fs.create(path);
                     new GraphPartitionerSerialiser().write(partitioner, stream);
                     stream.close();
                 }
                 LOGGER.info("Loading graph partitioner from path {}", path);
-                loadGraphPartitioner(path);
+                final GraphPartitioner graphPartitioner = loadGraphPartitioner(path);
+                final SnapshotState state = loadDeltas(snapshot, graphPartitioner);
+                // Publish the snapshot, its partitioner and its deltas together, so a query never reads the files of
+                // a new snapshot with the deltas of an old one.
+                synchronized (this) {
+                    snapshotState = state;
+                }
             } else {
                 throw new StoreException("Data directory " + dataDir + " does not exist - store is in an inconsistent state");
             }
@@ -269,10 +301,176 @@ public class ParquetStore extends Store {
         }
     }
 
-    private void loadGraphPartitioner(final Path graphPartitionerPath) throws IOException {
+    private GraphPartitioner loadGraphPartitioner(final Path graphPartitionerPath) throws IOException {
         final FSDataInputStream stream = fs.open(graphPartitionerPath);
-        this.graphPartitioner = new GraphPartitionerSerialiser().read(stream);
+        final GraphPartitioner graphPartitioner = new GraphPartitionerSerialiser().read(stream);
         stream.close();
+        return graphPartitioner;
+    }
+
+    private SnapshotState loadDeltas(final long snapshot, final GraphPartitioner graphPartitioner) throws IOException {
+        final Path snapshotPath = new Path(getDataDir(), getSnapshotPath(snapshot));
+        final FileStatus[] deltaDirectories = fs.listStatus(snapshotPath,
+                path -> path.getName().startsWith(DELTA + "=") && !path.getName().endsWith("-tmp"));
+        final List<Long> snapshotDeltas = Arrays.stream(deltaDirectories)
+                .map(status -> Long.parseLong(status.getPath().getName().substring(DELTA.length() + 1)))
+                .sorted()
+                .collect(Collectors.toList());
+        final Map<String, List<Path>> snapshotDeltaFiles = new HashMap<>();
+        for (final long delta : snapshotDeltas) {
+            addDeltaFiles(snapshot, delta, snapshotDeltaFiles);
+        }
+        LOGGER.info("Loaded {} deltas for snapshot {}", snapshotDeltas.size(), snapshot);
+        return new SnapshotState(getDataDir(), snapshot, graphPartitioner, snapshotDeltas, snapshotDeltaFiles);
+    }
+
+    private void addDeltaFiles(final long snapshot, final long delta, final Map<String, List<Path>> files) throws IOException {
+        final List<String> groupSubDirs = new ArrayList<>();
+        getSchema().getGroups().forEach(group -> groupSubDirs.add(getGroupSubDir(group, false)));
+        getSchema().getEdgeGroups().forEach(group -> groupSubDirs.add(getGroupSubDir(group, true)));
+        for (final String groupSubDir : groupSubDirs) {
+            final Path groupDir = new Path(getDeltaPath(snapshot, delta), groupSubDir);
+            if (fs.exists(groupDir)) {
+                for (final FileStatus file : fs.listStatus(groupDir, path -> path.getName().endsWith(".parquet"))) {
+                    files.computeIfAbsent(groupSubDir + "/" + file.getPath().getName(), k -> new ArrayList<>())
+                            .add(file.getPath());
+                }
+            }
+        }
+    }
+
+    public static String getDeltaSubDir(final long delta) {
+        return DELTA + "=" + delta;
+    }
+
+    /**
+     * Gets the directory for a delta in the current snapshot.
+     *
+     * @param delta the id of the delta
+     * @return the {@link Path} of the delta directory.
+     */
+    public Path getDeltaPath(final long delta) {
+        return getDeltaPath(snapshotState.getSnapshot(), delta);
+    }
+
+    private Path getDeltaPath(final long snapshot, final long delta) {
+        return new Path(getDataDir() + "/" + getSnapshotPath(snapshot), getDeltaSubDir(delta));
+    }
+
+    /**
+     * Gets the current {@link SnapshotState}. A query should get this once and read all of its files from it, so that
+     * it sees a consistent snapshot and set of deltas even if a compaction replaces the snapshot whilst it runs.
+     *
+     * @return the current {@link SnapshotState}.
+     */
+    public SnapshotState getSnapshotState() {
+        return snapshotState;
+    }
+
+    /**
+     * Gets the ids of the deltas that have been added to the current snapshot, oldest first.
+     *
+     * @return the ids of the deltas.
+     */
+    public List<Long> getDeltas() {
+        return snapshotState.getDeltas();
+    }
+
+    /**
+     * Gets the delta files for a partition of a group, oldest first.
+     *
+     * @param group       the group
+     * @param partitionId the id of the partition
+     * @param reversed    true if the files for the reversed edges are required
+     * @return the delta files, or an empty list if there are no deltas for the partition.
+     */
+    public List<Path> getDeltaFiles(final String group, final Integer partitionId, final boolean reversed) {
+        return snapshotState.getDeltaFiles(group, partitionId, reversed);
+    }
+
+    /**
+     * Adds a delta, which has been written to the current snapshot, to the deltas that are read by queries.
+     *
+     * @param delta the id of the delta
+     * @throws StoreException if the delta directory could not be read.
+     */
+    public void addDelta(final long delta) throws StoreException {
+        final long snapshot = snapshotState.getSnapshot();
+        final Map<String, List<Path>> newDeltaFiles = new HashMap<>();
+        try {
+            addDeltaFiles(snapshot, delta, newDeltaFiles);
+        } catch (final IOException e) {
+            throw new StoreException("IOException reading delta " + delta, e);
+        }
+        synchronized (this) {
+            if (snapshot != snapshotState.getSnapshot()) {
+                throw new StoreException("Delta " + delta + " was written to snapshot " + snapshot
+                        + " which has been replaced by snapshot " + snapshotState.getSnapshot());
+            }
+            snapshotState = snapshotState.withDelta(delta, newDeltaFiles);
+        }
+    }
+
+    /**
+     * Gets the lock that is held whilst data is written to the store, so that deltas are not added to a snapshot whilst
+     * it is being replaced.
+     *
+     * @return the write {@link Lock}.
+     */
+    public Lock getWriteLock() {
+        return writeLock;
+    }
+
+    /**
+     * Compacts any deltas in the current snapshot into a new snapshot.
+     *
+     * @param spark the {@link SparkSession} used to aggregate and sort the data
+     * @throws StoreException if the deltas could not be compacted.
+     */
+    public void compactDeltas(final SparkSession spark) throws StoreException {
+        writeLock.lock();
+        final ExecutorService threadPool = Executors.newFixedThreadPool(getProperties().getThreadsAvailable());
+        try {
+            final List<Long> deltasToCompact = getDeltas();
+            if (!deltasToCompact.isEmpty()) {
+                LOGGER.info("Compacting {} deltas in snapshot {}", deltasToCompact.size(), snapshotState.getSnapshot());
+                new MergeIntoNewSnapshot(this, spark, threadPool, null, null).call();
+            }
+        } catch (final OperationException e) {
+            throw new StoreException("Failed to compact deltas", e);
+        } finally {
+            threadPool.shutdown();
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Compacts any deltas in the current snapshot into a new snapshot using a background thread. If a compaction is
+     * already waiting to run then another one is not started.
+     *
+     * @param spark the {@link SparkSession} used to aggregate and sort the data
+     * @return a {@link Future} for the compaction.
+     */
+    public synchronized Future<Void> compactDeltasInBackground(final SparkSession spark) {
+        if (null == compactionExecutorService) {
+            compactionExecutorService = Executors.newSingleThreadExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "parquet-compaction-" + getGraphId());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        if (null == compaction || compaction.isDone()) {
+            compaction = compactionExecutorService.submit((Callable<Void>) () -> {
+                try {
+                    compactDeltas(spark);
+                } catch (final StoreException e) {
+                    LOGGER.error("Background compaction of deltas failed", e);
+                    throw e;
+                }
+                return null;
+            });
+        }
+        return compaction;
     }
 
     public FileSystem getFS() {
@@ -283,6 +481,27 @@ public class ParquetStore extends Store {
         return schemaUtils;
     }
 
+    /**
+     * Gets the pool of threads shared by all queries against this store that is used to read elements from the
+     * Parquet files. The pool is created on first use with {@link ParquetStoreProperties#getThreadsAvailable()}
+     * daemon threads. The reads do not wait on the pool's threads for the results to be consumed, so queries
+     * that are consumed slowly, or not at all, do not stop other queries from using the pool.
+     *
+     * @return the {@link ExecutorService} used to retrieve elements.
+     */
+    public synchronized ExecutorService getRetrievalExecutorService() {
+        if (null == retrievalExecutorService) {
+            final int threads = getProperties().getThreadsAvailable();
+            LOGGER.debug("Creating retrieval thread pool with {} threads", threads);
+            retrievalExecutorService = Executors.newFixedThreadPool(threads, runnable -> {
+                final Thread thread = new Thread(runnable, "parquet-retriever-" + getGraphId());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return retrievalExecutorService;
+    }
+
     @Override
     public Set<StoreTrait> getTraits() {
         return TRAITS;
@@ -301,11 +520,7 @@ public class ParquetStore extends Store {
     }
 
     public String getFile(final String group, final Integer partitionId) {
-        return getDataDir()
-                + "/" + getSnapshotPath(currentSnapshot)
-                + "/" + GRAPH
-                + "/" + GROUP + "=" + group
-                + "/" + getFile(partitionId);
+        return snapshotState.getFile(group, partitionId);
     }
 
     public static String getFile(final Integer partitionId) {
@@ -325,16 +540,24 @@ public class ParquetStore extends Store {
     }
 
     public String getFileForReversedEdges(final String group, final Integer partitionId) {
-        return getDataDir()
-                + "/" + getSnapshotPath(currentSnapshot)
-                + "/" + REVERSED_EDGES
-                + "/" + GROUP + "=" + group
-                + "/" + getFile(partitionId);
+        return snapshotState.getFileForReversedEdges(group, partitionId);
     }
 
     public List<Path> getFilesForGroup(final String group) throws IOException {
+        return getFilesForGroup(snapshotState, group);
+    }
+
+    /**
+     * Gets the files for a group in the snapshot of a {@link SnapshotState}.
+     *
+     * @param state the {@link SnapshotState}
+     * @param group the group
+     * @return the files for the group.
+     * @throws IOException if the group directory could not be listed.
+     */
+    public List<Path> getFilesForGroup(final SnapshotState state, final String group) throws IOException {
         final Path dir = new Path(getDataDir()
-                + "/" + getSnapshotPath(currentSnapshot)
+                + "/" + getSnapshotPath(state.getSnapshot())
                 + "/" + GRAPH
                 + "/" + GROUP + "=" + group);
         final FileStatus[] files = fs.listStatus(dir, path -> path.getName().endsWith(".parquet"));
@@ -346,7 +569,7 @@ public class ParquetStore extends Store {
 
     public Path getGroupPath(final String group) {
         return new Path(getDataDir()
-                + "/" + getSnapshotPath(currentSnapshot)
+                + "/" + getSnapshotPath(snapshotState.getSnapshot())
                 + "/" + GRAPH
                 + "/" + GROUP + "=" + group);
     }
@@ -361,14 +584,14 @@ public class ParquetStore extends Store {
             throw new IllegalArgumentException("Invalid group: " + group + " is not an edge group");
         }
         return new Path(getDataDir()
-                + "/" + getSnapshotPath(currentSnapshot)
+                + "/" + getSnapshotPath(snapshotState.getSnapshot())
                 + "/" + REVERSED_EDGES
                 + "/" + GROUP + "=" + group);
     }
 
     public String getGraphPath() {
         return getDataDir()
-                + "/" + getSnapshotPath(currentSnapshot)
+                + "/" + getSnapshotPath(snapshotState.getSnapshot())
                 + "/" + GRAPH
                 + "/";
     }
@@ -449,7 +672,6 @@ public class ParquetStore extends Store {
         }
 
         LOGGER.info("Setting currentSnapshot to {} and reloading graph partitioner", snapshot);
-        this.currentSnapshot = snapshot;
         loadGraphPartitioner();
     }
 
@@ -469,6 +691,81 @@ public class ParquetStore extends Store {
     }
 
     public GraphPartitioner getGraphPartitioner() {
-        return graphPartitioner;
+        return snapshotState.getGraphPartitioner();
+    }
+
+    /**
+     * An immutable view of a snapshot of a {@link ParquetStore}: the snapshot id, its {@link GraphPartitioner} and the
+     * deltas that have been added to it. The store replaces its state in a single step, so a query that reads all its
+     * files from one state never mixes the files of a new snapshot with the deltas of the snapshot it replaced.
+     */
+    public static final class SnapshotState {
+        private final String dataDir;
+        private final long snapshot;
+        private final GraphPartitioner graphPartitioner;
+        private final List<Long> deltas;
+        private final Map<String, List<Path>> deltaFiles;
+
+        SnapshotState(final String dataDir, final long snapshot, final GraphPartitioner graphPartitioner,
+                      final List<Long> deltas, final Map<String, List<Path>> deltaFiles) {
+            this.dataDir = dataDir;
+            this.snapshot = snapshot;
+            this.graphPartitioner = graphPartitioner;
+            this.deltas = Collections.unmodifiableList(deltas);
+            this.deltaFiles = Collections.unmodifiableMap(deltaFiles);
+        }
+
+        SnapshotState withDelta(final long delta, final Map<String, List<Path>> newDeltaFiles) {
+            final List<Long> updatedDeltas = new ArrayList<>(deltas);
+            updatedDeltas.add(delta);
+            final Map<String, List<Path>> updatedDeltaFiles = new HashMap<>(deltaFiles);
+            newDeltaFiles.forEach((file, paths) -> {
+                final List<Path> updatedPaths = new ArrayList<>(updatedDeltaFiles.getOrDefault(file, Collections.emptyList()));
+                updatedPaths.addAll(paths);
+                updatedDeltaFiles.put(file, Collections.unmodifiableList(updatedPaths));
+            });
+            return new SnapshotState(dataDir, snapshot, graphPartitioner, updatedDeltas, updatedDeltaFiles);
+        }
+
+        public long getSnapshot() {
+            return snapshot;
+        }
+
+        public GraphPartitioner getGraphPartitioner() {
+            return graphPartitioner;
+        }
+
+        public List<Long> getDeltas() {
+            return deltas;
+        }
+
+        /**
+         * Gets the delta files for a partition of a group, oldest first.
+         *
+         * @param group       the group
+         * @param partitionId the id of the partition
+         * @param reversed    true if the files for the reversed edges are required
+         * @return the delta files, or an empty list if there are no deltas for the partition.
+         */
+        public List<Path> getDeltaFiles(final String group, final Integer partitionId, final boolean reversed) {
+            final List<Path> files = deltaFiles.get(getGroupSubDir(group, reversed) + "/" + ParquetStore.getFile(partitionId));
+            return null != files ? Collections.unmodifiableList(files) : Collections.emptyList();
+        }
+
+        public String getFile(final String group, final Integer partitionId) {
+            return dataDir
+                    + "/" + getSnapshotPath(snapshot)
+                    + "/" + GRAPH
+                    + "/" + GROUP + "=" + group
+                    + "/" + ParquetStore.getFile(partitionId);
+        }
+
+        public String getFileForReversedEdges(final String group, final Integer partitionId) {
+            return dataDir
+                    + "/" + getSnapshotPath(snapshot)
+                    + "/" + REVERSED_EDGES
+                    + "/" + GROUP + "=" + group
+                    + "/" + ParquetStore.getFile(partitionId);
+        }
     }
 }
@@ -41,10 +41,16 @@ public class ParquetStoreProperties extends StoreProperties implements Serializa
     public static final String PARQUET_ROW_GROUP_SIZE_IN_BYTES = "parquet.add_elements.row_group.size";
     public static final String PARQUET_PAGE_SIZE_IN_BYTES = "parquet.add_elements.page.size";
     public static final String PARQUET_THREADS_AVAILABLE = "parquet.threadsAvailable";
+    public static final String PARQUET_RETRIEVAL_QUEUE_SIZE = "parquet.retrieval.queue.size";
     public static final String PARQUET_ADD_ELEMENTS_OUTPUT_FILES_PER_GROUP = "parquet.add_elements.output_files_per_group";
     public static final String SPARK_MASTER = "spark.master";
     public static final String PARQUET_SKIP_VALIDATION = "parquet.skip_validation";
     public static final String COMPRESSION_CODEC = "parquet.compression.codec";
+    public static final String PARQUET_ADD_ELEMENTS_INCREMENTAL = "parquet.add_elements.incremental";
+    public static final String PARQUET_COMPACTION_MAX_DELTAS = "parquet.compaction.max_deltas";
+    public static final String PARQUET_COMPACTION_BACKGROUND = "parquet.compaction.background";
+    public static final String PARQUET_ROW_GROUP_INDEX = "parquet.add_elements.row_group_index";
+    public static final String PARQUET_ROW_GROUP_INDEX_FALSE_POSITIVE_RATE = "parquet.add_elements.row_group_index.false_positive_rate";
 
     // Default values - NB No default values for DATA_DIR or TEMP_FILES_DIR to
     // avoid the inadvertent storage of data in unexpected folders.
@@ -54,10 +60,16 @@ public class ParquetStoreProperties extends StoreProperties implements Serializa
     public static final String PARQUET_SORT_BY_SPLITS_ON_INGEST_DEFAULT = "false";
     private static final String PARQUET_SPLIT_POINTS_SAMPLE_RATE_DEFAULT = "10";
     private static final String PARQUET_THREADS_AVAILABLE_DEFAULT = "3";
+    private static final String PARQUET_RETRIEVAL_QUEUE_SIZE_DEFAULT = "10000";
     private static final String PARQUET_ADD_ELEMENTS_OUTPUT_FILES_PER_GROUP_DEFAULT = "10";
     private static final String SPARK_MASTER_DEFAULT = "local[*]";
     private static final String PARQUET_SKIP_VALIDATION_DEFAULT = "false";
     private static final String COMPRESSION_CODEC_DEFAULT = "GZIP";
+    private static final String PARQUET_ADD_ELEMENTS_INCREMENTAL_DEFAULT = "false";
+    private static final String PARQUET_COMPACTION_MAX_DELTAS_DEFAULT = "10";
+    private static final String PARQUET_COMPACTION_BACKGROUND_DEFAULT = "true";
+    private static final String PARQUET_ROW_GROUP_INDEX_DEFAULT = "true";
+    private static final String PARQUET_ROW_GROUP_INDEX_FALSE_POSITIVE_RATE_DEFAULT = "0.01";
     private static final long serialVersionUID = 7695540336792378185L;
 
     public ParquetStoreProperties() {
@@ -104,6 +116,20 @@ public class ParquetStoreProperties extends StoreProperties implements Serializa
         set(PARQUET_THREADS_AVAILABLE, threadsAvailable.toString());
     }
 
+    /**
+     * The maximum number of elements that can be buffered between the threads reading Parquet files and the
+     * consumer of the results of a query. Once the buffer is full the reading threads wait for the consumer.
+     *
+     * @return the size of the retrieval buffer.
+     */
+    public Integer getRetrievalQueueSize() {
+        return Integer.parseInt(get(PARQUET_RETRIEVAL_QUEUE_SIZE, PARQUET_RETRIEVAL_QUEUE_SIZE_DEFAULT));
+    }
+
+    public void setRetrievalQueueSize(final Integer retrievalQueueSize) {
+        set(PARQUET_RETRIEVAL_QUEUE_SIZE, retrievalQueueSize.toString());
+    }
+
     public Integer getRowGroupSize() {
         return Integer.parseInt(get(PARQUET_ROW_GROUP_SIZE_IN_BYTES, PARQUET_ROW_GROUP_SIZE_IN_BYTES_DEFAULT));
     }
@@ -155,6 +181,73 @@ public class ParquetStoreProperties extends StoreProperties implements Serializa
         set(PARQUET_SKIP_VALIDATION, String.valueOf(skipValidation));
     }
 
+    /**
+     * If true then {@link uk.gov.gchq.gaffer.operation.impl.add.AddElements} writes the new elements as sorted and
+     * aggregated delta files for the partitions that received new data, rather than merging them with all the data
+     * in the store into a new snapshot. The deltas are merged with the snapshot when queried and are compacted into a
+     * new snapshot once there are {@link #getCompactionMaxDeltas()} of them.
+     *
+     * @return true if elements should be added as delta files.
+     */
+    public boolean getAddElementsIncremental() {
+        return Boolean.parseBoolean(get(PARQUET_ADD_ELEMENTS_INCREMENTAL, PARQUET_ADD_ELEMENTS_INCREMENTAL_DEFAULT));
+    }
+
+    public void setAddElementsIncremental(final boolean addElementsIncremental) {
+        set(PARQUET_ADD_ELEMENTS_INCREMENTAL, String.valueOf(addElementsIncremental));
+    }
+
+    /**
+     * The number of delta files that can be added to a snapshot before they are compacted into a new snapshot. If
+     * this is less than 1 then deltas are never compacted automatically.
+     *
+     * @return the maximum number of deltas before compaction.
+     */
+    public int getCompactionMaxDeltas() {
+        return Integer.parseInt(get(PARQUET_COMPACTION_MAX_DELTAS, PARQUET_COMPACTION_MAX_DELTAS_DEFAULT));
+    }
+
+    public void setCompactionMaxDeltas(final int compactionMaxDeltas) {
+        set(PARQUET_COMPACTION_MAX_DELTAS, String.valueOf(compactionMaxDeltas));
+    }
+
+    /**
+     * If true then deltas are compacted by a background thread, otherwise they are compacted by the
+     * {@link uk.gov.gchq.gaffer.operation.impl.add.AddElements} operation that reaches the maximum number of deltas.
+     *
+     * @return true if deltas should be compacted in the background.
+     */
+    public boolean getCompactionBackground() {
+        return Boolean.parseBoolean(get(PARQUET_COMPACTION_BACKGROUND, PARQUET_COMPACTION_BACKGROUND_DEFAULT));
+    }
+
+    public void setCompactionBackground(final boolean compactionBackground) {
+        set(PARQUET_COMPACTION_BACKGROUND, String.valueOf(compactionBackground));
+    }
+
+    /**
+     * If true then an index file is written next to each sorted Parquet file. The index contains the minimum and
+     * maximum vertex and a Bloom filter of the vertices in each row group, and is used to skip files and seeds that
+     * cannot match when the store is queried with seeds.
+     *
+     * @return true if row group indexes should be written.
+     */
+    public boolean getRowGroupIndex() {
+        return Boolean.parseBoolean(get(PARQUET_ROW_GROUP_INDEX, PARQUET_ROW_GROUP_INDEX_DEFAULT));
+    }
+
+    public void setRowGroupIndex(final boolean rowGroupIndex) {
+        set(PARQUET_ROW_GROUP_INDEX, String.valueOf(rowGroupIndex));
+    }
+
+    public double getRowGroupIndexFalsePositiveRate() {
+        return Double.parseDouble(get(PARQUET_ROW_GROUP_INDEX_FALSE_POSITIVE_RATE, PARQUET_ROW_GROUP_INDEX_FALSE_POSITIVE_RATE_DEFAULT));
+    }
+
+    public void setRowGroupIndexFalsePositiveRate(final double falsePositiveRate) {
+        set(PARQUET_ROW_GROUP_INDEX_FALSE_POSITIVE_RATE, String.valueOf(falsePositiveRate));
+    }
+
     @Override
     public String getJsonSerialiserModules() {
         return new StringDeduplicateConcat().apply(
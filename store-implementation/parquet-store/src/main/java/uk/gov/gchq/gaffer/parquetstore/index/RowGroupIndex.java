@@ -0,0 +1,246 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.parquetstore.index;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.util.bloom.BloomFilter;
+import org.apache.hadoop.util.bloom.Key;
+import org.apache.hadoop.util.hash.Hash;
+
+import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
+import uk.gov.gchq.gaffer.parquetstore.partitioner.PartitionKey;
+import uk.gov.gchq.gaffer.parquetstore.partitioner.serialisation.PartitionKeySerialiser;
+import uk.gov.gchq.gaffer.parquetstore.utils.SeedComparator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A <code>RowGroupIndex</code> is stored in a sidecar file next to a sorted Parquet file. For each row group in the
+ * file it holds the minimum and maximum value of the column that the file is sorted by first (the vertex for entity
+ * groups, the source for edges and the destination for reversed edges) and a {@link BloomFilter} of the values of
+ * that column.
+ * <p>
+ * The values are the Parquet objects for the column, i.e. the same objects that are used to create the filters for
+ * seeds.
+ */
+public class RowGroupIndex {
+    public static final String FILE_PREFIX = "_";
+    public static final String FILE_SUFFIX = ".index";
+    private static final SeedComparator COMPARATOR = new SeedComparator();
+
+    private final List<RowGroup> rowGroups;
+    private final boolean sorted;
+
+    public RowGroupIndex(final List<RowGroup> rowGroups) {
+        this.rowGroups = rowGroups;
+        this.sorted = isSorted(rowGroups);
+    }
+
+    /**
+     * Gets the path of the index for a Parquet file. The name of the index starts with an underscore so that it is
+     * treated as a hidden file, and skipped, when Spark or Hadoop read all the files in the directory.
+     *
+     * @param file the Parquet file
+     * @return the path of the index for the file.
+     */
+    public static Path getIndexPath(final Path file) {
+        return new Path(file.getParent(), FILE_PREFIX + file.getName() + FILE_SUFFIX);
+    }
+
+    public List<RowGroup> getRowGroups() {
+        return Collections.unmodifiableList(rowGroups);
+    }
+
+    /**
+     * Tests whether each of the keys might be in the file. The keys must be sorted using a {@link SeedComparator}.
+     * As the row groups are also sorted, the keys and the row groups are merged so that each key is only tested
+     * against the Bloom filters of the row groups whose range contains it.
+     *
+     * @param sortedKeys the keys, sorted using a {@link SeedComparator}
+     * @return an array containing true for each key that might be in the file.
+     * @throws IOException if a key could not be serialised.
+     */
+    public boolean[] mightContain(final List<Object[]> sortedKeys) throws IOException {
+        final boolean[] results = new boolean[sortedKeys.size()];
+        int firstRowGroup = 0;
+        for (int i = 0; i < sortedKeys.size(); i++) {
+            final Object[] key = sortedKeys.get(i);
+            if (sorted) {
+                // Skip the row groups that only contain smaller keys - these also only contain keys that are smaller
+                // than the rest of the keys
+                while (firstRowGroup < rowGroups.size() && COMPARATOR.compare(rowGroups.get(firstRowGroup).getMax(), key) < 0) {
+                    firstRowGroup++;
+                }
+            }
+            Key bloomKey = null;
+            for (int j = firstRowGroup; j < rowGroups.size(); j++) {
+                final RowGroup rowGroup = rowGroups.get(j);
+                if (0 < COMPARATOR.compare(rowGroup.getMin(), key)) {
+                    if (sorted) {
+                        break;
+                    }
+                    continue;
+                }
+                if (COMPARATOR.compare(rowGroup.getMax(), key) < 0) {
+                    continue;
+                }
+                if (null == bloomKey) {
+                    bloomKey = new Key(toBytes(key));
+                }
+                if (rowGroup.getBloomFilter().membershipTest(bloomKey)) {
+                    results[i] = true;
+                    break;
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Converts a key into the bytes that are added to the {@link BloomFilter}s.
+     *
+     * @param key the Parquet objects for a column
+     * @return the bytes of the key.
+     * @throws IOException if the key could not be serialised.
+     */
+    public static byte[] toBytes(final Object[] key) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream stream = new DataOutputStream(bytes);
+        new PartitionKeySerialiser().write(new PartitionKey(key), stream);
+        stream.flush();
+        return bytes.toByteArray();
+    }
+
+    private static boolean isSorted(final List<RowGroup> rowGroups) {
+        for (int i = 1; i < rowGroups.size(); i++) {
+            if (COMPARATOR.compare(rowGroups.get(i - 1).getMin(), rowGroups.get(i).getMin()) > 0
+                    || COMPARATOR.compare(rowGroups.get(i - 1).getMax(), rowGroups.get(i).getMax()) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("rowGroups", rowGroups)
+                .append("sorted", sorted)
+                .toString();
+    }
+
+    /**
+     * The index entry for a single row group.
+     */
+    public static class RowGroup {
+        private final long rowCount;
+        private final Object[] min;
+        private final Object[] max;
+        private final BloomFilter bloomFilter;
+
+        public RowGroup(final long rowCount, final Object[] min, final Object[] max, final BloomFilter bloomFilter) {
+            this.rowCount = rowCount;
+            this.min = min;
+            this.max = max;
+            this.bloomFilter = bloomFilter;
+        }
+
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        public Object[] getMin() {
+            return min;
+        }
+
+        public Object[] getMax() {
+            return max;
+        }
+
+        public BloomFilter getBloomFilter() {
+            return bloomFilter;
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this)
+                    .append("rowCount", rowCount)
+                    .append("min", min)
+                    .append("max", max)
+                    .toString();
+        }
+    }
+
+    /**
+     * Used to create the index entries for row groups. The keys for a row group are added and then the entry is
+     * created from them.
+     */
+    public static class RowGroupBuilder {
+        private final BloomFilter bloomFilter;
+        private long rowCount;
+        private Object[] min;
+        private Object[] max;
+
+        public RowGroupBuilder(final long expectedRowCount, final double falsePositiveRate) {
+            final int numItems = (int) Math.max(1L, Math.min(expectedRowCount, Integer.MAX_VALUE));
+            final int size = Math.max(64, (int) (-numItems * Math.log(falsePositiveRate) / Math.pow(Math.log(2.0), 2.0)));
+            final int numHashes = Math.max(1, (int) Math.round((double) size / numItems * Math.log(2.0)));
+            this.bloomFilter = new BloomFilter(size, numHashes, Hash.MURMUR_HASH);
+        }
+
+        public RowGroupBuilder add(final Object[] key) throws IOException {
+            rowCount++;
+            if (null == min || COMPARATOR.compare(key, min) < 0) {
+                min = key;
+            }
+            if (null == max || COMPARATOR.compare(key, max) > 0) {
+                max = key;
+            }
+            bloomFilter.add(new Key(toBytes(key)));
+            return this;
+        }
+
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        public RowGroup build() {
+            return new RowGroup(rowCount, min, max, bloomFilter);
+        }
+    }
+
+    /**
+     * Creates the index for a file from its row groups, ignoring any empty row groups.
+     *
+     * @param rowGroupBuilders the builders for the row groups, in the order of the row groups in the file
+     * @return the index.
+     */
+    public static RowGroupIndex fromBuilders(final List<RowGroupBuilder> rowGroupBuilders) {
+        final List<RowGroup> rowGroups = new ArrayList<>(rowGroupBuilders.size());
+        for (final RowGroupBuilder builder : rowGroupBuilders) {
+            if (0 < builder.getRowCount()) {
+                rowGroups.add(builder.build());
+            }
+        }
+        return new RowGroupIndex(rowGroups);
+    }
+}
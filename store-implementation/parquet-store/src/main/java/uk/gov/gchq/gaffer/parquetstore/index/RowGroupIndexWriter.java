@@ -0,0 +1,146 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.parquetstore.index;
+
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.format.converter.ParquetMetadataConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.parquetstore.ParquetStore;
+import uk.gov.gchq.gaffer.parquetstore.index.serialisation.RowGroupIndexSerialiser;
+import uk.gov.gchq.gaffer.parquetstore.io.reader.ParquetElementReader;
+import uk.gov.gchq.gaffer.parquetstore.utils.GafferGroupObjectConverter;
+import uk.gov.gchq.gaffer.parquetstore.utils.SchemaUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates the {@link RowGroupIndex} for a sorted Parquet file and writes it to the sidecar file next to it.
+ * <p>
+ * The sorted files are written by Spark, so the index is created by reading the row group sizes from the footer of
+ * the file and then reading the column that the file is sorted by.
+ */
+public class RowGroupIndexWriter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RowGroupIndexWriter.class);
+
+    private final SchemaUtils schemaUtils;
+    private final FileSystem fs;
+    private final double falsePositiveRate;
+
+    public RowGroupIndexWriter(final ParquetStore store) {
+        this(store.getSchemaUtils(), store.getFS(), store.getProperties().getRowGroupIndexFalsePositiveRate());
+    }
+
+    public RowGroupIndexWriter(final SchemaUtils schemaUtils, final FileSystem fs, final double falsePositiveRate) {
+        this.schemaUtils = schemaUtils;
+        this.fs = fs;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    /**
+     * Creates the index for a file and writes it to the sidecar file.
+     *
+     * @param group    the group of the elements in the file
+     * @param reversed true if the file contains reversed edges
+     * @param file     the sorted Parquet file
+     * @return the index.
+     * @throws IOException if the file could not be read or the index could not be written.
+     */
+    public RowGroupIndex write(final String group, final boolean reversed, final Path file) throws IOException {
+        final boolean isEntity = schemaUtils.getEntityGroups().contains(group);
+        final String column = isEntity ? ParquetStore.VERTEX : (reversed ? ParquetStore.DESTINATION : ParquetStore.SOURCE);
+        final GafferGroupObjectConverter converter = schemaUtils.getConverter(group);
+
+        final List<BlockMetaData> blocks = ParquetFileReader
+                .readFooter(fs.getConf(), file, ParquetMetadataConverter.NO_FILTER)
+                .getBlocks();
+        final List<RowGroupIndex.RowGroupBuilder> rowGroupBuilders = new ArrayList<>(blocks.size());
+        for (final BlockMetaData block : blocks) {
+            rowGroupBuilders.add(new RowGroupIndex.RowGroupBuilder(block.getRowCount(), falsePositiveRate));
+        }
+
+        // The elements are read in the order of the row groups, so the footer gives the row group of each element
+        try (final ParquetReader<Element> reader = new ParquetElementReader.Builder<Element>(file)
+                .isEntity(isEntity)
+                .usingConverter(converter)
+                .withConf(fs.getConf())
+                .build()) {
+            int rowGroup = -1;
+            long rowsLeftInRowGroup = 0;
+            Element e = reader.read();
+            while (null != e) {
+                while (0 == rowsLeftInRowGroup) {
+                    rowGroup++;
+                    if (rowGroup >= blocks.size()) {
+                        throw new IOException("File " + file + " contains more rows than its footer");
+                    }
+                    rowsLeftInRowGroup = blocks.get(rowGroup).getRowCount();
+                }
+                rowGroupBuilders.get(rowGroup).add(converter.gafferObjectToParquetObjects(column, getVertex(e, column)));
+                rowsLeftInRowGroup--;
+                e = reader.read();
+            }
+        }
+
+        final RowGroupIndex index = RowGroupIndex.fromBuilders(rowGroupBuilders);
+        final Path indexPath = RowGroupIndex.getIndexPath(file);
+        LOGGER.debug("Writing index of {} row groups for file {} to {}", index.getRowGroups().size(), file, indexPath);
+        try (final FSDataOutputStream stream = fs.create(indexPath, true)) {
+            new RowGroupIndexSerialiser().write(index, stream);
+        }
+        return index;
+    }
+
+    /**
+     * Creates the index for a file and writes it to the sidecar file. If this fails then any partially written index is
+     * deleted, so that the file is queried without an index, and the failure is logged.
+     *
+     * @param group    the group of the elements in the file
+     * @param reversed true if the file contains reversed edges
+     * @param file     the sorted Parquet file
+     */
+    public void writeOrWarn(final String group, final boolean reversed, final Path file) {
+        try {
+            write(group, reversed, file);
+        } catch (final IOException | RuntimeException e) {
+            LOGGER.warn("Failed to write the row group index for file {} - it will be queried without an index", file, e);
+            try {
+                fs.delete(RowGroupIndex.getIndexPath(file), false);
+            } catch (final IOException deleteException) {
+                LOGGER.warn("Failed to delete the row group index for file {}", file, deleteException);
+            }
+        }
+    }
+
+    private static Object getVertex(final Element element, final String column) {
+        if (element instanceof Entity) {
+            return ((Entity) element).getVertex();
+        }
+        return ParquetStore.DESTINATION.equals(column) ? ((Edge) element).getDestination() : ((Edge) element).getSource();
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.parquetstore.index.serialisation;
+
+import org.apache.hadoop.util.bloom.BloomFilter;
+
+import uk.gov.gchq.gaffer.parquetstore.index.RowGroupIndex;
+import uk.gov.gchq.gaffer.parquetstore.partitioner.PartitionKey;
+import uk.gov.gchq.gaffer.parquetstore.partitioner.serialisation.PartitionKeySerialiser;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RowGroupIndexSerialiser {
+    private final PartitionKeySerialiser partitionKeySerialiser = new PartitionKeySerialiser();
+
+    public void write(final RowGroupIndex rowGroupIndex, final DataOutputStream stream) throws IOException {
+        final List<RowGroupIndex.RowGroup> rowGroups = rowGroupIndex.getRowGroups();
+        stream.writeInt(rowGroups.size());
+        for (final RowGroupIndex.RowGroup rowGroup : rowGroups) {
+            stream.writeLong(rowGroup.getRowCount());
+            partitionKeySerialiser.write(new PartitionKey(rowGroup.getMin()), stream);
+            partitionKeySerialiser.write(new PartitionKey(rowGroup.getMax()), stream);
+            rowGroup.getBloomFilter().write(stream);
+        }
+    }
+
+    public RowGroupIndex read(final DataInputStream stream) throws IOException {
+        final int numRowGroups = stream.readInt();
+        final List<RowGroupIndex.RowGroup> rowGroups = new ArrayList<>(numRowGroups);
+        for (int i = 0; i < numRowGroups; i++) {
+            final long rowCount = stream.readLong();
+            final Object[] min = partitionKeySerialiser.read(stream).getPartitionKey();
+            final Object[] max = partitionKeySerialiser.read(stream).getPartitionKey();
+            final BloomFilter bloomFilter = new BloomFilter();
+            bloomFilter.readFields(stream);
+            rowGroups.add(new RowGroupIndex.RowGroup(rowCount, min, max, bloomFilter));
+        }
+        return new RowGroupIndex(rowGroups);
+    }
+}
@@ -30,6 +30,7 @@ import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.exception.SerialisationException;
 import uk.gov.gchq.gaffer.operation.OperationException;
 import uk.gov.gchq.gaffer.parquetstore.ParquetStore;
+import uk.gov.gchq.gaffer.parquetstore.index.RowGroupIndexWriter;
 import uk.gov.gchq.gaffer.parquetstore.operation.handler.spark.utilities.WriteData;
 import uk.gov.gchq.gaffer.parquetstore.operation.handler.utilities.AggregateDataForGroup;
 import uk.gov.gchq.gaffer.parquetstore.operation.handler.utilities.CalculatePartitioner;
@@ -73,13 +74,22 @@ public class AddElementsFromRDD {
     }
 
     void addElementsFromRDD(final JavaRDD<Element> input) throws OperationException {
-        writeInputData(input);
-        aggregateNewAndOldData();
-        sort();
-        sortEdgeGroupsByDestination();
-        calculateAndWritePartitioner();
-        createNewSnapshotDirectory();
-        deleteTempDirectory();
+        store.getWriteLock().lock();
+        try {
+            // The partitioner is recalculated, so any deltas need merging into the snapshot first
+            store.compactDeltas(spark);
+            writeInputData(input);
+            aggregateNewAndOldData();
+            sort();
+            sortEdgeGroupsByDestination();
+            calculateAndWritePartitioner();
+            createNewSnapshotDirectory();
+            deleteTempDirectory();
+        } catch (final StoreException e) {
+            throw new OperationException("Exception compacting deltas", e);
+        } finally {
+            store.getWriteLock().unlock();
+        }
     }
 
     void addElementsFromRDD(final RDD<Element> input) throws OperationException {
@@ -277,6 +287,27 @@ public class AddElementsFromRDD {
         }
     }
 
+    private void writeRowGroupIndexes(final String newDataDir) throws IOException {
+        final RowGroupIndexWriter indexWriter = new RowGroupIndexWriter(store);
+        for (final String group : schema.getGroups()) {
+            writeRowGroupIndexes(indexWriter, new Path(newDataDir, ParquetStore.getGroupSubDir(group, false)), group, false);
+        }
+        for (final String group : schema.getEdgeGroups()) {
+            writeRowGroupIndexes(indexWriter, new Path(newDataDir, ParquetStore.getGroupSubDir(group, true)), group, true);
+        }
+    }
+
+    private void writeRowGroupIndexes(final RowGroupIndexWriter indexWriter, final Path groupDir, final String group,
+                                      final boolean reversed) throws IOException {
+        if (!fs.exists(groupDir)) {
+            return;
+        }
+        LOGGER.info("Writing row group indexes for the files in {}", groupDir);
+        for (final FileStatus file : fs.listStatus(groupDir, path -> path.getName().endsWith(".parquet"))) {
+            indexWriter.writeOrWarn(group, reversed, file.getPath());
+        }
+    }
+
     /**
      * Creates a new snapshot directory within the data directory in the store and moves the new data there.
      *
@@ -299,6 +330,9 @@ public class AddElementsFromRDD {
                 LOGGER.debug("Renaming {} to {}", fss[i].getPath(), destination);
                 fs.rename(fss[i].getPath(), destination);
             }
+            if (store.getProperties().getRowGroupIndex()) {
+                writeRowGroupIndexes(newDataDir);
+            }
 
             // Move snapshot-tmp directory to snapshot
             final String directoryWithoutTmp = newDataDir.substring(0, newDataDir.lastIndexOf("-tmp"));
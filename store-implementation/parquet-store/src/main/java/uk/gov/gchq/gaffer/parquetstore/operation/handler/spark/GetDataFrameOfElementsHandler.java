@@ -32,6 +32,7 @@ import uk.gov.gchq.gaffer.spark.SparkContextUtil;
 import uk.gov.gchq.gaffer.spark.operation.dataframe.GetDataFrameOfElements;
 import uk.gov.gchq.gaffer.store.Context;
 import uk.gov.gchq.gaffer.store.Store;
+import uk.gov.gchq.gaffer.store.StoreException;
 import uk.gov.gchq.gaffer.store.operation.handler.OutputOperationHandler;
 
 import java.io.Serializable;
@@ -61,6 +62,12 @@ public class GetDataFrameOfElementsHandler implements OutputOperationHandler<Get
                         .edges(store.getSchema().getEdgeGroups()).build())) {
             throw new OperationException("This operation does not currently support views");
         }
+        // The Dataset is read from the snapshot directory, so any deltas need merging into the snapshot first
+        try {
+            store.compactDeltas(spark);
+        } catch (final StoreException e) {
+            throw new OperationException("Exception compacting deltas", e);
+        }
         LOGGER.debug("Creating a Dataset<Row> from path {} with option mergeSchema=true", store.getGraphPath());
 
         final StructType schema = new SchemaUtils(store.getSchema()).getMergedSparkSchema(store.getSchema().getGroups());
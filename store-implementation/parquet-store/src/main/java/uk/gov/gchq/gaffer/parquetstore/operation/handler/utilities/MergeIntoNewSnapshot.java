@@ -0,0 +1,293 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.parquetstore.operation.handler.utilities;
+
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.FileUtil;
+import org.apache.hadoop.fs.Path;
+import org.apache.spark.sql.SparkSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.parquetstore.ParquetStore;
+import uk.gov.gchq.gaffer.parquetstore.index.RowGroupIndex;
+import uk.gov.gchq.gaffer.parquetstore.index.RowGroupIndexWriter;
+import uk.gov.gchq.gaffer.parquetstore.partitioner.GraphPartitioner;
+import uk.gov.gchq.gaffer.parquetstore.partitioner.GroupPartitioner;
+import uk.gov.gchq.gaffer.parquetstore.partitioner.Partition;
+import uk.gov.gchq.gaffer.parquetstore.partitioner.serialisation.GraphPartitionerSerialiser;
+import uk.gov.gchq.gaffer.store.StoreException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+
+/**
+ * Merges the data in the current snapshot of a {@link ParquetStore}, the delta files that have been added to that
+ * snapshot and, optionally, some new data into a new snapshot directory, which then becomes the store's current
+ * snapshot.
+ * <p>
+ * Only the partitions that have new data or deltas are aggregated and sorted. The files for the other partitions are
+ * already aggregated and sorted, so they are copied into the new snapshot.
+ * <p>
+ * If row group indexes are enabled then a {@link RowGroupIndex} is written next to each file in the new snapshot.
+ */
+public class MergeIntoNewSnapshot implements Callable<CallableResult> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MergeIntoNewSnapshot.class);
+
+    private final ParquetStore store;
+    private final SparkSession spark;
+    private final ExecutorService threadPool;
+    private final BiFunction<String, Integer, String> directoryForNewData;
+    private final BiFunction<String, Integer, String> directoryForNewDataForReversedEdges;
+    private final FileSystem fs;
+    private final BiFunction<String, Integer, String> directoryForSortedResults;
+    private final BiFunction<String, Integer, String> directoryForSortedResultsForReversedEdges;
+    private final RowGroupIndexWriter indexWriter;
+
+    /**
+     * @param store                               the store to create the new snapshot for
+     * @param spark                               the Spark session used to aggregate and sort the data
+     * @param threadPool                          the threads used to run the aggregate and sort tasks
+     * @param directoryForNewData                 the directory containing the new data for a group and partition id,
+     *                                            or null if there is no new data
+     * @param directoryForNewDataForReversedEdges the directory containing the new data for the reversed edges of a
+     *                                            group and partition id, or null if there is no new data
+     */
+    public MergeIntoNewSnapshot(final ParquetStore store,
+                                final SparkSession spark,
+                                final ExecutorService threadPool,
+                                final BiFunction<String, Integer, String> directoryForNewData,
+                                final BiFunction<String, Integer, String> directoryForNewDataForReversedEdges) {
+        this.store = store;
+        this.spark = spark;
+        this.threadPool = threadPool;
+        this.directoryForNewData = directoryForNewData;
+        this.directoryForNewDataForReversedEdges = directoryForNewDataForReversedEdges;
+        this.fs = store.getFS();
+        final String tmpDirectory = store.getTempFilesDir();
+        this.directoryForSortedResults = (group, partitionId) ->
+                tmpDirectory
+                        + "/sorted_new_old_merged"
+                        + "/group=" + group
+                        + "/partition=" + partitionId;
+        this.directoryForSortedResultsForReversedEdges = (group, partitionId) ->
+                tmpDirectory
+                        + "/sorted_new_old_merged"
+                        + "/REVERSED-group=" + group
+                        + "/partition=" + partitionId;
+        this.indexWriter = store.getProperties().getRowGroupIndex() ? new RowGroupIndexWriter(store) : null;
+    }
+
+    @Override
+    public CallableResult call() throws OperationException {
+        final GraphPartitioner currentGraphPartitioner = store.getGraphPartitioner();
+        try {
+            // Create the new snapshot directory (the -tmp at the end allows us to add data to the directory, and then
+            // when this is all finished we rename the directory to remove the -tmp; this allows us to make the
+            // replacement of the old data with the new data an atomic operation and ensures that a get operation
+            // against the store will not read the directory when only some of the data has been moved there). The
+            // snapshot must be newer than the current one, even if it is created in the same millisecond.
+            final long snapshot = Math.max(System.currentTimeMillis(), store.getLatestSnapshot() + 1);
+            final String newDataDir = store.getDataDir() + "/" + ParquetStore.getSnapshotPath(snapshot) + "-tmp";
+            LOGGER.info("Creating new snapshot directory {}", newDataDir);
+            fs.mkdirs(new Path(newDataDir));
+            for (final String group : store.getSchema().getGroups()) {
+                final Path groupDir = new Path(newDataDir, ParquetStore.getGroupSubDir(group, false));
+                fs.mkdirs(groupDir);
+                LOGGER.info("Created directory {}", groupDir);
+            }
+            for (final String group : store.getSchema().getEdgeGroups()) {
+                final Path groupDir = new Path(newDataDir, ParquetStore.getGroupSubDir(group, true));
+                fs.mkdirs(groupDir);
+                LOGGER.info("Created directory {}", groupDir);
+            }
+
+            // For every group and partition, aggregate the new data and the deltas with the old data and then sort.
+            // Partitions with no new data and no deltas are copied to the new snapshot.
+            final List<Callable<CallableResult>> tasks = new ArrayList<>();
+            final List<SortedPartition> partitionsToMove = new ArrayList<>();
+            for (final String group : store.getSchema().getGroups()) {
+                addTasks(group, false, currentGraphPartitioner.getGroupPartitioner(group), newDataDir, tasks, partitionsToMove);
+            }
+            for (final String group : store.getSchema().getEdgeGroups()) {
+                addTasks(group, true, currentGraphPartitioner.getGroupPartitionerForReversedEdges(group), newDataDir, tasks, partitionsToMove);
+            }
+            runTasks(threadPool, tasks);
+
+            // Move results to the new snapshot directory
+            for (final SortedPartition partition : partitionsToMove) {
+                moveSortedFile(fs, partition, indexWriter);
+            }
+            final Path sortedResultsDir = new Path(store.getTempFilesDir(), "sorted_new_old_merged");
+            LOGGER.info("Deleting temporary directory {}", sortedResultsDir);
+            fs.delete(sortedResultsDir, true);
+
+            // Write out graph partitioner (unchanged from previous one)
+            final Path newGraphPartitionerPath = new Path(newDataDir + "/graphPartitioner");
+            final FSDataOutputStream stream = fs.create(newGraphPartitionerPath);
+            LOGGER.info("Writing graph partitioner to {}", newGraphPartitionerPath);
+            new GraphPartitionerSerialiser().write(currentGraphPartitioner, stream);
+            stream.close();
+            // Move snapshot-tmp directory to snapshot
+            final String directoryWithoutTmp = newDataDir.substring(0, newDataDir.lastIndexOf("-tmp"));
+            LOGGER.info("Renaming {} to {}", newDataDir, directoryWithoutTmp);
+            fs.rename(new Path(newDataDir), new Path(directoryWithoutTmp));
+            // Set snapshot on store to new value
+            LOGGER.info("Updating latest snapshot on store to {}", snapshot);
+            store.setLatestSnapshot(snapshot);
+        } catch (final IOException | StoreException e) {
+            throw new OperationException("IOException moving results files into new snapshot directory", e);
+        }
+        return CallableResult.SUCCESS;
+    }
+
+    private void addTasks(final String group,
+                          final boolean reversed,
+                          final GroupPartitioner groupPartitioner,
+                          final String newDataDir,
+                          final List<Callable<CallableResult>> tasks,
+                          final List<SortedPartition> partitionsToMove) throws IOException {
+        final String groupDir = newDataDir + "/" + ParquetStore.getGroupSubDir(group, reversed);
+        final String groupDescription = reversed ? "reversed edge group" : "group";
+        for (final Partition partition : groupPartitioner.getPartitions()) {
+            final Integer partitionId = partition.getPartitionId();
+            final Path destination = new Path(groupDir, ParquetStore.getFile(partitionId));
+            final String oldData = reversed
+                    ? store.getFileForReversedEdges(group, partition)
+                    : store.getFile(group, partition);
+            final List<Path> deltas = store.getDeltaFiles(group, partitionId, reversed);
+            final BiFunction<String, Integer, String> newDataFunction = reversed
+                    ? directoryForNewDataForReversedEdges
+                    : directoryForNewData;
+            final String newData = null != newDataFunction ? newDataFunction.apply(group, partitionId) : null;
+            if ((null == newData || !fs.exists(new Path(newData))) && deltas.isEmpty()) {
+                if (fs.exists(new Path(oldData))) {
+                    LOGGER.info("Copying {} to {} as there is no new data for {} {}, partition {}",
+                            oldData, destination, groupDescription, group, partitionId);
+                    FileUtil.copy(fs, new Path(oldData), fs, destination, false, fs.getConf());
+                    copyIndex(group, reversed, new Path(oldData), destination);
+                }
+                continue;
+            }
+
+            final List<String> inputFiles = new ArrayList<>();
+            if (null != newData) {
+                inputFiles.add(newData);
+            }
+            inputFiles.add(oldData);
+            deltas.forEach(delta -> inputFiles.add(delta.toString()));
+            final String outputDir = reversed
+                    ? directoryForSortedResultsForReversedEdges.apply(group, partitionId)
+                    : directoryForSortedResults.apply(group, partitionId);
+            tasks.add(new AggregateAndSortData(store.getSchemaUtils(), fs, inputFiles, outputDir, group,
+                    (reversed ? "reversed-" : "") + group + "-" + partitionId, reversed,
+                    store.getProperties().getCompressionCodecName(), spark));
+            partitionsToMove.add(new SortedPartition(group, reversed, outputDir, destination));
+            LOGGER.info("Created AggregateAndSortData task for {} {}, partition {}", groupDescription, group, partitionId);
+        }
+    }
+
+    private void copyIndex(final String group, final boolean reversed, final Path oldData, final Path destination) throws IOException {
+        if (null == indexWriter) {
+            return;
+        }
+        final Path oldIndex = RowGroupIndex.getIndexPath(oldData);
+        if (fs.exists(oldIndex)) {
+            FileUtil.copy(fs, oldIndex, fs, RowGroupIndex.getIndexPath(destination), false, fs.getConf());
+        } else {
+            // The old snapshot was written before row group indexes were enabled
+            indexWriter.writeOrWarn(group, reversed, destination);
+        }
+    }
+
+    static void runTasks(final ExecutorService threadPool, final List<Callable<CallableResult>> tasks) throws OperationException {
+        try {
+            LOGGER.info("Invoking {} AggregateAndSortData tasks", tasks.size());
+            final List<Future<CallableResult>> futures = threadPool.invokeAll(tasks);
+            for (final Future<CallableResult> future : futures) {
+                final CallableResult result = future.get();
+                LOGGER.info("Result {} from task", result);
+            }
+        } catch (final InterruptedException e) {
+            throw new OperationException("InterruptedException running AggregateAndSortData tasks", e);
+        } catch (final ExecutionException e) {
+            throw new OperationException("ExecutionException running AggregateAndSortData tasks", e);
+        }
+    }
+
+    /**
+     * Moves the single Parquet file in the output directory of an {@link AggregateAndSortData} task to its destination
+     * and then, if an index writer is given, writes the {@link RowGroupIndex} for it.
+     *
+     * @param fs          the file system
+     * @param partition   the sorted partition to move
+     * @param indexWriter the writer for the row group index, or null if no index is required
+     * @throws IOException        if the file could not be moved
+     * @throws OperationException if the output directory does not contain exactly one Parquet file
+     */
+    static void moveSortedFile(final FileSystem fs, final SortedPartition partition, final RowGroupIndexWriter indexWriter) throws IOException, OperationException {
+        final Path outputPath = new Path(partition.outputDir);
+        final Path destination = partition.destination;
+        if (!fs.exists(outputPath)) {
+            LOGGER.info("Not moving data to {} as the outputDir {} does not exist", destination, outputPath);
+            return;
+        }
+        // One .parquet file and one .parquet.crc file
+        final FileStatus[] status = fs.listStatus(outputPath, path -> path.getName().endsWith(".parquet"));
+        if (1 != status.length) {
+            LOGGER.error("Didn't find one Parquet file in path {} (found {} files)", outputPath, status.length);
+            throw new OperationException("Expected to find one Parquet file in path " + outputPath
+                    + " (found " + status.length + " files)");
+        }
+        LOGGER.info("Renaming {} to {}", status[0].getPath(), destination);
+        fs.rename(status[0].getPath(), destination);
+        if (null != indexWriter) {
+            indexWriter.writeOrWarn(partition.group, partition.reversed, destination);
+        }
+    }
+
+    /**
+     * The output directory of an {@link AggregateAndSortData} task and the file in a snapshot or delta that its result
+     * is moved to.
+     */
+    static final class SortedPartition {
+        private final String group;
+        private final boolean reversed;
+        private final String outputDir;
+        private final Path destination;
+
+        SortedPartition(final String group, final boolean reversed, final String outputDir, final Path destination) {
+            this.group = group;
+            this.reversed = reversed;
+            this.outputDir = outputDir;
+            this.destination = destination;
+        }
+
+        Path getDestination() {
+            return destination;
+        }
+    }
+}
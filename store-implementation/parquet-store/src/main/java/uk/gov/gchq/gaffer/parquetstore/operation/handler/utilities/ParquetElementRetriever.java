@@ -21,6 +21,7 @@ import org.slf4j.LoggerFactory;
 
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+import uk.gov.gchq.gaffer.core.exception.GafferRuntimeException;
 import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
 import uk.gov.gchq.gaffer.operation.Operation;
@@ -33,19 +34,36 @@ import uk.gov.gchq.gaffer.parquetstore.query.QueryGenerator;
 import uk.gov.gchq.gaffer.user.User;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.stream.Collectors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
 
 /**
  * Converts the inputs for get element operations to a mapping of files to Parquet filters which is
  * then looped over to retrieve the filtered Elements.
+ * <p>
+ * The files are read in parallel by the {@link ParquetStore}'s shared retrieval thread pool and the
+ * elements are streamed back to the consumer through a bounded queue, so the first results are
+ * available as soon as they have been read. Each query runs at most
+ * {@link uk.gov.gchq.gaffer.parquetstore.ParquetStoreProperties#getThreadsAvailable()} file reads at a
+ * time, and a read gives up its thread when the queue is full and is resubmitted once the consumer has
+ * removed elements from the queue. So a slow consumer, or an iterator that is left open, does not stop
+ * other queries using the pool. Closing the iterator, for example when a limit has been reached,
+ * cancels any outstanding reads. Reads are also cancelled if the iterator is abandoned without being
+ * closed. If a read fails then the failure is rethrown to the consumer rather than the results being
+ * truncated.
  */
 public class ParquetElementRetriever implements CloseableIterable<Element> {
     private static final Logger LOGGER = LoggerFactory.getLogger(ParquetElementRetriever.class);
@@ -77,11 +95,22 @@ public class ParquetElementRetriever implements CloseableIterable<Element> {
     }
 
     protected static class ParquetIterator implements CloseableIterator<Element> {
-        private ConcurrentLinkedQueue<Element> queue;
-        private List<Future<OperationException>> runningTasks;
-        private ExecutorService executorServicePool;
+        private static final long POLL_INTERVAL_MS = 100L;
+
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+        private final Queue<FileTask> returnedTasks = new ConcurrentLinkedQueue<>();
+        private final Deque<FileTask> waitingTasks = new ArrayDeque<>();
+        private final Set<FileTask> runningTasks = new HashSet<>();
+        private BlockingQueue<Element> queue;
+        private ExecutorService executorService;
+        private int maxRunningTasks;
+        private int resubmitQueueSize;
+        private Element nextElement;
+        private final long startTime;
+        private long timeToFirstResult = -1L;
 
         protected ParquetIterator(final ParquetStore store, final Operation operation, final User user) throws OperationException {
+            startTime = System.currentTimeMillis();
             final QueryGenerator queryGenerator = new QueryGenerator(store);
             final View view;
             if (operation instanceof GetAllElements) {
@@ -93,90 +122,178 @@ public class ParquetElementRetriever implements CloseableIterable<Element> {
                 final ParquetQuery parquetQuery = queryGenerator.getParquetQuery(operation);
                 LOGGER.debug("Created ParquetQuery {}", parquetQuery);
                 if (!parquetQuery.isEmpty()) {
-                    queue = new ConcurrentLinkedQueue<>();
-                    executorServicePool = Executors.newFixedThreadPool(store.getProperties().getThreadsAvailable());
-                    final List<RetrieveElementsFromFile> tasks = new ArrayList<>();
-                    tasks.addAll(parquetQuery.getAllParquetFileQueries()
+                    final int queueSize = store.getProperties().getRetrievalQueueSize();
+                    queue = new ArrayBlockingQueue<>(queueSize);
+                    // Reads are resubmitted once the queue is half empty, so they do not stop again straight away
+                    resubmitQueueSize = queueSize / 2;
+                    executorService = store.getRetrievalExecutorService();
+                    maxRunningTasks = Math.max(1, store.getProperties().getThreadsAvailable());
+                    // The tasks only weakly reference this iterator so that they stop if it is abandoned
+                    final AtomicBoolean isClosed = closed;
+                    final WeakReference<ParquetIterator> iteratorRef = new WeakReference<>(this);
+                    final BooleanSupplier cancelled = () -> isClosed.get() || null == iteratorRef.get();
+                    parquetQuery.getAllParquetFileQueries()
                             .stream()
-                            .map(entry -> new RetrieveElementsFromFile(entry.getFile(), entry.getFilter(),
+                            .map(entry -> new RetrieveElementsFromFile(entry.getFile(), entry.getDeltaFiles(), entry.getFilter(),
                                     store.getSchema(), queue, !entry.isFullyApplied(),
-                                    store.getProperties().getSkipValidation(), view, user))
-                            .collect(Collectors.toList()));
-                    LOGGER.info("Invoking {} RetrieveElementsFromFile tasks", tasks.size());
-                    runningTasks = executorServicePool.invokeAll(tasks);
+                                    store.getProperties().getSkipValidation(), view, user, cancelled))
+                            .forEach(task -> waitingTasks.add(new FileTask(task, closed, returnedTasks)));
+                    LOGGER.info("Created {} RetrieveElementsFromFile tasks", waitingTasks.size());
+                    submitTasks();
                 } else {
                     LOGGER.warn("No paths found - there will be no results from this query");
                 }
             } catch (final IOException | OperationException e) {
                 LOGGER.error("Exception while creating the mapping of file paths to Parquet filters: {}", e.getMessage());
+                close();
                 throw new OperationException("Exception creating ParquetIterator", e);
-            } catch (final InterruptedException e) {
-                LOGGER.error("InterruptedException in ParquetIterator {}", e.getMessage());
-                throw new OperationException("InterruptedException in ParquetIterator", e);
             }
         }
 
         @Override
         public boolean hasNext() {
-            if (null != queue) {
-                if (queue.isEmpty()) {
-                    boolean finishedAllTasks = runningTasks.isEmpty();
-                    while (!finishedAllTasks && queue.isEmpty()) {
-                        try {
-                            finishedAllTasks = hasFinishedAllTasks();
-                            if (!finishedAllTasks) {
-                                wait(100L);
+            if (null != nextElement) {
+                return true;
+            }
+            if (null == queue) {
+                return false;
+            }
+            try {
+                while (null == nextElement) {
+                    submitTasks();
+                    nextElement = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                    if (null == nextElement) {
+                        submitTasks();
+                        if (runningTasks.isEmpty() && waitingTasks.isEmpty()) {
+                            // All tasks have finished so anything they added is already on the queue
+                            nextElement = queue.poll();
+                            if (null == nextElement) {
+                                close();
+                                return false;
                             }
-                        } catch (final Exception e) {
-                            LOGGER.error(e.getMessage(), e);
-                            finishedAllTasks = true;
                         }
                     }
-                    return !queue.isEmpty();
-                } else {
-                    return true;
                 }
-            } else {
+            } catch (final InterruptedException e) {
+                LOGGER.error("InterruptedException in ParquetIterator {}", e.getMessage());
+                Thread.currentThread().interrupt();
+                close();
                 return false;
+            } catch (final OperationException | RejectedExecutionException e) {
+                LOGGER.error("Exception retrieving elements from files", e);
+                close();
+                throw new GafferRuntimeException("Failed to retrieve elements: " + e.getMessage(), e);
             }
+            if (timeToFirstResult < 0) {
+                timeToFirstResult = System.currentTimeMillis() - startTime;
+                LOGGER.info("Time to first result: {}ms", timeToFirstResult);
+            }
+            return true;
         }
 
-        private boolean hasFinishedAllTasks() throws ExecutionException, InterruptedException, OperationException {
-            final List<Future<OperationException>> completedTasks = new ArrayList<>();
-            for (final Future<OperationException> task : runningTasks) {
-                if (task.isDone()) {
-                    final OperationException taskResult = task.get();
-                    if (null != taskResult) {
-                        throw taskResult;
-                    } else {
-                        completedTasks.add(task);
-                    }
+        /**
+         * Collects the tasks that have returned, then submits waiting tasks whilst fewer than the
+         * maximum number are running and the queue has space for their elements.
+         */
+        private void submitTasks() throws OperationException {
+            FileTask returned = returnedTasks.poll();
+            while (null != returned) {
+                runningTasks.remove(returned);
+                if (null != returned.failure) {
+                    throw returned.failure;
                 }
+                if (!returned.retriever.isFinished()) {
+                    // The queue was full, so the task continues from where it stopped when it is resubmitted
+                    waitingTasks.addFirst(returned);
+                }
+                returned = returnedTasks.poll();
+            }
+            while (runningTasks.size() < maxRunningTasks && !waitingTasks.isEmpty() && queue.size() <= resubmitQueueSize) {
+                final FileTask task = waitingTasks.removeFirst();
+                runningTasks.add(task);
+                executorService.execute(task);
             }
-            runningTasks.removeAll(completedTasks);
-            return runningTasks.isEmpty();
         }
 
         @Override
         public Element next() throws NoSuchElementException {
-            Element e;
-            while (hasNext()) {
-                e = queue.poll();
-                if (null != e) {
-                    return e;
-                }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
             }
-            throw new NoSuchElementException();
+            final Element e = nextElement;
+            nextElement = null;
+            return e;
+        }
+
+        /**
+         * Gets the number of milliseconds between this iterator being created and the first
+         * result being available.
+         *
+         * @return the time to the first result in milliseconds, or -1 if no results have been returned.
+         */
+        public long getTimeToFirstResult() {
+            return timeToFirstResult;
         }
 
         @Override
         public void close() {
-            if (null != executorServicePool) {
-                executorServicePool.shutdown();
-                executorServicePool = null;
+            closed.set(true);
+            if (!runningTasks.isEmpty()) {
+                // The running tasks stop when they next check whether they have been cancelled
+                LOGGER.debug("Cancelling {} outstanding RetrieveElementsFromFile tasks", runningTasks.size());
+                runningTasks.clear();
+            }
+            for (final FileTask task : waitingTasks) {
+                task.retriever.close();
+            }
+            waitingTasks.clear();
+            FileTask.closeReturnedTasks(returnedTasks);
+            if (null != queue) {
+                queue.clear();
+                queue = null;
+            }
+            nextElement = null;
+        }
+    }
+
+    /**
+     * Runs a {@link RetrieveElementsFromFile} task and then adds itself to the queue of returned tasks,
+     * so that the iterator can resubmit it if it has not finished. Tasks that return after the iterator
+     * has been closed are closed straight away.
+     */
+    private static final class FileTask implements Runnable {
+        private final RetrieveElementsFromFile retriever;
+        private final AtomicBoolean closed;
+        private final Queue<FileTask> returnedTasks;
+        private OperationException failure;
+
+        private FileTask(final RetrieveElementsFromFile retriever, final AtomicBoolean closed, final Queue<FileTask> returnedTasks) {
+            this.retriever = retriever;
+            this.closed = closed;
+            this.returnedTasks = returnedTasks;
+        }
+
+        @Override
+        public void run() {
+            try {
+                failure = retriever.call();
+            } catch (final Exception e) {
+                retriever.close();
+                failure = new OperationException("Failed to retrieve elements: " + e.getMessage(), e);
+            } finally {
+                returnedTasks.add(this);
+                if (closed.get()) {
+                    closeReturnedTasks(returnedTasks);
+                }
+            }
+        }
+
+        private static void closeReturnedTasks(final Queue<FileTask> returnedTasks) {
+            FileTask task = returnedTasks.poll();
+            while (null != task) {
+                task.retriever.close();
+                task = returnedTasks.poll();
             }
-            queue = null;
-            runningTasks = null;
         }
     }
 }
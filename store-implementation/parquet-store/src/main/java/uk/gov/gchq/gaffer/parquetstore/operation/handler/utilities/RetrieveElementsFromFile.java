@@ -37,25 +37,45 @@ import uk.gov.gchq.gaffer.parquetstore.io.reader.ParquetElementReader;
 import uk.gov.gchq.gaffer.parquetstore.utils.GafferGroupObjectConverter;
 import uk.gov.gchq.gaffer.parquetstore.utils.SchemaUtils;
 import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.util.AggregatorUtil;
 import uk.gov.gchq.gaffer.user.User;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BooleanSupplier;
 
 /**
  * Used to retrieve the elements from a single file and put the elements into a shared
- * {@link java.util.concurrent.ConcurrentLinkedQueue}.
+ * {@link java.util.concurrent.BlockingQueue}. If the queue is full then this task returns
+ * rather than waiting for the consumer, so that it does not hold on to a thread from a
+ * shared pool. The file is kept open and the task continues from where it stopped when
+ * it is called again, until {@link #isFinished()} returns true. The task also finishes,
+ * closing the file, when the retrieval is cancelled or the thread running it is interrupted.
+ * <p>
+ * If a file cannot be read then an {@link OperationException} is returned, so that the
+ * consumer can report the failure rather than returning incomplete results.
+ * <p>
+ * If there are delta files for the file then the elements in the delta files are aggregated with the elements in the
+ * file before they are added to the queue. The filter should then only contain the identifiers, as the view is
+ * applied to the aggregated elements.
  */
-public class RetrieveElementsFromFile implements Callable<OperationException> {
+public class RetrieveElementsFromFile implements Callable<OperationException>, Closeable {
     private static final Logger LOGGER = LoggerFactory.getLogger(RetrieveElementsFromFile.class);
 
     private final Path filePath;
+    private final List<Path> deltaFiles;
     private final FilterPredicate filter;
     private final byte[] jsonGafferSchema;
     private transient SchemaUtils schemaUtils;
-    private final ConcurrentLinkedQueue<Element> queue;
+    private final BlockingQueue<Element> queue;
     private transient ElementFilter elementFilter;
     private final byte[] elementDefinitionJson;
     private final boolean needsValidatorsAndFiltersApplying;
@@ -65,17 +85,55 @@ public class RetrieveElementsFromFile implements Callable<OperationException> {
     private final Schema gafferSchema;
     private final Authorisations auths;
     private final String visibility;
+    private final BooleanSupplier cancelled;
+    private final AggregatorUtil.ToIngestElementKey toKey;
+    private final AggregatorUtil.IngestElementBinaryOperator aggregator;
+    private boolean started;
+    private boolean finished;
+    private ParquetReader<Element> fileReader;
+    private Map<Element, Element> deltaElements;
+    private Iterator<Element> remainingDeltaElements;
+    private Element pendingElement;
 
     public RetrieveElementsFromFile(final Path filePath,
                                     final FilterPredicate filter,
                                     final Schema gafferSchema,
-                                    final ConcurrentLinkedQueue<Element> queue,
+                                    final BlockingQueue<Element> queue,
                                     final boolean needsValidatorsAndFiltersApplying,
                                     final boolean skipValidation,
                                     final View view,
                                     final User user) {
-        LOGGER.info("Creating RetrieveElementsFromFile for path {} with predicate {}", filePath, filter);
+        this(filePath, Collections.emptyList(), filter, gafferSchema, queue, needsValidatorsAndFiltersApplying,
+                skipValidation, view, user);
+    }
+
+    public RetrieveElementsFromFile(final Path filePath,
+                                    final List<Path> deltaFiles,
+                                    final FilterPredicate filter,
+                                    final Schema gafferSchema,
+                                    final BlockingQueue<Element> queue,
+                                    final boolean needsValidatorsAndFiltersApplying,
+                                    final boolean skipValidation,
+                                    final View view,
+                                    final User user) {
+        this(filePath, deltaFiles, filter, gafferSchema, queue, needsValidatorsAndFiltersApplying, skipValidation,
+                view, user, () -> false);
+    }
+
+    public RetrieveElementsFromFile(final Path filePath,
+                                    final List<Path> deltaFiles,
+                                    final FilterPredicate filter,
+                                    final Schema gafferSchema,
+                                    final BlockingQueue<Element> queue,
+                                    final boolean needsValidatorsAndFiltersApplying,
+                                    final boolean skipValidation,
+                                    final View view,
+                                    final User user,
+                                    final BooleanSupplier cancelled) {
+        LOGGER.info("Creating RetrieveElementsFromFile for path {} and {} delta files with predicate {}",
+                filePath, deltaFiles.size(), filter);
         this.filePath = filePath;
+        this.deltaFiles = deltaFiles;
         this.filter = filter;
         this.jsonGafferSchema = gafferSchema.toCompactJson();
         this.gafferSchema = gafferSchema;
@@ -94,6 +152,7 @@ public class RetrieveElementsFromFile implements Callable<OperationException> {
         }
 
         this.queue = queue;
+        this.cancelled = cancelled;
         this.view = view;
         this.needsValidatorsAndFiltersApplying = needsValidatorsAndFiltersApplying;
         this.skipValidation = skipValidation;
@@ -103,10 +162,23 @@ public class RetrieveElementsFromFile implements Callable<OperationException> {
             group = filePath.getParent().getName().split("=")[1];
         }
         elementDefinitionJson = view.getElement(group).toCompactJson();
+        this.toKey = deltaFiles.isEmpty() ? null : new AggregatorUtil.ToIngestElementKey(gafferSchema);
+        this.aggregator = deltaFiles.isEmpty() ? null : new AggregatorUtil.IngestElementBinaryOperator(gafferSchema);
     }
 
+    /**
+     * Adds elements from the file to the queue until the file has been read, the queue is full or the
+     * retrieval is cancelled. If the queue is full this returns null without finishing, and adds the
+     * remaining elements when it is called again.
+     *
+     * @return the failure if the file could not be read, otherwise null
+     * @throws Exception if the elements could not be filtered
+     */
     @Override
     public OperationException call() throws Exception {
+        if (finished) {
+            return null;
+        }
         if (null == elementFilter) {
             elementFilter = new ViewElementDefinition.Builder().json(elementDefinitionJson).build().getPreAggregationFilter();
         }
@@ -114,60 +186,172 @@ public class RetrieveElementsFromFile implements Callable<OperationException> {
             schemaUtils = new SchemaUtils(Schema.fromJson(jsonGafferSchema));
         }
         try {
-            final ParquetReader<Element> fileReader = openParquetReader();
-            Element e = fileReader.read();
-            while (null != e) {
-                if (!visibility.isEmpty()) {
-                    if (isVisible(e)) {
-                        if (needsValidatorsAndFiltersApplying) {
-                            final String group = e.getGroup();
-                            final ElementFilter validatorFilter = gafferSchema.getElement(group).getValidator(false);
-                            if (skipValidation || validatorFilter == null || validatorFilter.test(e)) {
-                                if (elementFilter == null || elementFilter.test(e)) {
-                                    ViewUtil.removeProperties(view, e);
-                                    queue.add(e);
-                                }
-                            }
-                        } else {
-                            ViewUtil.removeProperties(view, e);
-                            queue.add(e);
-                        }
+            if (isCancelled()) {
+                return stop();
+            }
+            if (null != pendingElement) {
+                if (!queue.offer(pendingElement)) {
+                    return suspend();
+                }
+                pendingElement = null;
+            }
+            if (!started) {
+                started = true;
+                if (!deltaFiles.isEmpty()) {
+                    // The deltas are small compared to the file, so they are aggregated in memory
+                    deltaElements = readDeltaFiles();
+                }
+                fileReader = openParquetReader(filePath);
+            }
+            if (null != fileReader) {
+                Element e = fileReader.read();
+                while (null != e) {
+                    if (isCancelled()) {
+                        return stop();
                     }
-                } else if (needsValidatorsAndFiltersApplying) {
-                    final String group = e.getGroup();
-                    final ElementFilter validatorFilter = gafferSchema.getElement(group).getValidator(false);
-                    if (skipValidation || validatorFilter == null || validatorFilter.test(e)) {
-                        if (elementFilter == null || elementFilter.test(e)) {
-                            ViewUtil.removeProperties(view, e);
-                            queue.add(e);
-                        }
+                    if (!addToQueue(aggregateWithDelta(e))) {
+                        return suspend();
                     }
-                } else {
-                    ViewUtil.removeProperties(view, e);
-                    queue.add(e);
+                    e = fileReader.read();
                 }
-                e = fileReader.read();
+                fileReader.close();
+                fileReader = null;
+                if (null != deltaElements) {
+                    remainingDeltaElements = deltaElements.values().iterator();
+                }
+            }
+            while (null != remainingDeltaElements && remainingDeltaElements.hasNext()) {
+                if (isCancelled()) {
+                    return stop();
+                }
+                final Element e = remainingDeltaElements.next();
+                remainingDeltaElements.remove();
+                if (!addToQueue(e)) {
+                    return suspend();
+                }
+            }
+        } catch (final IOException e) {
+            close();
+            if (deltaFiles.isEmpty()) {
+                LOGGER.error("IOException reading file {}", filePath, e);
+                return new OperationException("Failed to read elements from file " + filePath, e);
+            }
+            // The file or a delta file may have been removed by a concurrent compaction
+            LOGGER.error("IOException reading file {} with {} delta files", filePath, deltaFiles.size(), e);
+            return new OperationException("Failed to read elements from file " + filePath + " and its delta files", e);
+        } catch (final VisibilityParseException | RuntimeException e) {
+            close();
+            throw e;
+        }
+        close();
+        return null;
+    }
+
+    /**
+     * @return true if the file has been read, the retrieval has been cancelled or the file could not be read.
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Closes the file and finishes the task, without adding any more elements to the queue.
+     */
+    @Override
+    public void close() {
+        finished = true;
+        pendingElement = null;
+        deltaElements = null;
+        remainingDeltaElements = null;
+        if (null != fileReader) {
+            try {
+                fileReader.close();
+            } catch (final IOException e) {
+                LOGGER.warn("Failed to close file {}", filePath, e);
             }
-            fileReader.close();
-        } catch (final IOException ignore) {
-            LOGGER.error("IOException reading file", ignore);
-            // ignore as this file does not exist
+            fileReader = null;
         }
+    }
+
+    private boolean isCancelled() {
+        return Thread.currentThread().isInterrupted() || cancelled.getAsBoolean();
+    }
+
+    private OperationException stop() {
+        LOGGER.debug("Retrieval of elements from file {} was cancelled", filePath);
+        close();
         return null;
     }
 
-    private ParquetReader<Element> openParquetReader() throws IOException {
+    private OperationException suspend() {
+        // If the consumer has gone there is no point keeping the file open until it is called again
+        if (cancelled.getAsBoolean()) {
+            return stop();
+        }
+        return null;
+    }
+
+    private Map<Element, Element> readDeltaFiles() throws IOException {
+        final Map<Element, Element> elements = new LinkedHashMap<>();
+        for (final Path deltaFile : deltaFiles) {
+            try (final ParquetReader<Element> deltaReader = openParquetReader(deltaFile)) {
+                Element e = deltaReader.read();
+                while (null != e && !Thread.currentThread().isInterrupted()) {
+                    elements.merge(toKey.apply(e), e, aggregator);
+                    e = deltaReader.read();
+                }
+            }
+        }
+        return elements;
+    }
+
+    // The file and the deltas are aggregated, so each element in the file matches at most one delta element
+    private Element aggregateWithDelta(final Element e) {
+        if (null == deltaElements || deltaElements.isEmpty()) {
+            return e;
+        }
+        final Element deltaElement = deltaElements.remove(toKey.apply(e));
+        return null != deltaElement ? aggregator.apply(e, deltaElement) : e;
+    }
+
+    /**
+     * Adds the element to the queue if it passes the filters.
+     *
+     * @return false if the element could not be added because the queue is full
+     */
+    private boolean addToQueue(final Element e) throws VisibilityParseException {
+        if (!visibility.isEmpty() && !isVisible(e)) {
+            return true;
+        }
+        if (needsValidatorsAndFiltersApplying) {
+            final ElementFilter validatorFilter = gafferSchema.getElement(e.getGroup()).getValidator(false);
+            if (!skipValidation && null != validatorFilter && !validatorFilter.test(e)) {
+                return true;
+            }
+            if (null != elementFilter && !elementFilter.test(e)) {
+                return true;
+            }
+        }
+        ViewUtil.removeProperties(view, e);
+        if (!queue.offer(e)) {
+            pendingElement = e;
+            return false;
+        }
+        return true;
+    }
+
+    private ParquetReader<Element> openParquetReader(final Path path) throws IOException {
         final boolean isEntity = schemaUtils.getEntityGroups().contains(group);
         final GafferGroupObjectConverter converter = schemaUtils.getConverter(group);
-        LOGGER.debug("Opening a new Parquet reader for file {}", filePath);
+        LOGGER.debug("Opening a new Parquet reader for file {}", path);
         if (null != filter) {
-            return new ParquetElementReader.Builder<Element>(filePath)
+            return new ParquetElementReader.Builder<Element>(path)
                     .isEntity(isEntity)
                     .usingConverter(converter)
                     .withFilter(FilterCompat.get(filter))
                     .build();
         } else {
-            return new ParquetElementReader.Builder<Element>(filePath)
+            return new ParquetElementReader.Builder<Element>(path)
                     .isEntity(isEntity)
                     .usingConverter(converter)
                     .build();
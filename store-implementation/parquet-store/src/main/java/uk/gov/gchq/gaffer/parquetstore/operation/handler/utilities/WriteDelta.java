@@ -0,0 +1,168 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.parquetstore.operation.handler.utilities;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.spark.sql.SparkSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.parquetstore.ParquetStore;
+import uk.gov.gchq.gaffer.parquetstore.index.RowGroupIndexWriter;
+import uk.gov.gchq.gaffer.parquetstore.partitioner.GraphPartitioner;
+import uk.gov.gchq.gaffer.parquetstore.partitioner.GroupPartitioner;
+import uk.gov.gchq.gaffer.parquetstore.partitioner.Partition;
+import uk.gov.gchq.gaffer.store.StoreException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BiFunction;
+
+/**
+ * Aggregates and sorts some new data for each partition that it was written to and adds the results to the current
+ * snapshot of a {@link ParquetStore} as a delta.
+ * <p>
+ * The existing data in the snapshot is not read or rewritten, so the cost of adding the data depends only on the size
+ * of the new data. The deltas are merged with the snapshot when it is queried, until they are compacted into a new
+ * snapshot by {@link MergeIntoNewSnapshot}.
+ */
+public class WriteDelta implements Callable<CallableResult> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WriteDelta.class);
+
+    private final ParquetStore store;
+    private final SparkSession spark;
+    private final ExecutorService threadPool;
+    private final BiFunction<String, Integer, String> directoryForNewData;
+    private final BiFunction<String, Integer, String> directoryForNewDataForReversedEdges;
+    private final FileSystem fs;
+    private final BiFunction<String, Integer, String> directoryForSortedResults;
+    private final BiFunction<String, Integer, String> directoryForSortedResultsForReversedEdges;
+    private final RowGroupIndexWriter indexWriter;
+
+    /**
+     * @param store                               the store to add the delta to
+     * @param spark                               the Spark session used to aggregate and sort the data
+     * @param threadPool                          the threads used to run the aggregate and sort tasks
+     * @param directoryForNewData                 the directory containing the new data for a group and partition id
+     * @param directoryForNewDataForReversedEdges the directory containing the new data for the reversed edges of a
+     *                                            group and partition id
+     */
+    public WriteDelta(final ParquetStore store,
+                      final SparkSession spark,
+                      final ExecutorService threadPool,
+                      final BiFunction<String, Integer, String> directoryForNewData,
+                      final BiFunction<String, Integer, String> directoryForNewDataForReversedEdges) {
+        this.store = store;
+        this.spark = spark;
+        this.threadPool = threadPool;
+        this.directoryForNewData = directoryForNewData;
+        this.directoryForNewDataForReversedEdges = directoryForNewDataForReversedEdges;
+        this.fs = store.getFS();
+        final String tmpDirectory = store.getTempFilesDir();
+        this.directoryForSortedResults = (group, partitionId) ->
+                tmpDirectory
+                        + "/sorted_new"
+                        + "/group=" + group
+                        + "/partition=" + partitionId;
+        this.directoryForSortedResultsForReversedEdges = (group, partitionId) ->
+                tmpDirectory
+                        + "/sorted_new"
+                        + "/REVERSED-group=" + group
+                        + "/partition=" + partitionId;
+        this.indexWriter = store.getProperties().getRowGroupIndex() ? new RowGroupIndexWriter(store) : null;
+    }
+
+    @Override
+    public CallableResult call() throws OperationException {
+        final GraphPartitioner currentGraphPartitioner = store.getGraphPartitioner();
+        try {
+            // Only aggregate and sort the partitions that received some new data
+            final List<Callable<CallableResult>> tasks = new ArrayList<>();
+            final List<MergeIntoNewSnapshot.SortedPartition> partitionsToMove = new ArrayList<>();
+            // The delta must be newer than the existing deltas, even if it is created in the same millisecond
+            final List<Long> existingDeltas = store.getDeltas();
+            final long delta = existingDeltas.isEmpty()
+                    ? System.currentTimeMillis()
+                    : Math.max(System.currentTimeMillis(), existingDeltas.get(existingDeltas.size() - 1) + 1);
+            final Path deltaTmpDir = new Path(store.getDeltaPath(delta) + "-tmp");
+            for (final String group : store.getSchema().getGroups()) {
+                addTasks(group, false, currentGraphPartitioner.getGroupPartitioner(group), deltaTmpDir, tasks, partitionsToMove);
+            }
+            for (final String group : store.getSchema().getEdgeGroups()) {
+                addTasks(group, true, currentGraphPartitioner.getGroupPartitionerForReversedEdges(group), deltaTmpDir, tasks, partitionsToMove);
+            }
+            if (tasks.isEmpty()) {
+                LOGGER.info("Not writing a delta as there is no new data");
+                return CallableResult.SUCCESS;
+            }
+            MergeIntoNewSnapshot.runTasks(threadPool, tasks);
+
+            // Move results to the delta-tmp directory, then rename it so that the delta is added atomically
+            LOGGER.info("Creating delta directory {}", deltaTmpDir);
+            fs.mkdirs(deltaTmpDir);
+            for (final MergeIntoNewSnapshot.SortedPartition partition : partitionsToMove) {
+                fs.mkdirs(partition.getDestination().getParent());
+                MergeIntoNewSnapshot.moveSortedFile(fs, partition, indexWriter);
+            }
+            final Path sortedResultsDir = new Path(store.getTempFilesDir(), "sorted_new");
+            LOGGER.info("Deleting temporary directory {}", sortedResultsDir);
+            fs.delete(sortedResultsDir, true);
+            final Path deltaDir = store.getDeltaPath(delta);
+            LOGGER.info("Renaming {} to {}", deltaTmpDir, deltaDir);
+            fs.rename(deltaTmpDir, deltaDir);
+            store.addDelta(delta);
+        } catch (final IOException | StoreException e) {
+            throw new OperationException("Exception moving results files into new delta directory", e);
+        }
+        return CallableResult.SUCCESS;
+    }
+
+    private void addTasks(final String group,
+                          final boolean reversed,
+                          final GroupPartitioner groupPartitioner,
+                          final Path deltaDir,
+                          final List<Callable<CallableResult>> tasks,
+                          final List<MergeIntoNewSnapshot.SortedPartition> partitionsToMove) throws IOException {
+        final Path groupDir = new Path(deltaDir, ParquetStore.getGroupSubDir(group, reversed));
+        for (final Partition partition : groupPartitioner.getPartitions()) {
+            final Integer partitionId = partition.getPartitionId();
+            final String newData = reversed
+                    ? directoryForNewDataForReversedEdges.apply(group, partitionId)
+                    : directoryForNewData.apply(group, partitionId);
+            if (!fs.exists(new Path(newData))) {
+                continue;
+            }
+            final List<String> inputFiles = new ArrayList<>();
+            inputFiles.add(newData);
+            final String outputDir = reversed
+                    ? directoryForSortedResultsForReversedEdges.apply(group, partitionId)
+                    : directoryForSortedResults.apply(group, partitionId);
+            tasks.add(new AggregateAndSortData(store.getSchemaUtils(), fs, inputFiles, outputDir, group,
+                    (reversed ? "reversed-" : "") + group + "-" + partitionId, reversed,
+                    store.getProperties().getCompressionCodecName(), spark));
+            partitionsToMove.add(new MergeIntoNewSnapshot.SortedPartition(group, reversed, outputDir,
+                    new Path(groupDir, ParquetStore.getFile(partitionId))));
+            LOGGER.info("Created AggregateAndSortData task for {} {}, partition {}",
+                    reversed ? "reversed edge group" : "group", group, partitionId);
+        }
+    }
+}
@@ -85,9 +85,13 @@ public class JavaPredicateToParquetPredicate {
             final JavaPredicateToParquetPredicate predicateConverter = new JavaPredicateToParquetPredicate(schemaUtils, not.getPredicate(), selection, group);
             final FilterPredicate parquetPredicate = predicateConverter.getParquetPredicate();
             if (!predicateConverter.fullyApplied) {
+                // The predicate may match more than the Java predicate, so its negation may remove elements that
+                // should be returned
                 fullyApplied = false;
+                filterResult = null;
+            } else {
+                filterResult = FilterPredicateUtils.not(parquetPredicate);
             }
-            filterResult = FilterPredicateUtils.not(parquetPredicate);
         } else {
             filterResult = getPrimitiveFilter(javaPredicate, selection[0], group, schemaUtils);
         }
@@ -174,6 +178,12 @@ public class JavaPredicateToParquetPredicate {
             if (!predicateConverter.fullyApplied) {
                 fullyApplied = false;
             }
+            if (null == parquetPredicate) {
+                // This predicate could not be converted, so the elements it matches cannot be found using Parquet
+                // filters and the whole of the Or must be applied to the elements instead
+                fullyApplied = false;
+                return null;
+            }
             combinedFilter = FilterPredicateUtils.or(combinedFilter, parquetPredicate);
         }
         return combinedFilter;
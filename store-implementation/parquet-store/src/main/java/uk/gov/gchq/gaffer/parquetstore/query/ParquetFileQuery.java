@@ -23,17 +23,25 @@ import org.apache.parquet.filter2.predicate.FilterPredicate;
 
 import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
 
+import java.util.Collections;
+import java.util.List;
+
 public class ParquetFileQuery {
 
     private Path file;
     private FilterPredicate filter;
     private boolean fullyApplied;
+    private List<Path> deltaFiles;
 
     public ParquetFileQuery(final Path file, final FilterPredicate filter, final boolean fullyApplied) {
+        this(file, filter, fullyApplied, Collections.emptyList());
+    }
+
+    public ParquetFileQuery(final Path file, final FilterPredicate filter, final boolean fullyApplied, final List<Path> deltaFiles) {
         this.file = file;
         this.filter = filter;
         this.fullyApplied = fullyApplied;
-
+        this.deltaFiles = deltaFiles;
     }
 
     public Path getFile() {
@@ -48,12 +56,23 @@ public class ParquetFileQuery {
         return fullyApplied;
     }
 
+    /**
+     * Gets the delta files that need to be merged with the file when it is read. The filter is applied to the delta
+     * files as well as to the file.
+     *
+     * @return the delta files, oldest first.
+     */
+    public List<Path> getDeltaFiles() {
+        return deltaFiles;
+    }
+
     @Override
     public String toString() {
         return new ToStringBuilder(this)
                 .append("file", file)
                 .append("filter", filter)
                 .append("fullyApplied", fullyApplied)
+                .append("deltaFiles", deltaFiles)
                 .toString();
     }
 
@@ -73,6 +92,7 @@ public class ParquetFileQuery {
                 .append(file, other.file)
                 .append(filter, other.filter)
                 .append(fullyApplied, other.fullyApplied)
+                .append(deltaFiles, other.deltaFiles)
                 .isEquals();
     }
 
@@ -82,6 +102,7 @@ public class ParquetFileQuery {
                 .append(file)
                 .append(filter)
                 .append(fullyApplied)
+                .append(deltaFiles)
                 .toHashCode();
     }
 }
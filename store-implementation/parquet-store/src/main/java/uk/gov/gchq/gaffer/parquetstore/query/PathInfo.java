@@ -22,6 +22,9 @@ import org.apache.hadoop.fs.Path;
 
 import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
 
+import java.util.Collections;
+import java.util.List;
+
 public class PathInfo {
 
     public enum FILETYPE {
@@ -31,11 +34,17 @@ public class PathInfo {
     private final Path path;
     private final String group;
     private final FILETYPE fileType;
+    private final List<Path> deltaPaths;
 
     public PathInfo(final Path path, final String group, final FILETYPE fileType) {
+        this(path, group, fileType, Collections.emptyList());
+    }
+
+    public PathInfo(final Path path, final String group, final FILETYPE fileType, final List<Path> deltaPaths) {
         this.path = path;
         this.group = group;
         this.fileType = fileType;
+        this.deltaPaths = deltaPaths;
     }
 
     public Path getPath() {
@@ -50,6 +59,10 @@ public class PathInfo {
         return fileType;
     }
 
+    public List<Path> getDeltaPaths() {
+        return deltaPaths;
+    }
+
     public boolean isReversed() {
         return fileType == FILETYPE.REVERSED_EDGE;
     }
@@ -67,6 +80,7 @@ public class PathInfo {
                 .append(path, pathInfo.path)
                 .append(group, pathInfo.group)
                 .append(fileType, pathInfo.fileType)
+                .append(deltaPaths, pathInfo.deltaPaths)
                 .isEquals();
     }
 
@@ -75,6 +89,7 @@ public class PathInfo {
                 .append(path)
                 .append(group)
                 .append(fileType)
+                .append(deltaPaths)
                 .toHashCode();
     }
 
@@ -84,6 +99,7 @@ public class PathInfo {
                 .append("path", path)
                 .append("group", group)
                 .append("fileType", fileType)
+                .append("deltaPaths", deltaPaths)
                 .build();
     }
 }
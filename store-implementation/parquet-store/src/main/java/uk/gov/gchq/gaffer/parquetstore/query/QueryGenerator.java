@@ -16,6 +16,8 @@
 
 package uk.gov.gchq.gaffer.parquetstore.query;
 
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.parquet.filter2.predicate.FilterPredicate;
 import org.apache.parquet.io.api.Binary;
@@ -38,9 +40,13 @@ import uk.gov.gchq.gaffer.operation.graph.SeededGraphFilters;
 import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
 import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
 import uk.gov.gchq.gaffer.parquetstore.ParquetStore;
+import uk.gov.gchq.gaffer.parquetstore.index.RowGroupIndex;
+import uk.gov.gchq.gaffer.parquetstore.index.serialisation.RowGroupIndexSerialiser;
 import uk.gov.gchq.gaffer.parquetstore.partitioner.GraphPartitioner;
+import uk.gov.gchq.gaffer.parquetstore.partitioner.Partition;
 import uk.gov.gchq.gaffer.parquetstore.utils.GafferGroupObjectConverter;
 import uk.gov.gchq.gaffer.parquetstore.utils.SchemaUtils;
+import uk.gov.gchq.gaffer.parquetstore.utils.SeedComparator;
 import uk.gov.gchq.koryphe.tuple.n.Tuple3;
 import uk.gov.gchq.koryphe.tuple.predicate.TupleAdaptedPredicate;
 
@@ -51,6 +57,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -90,18 +97,22 @@ public class QueryGenerator {
         // Stage 1: Use the view to identify all groups that might contain data
         final Set<String> allRelevantGroups = getRelevantGroups(getAllElements.getView());
 
-        // Stage 2: Create map from group to list of files containing data for that group
-        final Map<String, List<Path>> groupToPaths = new HashMap<>();
+        // Stage 2: Create map from group to list of files containing data for that group, all read from the same
+        // snapshot state so that the query is consistent if the snapshot is replaced whilst it is generated
+        final ParquetStore.SnapshotState state = store.getSnapshotState();
+        final Map<String, List<PathInfo>> groupToPaths = new HashMap<>();
         for (final String group : allRelevantGroups) {
-            groupToPaths.put(group, store.getFilesForGroup(group));
+            groupToPaths.put(group, getPathsForGroup(group, state));
         }
 
         // Stage 3: For each of the above groups, create a Parquet predicate from the view and directedType
         final Map<String, Pair<FilterPredicate, Boolean>> groupToPredicate = new HashMap<>();
+        final Map<String, FilterPredicate> groupToDirectedTypePredicate = new HashMap<>();
         for (final String group : groupToPaths.keySet()) {
             Pair<FilterPredicate, Boolean> filter = getPredicateFromView(getAllElements.getView(), group, schemaUtils.getEntityGroups().contains(group));
             if (schemaUtils.getEdgeGroups().contains(group)) {
                 final FilterPredicate directedTypeFilter = getPredicateFromDirectedType(getAllElements.getDirectedType());
+                groupToDirectedTypePredicate.put(group, directedTypeFilter);
                 if (null != filter) {
                     filter.setFirst(FilterPredicateUtils.and(filter.getFirst(), directedTypeFilter));
                 } else {
@@ -115,19 +126,74 @@ public class QueryGenerator {
 
         // Stage 4: Build a ParquetQuery by iterating through the map from group to list of Paths
         final ParquetQuery parquetQuery = new ParquetQuery();
-        for (final Map.Entry<String, List<Path>> entry : groupToPaths.entrySet()) {
-            for (final Path path : entry.getValue()) {
+        for (final Map.Entry<String, List<PathInfo>> entry : groupToPaths.entrySet()) {
+            for (final PathInfo pathInfo : entry.getValue()) {
                 final String group = entry.getKey();
-                final ParquetFileQuery fileQuery = groupToPredicate.containsKey(group) ?
-                        new ParquetFileQuery(path, groupToPredicate.get(group).getFirst(), groupToPredicate.get(group).getSecond())
-                                : new ParquetFileQuery(path, null, false);
-                parquetQuery.add(group, fileQuery);
+                if (groupToPredicate.containsKey(group)) {
+                    addFileQueries(parquetQuery, pathInfo, groupToPredicate.get(group).getFirst(),
+                            groupToPredicate.get(group).getSecond(), groupToDirectedTypePredicate.get(group));
+                } else {
+                    addFileQueries(parquetQuery, pathInfo, null, false, groupToDirectedTypePredicate.get(group));
+                }
             }
         }
         LOGGER.info("Created ParquetQuery of {}", parquetQuery);
         return parquetQuery;
     }
 
+    private List<PathInfo> getPathsForGroup(final String group, final ParquetStore.SnapshotState state) throws IOException {
+        final PathInfo.FILETYPE fileType = schemaUtils.getEntityGroups().contains(group) ? PathInfo.FILETYPE.ENTITY : PathInfo.FILETYPE.EDGE;
+        if (state.getDeltas().isEmpty()) {
+            return store.getFilesForGroup(state, group)
+                    .stream()
+                    .map(path -> new PathInfo(path, group, fileType))
+                    .collect(Collectors.toList());
+        }
+
+        // Some partitions may only have data in the deltas, so iterate through the partitions rather than the files
+        final List<PathInfo> paths = new ArrayList<>();
+        for (final Partition partition : state.getGraphPartitioner().getGroupPartitioner(group).getPartitions()) {
+            final Path path = new Path(state.getFile(group, partition.getPartitionId()));
+            final List<Path> deltaPaths = state.getDeltaFiles(group, partition.getPartitionId(), false);
+            if (!deltaPaths.isEmpty() || store.getFS().exists(path)) {
+                paths.add(new PathInfo(path, group, fileType, deltaPaths));
+            }
+        }
+        return paths;
+    }
+
+    private void addFileQueries(final ParquetQuery parquetQuery,
+                                final PathInfo pathInfo,
+                                final FilterPredicate filter,
+                                final boolean fullyApplied,
+                                final FilterPredicate identifierFilter) throws OperationException {
+        final String group = pathInfo.getGroup();
+        if (pathInfo.getDeltaPaths().isEmpty()) {
+            // The paths for seeds are found from the partitioner, so there may be no file for the partition. Any file
+            // that is missing once the query is running is then an error rather than an empty partition.
+            if (exists(pathInfo.getPath())) {
+                parquetQuery.add(group, new ParquetFileQuery(pathInfo.getPath(), filter, fullyApplied));
+            }
+        } else if (store.getSchema().getAggregatedGroups().contains(group)) {
+            // The file needs to be aggregated with its deltas before the view is applied, so only filter on the
+            // identifiers when reading the files. If the partition only has data in the deltas then the first delta,
+            // which is already aggregated, is read in place of the file.
+            if (exists(pathInfo.getPath())) {
+                parquetQuery.add(group, new ParquetFileQuery(pathInfo.getPath(), identifierFilter, false, pathInfo.getDeltaPaths()));
+            } else {
+                final List<Path> deltaPaths = pathInfo.getDeltaPaths();
+                parquetQuery.add(group, new ParquetFileQuery(deltaPaths.get(0), identifierFilter, false, deltaPaths.subList(1, deltaPaths.size())));
+            }
+        } else {
+            if (exists(pathInfo.getPath())) {
+                parquetQuery.add(group, new ParquetFileQuery(pathInfo.getPath(), filter, fullyApplied));
+            }
+            for (final Path deltaPath : pathInfo.getDeltaPaths()) {
+                parquetQuery.add(group, new ParquetFileQuery(deltaPath, filter, fullyApplied));
+            }
+        }
+    }
+
     private Set<String> getRelevantGroups(final View view) {
         final Set<String> allRelevantGroups = new HashSet<>();
         if (null != view) {
@@ -140,6 +206,14 @@ public class QueryGenerator {
         return allRelevantGroups;
     }
 
+    private boolean exists(final Path path) throws OperationException {
+        try {
+            return store.getFS().exists(path);
+        } catch (final IOException e) {
+            throw new OperationException("IOException checking whether file " + path + " exists", e);
+        }
+    }
+
     private ParquetQuery getPathsAndFiltersForGetElements(final GetElements getElements)
             throws SerialisationException, OperationException {
         final Iterable<? extends ElementId> seeds = getElements.getInput();
@@ -152,10 +226,12 @@ public class QueryGenerator {
 
         // Stage 2: For each of the above groups, create a Parquet predicate from the view and directedType
         final Map<String, Pair<FilterPredicate, Boolean>> groupToPredicate = new HashMap<>();
+        final Map<String, FilterPredicate> groupToDirectedTypePredicate = new HashMap<>();
         for (final String group : allRelevantGroups) {
             Pair<FilterPredicate, Boolean> filter = getPredicateFromView(getElements.getView(), group, schemaUtils.getEntityGroups().contains(group));
             if (schemaUtils.getEdgeGroups().contains(group)) {
                 final FilterPredicate directedTypeFilter = getPredicateFromDirectedType(getElements.getDirectedType());
+                groupToDirectedTypePredicate.put(group, directedTypeFilter);
                 filter.setFirst(FilterPredicateUtils.and(filter.getFirst(), directedTypeFilter));
             }
             groupToPredicate.put(group, filter);
@@ -174,9 +250,11 @@ public class QueryGenerator {
                 });
 
         // Stage 4: Convert stream of <group, ParquetElementSeed> pars to stream of tuples
-        // <group, ParquetElementSeed, List<PathInfo>>
+        // <group, ParquetElementSeed, List<PathInfo>>, all read from the same snapshot state so that the query is
+        // consistent if the snapshot is replaced whilst it is generated
+        final ParquetStore.SnapshotState state = store.getSnapshotState();
         final Stream<Tuple3<String, ParquetElementSeed, Set<PathInfo>>> groupSeedsAndPaths = groupAndSeeds
-                .map(pair -> getRelevantFiles(pair.getFirst(), pair.getSecond()));
+                .map(pair -> getRelevantFiles(pair.getFirst(), pair.getSecond(), state));
 
         // Stage 5: Create map from path to list of <group, reversed edge flag, Parquet seeds>
         // TODO: Currently this consumes the entire stream - need to do this in batches
@@ -199,22 +277,116 @@ public class QueryGenerator {
         final ParquetQuery parquetQuery = new ParquetQuery();
         for (final PathInfo pathInfo : pathToSeeds.keySet()) {
             List<Tuple3<String, Boolean, ParquetElementSeed>> seedList = pathToSeeds.get(pathInfo);
-            FilterPredicate filterPredicate = seedsToPredicate(seedList, includeIncomingOutgoingType, seedMatchingType);
-            if (null != filterPredicate) {
+            if (store.getProperties().getRowGroupIndex()) {
+                seedList = removeSeedsNotInFiles(pathInfo, seedList);
+                if (seedList.isEmpty()) {
+                    LOGGER.debug("Not querying {} as the row group indexes show that it does not contain any of the seeds", pathInfo);
+                    continue;
+                }
+            }
+            final FilterPredicate seedsPredicate = seedsToPredicate(seedList, includeIncomingOutgoingType, seedMatchingType);
+            if (null != seedsPredicate) {
+                FilterPredicate filterPredicate = seedsPredicate;
                 final String group = pathInfo.getGroup();
                 final Pair<FilterPredicate, Boolean> viewFilterPredicate = groupToPredicate.get(group);
                 if (null != viewFilterPredicate) {
                     // Put view predicate first as filter for checking whether it matches one of many seeds could be complex
                     filterPredicate = FilterPredicateUtils.and(viewFilterPredicate.getFirst(), filterPredicate);
                 }
-                final ParquetFileQuery fileQuery = new ParquetFileQuery(pathInfo.getPath(), filterPredicate, viewFilterPredicate.getSecond());
-                parquetQuery.add(group, fileQuery);
+                final FilterPredicate identifierPredicate = FilterPredicateUtils.and(groupToDirectedTypePredicate.get(group), seedsPredicate);
+                addFileQueries(parquetQuery, pathInfo, filterPredicate, viewFilterPredicate.getSecond(), identifierPredicate);
             }
         }
         LOGGER.info("Created ParquetQuery of {}", parquetQuery);
         return parquetQuery;
     }
 
+    /**
+     * Uses the {@link RowGroupIndex}es of the file and its deltas to remove the seeds that cannot be in any of them.
+     * The filter created from the remaining seeds is smaller, so that Parquet can skip the row groups that do not
+     * contain any of them using the statistics for the row groups. If a file does not have an index then all the
+     * seeds are returned.
+     *
+     * @param pathInfo the file and its deltas
+     * @param seedList the seeds for the file
+     * @return the seeds that might be in the file or its deltas.
+     */
+    private List<Tuple3<String, Boolean, ParquetElementSeed>> removeSeedsNotInFiles(
+            final PathInfo pathInfo,
+            final List<Tuple3<String, Boolean, ParquetElementSeed>> seedList) {
+        final FileSystem fs = store.getFS();
+        final List<Path> files = new ArrayList<>();
+        files.add(pathInfo.getPath());
+        files.addAll(pathInfo.getDeltaPaths());
+        final List<RowGroupIndex> indexes = new ArrayList<>();
+        try {
+            for (final Path file : files) {
+                final Path indexPath = RowGroupIndex.getIndexPath(file);
+                if (fs.exists(indexPath)) {
+                    try (final FSDataInputStream stream = fs.open(indexPath)) {
+                        indexes.add(new RowGroupIndexSerialiser().read(stream));
+                    }
+                } else if (fs.exists(file)) {
+                    return seedList;
+                }
+            }
+
+            // Sort the keys so that each index is merged with them rather than searched for each one
+            final boolean isEntityGroup = schemaUtils.getEntityGroups().contains(pathInfo.getGroup());
+            final Set<Object[]> keys = new TreeSet<>(new SeedComparator());
+            for (final Tuple3<String, Boolean, ParquetElementSeed> tuple : seedList) {
+                keys.addAll(getLeadingKeys(tuple.get2(), isEntityGroup));
+            }
+            final List<Object[]> sortedKeys = new ArrayList<>(keys);
+            final Set<Object[]> keysInFiles = new TreeSet<>(new SeedComparator());
+            for (final RowGroupIndex index : indexes) {
+                final boolean[] mightContain = index.mightContain(sortedKeys);
+                for (int i = 0; i < mightContain.length; i++) {
+                    if (mightContain[i]) {
+                        keysInFiles.add(sortedKeys.get(i));
+                    }
+                }
+            }
+
+            final List<Tuple3<String, Boolean, ParquetElementSeed>> seedsInFiles = new ArrayList<>();
+            for (final Tuple3<String, Boolean, ParquetElementSeed> tuple : seedList) {
+                final List<Object[]> seedKeys = getLeadingKeys(tuple.get2(), isEntityGroup);
+                if (seedKeys.isEmpty() || seedKeys.stream().anyMatch(keysInFiles::contains)) {
+                    seedsInFiles.add(tuple);
+                }
+            }
+            LOGGER.debug("Row group indexes for {} removed {} of {} seeds",
+                    pathInfo, seedList.size() - seedsInFiles.size(), seedList.size());
+            return seedsInFiles;
+        } catch (final IOException e) {
+            LOGGER.warn("IOException reading the row group indexes for {} - querying it with all the seeds", pathInfo, e);
+            return seedList;
+        }
+    }
+
+    /**
+     * Gets the values of the column that a file is sorted by first that a seed could match. Both the source and the
+     * destination of an edge seed could match the vertex of an entity. For edges, the source of an edge seed is
+     * matched against the source column of the edges and against the destination column of the reversed edges.
+     *
+     * @param seed          the seed
+     * @param isEntityGroup true if the file contains entities
+     * @return the keys that the seed could match.
+     */
+    private List<Object[]> getLeadingKeys(final ParquetElementSeed seed, final boolean isEntityGroup) {
+        final List<Object[]> keys = new ArrayList<>();
+        if (seed instanceof ParquetEntitySeed) {
+            keys.add(((ParquetEntitySeed) seed).getSeed());
+        } else {
+            final ParquetEdgeSeed edgeSeed = (ParquetEdgeSeed) seed;
+            keys.add(edgeSeed.getSource());
+            if (isEntityGroup && null != edgeSeed.getDestination()) {
+                keys.add(edgeSeed.getDestination());
+            }
+        }
+        return keys;
+    }
+
     // TODO raise issue saying that could optimise so that only the filters that have not been fully applied
     // are reapplied, and it should be able to return the fact that all filters have been applied
     // Either the result is:
@@ -288,13 +460,15 @@ public class QueryGenerator {
     }
 
     private Tuple3<String, ParquetElementSeed, Set<PathInfo>> getRelevantFiles(final String group,
-                                                                               final ParquetElementSeed seed) {
-        final Set<PathInfo> paths = getPathsForSeed(seed, group);
+                                                                               final ParquetElementSeed seed,
+                                                                               final ParquetStore.SnapshotState state) {
+        final Set<PathInfo> paths = getPathsForSeed(seed, group, state);
         return new Tuple3<>(group, seed, paths);
     }
 
-    private Set<PathInfo> getPathsForSeed(final ParquetElementSeed parquetElementSeed, final String group) {
-        final GraphPartitioner graphPartitioner = store.getGraphPartitioner();
+    private Set<PathInfo> getPathsForSeed(final ParquetElementSeed parquetElementSeed, final String group,
+                                          final ParquetStore.SnapshotState state) {
+        final GraphPartitioner graphPartitioner = state.getGraphPartitioner();
         final boolean isEntityGroup = store.getSchema().getEntityGroups().contains(group);
         final List<Object[]> seeds = new ArrayList<>();
         if (parquetElementSeed instanceof ParquetEntitySeed) {
@@ -321,10 +495,12 @@ public class QueryGenerator {
             final List<Integer> partitionIds = graphPartitioner.getGroupPartitioner(group).getPartitionIds(seed);
             LOGGER.debug("Partition ids for seed {} in group {}: {}", seed, group, partitionIds);
             final PathInfo.FILETYPE fileType = isEntityGroup ? PathInfo.FILETYPE.ENTITY : PathInfo.FILETYPE.EDGE;
-            partitionIds.forEach(id -> paths.add(new PathInfo(new Path(store.getFile(group, id)), group, fileType)));
+            partitionIds.forEach(id -> paths.add(new PathInfo(new Path(state.getFile(group, id)), group, fileType,
+                    state.getDeltaFiles(group, id, false))));
             if (!isEntityGroup && parquetElementSeed instanceof ParquetEntitySeed) {
                 final List<Integer> partitionIdsFromReversed = graphPartitioner.getGroupPartitionerForReversedEdges(group).getPartitionIds(seed);
-                partitionIdsFromReversed.forEach(id -> paths.add(new PathInfo(new Path(store.getFileForReversedEdges(group, id)), group, PathInfo.FILETYPE.REVERSED_EDGE)));
+                partitionIdsFromReversed.forEach(id -> paths.add(new PathInfo(new Path(state.getFileForReversedEdges(group, id)), group, PathInfo.FILETYPE.REVERSED_EDGE,
+                        state.getDeltaFiles(group, id, true))));
             }
         }
         LOGGER.debug("Returning {} paths for seed {} and group {} (paths are {})",
@@ -49,6 +49,13 @@ public class ParquetStorePropertiesTest {
         assertEquals((Integer) 9, props.getThreadsAvailable());
     }
 
+    @Test
+    public void retrievalQueueSizeTest() {
+        assertEquals((Integer) 10000, props.getRetrievalQueueSize());
+        props.setRetrievalQueueSize(500);
+        assertEquals((Integer) 500, props.getRetrievalQueueSize());
+    }
+
     @Test
     public void dataDirTest() {
         assertEquals(null, props.getDataDir());
@@ -97,6 +104,33 @@ public class ParquetStorePropertiesTest {
         assertEquals(CompressionCodecName.UNCOMPRESSED, props.getCompressionCodecName());
     }
 
+    @Test
+    public void addElementsIncrementalTest() {
+        assertEquals(false, props.getAddElementsIncremental());
+        props.setAddElementsIncremental(true);
+        assertEquals(true, props.getAddElementsIncremental());
+    }
+
+    @Test
+    public void compactionTest() {
+        assertEquals(10, props.getCompactionMaxDeltas());
+        assertEquals(true, props.getCompactionBackground());
+        props.setCompactionMaxDeltas(2);
+        props.setCompactionBackground(false);
+        assertEquals(2, props.getCompactionMaxDeltas());
+        assertEquals(false, props.getCompactionBackground());
+    }
+
+    @Test
+    public void rowGroupIndexTest() {
+        assertEquals(true, props.getRowGroupIndex());
+        assertEquals(0.01D, props.getRowGroupIndexFalsePositiveRate(), 0.0D);
+        props.setRowGroupIndex(false);
+        props.setRowGroupIndexFalsePositiveRate(0.05D);
+        assertEquals(false, props.getRowGroupIndex());
+        assertEquals(0.05D, props.getRowGroupIndexFalsePositiveRate(), 0.0D);
+    }
+
     @Test
     public void shouldMergeParquetJsonModules() {
         // Given
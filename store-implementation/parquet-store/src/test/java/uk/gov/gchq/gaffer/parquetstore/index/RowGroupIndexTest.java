@@ -0,0 +1,124 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.parquetstore.index;
+
+import org.apache.hadoop.fs.Path;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RowGroupIndexTest {
+
+    @Test
+    public void shouldGetIndexPath() {
+        // Given
+        final Path file = new Path("/data/snapshot=1000/graph/group=BasicEntity/partition-000000.parquet");
+
+        // When
+        final Path indexPath = RowGroupIndex.getIndexPath(file);
+
+        // Then
+        assertEquals(new Path("/data/snapshot=1000/graph/group=BasicEntity/_partition-000000.parquet.index"), indexPath);
+    }
+
+    @Test
+    public void shouldSkipEmptyRowGroupsAndRecordMinAndMax() throws IOException {
+        // When
+        final RowGroupIndex index = createIndex();
+
+        // Then
+        assertEquals(2, index.getRowGroups().size());
+        assertEquals(3L, index.getRowGroups().get(0).getRowCount());
+        assertArrayEquals(new Object[]{1L}, index.getRowGroups().get(0).getMin());
+        assertArrayEquals(new Object[]{5L}, index.getRowGroups().get(0).getMax());
+        assertArrayEquals(new Object[]{10L}, index.getRowGroups().get(1).getMin());
+        assertArrayEquals(new Object[]{20L}, index.getRowGroups().get(1).getMax());
+    }
+
+    @Test
+    public void shouldFindAllKeysThatWereAdded() throws IOException {
+        // Given
+        final RowGroupIndex index = createIndex();
+        final List<Object[]> keys = Arrays.asList(new Object[]{1L}, new Object[]{3L}, new Object[]{5L},
+                new Object[]{10L}, new Object[]{20L});
+
+        // When
+        final boolean[] mightContain = index.mightContain(keys);
+
+        // Then
+        assertArrayEquals(new boolean[]{true, true, true, true, true}, mightContain);
+    }
+
+    @Test
+    public void shouldNotFindKeysOutsideTheRangesOfTheRowGroups() throws IOException {
+        // Given
+        final RowGroupIndex index = createIndex();
+        final List<Object[]> keys = Arrays.asList(new Object[]{0L}, new Object[]{7L}, new Object[]{21L});
+
+        // When
+        final boolean[] mightContain = index.mightContain(keys);
+
+        // Then
+        assertArrayEquals(new boolean[]{false, false, false}, mightContain);
+    }
+
+    @Test
+    public void shouldOnlyHaveFalsePositivesAtAboutTheFalsePositiveRate() throws IOException {
+        // Given
+        final RowGroupIndex.RowGroupBuilder builder = new RowGroupIndex.RowGroupBuilder(1000L, 0.01D);
+        for (long i = 0; i < 2000L; i += 2) {
+            builder.add(new Object[]{i});
+        }
+        final RowGroupIndex index = RowGroupIndex.fromBuilders(Arrays.asList(builder));
+        final List<Object[]> keys = new ArrayList<>();
+        for (long i = 1; i < 2000L; i += 2) {
+            keys.add(new Object[]{i});
+        }
+
+        // When
+        final boolean[] mightContain = index.mightContain(keys);
+
+        // Then
+        int falsePositives = 0;
+        for (final boolean result : mightContain) {
+            if (result) {
+                falsePositives++;
+            }
+        }
+        assertTrue("Expected about 10 false positives but found " + falsePositives, falsePositives < 50);
+    }
+
+    private static RowGroupIndex createIndex() throws IOException {
+        final List<RowGroupIndex.RowGroupBuilder> builders = new ArrayList<>();
+        builders.add(new RowGroupIndex.RowGroupBuilder(3L, 0.01D)
+                .add(new Object[]{1L})
+                .add(new Object[]{3L})
+                .add(new Object[]{5L}));
+        builders.add(new RowGroupIndex.RowGroupBuilder(0L, 0.01D));
+        builders.add(new RowGroupIndex.RowGroupBuilder(2L, 0.01D)
+                .add(new Object[]{10L})
+                .add(new Object[]{20L}));
+        return RowGroupIndex.fromBuilders(builders);
+    }
+}
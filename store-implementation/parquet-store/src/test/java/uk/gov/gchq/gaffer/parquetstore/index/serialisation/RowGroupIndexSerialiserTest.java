@@ -0,0 +1,74 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.parquetstore.index.serialisation;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import uk.gov.gchq.gaffer.commonutil.CommonTestConstants;
+import uk.gov.gchq.gaffer.parquetstore.index.RowGroupIndex;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class RowGroupIndexSerialiserTest {
+
+    @Rule
+    public final TemporaryFolder testFolder = new TemporaryFolder(CommonTestConstants.TMP_DIRECTORY);
+
+    @Test
+    public void shouldSerialiseAndDeserialiseRowGroupIndex() throws IOException {
+        // Given
+        final RowGroupIndex index = RowGroupIndex.fromBuilders(Arrays.asList(
+                new RowGroupIndex.RowGroupBuilder(2L, 0.01D)
+                        .add(new Object[]{"A"})
+                        .add(new Object[]{"B"}),
+                new RowGroupIndex.RowGroupBuilder(1L, 0.01D)
+                        .add(new Object[]{"C"})));
+        final RowGroupIndexSerialiser serialiser = new RowGroupIndexSerialiser();
+
+        // When
+        final String filename = testFolder.newFolder().getAbsolutePath() + "/test";
+        final DataOutputStream dos = new DataOutputStream(new FileOutputStream(filename));
+        serialiser.write(index, dos);
+        dos.close();
+        final DataInputStream dis = new DataInputStream(new FileInputStream(filename));
+        final RowGroupIndex readIndex = serialiser.read(dis);
+        dis.close();
+
+        // Then
+        assertEquals(2, readIndex.getRowGroups().size());
+        for (int i = 0; i < 2; i++) {
+            final RowGroupIndex.RowGroup expected = index.getRowGroups().get(i);
+            final RowGroupIndex.RowGroup actual = readIndex.getRowGroups().get(i);
+            assertEquals(expected.getRowCount(), actual.getRowCount());
+            assertArrayEquals(expected.getMin(), actual.getMin());
+            assertArrayEquals(expected.getMax(), actual.getMax());
+        }
+        final List<Object[]> keys = Arrays.asList(new Object[]{"A"}, new Object[]{"B"}, new Object[]{"C"}, new Object[]{"D"});
+        assertArrayEquals(new boolean[]{true, true, true, false}, readIndex.mightContain(keys));
+    }
+}
@@ -16,6 +16,7 @@
 
 package uk.gov.gchq.gaffer.parquetstore.operation.handler;
 
+import com.google.common.collect.Lists;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -36,6 +37,7 @@ import uk.gov.gchq.gaffer.graph.Graph;
 import uk.gov.gchq.gaffer.integration.StandaloneIT;
 import uk.gov.gchq.gaffer.operation.OperationException;
 import uk.gov.gchq.gaffer.operation.SeedMatching;
+import uk.gov.gchq.gaffer.operation.data.EdgeSeed;
 import uk.gov.gchq.gaffer.operation.data.ElementSeed;
 import uk.gov.gchq.gaffer.operation.data.EntitySeed;
 import uk.gov.gchq.gaffer.operation.graph.SeededGraphFilters;
@@ -43,16 +45,21 @@ import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
 import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
 import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
 import uk.gov.gchq.gaffer.parquetstore.ParquetStoreProperties;
+import uk.gov.gchq.gaffer.parquetstore.index.RowGroupIndex;
 import uk.gov.gchq.gaffer.parquetstore.testutils.TestUtils;
 import uk.gov.gchq.gaffer.store.StoreProperties;
 import uk.gov.gchq.gaffer.user.User;
 import uk.gov.gchq.koryphe.impl.predicate.IsEqual;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -206,6 +213,29 @@ public abstract class AbstractOperationsTest extends StandaloneIT {
         ElementUtil.assertElementEquals(getResultsForGetAllElementsTest(), results);
     }
 
+    @Test(timeout = 60000)
+    public void shouldGetAllElementsWithTwoIteratorsOpenAtOnce() throws IOException, OperationException {
+        // Given - a single retrieval thread and a queue that is smaller than the number of elements
+        final ParquetStoreProperties storeProperties = TestUtils.getParquetStoreProperties(testFolder);
+        storeProperties.setThreadsAvailable(1);
+        storeProperties.setRetrievalQueueSize(2);
+        final Graph graph = createGraph(storeProperties);
+        graph.execute(new AddElements.Builder().input(getInputDataForGetAllElementsTest()).build(), user);
+        final CloseableIterable<? extends Element> results1 = graph.execute(new GetAllElements.Builder().build(), user);
+        final CloseableIterable<? extends Element> results2 = graph.execute(new GetAllElements.Builder().build(), user);
+
+        // When - the second results are read whilst the first iterator is still open
+        final Iterator<? extends Element> iterator1 = results1.iterator();
+        final List<Element> elements1 = new ArrayList<>();
+        elements1.add(iterator1.next());
+        final List<Element> elements2 = Lists.newArrayList(results2);
+        iterator1.forEachRemaining(elements1::add);
+
+        // Then
+        ElementUtil.assertElementEquals(getResultsForGetAllElementsTest(), elements1);
+        ElementUtil.assertElementEquals(getResultsForGetAllElementsTest(), elements2);
+    }
+
     @Test
     public void shouldGetAllElementsOnGraphRecreatedFromExistingGraph() throws OperationException {
         // Given
@@ -407,6 +437,52 @@ public abstract class AbstractOperationsTest extends StandaloneIT {
         ElementUtil.assertElementEquals(getResultsForGetElementsWithInOutTypeIncomingTest(), results);
     }
 
+    @Test
+    public void shouldGetTheSameElementsWithAndWithoutRowGroupIndex() throws Exception {
+        // Given - small row groups so that the index is used to skip some of them
+        final List<Element> elements = getInputDataForGetAllElementsTest();
+        final ParquetStoreProperties indexedProperties = (ParquetStoreProperties) createStoreProperties();
+        indexedProperties.setRowGroupIndex(true);
+        indexedProperties.setRowGroupSize(1024);
+        final Graph indexedGraph = createGraph(indexedProperties);
+        indexedGraph.execute(new AddElements.Builder().input(elements).build(), user);
+        final ParquetStoreProperties properties = (ParquetStoreProperties) createStoreProperties();
+        properties.setRowGroupIndex(false);
+        properties.setRowGroupSize(1024);
+        properties.setDataDir(testFolder.newFolder("noRowGroupIndex").getAbsolutePath());
+        final Graph graph = createGraph(properties);
+        graph.execute(new AddElements.Builder().input(elements).build(), user);
+
+        final List<ElementSeed> seeds = new ArrayList<>(getSeeds());
+        seeds.addAll(getSeedsThatWontAppear());
+        for (final ElementSeed seed : getSeeds()) {
+            if (seed instanceof EdgeSeed) {
+                final EdgeSeed edgeSeed = (EdgeSeed) seed;
+                seeds.add(new EdgeSeed(edgeSeed.getDestination(), edgeSeed.getSource(), edgeSeed.getDirectedType()));
+            }
+        }
+
+        // Then
+        assertTrue(0 < countIndexFiles(indexedProperties));
+        assertEquals(0, countIndexFiles(properties));
+        for (final SeedMatching.SeedMatchingType seedMatching : SeedMatching.SeedMatchingType.values()) {
+            for (final SeededGraphFilters.IncludeIncomingOutgoingType inOutType : SeededGraphFilters.IncludeIncomingOutgoingType.values()) {
+                // When
+                final GetElements getElements = new GetElements.Builder()
+                        .input(seeds)
+                        .seedMatching(seedMatching)
+                        .inOutType(inOutType)
+                        .build();
+                final List<Element> expected = Lists.newArrayList(graph.execute(getElements, user));
+                final CloseableIterable<? extends Element> results = indexedGraph.execute(getElements, user);
+
+                // Then
+                assertFalse(expected.isEmpty());
+                ElementUtil.assertElementEquals(expected, results);
+            }
+        }
+    }
+
     @Test
     public void shouldDeduplicateEdgeWhenSrcAndDstAreEqualTest() throws OperationException {
         // Given
@@ -435,4 +511,10 @@ public abstract class AbstractOperationsTest extends StandaloneIT {
         assertFalse(resultsIterator.hasNext());
         results.close();
     }
+
+    private static long countIndexFiles(final ParquetStoreProperties properties) throws IOException {
+        try (final Stream<Path> files = Files.walk(Paths.get(properties.getDataDir()))) {
+            return files.filter(file -> file.getFileName().toString().endsWith(RowGroupIndex.FILE_SUFFIX)).count();
+        }
+    }
 }
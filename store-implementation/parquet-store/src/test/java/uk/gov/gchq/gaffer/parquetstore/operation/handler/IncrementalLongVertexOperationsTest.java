@@ -0,0 +1,172 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.parquetstore.operation.handler;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.util.ElementUtil;
+import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
+import uk.gov.gchq.gaffer.parquetstore.ParquetStore;
+import uk.gov.gchq.gaffer.parquetstore.ParquetStoreProperties;
+import uk.gov.gchq.gaffer.store.StoreProperties;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the {@link LongVertexOperationsTest}s with elements added as deltas, which are merged with the snapshot when
+ * the store is queried.
+ */
+public class IncrementalLongVertexOperationsTest extends LongVertexOperationsTest {
+
+    @Override
+    public StoreProperties createStoreProperties() {
+        final ParquetStoreProperties properties = (ParquetStoreProperties) super.createStoreProperties();
+        properties.setAddElementsIncremental(true);
+        properties.setCompactionMaxDeltas(0);
+        return properties;
+    }
+
+    @Test
+    public void shouldAddElementsAsDeltas() throws OperationException {
+        // Given
+        final Graph graph = createGraph();
+        final List<Element> elements = getInputDataForGetAllElementsTest();
+
+        // When
+        graph.execute(new AddElements.Builder().input(elements).build(), user);
+        graph.execute(new AddElements.Builder().input(elements).build(), user);
+
+        // Then
+        assertEquals(2, getDeltaDirectories(graph).length);
+    }
+
+    @Test
+    public void shouldCompactDeltasWhenMaxDeltasIsReached() throws OperationException {
+        // Given
+        final ParquetStoreProperties properties = (ParquetStoreProperties) createStoreProperties();
+        properties.setCompactionMaxDeltas(2);
+        properties.setCompactionBackground(false);
+        final Graph graph = createGraph(properties);
+        final List<Element> elements = getInputDataForGetAllElementsTest();
+        graph.execute(new AddElements.Builder().input(elements).build(), user);
+        assertEquals(1, getDeltaDirectories(graph).length);
+
+        // When
+        graph.execute(new AddElements.Builder().input(elements).build(), user);
+
+        // Then
+        assertEquals(0, getDeltaDirectories(graph).length);
+        final CloseableIterable<? extends Element> results = graph.execute(new GetAllElements.Builder().build(), user);
+        ElementUtil.assertElementEquals(getResultsForGetAllElementsAfterTwoAdds(), results);
+    }
+
+    @Test
+    public void shouldGetTheSameElementsFromDeltasAsFromASnapshot() throws Exception {
+        // Given
+        final Graph graph = createGraph();
+        final List<Element> elements = getInputDataForGetAllElementsTest();
+        graph.execute(new AddElements.Builder().input(elements).build(), user);
+        graph.execute(new AddElements.Builder().input(elements).build(), user);
+        assertEquals(2, getDeltaDirectories(graph).length);
+
+        // When
+        final CloseableIterable<? extends Element> results = graph.execute(new GetElements.Builder()
+                .input(getSeeds())
+                .view(getView())
+                .build(), user);
+
+        // Then
+        final ParquetStoreProperties properties = (ParquetStoreProperties) createStoreProperties();
+        properties.setAddElementsIncremental(false);
+        properties.setDataDir(testFolder.newFolder("snapshotOnly").getAbsolutePath());
+        final Graph snapshotGraph = createGraph(properties);
+        snapshotGraph.execute(new AddElements.Builder().input(elements).build(), user);
+        snapshotGraph.execute(new AddElements.Builder().input(elements).build(), user);
+        ElementUtil.assertElementEquals(snapshotGraph.execute(new GetElements.Builder()
+                .input(getSeeds())
+                .view(getView())
+                .build(), user), results);
+    }
+
+    @Test
+    public void shouldGetConsistentResultsWhilstDeltasAreCompactedInTheBackground() throws Exception {
+        // Given
+        final List<Element> elements = getInputDataForGetAllElementsTest();
+        final ParquetStoreProperties snapshotProperties = (ParquetStoreProperties) createStoreProperties();
+        snapshotProperties.setAddElementsIncremental(false);
+        snapshotProperties.setDataDir(testFolder.newFolder("snapshotOnly").getAbsolutePath());
+        final Graph snapshotGraph = createGraph(snapshotProperties);
+        snapshotGraph.execute(new AddElements.Builder().input(elements).build(), user);
+        snapshotGraph.execute(new AddElements.Builder().input(elements).build(), user);
+        final List<Element> expectedSeededResults = Lists.newArrayList(snapshotGraph.execute(new GetElements.Builder()
+                .input(getSeeds())
+                .view(getView())
+                .build(), user));
+
+        final ParquetStoreProperties properties = (ParquetStoreProperties) createStoreProperties();
+        properties.setCompactionMaxDeltas(2);
+        properties.setCompactionBackground(true);
+        final Graph graph = createGraph(properties);
+        graph.execute(new AddElements.Builder().input(elements).build(), user);
+        final int snapshotsBefore = getSnapshotDirectories(graph).length;
+
+        // When - the second delta starts a compaction in the background
+        graph.execute(new AddElements.Builder().input(elements).build(), user);
+
+        // Then - queries run whilst the compaction replaces the snapshot never read the new snapshot with the old deltas
+        final long deadline = System.currentTimeMillis() + 60000L;
+        boolean compacted = false;
+        while (!compacted && System.currentTimeMillis() < deadline) {
+            compacted = getSnapshotDirectories(graph).length > snapshotsBefore;
+            ElementUtil.assertElementEquals(getResultsForGetAllElementsAfterTwoAdds(),
+                    graph.execute(new GetAllElements.Builder().build(), user));
+            ElementUtil.assertElementEquals(expectedSeededResults, graph.execute(new GetElements.Builder()
+                    .input(getSeeds())
+                    .view(getView())
+                    .build(), user));
+        }
+        assertTrue("The deltas should have been compacted", compacted);
+    }
+
+    private static File[] getSnapshotDirectories(final Graph graph) {
+        final File dataDir = new File(((ParquetStoreProperties) graph.getStoreProperties()).getDataDir());
+        return dataDir.listFiles(file -> file.getName().startsWith(ParquetStore.SNAPSHOT + "=") && !file.getName().endsWith("-tmp"));
+    }
+
+    private static File[] getDeltaDirectories(final Graph graph) {
+        final File dataDir = new File(((ParquetStoreProperties) graph.getStoreProperties()).getDataDir());
+        final File[] snapshots = dataDir.listFiles(file -> file.getName().startsWith(ParquetStore.SNAPSHOT + "="));
+        assertTrue(null != snapshots && 0 < snapshots.length);
+        final File latestSnapshot = Arrays.stream(snapshots)
+                .max(Comparator.comparingLong(file -> Long.parseLong(file.getName().split("=")[1])))
+                .get();
+        return latestSnapshot.listFiles(file -> file.getName().startsWith(ParquetStore.DELTA + "="));
+    }
+}
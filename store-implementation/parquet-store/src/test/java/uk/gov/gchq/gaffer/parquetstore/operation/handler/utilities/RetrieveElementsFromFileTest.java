@@ -0,0 +1,179 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.parquetstore.operation.handler.utilities;
+
+import org.apache.hadoop.fs.Path;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import uk.gov.gchq.gaffer.commonutil.CommonTestConstants;
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
+import uk.gov.gchq.gaffer.parquetstore.ParquetStore;
+import uk.gov.gchq.gaffer.parquetstore.ParquetStoreProperties;
+import uk.gov.gchq.gaffer.parquetstore.operation.handler.AddElementsHandler;
+import uk.gov.gchq.gaffer.parquetstore.testutils.TestUtils;
+import uk.gov.gchq.gaffer.parquetstore.utils.AggregateAndSortDataTest;
+import uk.gov.gchq.gaffer.store.Context;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.user.User;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RetrieveElementsFromFileTest {
+    @Rule
+    public final TemporaryFolder testFolder = new TemporaryFolder(CommonTestConstants.TMP_DIRECTORY);
+
+    private Schema schema;
+    private Path groupPath;
+
+    @Before
+    public void setUp() throws Exception {
+        schema = TestUtils.gafferSchema("schemaUsingLongVertexType");
+        final ParquetStoreProperties storeProperties = new ParquetStoreProperties();
+        final String testDir = testFolder.newFolder().getPath();
+        storeProperties.setDataDir(testDir + "/data");
+        storeProperties.setTempFilesDir(testDir + "/tmpdata");
+        final ParquetStore store = (ParquetStore) ParquetStore.createStore("graphId", schema, storeProperties);
+        new AddElementsHandler().doOperation(new AddElements.Builder()
+                .input(AggregateAndSortDataTest.generateData())
+                .build(), new Context(), store);
+        final Path snapshotPath = new Path(testDir + "/data", ParquetStore.getSnapshotPath(store.getLatestSnapshot()));
+        groupPath = new Path(snapshotPath, ParquetStore.getGroupSubDir(TestGroups.ENTITY, false));
+    }
+
+    @Test
+    public void shouldReturnExceptionWhenFileCannotBeRead() throws Exception {
+        // Given
+        final BlockingQueue<Element> queue = new ArrayBlockingQueue<>(100);
+        final RetrieveElementsFromFile task = createTask(new Path(groupPath, ParquetStore.getFile(1)), queue, () -> false);
+
+        // When
+        final OperationException result = task.call();
+
+        // Then
+        assertNotNull(result);
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void shouldReturnExceptionWhenDeltaFileCannotBeRead() throws Exception {
+        // Given - a delta file that has been removed, for example by a compaction
+        final BlockingQueue<Element> queue = new ArrayBlockingQueue<>(100);
+        final RetrieveElementsFromFile task = createTask(new Path(groupPath, ParquetStore.getFile(0)),
+                Collections.singletonList(new Path(groupPath, ParquetStore.getFile(1))), queue, () -> false);
+
+        // When
+        final OperationException result = task.call();
+
+        // Then
+        assertNotNull(result);
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void shouldAddAllElementsInFileToQueue() throws Exception {
+        // Given
+        final BlockingQueue<Element> queue = new ArrayBlockingQueue<>(100);
+        final RetrieveElementsFromFile task = createTask(new Path(groupPath, ParquetStore.getFile(0)), queue, () -> false);
+
+        // When
+        final OperationException result = task.call();
+
+        // Then
+        assertNull(result);
+        assertEquals(40, queue.size());
+    }
+
+    @Test
+    public void shouldFinishWhenQueueIsFullAndCancelled() throws Exception {
+        // Given
+        final BlockingQueue<Element> queue = new ArrayBlockingQueue<>(1);
+        final RetrieveElementsFromFile task = createTask(new Path(groupPath, ParquetStore.getFile(0)), queue, () -> true);
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+
+        try {
+            // When
+            final OperationException result = executorService.submit(task).get(10, TimeUnit.SECONDS);
+
+            // Then
+            assertNull(result);
+            assertTrue(task.isFinished());
+            assertEquals(1, queue.size());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldReturnWhenQueueIsFullAndContinueWhenCalledAgain() throws Exception {
+        // Given
+        final BlockingQueue<Element> queue = new ArrayBlockingQueue<>(10);
+        final RetrieveElementsFromFile task = createTask(new Path(groupPath, ParquetStore.getFile(0)), queue, () -> false);
+        final List<Element> elements = new ArrayList<>();
+
+        // When
+        final OperationException result = task.call();
+
+        // Then
+        assertNull(result);
+        assertFalse(task.isFinished());
+        assertEquals(10, queue.size());
+
+        // When
+        while (!task.isFinished()) {
+            queue.drainTo(elements);
+            assertNull(task.call());
+        }
+        queue.drainTo(elements);
+
+        // Then
+        assertEquals(40, elements.size());
+        assertEquals(40, new HashSet<>(elements).size());
+    }
+
+    private RetrieveElementsFromFile createTask(final Path file, final BlockingQueue<Element> queue,
+                                                final BooleanSupplier cancelled) {
+        return createTask(file, Collections.emptyList(), queue, cancelled);
+    }
+
+    private RetrieveElementsFromFile createTask(final Path file, final List<Path> deltaFiles,
+                                                final BlockingQueue<Element> queue, final BooleanSupplier cancelled) {
+        return new RetrieveElementsFromFile(file, deltaFiles, null, schema, queue, false, true,
+                new View.Builder().entity(TestGroups.ENTITY).build(), new User(), cancelled);
+    }
+}
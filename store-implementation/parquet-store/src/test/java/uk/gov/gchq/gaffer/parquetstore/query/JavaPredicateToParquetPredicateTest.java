@@ -0,0 +1,115 @@
+/*
+ * Copyright 2020 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.parquetstore.query;
+
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.parquetstore.ParquetStore;
+import uk.gov.gchq.gaffer.parquetstore.testutils.TestUtils;
+import uk.gov.gchq.gaffer.parquetstore.utils.SchemaUtils;
+import uk.gov.gchq.koryphe.impl.predicate.IsEqual;
+import uk.gov.gchq.koryphe.impl.predicate.IsLessThan;
+import uk.gov.gchq.koryphe.impl.predicate.IsMoreThan;
+import uk.gov.gchq.koryphe.impl.predicate.Not;
+import uk.gov.gchq.koryphe.impl.predicate.Or;
+
+import java.util.function.Predicate;
+
+import static org.apache.parquet.filter2.predicate.FilterApi.gt;
+import static org.apache.parquet.filter2.predicate.FilterApi.longColumn;
+import static org.apache.parquet.filter2.predicate.FilterApi.lt;
+import static org.apache.parquet.filter2.predicate.FilterApi.not;
+import static org.apache.parquet.filter2.predicate.FilterApi.or;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class JavaPredicateToParquetPredicateTest {
+    private final SchemaUtils schemaUtils = new SchemaUtils(TestUtils.gafferSchema("schemaUsingLongVertexType"));
+
+    @Test
+    public void shouldConvertOrOfSupportedPredicates() throws SerialisationException {
+        // Given
+        final Predicate predicate = new Or.Builder()
+                .select(0)
+                .execute(new IsLessThan(2L))
+                .select(1)
+                .execute(new IsMoreThan(10L))
+                .build();
+        final JavaPredicateToParquetPredicate converter = createConverter(predicate, ParquetStore.VERTEX, "long");
+
+        // When
+        final FilterPredicate result = converter.getParquetPredicate();
+
+        // Then
+        assertEquals(or(lt(longColumn(ParquetStore.VERTEX), 2L), gt(longColumn("long"), 10L)), result);
+        assertTrue(converter.isFullyApplied());
+    }
+
+    @Test
+    public void shouldNotFilterWhenAComponentOfAnOrCannotBeConverted() throws SerialisationException {
+        // Given
+        final Predicate predicate = new Or.Builder()
+                .select(0)
+                .execute(new Not<>(new IsEqual(TestUtils.MERGED_FREQMAP)))
+                .select(1)
+                .execute(new IsLessThan(2L, true))
+                .build();
+        final JavaPredicateToParquetPredicate converter = createConverter(predicate, "freqMap", ParquetStore.VERTEX);
+
+        // When
+        final FilterPredicate result = converter.getParquetPredicate();
+
+        // Then
+        assertNull(result);
+        assertFalse(converter.isFullyApplied());
+    }
+
+    @Test
+    public void shouldConvertNotOfSupportedPredicate() throws SerialisationException {
+        // Given
+        final JavaPredicateToParquetPredicate converter = createConverter(new Not<>(new IsLessThan(2L)), ParquetStore.VERTEX);
+
+        // When
+        final FilterPredicate result = converter.getParquetPredicate();
+
+        // Then
+        assertEquals(not(lt(longColumn(ParquetStore.VERTEX), 2L)), result);
+        assertTrue(converter.isFullyApplied());
+    }
+
+    @Test
+    public void shouldNotFilterWhenTheNegatedPredicateCannotBeConverted() throws SerialisationException {
+        // Given
+        final JavaPredicateToParquetPredicate converter = createConverter(new Not<>(new IsEqual(TestUtils.MERGED_FREQMAP)), "freqMap");
+
+        // When
+        final FilterPredicate result = converter.getParquetPredicate();
+
+        // Then
+        assertNull(result);
+        assertFalse(converter.isFullyApplied());
+    }
+
+    private JavaPredicateToParquetPredicate createConverter(final Predicate predicate, final String... selection) {
+        return new JavaPredicateToParquetPredicate(schemaUtils, predicate, selection, TestGroups.ENTITY);
+    }
+}